@@ -38,14 +38,44 @@ public class ActionParser {
         Pattern.compile("attack\\s+([\\w]+)", 
             Pattern.CASE_INSENSITIVE);
     
+    private static final Pattern COORD_PATTERN = 
+        Pattern.compile("([-\\d.]+)[,\\s]+([-\\d.]+)");
+    
     /**
      * Parse LLM response into Action
      * @param response The raw text response from LLM
      * @return Parsed Action object, or Idle if parsing fails
      */
     public static Action parse(String response) {
+        Action action = tryParse(response);
+        return action != null ? action : new Action.Idle();
+    }
+    
+    /**
+     * Parse a response that is still streaming in.
+     * Only lines already terminated by a newline are considered, so a token
+     * boundary can never cut an argument short ("Mine oak" vs "Mine oak_log").
+     * @param partial Text received so far
+     * @return The recognised action, or null if no complete action is present yet
+     */
+    public static Action parseComplete(String partial) {
+        if (partial == null) {
+            return null;
+        }
+        int end = partial.lastIndexOf('\n');
+        if (end <= 0) {
+            return null;
+        }
+        return tryParse(partial.substring(0, end));
+    }
+    
+    /**
+     * Parse LLM response into Action
+     * @return Parsed Action object, or null if nothing recognisable was found
+     */
+    private static Action tryParse(String response) {
         if (response == null || response.trim().isEmpty()) {
-            return new Action.Idle();
+            return null;
         }
         
         String trimmed = response.trim();
@@ -134,8 +164,7 @@ public class ActionParser {
         }
         
         // If response contains coordinates without "walk to", try to extract them
-        Pattern coordPattern = Pattern.compile("([-\\d.]+)[,\\s]+([-\\d.]+)");
-        Matcher coordMatcher = coordPattern.matcher(trimmed);
+        Matcher coordMatcher = COORD_PATTERN.matcher(trimmed);
         if (coordMatcher.find()) {
             try {
                 double x = Double.parseDouble(coordMatcher.group(1));
@@ -146,8 +175,8 @@ public class ActionParser {
             }
         }
         
-        // Default to IDLE if we can't parse anything
-        return new Action.Idle();
+        // Nothing recognisable; parse() defaults to IDLE
+        return null;
     }
     
     /**
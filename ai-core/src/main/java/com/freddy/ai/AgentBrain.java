@@ -3,7 +3,16 @@ package com.freddy.ai;
 import com.freddy.common.telemetry.FreddySnapshot;
 import com.freddy.common.TelemetryClient;
 import com.freddy.llm.LLMClient;
+import com.freddy.llm.LLMPriority;
+import com.freddy.llm.LLMSession;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 /**
@@ -19,6 +28,9 @@ public class AgentBrain {
     private String currentAction = "Waiting";
     private int idleStreak = 0;
     private int wanderStreak = 0;
+    private boolean streaming = false;
+    private DecisionCache decisionCache;
+    private LLMSession session;
 
     public AgentBrain(String npcName) {
         this.npcName = npcName;
@@ -35,20 +47,54 @@ public class AgentBrain {
     
     /**
      * Think with telemetry support
+     *
+     * @return The next action, or null when a newer tick superseded this request
+     *         before it was sent (the caller should skip the tick)
      */
     public Action think(Observation observation, TelemetryClient telemetry) {
         try {
+            // Reuse the last decision for an equivalent situation
+            if (decisionCache != null) {
+                DecisionCache.Decision cached = decisionCache.get(observation);
+                sendCacheStats(telemetry);
+                if (cached != null) {
+                    logger.info("[Brain] Decision cache hit: " + cached.action());
+                    currentThought = summarize(cached.response());
+                    return refineAction(observation, cached.action());
+                }
+            }
+
             // Build prompt with context
             String prompt = promptBuilder.buildPrompt(observation);
             
             // Send prompt to dashboard
             if (telemetry != null && telemetry.isConnected()) {
                 telemetry.sendThinking(prompt);
+                telemetry.send("BRAIN_PROMPT:" + promptBuilder.formatStats());
             }
             
-            // Ask LLM what to do
+            // Ask LLM what to do. A continuing session has already seen the fixed prefix.
             logger.info("[Brain] Asking LLM for decision...");
-            String response = LLMClient.ask(prompt);
+            String request = prompt;
+            if (session != null && session.hasContext() && prompt.startsWith(promptBuilder.getSystemPrefix())) {
+                request = prompt.substring(promptBuilder.getSystemPrefix().length());
+            }
+            AtomicReference<Action> earlyAction = new AtomicReference<>();
+            String response;
+            try {
+                response = streaming
+                    ? askUntilAction(request, earlyAction)
+                    : (session != null ? awaitReply(session.askAsync(request)) : LLMClient.ask(request, LLMPriority.THINKING));
+            } catch (CancellationException | CompletionException e) {
+                if (isSuperseded(e)) {
+                    logger.info("[Brain] Superseded by a newer tick");
+                    return null;
+                }
+                if (streaming) {
+                    throw e;
+                }
+                response = null;
+            }
             
             // LLMClient now returns null on failure instead of error string
             if (response == null || response.trim().isEmpty()) {
@@ -69,15 +115,17 @@ public class AgentBrain {
                 telemetry.sendLLMResponse(response);
             }
             
-            // Parse response into action
-            Action action = ActionParser.parse(response);
+            // Parse response into action (streaming may already have recognised one)
+            Action action = earlyAction.get() != null ? earlyAction.get() : ActionParser.parse(response);
+            if (decisionCache != null) {
+                decisionCache.put(observation, action, response);
+            }
 
             // Heuristic guardrails: avoid endless idle/looping
             action = refineAction(observation, action);
             
             // Update current thought
-            currentThought = response.length() > 100 ? 
-                response.substring(0, 97) + "..." : response;
+            currentThought = summarize(response);
             
             return action;
             
@@ -88,6 +136,111 @@ public class AgentBrain {
         }
     }
 
+    /**
+     * Wait as long as {@link LLMClient#ask} would; null (no response) when that runs out.
+     * Failures and supersession surface as they would from join().
+     */
+    private String awaitReply(CompletableFuture<String> reply) {
+        long limitMs = LLMClient.replyWaitLimitMs(LLMClient.getDefaultTimeout());
+        try {
+            return reply.get(limitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            reply.cancel(false);
+            logger.warning("[Brain] LLM gave no reply within " + limitMs + "ms");
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private static boolean isSuperseded(Throwable e) {
+        return e instanceof CancellationException || e.getCause() instanceof CancellationException;
+    }
+
+    private static String summarize(String response) {
+        if (response == null) return "";
+        return response.length() > 100 ? response.substring(0, 97) + "..." : response;
+    }
+
+    private void sendCacheStats(TelemetryClient telemetry) {
+        if (telemetry != null && telemetry.isConnected()) {
+            telemetry.send("BRAIN_CACHE:" + decisionCache.formatStats());
+        }
+    }
+
+    /**
+     * Attach a decision cache so equivalent observations skip the LLM.
+     * Pass null to disable caching.
+     */
+    public void setDecisionCache(DecisionCache decisionCache) {
+        this.decisionCache = decisionCache;
+    }
+
+    public DecisionCache getDecisionCache() {
+        return decisionCache;
+    }
+
+    /**
+     * Stream tokens and stop generation as soon as a complete action line arrives.
+     */
+    private String askUntilAction(String prompt, AtomicReference<Action> earlyAction) {
+        long start = System.currentTimeMillis();
+        LLMClient.TokenListener listener = (token, textSoFar) -> {
+            Action action = ActionParser.parseComplete(textSoFar);
+            if (action == null) {
+                return true;
+            }
+            earlyAction.set(action);
+            return false;
+        };
+        String response = awaitReply(session != null
+            ? session.askStreaming(prompt, listener)
+            : LLMClient.askStreaming(prompt, listener));
+        if (earlyAction.get() != null) {
+            logger.info("[Brain] Action recognised after " + (System.currentTimeMillis() - start) + "ms, generation stopped");
+        }
+        return response;
+    }
+
+    /**
+     * Enable token streaming so think() can act on the first complete action line
+     * instead of waiting for the whole completion.
+     */
+    public void setStreamingEnabled(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public boolean isStreamingEnabled() {
+        return streaming;
+    }
+
+    /**
+     * Estimated tokens per decision prompt; low-value sections are trimmed to fit.
+     * 0 disables trimming.
+     */
+    public void setPromptTokenBudget(int tokenBudget) {
+        promptBuilder.setTokenBudget(tokenBudget);
+    }
+
+    public PromptBuilder getPromptBuilder() {
+        return promptBuilder;
+    }
+
+    /**
+     * Send decisions through a session (generation options, and context carried between
+     * ticks so follow-up prompts can skip the fixed prefix). Pass null for stateless requests.
+     */
+    public void setSession(LLMSession session) {
+        this.session = session;
+    }
+
+    public LLMSession getSession() {
+        return session;
+    }
+
     public void setThought(String thought) {
         this.currentThought = thought;
     }
@@ -0,0 +1,150 @@
+package com.freddy.ai;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Bounded LRU + TTL cache of brain decisions.
+ * Keys are a quantized fingerprint of an {@link Observation}, so small changes
+ * (moving a block, a heart of damage, a log count going from 3 to 4) reuse the
+ * previous LLM decision instead of paying for a new completion.
+ */
+public class DecisionCache {
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    private static final class Entry {
+        final Action action;
+        final String response;
+        final long createdAt;
+
+        Entry(Action action, String response, long createdAt) {
+            this.action = action;
+            this.response = response;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Cached decision: the parsed action and the raw LLM reply it came from.
+     */
+    public record Decision(Action action, String response) { }
+
+    public DecisionCache(int maxEntries, long ttlMs) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMs = Math.max(0L, ttlMs);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > DecisionCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Look up a decision for this observation. Counts a hit or a miss.
+     * @return The cached decision, or null on miss/expiry
+     */
+    public synchronized Decision get(Observation observation) {
+        String key = fingerprint(observation);
+        Entry entry = entries.get(key);
+        long now = System.currentTimeMillis();
+        if (entry != null && now - entry.createdAt > ttlMs) {
+            entries.remove(key);
+            evictions++;
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return new Decision(entry.action, entry.response);
+    }
+
+    public synchronized void put(Observation observation, Action action, String response) {
+        if (action == null) return;
+        entries.put(fingerprint(observation), new Entry(action, response, System.currentTimeMillis()));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+    public synchronized int size() { return entries.size(); }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Compact stats line for telemetry ("BRAIN_CACHE:" payload).
+     */
+    public synchronized String formatStats() {
+        return String.format(Locale.ROOT, "hits=%d,misses=%d,evictions=%d,size=%d,hitRate=%.2f",
+            hits, misses, evictions, entries.size(), getHitRate());
+    }
+
+    /**
+     * Quantized fingerprint of an observation: chunk-level position, health/food
+     * bands, day/night, sorted block/entity/player sets (counts dropped) and the
+     * last action.
+     */
+    static String fingerprint(Observation o) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append((int) Math.floor(o.currentX()) >> 4).append(',')
+          .append((int) Math.floor(o.currentY()) >> 4).append(',')
+          .append((int) Math.floor(o.currentZ()) >> 4);
+        sb.append("|h").append(band(o.health(), 4.0));
+        sb.append("|f").append(band(o.foodLevel(), 4.0));
+        sb.append(o.isDayTime() ? "|day" : "|night");
+        sb.append('|').append(o.biome());
+        sb.append("|p").append(sortedNames(o.nearbyPlayers(), false));
+        sb.append("|b").append(sortedNames(o.nearbyBlocks(), true));
+        sb.append("|e").append(sortedNames(o.nearbyEntities(), false));
+        sb.append("|a").append(o.lastAction());
+        return sb.toString();
+    }
+
+    private static int band(double value, double width) {
+        return (int) Math.floor(value / width);
+    }
+
+    private static List<String> sortedNames(List<String> values, boolean stripCounts) {
+        if (values == null || values.isEmpty()) return List.of();
+        TreeSet<String> sorted = new TreeSet<>();
+        for (String v : values) {
+            if (v == null) continue;
+            sorted.add(stripCounts ? stripCount(v) : v);
+        }
+        return new ArrayList<>(sorted);
+    }
+
+    /** "OAK_LOGx3" -> "OAK_LOG" */
+    private static String stripCount(String value) {
+        int x = value.lastIndexOf('x');
+        if (x <= 0 || x == value.length() - 1) return value;
+        for (int i = x + 1; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) return value;
+        }
+        return value.substring(0, x);
+    }
+}
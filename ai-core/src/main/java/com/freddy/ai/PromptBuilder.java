@@ -1,37 +1,146 @@
 package com.freddy.ai;
 
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Builds context-aware prompts for the LLM.
  * Includes full environmental and inventory context so the AI can make informed decisions.
+ *
+ * Every prompt starts with the same system prefix (persona, action list, reply rules),
+ * built once, so Ollama can reuse its prompt cache for it and only prefill the status
+ * that follows. The status is rendered into a reused buffer; when the prompt would go
+ * over the token budget, the lowest-value sections (mobs, then blocks, then inventory
+ * detail) are trimmed first. Token counts are estimated (about 4 characters per token)
+ * and kept as stats for tuning the budget.
  */
 public class PromptBuilder {
-    
+
+    /** Rough characters-per-token ratio for English prompts on Llama/Qwen tokenizers */
+    private static final int CHARS_PER_TOKEN = 4;
+
+    // Trim levels, lowest-value sections first: list caps per level, and whether the
+    // ambient (biome/weather/light) and recent-activity lines are kept
+    private static final int[] ENTITY_CAPS = {8, 4, 0, 0, 0, 0};
+    private static final int[] BLOCK_CAPS = {10, 10, 5, 0, 0, 0};
+    private static final int[] INVENTORY_CAPS = {12, 12, 12, 12, 6, 3};
+    private static final boolean[] KEEP_AMBIENT = {true, true, true, true, false, false};
+    private static final boolean[] KEEP_RECENT = {true, true, true, true, true, false};
+
     private final String npcName;
-    
+    private final String systemPrefix;
+    private final StringBuilder buffer = new StringBuilder(2048);
+    private int tokenBudget;
+    private String lastPrompt;
+
+    private long prompts = 0;
+    private long totalTokens = 0;
+    private int lastTokens = 0;
+    private int maxTokens = 0;
+    private long trimmed = 0;
+    private long overBudget = 0;
+    private long reused = 0;
+
     public PromptBuilder(String npcName) {
-        this.npcName = npcName;
+        this(npcName, 0);
     }
-    
+
     /**
-     * Build the main LLM prompt from observation
+     * @param tokenBudget Estimated tokens per prompt, prefix included; 0 for no limit
      */
-    public String buildPrompt(Observation observation) {
-        StringBuilder sb = new StringBuilder();
-        
+    public PromptBuilder(String npcName, int tokenBudget) {
+        this.npcName = npcName;
+        this.systemPrefix = buildSystemPrefix(npcName);
+        this.tokenBudget = Math.max(0, tokenBudget);
+        buffer.append(systemPrefix);
+    }
+
+    private static String buildSystemPrefix(String npcName) {
+        StringBuilder sb = new StringBuilder(1024);
+
         // System role and personality
         sb.append("You are ").append(npcName).append(", an autonomous AI character in Minecraft.\n");
         sb.append("You are proactive, curious, and avoid standing still.\n");
         sb.append("You make decisions based on your surroundings, health, and inventory.\n");
         sb.append("Do NOT idle repeatedly. Choose a meaningful action every tick.\n\n");
-        
+
+        // Available actions
+        sb.append("AVAILABLE ACTIONS (reply with ONE):\n");
+        sb.append("1. \"Follow [player]\" - follow a nearby player\n");
+        sb.append("2. \"Look at [player]\" - face and observe\n");
+        sb.append("3. \"Attack [entity]\" - attack a mob (e.g., \"Attack zombie\")\n");
+        sb.append("4. \"Mine [block]\" - mine a block (e.g., \"Mine oak_log\", \"Mine stone\")\n");
+        sb.append("5. \"Walk to X Z\" - move to nearby location (within 50 blocks!)\n");
+        sb.append("6. \"Say [message]\" - chat in game\n");
+        sb.append("7. \"Wander\" - explore randomly nearby\n");
+        sb.append("8. \"Idle\" - rest (avoid using this)\n\n");
+        sb.append("Reply with ONLY ONE action. Be proactive like a real Minecraft player.\n\n");
+        return sb.toString();
+    }
+
+    /**
+     * The fixed start of every prompt from {@link #buildPrompt}
+     */
+    public String getSystemPrefix() {
+        return systemPrefix;
+    }
+
+    public synchronized void setTokenBudget(int tokenBudget) {
+        this.tokenBudget = Math.max(0, tokenBudget);
+    }
+
+    public synchronized int getTokenBudget() {
+        return tokenBudget;
+    }
+
+    /**
+     * Build the main LLM prompt from observation
+     */
+    public synchronized String buildPrompt(Observation observation) {
+        int level = 0;
+        renderStatus(observation, level);
+        boolean fits = tokenBudget <= 0 || estimateTokens(buffer) <= tokenBudget;
+        while (!fits && level < ENTITY_CAPS.length - 1) {
+            renderStatus(observation, ++level);
+            fits = estimateTokens(buffer) <= tokenBudget;
+        }
+
+        int tokens = estimateTokens(buffer);
+        prompts++;
+        totalTokens += tokens;
+        lastTokens = tokens;
+        maxTokens = Math.max(maxTokens, tokens);
+        if (level > 0) trimmed++;
+        if (!fits) overBudget++;
+
+        // Same situation as last time: hand back the same string instead of copying the buffer
+        if (lastPrompt != null && lastPrompt.contentEquals(buffer)) {
+            reused++;
+            return lastPrompt;
+        }
+        lastPrompt = buffer.toString();
+        return lastPrompt;
+    }
+
+    /**
+     * Replace everything after the system prefix with the status for this observation
+     */
+    private void renderStatus(Observation observation, int level) {
+        StringBuilder sb = buffer;
+        sb.setLength(systemPrefix.length());
+
         // Current situation
         sb.append("CURRENT STATUS:\n");
-        sb.append("- Position: X=").append(String.format("%.1f", observation.currentX()))
-            .append(", Y=").append(String.format("%.1f", observation.currentY()))
-            .append(", Z=").append(String.format("%.1f", observation.currentZ())).append("\n");
-        sb.append("- Health: ").append(String.format("%.1f", observation.health())).append("/20");
+        sb.append("- Position: X=");
+        appendOneDecimal(sb, observation.currentX());
+        sb.append(", Y=");
+        appendOneDecimal(sb, observation.currentY());
+        sb.append(", Z=");
+        appendOneDecimal(sb, observation.currentZ());
+        sb.append("\n");
+        sb.append("- Health: ");
+        appendOneDecimal(sb, observation.health());
+        sb.append("/20");
         if (observation.isLowHealth()) sb.append(" [LOW!]");
         sb.append("\n");
         sb.append("- Hunger: ").append(observation.foodLevel()).append("/20");
@@ -40,32 +149,34 @@ public class PromptBuilder {
         sb.append("- Time: ").append(observation.getTimeOfDay());
         sb.append(observation.isDayTime() ? " (day)" : " (night - mobs spawn!)");
         sb.append("\n");
-        sb.append("- Biome: ").append(observation.biome() != null ? observation.biome() : "Unknown").append("\n");
-        sb.append("- Weather: ").append(observation.weather() != null ? observation.weather() : "Clear").append("\n");
-        sb.append("- Light level: ").append(observation.lightLevel()).append("/15\n");
-        
+        if (KEEP_AMBIENT[level]) {
+            sb.append("- Biome: ").append(observation.biome() != null ? observation.biome() : "Unknown").append("\n");
+            sb.append("- Weather: ").append(observation.weather() != null ? observation.weather() : "Clear").append("\n");
+            sb.append("- Light level: ").append(observation.lightLevel()).append("/15\n");
+        }
+
         // Nearby players
         sb.append("- Nearby players: ");
         if (observation.nearbyPlayers() == null || observation.nearbyPlayers().isEmpty()) {
             sb.append("[none]");
         } else {
-            sb.append(String.join(", ", observation.nearbyPlayers()));
+            appendJoined(sb, observation.nearbyPlayers(), Integer.MAX_VALUE);
         }
         sb.append("\n");
-        
+
         // Nearby blocks/resources
         List<String> blocks = observation.nearbyBlocks();
-        if (blocks != null && !blocks.isEmpty()) {
+        if (blocks != null && !blocks.isEmpty() && BLOCK_CAPS[level] > 0) {
             sb.append("- Nearby resources/blocks: ");
-            sb.append(String.join(", ", blocks.subList(0, Math.min(blocks.size(), 10))));
+            appendJoined(sb, blocks, BLOCK_CAPS[level]);
             sb.append("\n");
         }
-        
+
         // Nearby entities (mobs/animals)
         List<String> entities = observation.nearbyEntities();
-        if (entities != null && !entities.isEmpty()) {
+        if (entities != null && !entities.isEmpty() && ENTITY_CAPS[level] > 0) {
             sb.append("- Nearby mobs/animals: ");
-            sb.append(String.join(", ", entities.subList(0, Math.min(entities.size(), 8))));
+            appendJoined(sb, entities, ENTITY_CAPS[level]);
             sb.append("\n");
         }
 
@@ -73,41 +184,31 @@ public class PromptBuilder {
         List<String> inv = observation.inventorySummary();
         if (inv != null && !inv.isEmpty()) {
             sb.append("- Inventory: ");
-            sb.append(String.join(", ", inv.subList(0, Math.min(inv.size(), 12))));
+            appendJoined(sb, inv, INVENTORY_CAPS[level]);
             sb.append("\n");
         } else {
             sb.append("- Inventory: [empty]\n");
         }
-        
+
         // Recent activity
-        if (observation.lastInteractionPlayer() != null && 
-            !observation.lastInteractionPlayer().isEmpty()) {
-            long secAgo = observation.timeSinceLastInteraction();
-            if (secAgo < 300) {
-                sb.append("- Last interaction: ").append(observation.lastInteractionPlayer())
-                    .append(" (").append(secAgo).append("s ago)\n");
+        if (KEEP_RECENT[level]) {
+            if (observation.lastInteractionPlayer() != null &&
+                !observation.lastInteractionPlayer().isEmpty()) {
+                long secAgo = observation.timeSinceLastInteraction();
+                if (secAgo < 300) {
+                    sb.append("- Last interaction: ").append(observation.lastInteractionPlayer())
+                        .append(" (").append(secAgo).append("s ago)\n");
+                }
+            }
+
+            if (observation.lastAction() != null && !observation.lastAction().isEmpty() &&
+                !observation.lastAction().equals("Initialized")) {
+                sb.append("- Last action: ").append(observation.lastAction()).append("\n");
             }
         }
-        
-        if (observation.lastAction() != null && !observation.lastAction().isEmpty() &&
-            !observation.lastAction().equals("Initialized")) {
-            sb.append("- Last action: ").append(observation.lastAction()).append("\n");
-        }
-        
+
         sb.append("\n");
-        
-        // Available actions
-        
-        sb.append("AVAILABLE ACTIONS (reply with ONE):\n");
-        sb.append("1. \"Follow [player]\" - follow a nearby player\n");
-        sb.append("2. \"Look at [player]\" - face and observe\n");
-        sb.append("3. \"Attack [entity]\" - attack a mob (e.g., \"Attack zombie\")\n");
-        sb.append("4. \"Mine [block]\" - mine a block (e.g., \"Mine oak_log\", \"Mine stone\")\n");
-        sb.append("5. \"Walk to X Z\" - move to nearby location (within 50 blocks!)\n");
-        sb.append("6. \"Say [message]\" - chat in game\n");
-        sb.append("7. \"Wander\" - explore randomly nearby\n");
-        sb.append("8. \"Idle\" - rest (avoid using this)\n\n");
-        
+
         // Decision priorities based on context
         sb.append("PRIORITIES:\n");
         if (observation.isLowHealth()) {
@@ -122,38 +223,79 @@ public class PromptBuilder {
         if (observation.nearbyPlayers() != null && !observation.nearbyPlayers().isEmpty()) {
             sb.append("- Players are nearby. Consider interacting with them.\n");
         }
-        if (blocks != null && !blocks.isEmpty()) {
+        if (blocks != null && !blocks.isEmpty() && BLOCK_CAPS[level] > 0) {
             sb.append("- Useful resources are visible. Consider mining them.\n");
         }
-        
+
         sb.append("\nReply with ONLY ONE action. Be proactive like a real Minecraft player.\n");
-        
-        return sb.toString();
     }
-    
+
+    private static void appendJoined(StringBuilder sb, List<String> items, int max) {
+        int n = Math.min(items.size(), max);
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(items.get(i));
+        }
+    }
+
+    /** Same text as String.format("%.1f", value) for coordinates and health, without the formatter */
+    private static void appendOneDecimal(StringBuilder sb, double value) {
+        long tenths = Math.round(value * 10.0);
+        if (tenths < 0) {
+            sb.append('-');
+            tenths = -tenths;
+        }
+        sb.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    /**
+     * Estimated token count of a prompt (no tokenizer on this side; ~4 chars per token)
+     */
+    public static int estimateTokens(CharSequence text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    public synchronized int getLastPromptTokens() {
+        return lastTokens;
+    }
+
+    public synchronized double getAveragePromptTokens() {
+        return prompts == 0 ? 0.0 : (double) totalTokens / prompts;
+    }
+
+    /**
+     * Compact stats line for telemetry ("BRAIN_PROMPT:" payload).
+     */
+    public synchronized String formatStats() {
+        return String.format(Locale.ROOT,
+            "prompts=%d,lastTokens=%d,avgTokens=%.1f,maxTokens=%d,prefixTokens=%d,budget=%d,trimmed=%d,overBudget=%d,reused=%d",
+            prompts, lastTokens, getAveragePromptTokens(), maxTokens, estimateTokens(systemPrefix),
+            tokenBudget, trimmed, overBudget, reused);
+    }
+
     public String getSystemRole() {
         return "You are " + npcName + ", an autonomous AI character in Minecraft.";
     }
-    
+
     /**
      * Build a simplified prompt for faster LLM responses
      */
     public String buildSimplePrompt(Observation observation) {
         StringBuilder sb = new StringBuilder();
         sb.append("You are ").append(npcName).append(" in Minecraft. ");
-        
+
         if (observation.nearbyPlayers() != null && !observation.nearbyPlayers().isEmpty()) {
             sb.append("Players nearby: ").append(observation.nearbyPlayers()).append(". ");
         } else {
             sb.append("No players nearby. ");
         }
-        
+
         if (observation.isLowHealth()) sb.append("Health is low! ");
         if (observation.isHungry()) sb.append("Hungry! ");
-        
+
         sb.append("What do you do? Reply with ONE action: ");
         sb.append("\"Walk to X Z\", \"Follow [player]\", \"Mine [block]\", \"Attack [mob]\", \"Wander\", or \"Say [message]\"");
-        
+
         return sb.toString();
     }
 }
@@ -0,0 +1,74 @@
+package com.freddy.benchmarks;
+
+import com.freddy.ai.Action;
+import com.freddy.ai.ActionParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ActionParser over replies in the shapes the brain loop actually gets back from
+ * the model: terse commands, chatty preambles, multi-line reasoning and misses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionParserBenchmark {
+
+    static final String[] REPLIES = {
+        "Walk to 150 -50",
+        "Walk to 120.5 64 -33.25",
+        "Follow OnlyOm",
+        "Look at OnlyOm",
+        "Say Hi there! Want to go mining together?",
+        "Respond: Sure, I'll help you build the house.",
+        "Mine oak_log",
+        "Attack zombie",
+        "Idle",
+        "I see a player nearby and it's getting dark.\nFollow OnlyOm",
+        "Thinking about my options... There are trees to the north and my inventory is empty.\n"
+            + "The best choice is to gather wood first.\nMine oak_log\n",
+        "ACTION: Walk to -12 70 48\nREASON: the cave entrance is there",
+        "Hmm, a creeper is approaching! I should deal with it before it explodes.\nAttack creeper",
+        "I'm hungry and my health is low, so I'll stay put for now.",
+        "Let me look around first.\nLook at Steve\nThen maybe say hello.",
+        "Say Good morning everyone!\n",
+        "",
+        "As an autonomous character I would like to explore the area to the east of my "
+            + "current position, because there may be resources such as iron ore or coal "
+            + "that will help me craft better tools. Walk to 210 -15",
+    };
+
+    @Benchmark
+    public void parseCorpus(Blackhole bh) {
+        for (String reply : REPLIES) {
+            bh.consume(ActionParser.parse(reply));
+        }
+    }
+
+    @Benchmark
+    public Action parseChattyReply() {
+        return ActionParser.parse(REPLIES[10]);
+    }
+
+    @Benchmark
+    public void parseCompleteStreaming(Blackhole bh) {
+        // Simulates the streaming path: re-parse as each chunk of the reply arrives
+        String reply = REPLIES[10];
+        for (int end = 8; end <= reply.length(); end += 8) {
+            bh.consume(ActionParser.parseComplete(reply.substring(0, end)));
+        }
+    }
+}
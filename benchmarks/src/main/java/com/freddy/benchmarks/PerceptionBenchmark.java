@@ -0,0 +1,131 @@
+package com.freddy.benchmarks;
+
+import com.freddy.common.telemetry.PovFrame;
+import com.freddy.plugin.perception.AIPerception;
+import com.freddy.plugin.perception.BlockIndex;
+import com.freddy.plugin.perception.PerceptionSnapshot;
+import com.freddy.plugin.perception.PovFrames;
+import com.freddy.plugin.perception.VisionCone;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Production block-scan paths against {@link SyntheticWorld}: the vision-cone ray cast
+ * and the POV frame built from it, the perception pipeline's POV scan and occupancy
+ * grid over a captured snapshot, and
+ * {@link BlockIndex} queries over the whole indexed world. {@link SyntheticServer}
+ * stands in for the Bukkit API those paths read through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerceptionBenchmark {
+
+    /** Viewpoints: open field looking level, forest edge, and looking down into the ground */
+    @Param({"OPEN", "FOREST", "GROUND"})
+    public String view;
+
+    /** Horizontal and vertical range of the block-index queries */
+    @Param({"16"})
+    public int searchRange;
+
+    /** Same block radius and POV radius as the perception pipeline's defaults */
+    private static final int SNAPSHOT_RADIUS = 16;
+    private static final double POV_RADIUS = 50.0;
+    private static final Material[] ORES = {Material.COAL_ORE, Material.IRON_ORE, Material.DIAMOND_ORE};
+
+    private SyntheticWorld world;
+    private SyntheticServer server;
+    private BlockIndex index;
+    private PerceptionSnapshot snapshot;
+    private Location origin;
+    private List<PerceptionSnapshot.EntityInfo> entities;
+    private double x;
+    private double y;
+    private double z;
+    private float yaw;
+    private float pitch;
+    private VisionCone.Result cone;
+
+    @Setup
+    public void setup() {
+        world = new SyntheticWorld(42L);
+        x = SyntheticWorld.SIZE / 2.0;
+        z = SyntheticWorld.SIZE / 2.0;
+        y = SyntheticWorld.SURFACE + 6;
+        switch (view) {
+            case "FOREST" -> { yaw = 135f; pitch = 5f; }
+            case "GROUND" -> { yaw = 0f; pitch = 60f; }
+            default -> { yaw = 0f; pitch = 0f; }
+        }
+        entities = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            double angle = i * Math.PI / 6;
+            entities.add(new PerceptionSnapshot.EntityInfo(new UUID(0L, i), i % 3 == 0 ? "ZOMBIE" : "COW",
+                "mob" + i, false, i % 3 == 0,
+                x + Math.cos(angle) * (4 + i), y - 1, z + Math.sin(angle) * (4 + i), 20.0, 0));
+        }
+
+        server = new SyntheticServer(world);
+        snapshot = PerceptionSnapshot.capture(server.npc(x, y, z, yaw, pitch), SNAPSHOT_RADIUS, SNAPSHOT_RADIUS);
+        origin = new Location(server.world(), x, y, z, yaw, pitch);
+        cone = VisionCone.castOnce(x, y, z, yaw, pitch, world, entities);
+        index = new BlockIndex(server.plugin(), 64);
+        index.start();
+        while (index.getPendingChunkCount() > 0) {
+            server.tick();
+        }
+    }
+
+    @Benchmark
+    public VisionCone.Result visionCone() {
+        return VisionCone.castOnce(x, y, z, yaw, pitch, world, entities);
+    }
+
+    @Benchmark
+    public PovFrame visionFrame() {
+        return PovFrames.vision(snapshot, cone);
+    }
+
+    @Benchmark
+    public AIPerception.POVData povScan() {
+        return new AIPerception(snapshot, POV_RADIUS).buildPOV();
+    }
+
+    @Benchmark
+    public PovFrame.Grid occupancyGrid() {
+        return PovFrames.occupancy(snapshot, PovFrames.GRID_RADIUS);
+    }
+
+    @Benchmark
+    public Block nearestOre() {
+        return index.findNearest(origin, ORES, searchRange, searchRange, null);
+    }
+
+    @Benchmark
+    public Map<Material, Integer> countNearby() {
+        return index.countNearby(server.world(), origin.getBlockX(), origin.getBlockY(), origin.getBlockZ(),
+            searchRange);
+    }
+}
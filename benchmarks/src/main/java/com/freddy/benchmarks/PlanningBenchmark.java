@@ -0,0 +1,111 @@
+package com.freddy.benchmarks;
+
+import com.freddy.plugin.ai.crafting.PrimitiveResolver;
+import com.freddy.plugin.ai.crafting.RecipeRegistry;
+import com.freddy.plugin.ai.planning.DeterministicPlanner;
+import com.freddy.plugin.npc.Goal;
+import com.freddy.plugin.npc.GoalStep;
+import com.freddy.plugin.npc.StepPlanner;
+import com.freddy.plugin.npc.StepSpec;
+import org.bukkit.Material;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Crafting planners over every item in the RecipeRegistry, StepPlanner's
+ * keyword routing for dashboard prompts (none of which reach the LLM fallback),
+ * and step classification for every template step chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanningBenchmark {
+
+    static final String[] PROMPTS = {
+        "make me a wooden sword",
+        "craft a stone pickaxe",
+        "protect the player from mobs",
+        "come back to me",
+        "build a house",
+        "build a tower",
+        "build a small farm plot",
+        "craft 4 torches",
+        "go find some diamonds",
+        "kill the ender dragon",
+    };
+
+    private Material[] craftable;
+    private PrimitiveResolver resolver;
+    private DeterministicPlanner planner;
+    private Goal.GoalType[] stepTypes;
+    private String[] stepLabels;
+
+    @Setup
+    public void setup() {
+        // The planner logs every plan at INFO; keep the console out of the measurement
+        Logger.getLogger("FreddyAI").setLevel(Level.WARNING);
+        craftable = RecipeRegistry.getCraftableItems().stream()
+            .sorted(Comparator.comparing(Material::name))
+            .toArray(Material[]::new);
+        resolver = new PrimitiveResolver();
+        planner = new DeterministicPlanner(null);
+
+        List<Goal.GoalType> types = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        for (Goal.GoalType type : Goal.GoalType.values()) {
+            for (GoalStep step : StepPlanner.planFor(type, 4)) {
+                types.add(type);
+                labels.add(step.getLabel());
+            }
+        }
+        stepTypes = types.toArray(new Goal.GoalType[0]);
+        stepLabels = labels.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public void resolveAllRecipes(Blackhole bh) {
+        for (Material item : craftable) {
+            bh.consume(resolver.resolve(item, 4));
+        }
+    }
+
+    @Benchmark
+    public void planAllRecipes(Blackhole bh) {
+        for (Material item : craftable) {
+            bh.consume(planner.plan(item, 4));
+        }
+    }
+
+    @Benchmark
+    public void planFromPromptKeywords(Blackhole bh) {
+        for (String prompt : PROMPTS) {
+            bh.consume(StepPlanner.planFromPrompt(prompt));
+        }
+    }
+
+    @Benchmark
+    public void classifyTemplateSteps(Blackhole bh) {
+        for (int i = 0; i < stepLabels.length; i++) {
+            bh.consume(StepSpec.classify(stepTypes[i], stepLabels[i]));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.freddy.benchmarks;
+
+import com.freddy.ai.Observation;
+import com.freddy.ai.PromptBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt assembly for a sparse and a busy observation, and the busy one trimmed to a token budget.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptBuilderBenchmark {
+
+    private PromptBuilder builder;
+    private PromptBuilder budgeted;
+    private Observation quiet;
+    private Observation busy;
+
+    @Setup
+    public void setup() {
+        builder = new PromptBuilder("Freddy");
+        budgeted = new PromptBuilder("Freddy", 350);
+        long now = System.currentTimeMillis();
+        quiet = new Observation(List.of(), 12.5, 64.0, -8.25, 6000,
+            null, 0L, "Idle", now - 4000);
+        busy = new Observation(
+            List.of("OnlyOm", "Steve", "Alex"),
+            -245.7, 71.0, 1032.4, 13200,
+            "OnlyOm", now - 1500, "Mine oak_log", now - 800,
+            9.5, 6, "DARK_FOREST", "RAIN", 4,
+            List.of("OAK_LOG x12", "COAL_ORE x3", "IRON_ORE x1", "WATER x20", "GRASS_BLOCK x60",
+                "DIRT x40", "STONE x80", "SAND x6", "GRAVEL x4", "CRAFTING_TABLE x1", "FURNACE x1"),
+            List.of("ZOMBIE", "SKELETON", "COW", "SHEEP", "CREEPER"),
+            List.of("OAK_LOG x5", "OAK_PLANKS x12", "STICK x4", "WOODEN_PICKAXE x1",
+                "COBBLESTONE x23", "BREAD x2"));
+    }
+
+    @Benchmark
+    public String buildPromptQuiet() {
+        return builder.buildPrompt(quiet);
+    }
+
+    @Benchmark
+    public String buildPromptBusy() {
+        return builder.buildPrompt(busy);
+    }
+
+    @Benchmark
+    public String buildPromptBusyBudgeted() {
+        return budgeted.buildPrompt(busy);
+    }
+}
@@ -0,0 +1,260 @@
+package com.freddy.benchmarks;
+
+import com.freddy.plugin.perception.BlockTypeLookup;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Just enough of the Bukkit API around a {@link SyntheticWorld} for production code
+ * that goes through it: a server, one world with its chunks and chunk snapshots, an
+ * NPC player and a scheduler that runs tasks inline (timers run on {@link #tick()}).
+ * Everything else answers with zero, false or null.
+ *
+ * The Bukkit server is a JVM-wide singleton, so it is installed once and always
+ * serves the most recently created instance.
+ */
+final class SyntheticServer {
+
+    static final UUID WORLD_ID = new UUID(0L, 42L);
+
+    private static volatile SyntheticServer current;
+
+    private final SyntheticWorld blocks;
+    private final int[] heights = new int[SyntheticWorld.SIZE * SyntheticWorld.SIZE];
+    private final World world;
+    private final Plugin plugin;
+    private final List<Runnable> timers = new ArrayList<>();
+
+    SyntheticServer(SyntheticWorld blocks) {
+        this.blocks = blocks;
+        int maxY = SyntheticWorld.MIN_Y + SyntheticWorld.HEIGHT;
+        for (int x = 0; x < SyntheticWorld.SIZE; x++) {
+            for (int z = 0; z < SyntheticWorld.SIZE; z++) {
+                int y = maxY - 1;
+                while (y > SyntheticWorld.MIN_Y && BlockTypeLookup.isAir(blocks.getType(x, y, z))) {
+                    y--;
+                }
+                heights[z * SyntheticWorld.SIZE + x] = y;
+            }
+        }
+        this.world = stub(World.class, this::world);
+        this.plugin = stub(Plugin.class, (method, args) -> switch (method.getName()) {
+            case "isEnabled" -> true;
+            case "getName" -> "FreddyBenchmark";
+            default -> null;
+        });
+        current = this;
+        install();
+    }
+
+    World world() {
+        return world;
+    }
+
+    Plugin plugin() {
+        return plugin;
+    }
+
+    /**
+     * Runs every repeating task once, like one server tick
+     */
+    void tick() {
+        for (Runnable timer : new ArrayList<>(timers)) {
+            timer.run();
+        }
+    }
+
+    Player npc(double x, double y, double z, float yaw, float pitch) {
+        UUID id = new UUID(1L, 1L);
+        PlayerInventory inventory = stub(PlayerInventory.class, (method, args) ->
+            method.getName().equals("getContents") ? new ItemStack[0] : null);
+        return stub(Player.class, (method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> id;
+            case "getName" -> "Freddy";
+            case "getLocation" -> args == null ? new Location(world, x, y, z, yaw, pitch) : null;
+            case "getWorld" -> world;
+            case "getHealth" -> 20.0;
+            case "getFoodLevel" -> 20;
+            case "getInventory" -> inventory;
+            case "isValid", "isOnline" -> true;
+            default -> null;
+        });
+    }
+
+    private static synchronized void install() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+        Server server = stub(Server.class, (method, args) -> current.server(method, args));
+        try {
+            Bukkit.setServer(server);
+        } catch (RuntimeException e) {
+            // The version banner logged after the server is set needs a real server build
+        }
+    }
+
+    private Object server(Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "getWorlds" -> List.of(world);
+            case "getWorld" -> WORLD_ID.equals(args[0]) || "world".equals(args[0]) ? world : null;
+            case "getScheduler" -> stub(BukkitScheduler.class, this::scheduler);
+            case "getLogger" -> Logger.getLogger("FreddyBenchmark");
+            case "getName", "getVersion", "getBukkitVersion" -> "synthetic";
+            // Queries run as they do from perception workers, without live-world verification
+            case "isPrimaryThread" -> false;
+            default -> null;
+        };
+    }
+
+    private Object scheduler(Method method, Object[] args) {
+        if (args == null || args.length < 2 || !(args[1] instanceof Runnable task)) {
+            return null;
+        }
+        switch (method.getName()) {
+            case "runTaskTimer", "runTaskTimerAsynchronously" -> timers.add(task);
+            case "runTask", "runTaskAsynchronously", "runTaskLater", "runTaskLaterAsynchronously" -> task.run();
+            default -> {
+                return null;
+            }
+        }
+        return stub(BukkitTask.class, (m, a) -> {
+            if (m.getName().equals("cancel")) {
+                timers.remove(task);
+            }
+            return null;
+        });
+    }
+
+    private Object world(Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "getUID" -> WORLD_ID;
+            case "getName" -> "world";
+            case "getMinHeight" -> SyntheticWorld.MIN_Y;
+            case "getMaxHeight" -> SyntheticWorld.MIN_Y + SyntheticWorld.HEIGHT;
+            case "getTime" -> 6000L;
+            case "isChunkLoaded" -> args.length == 2 && loaded((Integer) args[0], (Integer) args[1]);
+            case "getChunkAt" -> args.length >= 2 && args[0] instanceof Integer cx
+                ? chunk(cx, (Integer) args[1]) : null;
+            case "getLoadedChunks" -> loadedChunks();
+            case "getBlockAt" -> args.length == 3
+                ? block((Integer) args[0], (Integer) args[1], (Integer) args[2])
+                : block(((Location) args[0]).getBlockX(), ((Location) args[0]).getBlockY(),
+                    ((Location) args[0]).getBlockZ());
+            case "getNearbyEntities", "getPlayers", "getEntities", "getLivingEntities" -> List.of();
+            default -> null;
+        };
+    }
+
+    private static boolean loaded(int cx, int cz) {
+        int chunks = SyntheticWorld.SIZE >> 4;
+        return cx >= 0 && cz >= 0 && cx < chunks && cz < chunks;
+    }
+
+    private Chunk[] loadedChunks() {
+        int chunks = SyntheticWorld.SIZE >> 4;
+        Chunk[] all = new Chunk[chunks * chunks];
+        for (int cx = 0; cx < chunks; cx++) {
+            for (int cz = 0; cz < chunks; cz++) {
+                all[cx * chunks + cz] = chunk(cx, cz);
+            }
+        }
+        return all;
+    }
+
+    private Chunk chunk(int cx, int cz) {
+        ChunkSnapshot snapshot = stub(ChunkSnapshot.class, (method, args) -> switch (method.getName()) {
+            case "getX" -> cx;
+            case "getZ" -> cz;
+            case "getWorldName" -> "world";
+            case "getBlockType" -> blocks.getType((cx << 4) | (Integer) args[0], (Integer) args[1],
+                (cz << 4) | (Integer) args[2]);
+            case "getHighestBlockYAt" -> heights[(((cz << 4) | (Integer) args[1]) * SyntheticWorld.SIZE)
+                + ((cx << 4) | (Integer) args[0])];
+            default -> null;
+        });
+        return stub(Chunk.class, (method, args) -> switch (method.getName()) {
+            case "getX" -> cx;
+            case "getZ" -> cz;
+            case "getWorld" -> world;
+            case "isLoaded" -> true;
+            case "getChunkSnapshot" -> snapshot;
+            default -> null;
+        });
+    }
+
+    private Block block(int x, int y, int z) {
+        return stub(Block.class, (method, args) -> switch (method.getName()) {
+            case "getX" -> x;
+            case "getY" -> y;
+            case "getZ" -> z;
+            case "getWorld" -> world;
+            case "getType" -> blocks.getType(x, y, z);
+            case "getLocation" -> args == null ? new Location(world, x, y, z) : null;
+            case "getLightFromSky", "getLightLevel" -> (byte) (y > heights[Math.floorMod(z, SyntheticWorld.SIZE)
+                * SyntheticWorld.SIZE + Math.floorMod(x, SyntheticWorld.SIZE)] ? 15 : 0);
+            default -> null;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        Object answer(Method method, Object[] args);
+    }
+
+    /**
+     * Proxy of {@code type} backed by {@code answer}; null answers become the return
+     * type's default so primitive getters never fail
+     */
+    private static <T> T stub(Class<T> type, Answer answer) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals" -> {
+                    if (args != null && args.length == 1 && method.getParameterTypes()[0] == Object.class) {
+                        return proxy == args[0];
+                    }
+                }
+                case "hashCode" -> {
+                    if (args == null) return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    if (args == null) return "Synthetic" + type.getSimpleName();
+                }
+                default -> { }
+            }
+            Object result = answer.answer(method, args);
+            return result != null ? result : defaultValue(method.getReturnType());
+        };
+        return type.cast(Proxy.newProxyInstance(SyntheticServer.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        return 0.0;
+    }
+}
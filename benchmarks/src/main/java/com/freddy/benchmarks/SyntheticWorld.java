@@ -0,0 +1,91 @@
+package com.freddy.benchmarks;
+
+import com.freddy.plugin.perception.BlockTypeLookup;
+import org.bukkit.Material;
+
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic in-memory terrain for block-scan benchmarks: bedrock floor, stone
+ * with scattered ores, dirt and grass to sea level, oak trees, and a few ponds.
+ * Backed by a flat ordinal array, so lookups cost about as much as a chunk snapshot.
+ */
+final class SyntheticWorld implements BlockTypeLookup {
+
+    static final int SIZE = 128;
+    static final int MIN_Y = -64;
+    static final int HEIGHT = 192;
+    static final int SURFACE = 64;
+
+    private static final Material[] MATERIALS = Material.values();
+
+    // Material ordinal + 1 per block; 0 is air
+    private final short[] blocks = new short[SIZE * SIZE * HEIGHT];
+
+    SyntheticWorld(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int x = 0; x < SIZE; x++) {
+            for (int z = 0; z < SIZE; z++) {
+                int surface = SURFACE + (int) Math.round(3 * Math.sin(x / 9.0) + 2 * Math.cos(z / 7.0));
+                for (int y = MIN_Y; y <= surface; y++) {
+                    Material type;
+                    if (y == MIN_Y) {
+                        type = Material.BEDROCK;
+                    } else if (y < surface - 4) {
+                        int roll = random.nextInt(1000);
+                        type = roll < 8 ? Material.COAL_ORE
+                            : roll < 12 ? Material.IRON_ORE
+                            : roll < 13 && y < 16 ? Material.DIAMOND_ORE
+                            : y < 0 ? Material.DEEPSLATE : Material.STONE;
+                    } else if (y < surface) {
+                        type = Material.DIRT;
+                    } else {
+                        type = Material.GRASS_BLOCK;
+                    }
+                    set(x, y, z, type);
+                }
+                if (surface < SURFACE - 2) {
+                    for (int y = surface + 1; y <= SURFACE - 2; y++) {
+                        set(x, y, z, Material.WATER);
+                    }
+                } else if (random.nextInt(60) == 0 && x > 2 && z > 2 && x < SIZE - 3 && z < SIZE - 3) {
+                    plantTree(x, surface + 1, z);
+                }
+            }
+        }
+    }
+
+    private void plantTree(int x, int baseY, int z) {
+        for (int dy = 3; dy <= 5; dy++) {
+            for (int dx = -2; dx <= 2; dx++) {
+                for (int dz = -2; dz <= 2; dz++) {
+                    set(x + dx, baseY + dy, z + dz, Material.OAK_LEAVES);
+                }
+            }
+        }
+        for (int dy = 0; dy < 5; dy++) {
+            set(x, baseY + dy, z, Material.OAK_LOG);
+        }
+    }
+
+    private void set(int x, int y, int z, Material type) {
+        int index = index(x, y, z);
+        if (index >= 0) {
+            blocks[index] = (short) (type.ordinal() + 1);
+        }
+    }
+
+    private static int index(int x, int y, int z) {
+        int ly = y - MIN_Y;
+        if (x < 0 || z < 0 || ly < 0 || x >= SIZE || z >= SIZE || ly >= HEIGHT) {
+            return -1;
+        }
+        return (ly * SIZE + z) * SIZE + x;
+    }
+
+    @Override
+    public Material getType(int x, int y, int z) {
+        int index = index(x, y, z);
+        return index < 0 || blocks[index] == 0 ? Material.AIR : MATERIALS[blocks[index] - 1];
+    }
+}
@@ -1,177 +1,534 @@
 package com.freddy.common;
 
+import com.freddy.common.telemetry.PovFrame;
+import com.freddy.common.telemetry.TelemetryCodec;
+import com.freddy.common.telemetry.TelemetryCodec.MessageType;
+import com.freddy.common.telemetry.TelemetryRingBuffer;
+
 import java.io.*;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 /**
- * Client for sending telemetry data to the dashboard
+ * Client for sending telemetry data to the dashboard.
+ * Negotiates the binary frame protocol ({@link TelemetryCodec}) on connect and
+ * falls back to line-oriented text if the dashboard does not acknowledge it.
+ *
+ * Sends never touch the socket: messages are queued in a lock-free ring buffer
+ * and a writer thread batches them onto the wire, so a slow dashboard (or a
+ * reconnect) can never stall the server tick. Snapshot-style messages (position,
+ * POV, inventory...) keep only their latest value; when the event buffer is
+ * full the oldest event is dropped. Both counts are reported as "TELEMETRY:".
+ *
+ * With several agents sharing one client, a thread can set an agent scope: its
+ * messages are then wrapped as "AGENT:id|..." and snapshots coalesce per agent.
+ * Unscoped messages (the primary agent) keep the plain wire format.
  */
 public class TelemetryClient {
-    
-    private Socket socket;
-    private PrintWriter out;
+
+    private static final int HANDSHAKE_TIMEOUT_MS = 1000;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int FLUSH_BYTES = 8192;
+    private static final long FLUSH_INTERVAL_NANOS = 20_000_000L;    // 20ms linger to batch a tick's messages
+    private static final long IDLE_PARK_NANOS = 100_000_000L;
+    private static final long STATS_INTERVAL_MS = 5000;
+    private static final long MAX_BACKOFF_MS = 60000; // Max 60 seconds
+
+    /** Message types where only the newest value matters. */
+    private static final Set<MessageType> SNAPSHOT_TYPES = EnumSet.of(
+        MessageType.POSITION, MessageType.POV, MessageType.INVENTORY, MessageType.PLAYERS,
+        MessageType.GOAL_QUEUE, MessageType.ADV_STATE, MessageType.WORKFLOW_SAFETY,
+        MessageType.BRAIN_CACHE, MessageType.BRAIN_PROMPT, MessageType.LLM_METRICS,
+        MessageType.PROFILE, MessageType.POV_FRAME);
+
+    /** Queued message, encoded lazily on the writer thread for whichever protocol is live. */
+    private record Outgoing(MessageType type, String text, Supplier<byte[]> frame) { }
+
     private final String host;
     private final int port;
-    private boolean connected = false;
+    private final boolean preferBinary;
+    private final TelemetryRingBuffer<Outgoing> events;
+    private final AtomicReferenceArray<Outgoing> snapshots =
+        new AtomicReferenceArray<>(MessageType.values().length);
+    private final Map<String, Outgoing> agentSnapshots = new ConcurrentHashMap<>();
+    private final ThreadLocal<String> agentScope = new ThreadLocal<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final Object connectLock = new Object();
+
+    // Owned by the writer thread once it is running
+    private Socket socket;
+    private OutputStream out;
+    private volatile boolean binary = false;
+    private volatile boolean connected = false;
+    private volatile boolean running = false;
+    private volatile Thread writer;
     private long lastReconnectAttempt = 0;
     private long reconnectBackoffMs = 5000; // Start at 5 seconds
-    private static final long MAX_BACKOFF_MS = 60000; // Max 60 seconds
-    
+    private long reportedDropped = 0;
+    private long reportedCoalesced = 0;
+    private long lastStatsAt = 0;
+
     public TelemetryClient(String host, int port) {
+        this(host, port, true);
+    }
+
+    public TelemetryClient(String host, int port, boolean preferBinary) {
+        this(host, port, preferBinary, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public TelemetryClient(String host, int port, boolean preferBinary, int queueCapacity) {
         this.host = host;
         this.port = port;
+        this.preferBinary = preferBinary;
+        this.events = new TelemetryRingBuffer<>(queueCapacity);
     }
-    
+
     /**
-     * Connect to the dashboard
+     * Connect to the dashboard and start the writer thread.
+     * Later reconnects happen on the writer thread with backoff.
      */
     public boolean connect() {
+        boolean ok = openConnection();
+        if (!ok) {
+            lastReconnectAttempt = System.currentTimeMillis();
+        }
+        startWriter();
+        return ok;
+    }
+
+    private boolean openConnection() {
+        synchronized (connectLock) {
+            closeSocket();
+            try {
+                socket = new Socket(host, port);
+                socket.setTcpNoDelay(true);
+                OutputStream raw = socket.getOutputStream();
+                binary = preferBinary && negotiateBinary(raw);
+                out = new BufferedOutputStream(raw, FLUSH_BYTES * 2);
+                connected = true;
+                reconnectBackoffMs = 5000; // Reset backoff on success
+                System.out.println("[Telemetry] Connected to dashboard at " + host + ":" + port
+                    + " (" + (binary ? "binary" : "text") + " protocol)");
+                return true;
+            } catch (IOException e) {
+                closeSocket();
+                connected = false;
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Offer the binary protocol; older dashboards never answer and we stay on text.
+     */
+    private boolean negotiateBinary(OutputStream raw) throws IOException {
+        raw.write((TelemetryCodec.HELLO + "\n").getBytes(StandardCharsets.UTF_8));
+        raw.flush();
         try {
-            socket = new Socket(host, port);
-            out = new PrintWriter(socket.getOutputStream(), true);
-            connected = true;
-            reconnectBackoffMs = 5000; // Reset backoff on success
-            System.out.println("[Telemetry] Connected to dashboard at " + host + ":" + port);
-            return true;
-        } catch (IOException e) {
-            connected = false;
+            socket.setSoTimeout(HANDSHAKE_TIMEOUT_MS);
+            String reply = TelemetryCodec.readLine(socket.getInputStream());
+            return TelemetryCodec.HELLO_ACK.equals(reply);
+        } catch (SocketTimeoutException e) {
             return false;
+        } finally {
+            socket.setSoTimeout(0);
+        }
+    }
+
+    private void startWriter() {
+        synchronized (connectLock) {
+            if (running) {
+                return;
+            }
+            running = true;
+            Thread thread = new Thread(this::writerLoop, "Telemetry-writer-" + port);
+            thread.setDaemon(true);
+            writer = thread;
+            thread.start();
         }
     }
-    
+
+    // ===== PRODUCER SIDE (any thread, never blocks) =====
+
     /**
      * Send a message to the dashboard
      */
     public void send(String message) {
-        // Lazy reconnect with backoff to prevent socket spam
-        if (!connected || out == null) {
-            long now = System.currentTimeMillis();
-            if (now - lastReconnectAttempt < reconnectBackoffMs) {
-                return; // Too soon to retry
+        if (message == null) {
+            return;
+        }
+        enqueue(new Outgoing(MessageType.byPrefix(message), message, () -> TelemetryCodec.encode(message)));
+    }
+
+    private void enqueue(Outgoing message) {
+        if (!connected) {
+            return; // Dropped while offline, same as an unconnected socket
+        }
+        String agent = agentScope.get();
+        if (agent != null) {
+            enqueueForAgent(agent, message);
+        } else if (SNAPSHOT_TYPES.contains(message.type())) {
+            if (snapshots.getAndSet(message.type().ordinal(), message) != null) {
+                coalesced.incrementAndGet();
             }
-            lastReconnectAttempt = now;
-            if (!connect()) {
-                reconnectBackoffMs = Math.min(reconnectBackoffMs * 2, MAX_BACKOFF_MS);
-                return;
+        } else if (!events.offer(message)) {
+            // Full: make room by dropping the oldest event, else drop this one
+            if (events.poll() != null) {
+                dropped.incrementAndGet();
+            }
+            if (!events.offer(message)) {
+                dropped.incrementAndGet();
             }
         }
-        
-        try {
-            out.println(message);
-            if (out.checkError()) {
+        wakeWriter();
+    }
+
+    private void enqueueForAgent(String agent, Outgoing message) {
+        String line = MessageType.AGENT.prefix + ":" + agent + "|" + message.text();
+        Outgoing wrapped = new Outgoing(MessageType.AGENT, line, () -> TelemetryCodec.encode(line));
+        if (SNAPSHOT_TYPES.contains(message.type())) {
+            if (agentSnapshots.put(agent + "|" + message.type().prefix, wrapped) != null) {
+                coalesced.incrementAndGet();
+            }
+        } else if (!events.offer(wrapped)) {
+            if (events.poll() != null) {
+                dropped.incrementAndGet();
+            }
+            if (!events.offer(wrapped)) {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    private void wakeWriter() {
+        Thread w = writer;
+        if (w != null) {
+            LockSupport.unpark(w);
+        }
+    }
+
+    /**
+     * Tag messages sent from the calling thread with an agent id until cleared.
+     * Pass null for the primary agent, whose messages are sent untagged.
+     */
+    public void setAgentScope(String agentId) {
+        if (agentId == null) {
+            agentScope.remove();
+        } else {
+            agentScope.set(agentId);
+        }
+    }
+
+    public String getAgentScope() {
+        return agentScope.get();
+    }
+
+    // ===== WRITER THREAD =====
+
+    private void writerLoop() {
+        long firstUnflushedAt = 0;
+        int unflushedBytes = 0;
+
+        while (running) {
+            if (!connected) {
+                discardPending();
+                if (!reconnect()) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+            }
+
+            try {
+                int written = drain();
+                if (written > 0) {
+                    if (unflushedBytes == 0) {
+                        firstUnflushedAt = System.nanoTime();
+                    }
+                    unflushedBytes += written;
+                }
+
+                long waited = System.nanoTime() - firstUnflushedAt;
+                if (unflushedBytes >= FLUSH_BYTES || (unflushedBytes > 0 && waited >= FLUSH_INTERVAL_NANOS)) {
+                    out.flush();
+                    unflushedBytes = 0;
+                } else if (written == 0) {
+                    LockSupport.parkNanos(unflushedBytes > 0 ? FLUSH_INTERVAL_NANOS - waited : IDLE_PARK_NANOS);
+                }
+            } catch (IOException e) {
                 connected = false;
+                unflushedBytes = 0;
+            }
+        }
+
+        // Best-effort final flush on disconnect
+        if (connected) {
+            try {
+                drain();
+                out.flush();
+            } catch (IOException ignored) {
             }
-        } catch (Exception e) {
-            connected = false;
         }
     }
-    
+
+    /**
+     * Write everything currently queued (events first, then latest snapshots).
+     * @return bytes written to the buffered stream
+     */
+    private int drain() throws IOException {
+        int bytes = 0;
+        Outgoing next;
+        while ((next = events.poll()) != null) {
+            bytes += write(next);
+        }
+        for (int i = 0; i < snapshots.length(); i++) {
+            Outgoing snapshot = snapshots.getAndSet(i, null);
+            if (snapshot != null) {
+                bytes += write(snapshot);
+            }
+        }
+        for (String key : agentSnapshots.keySet()) {
+            Outgoing snapshot = agentSnapshots.remove(key);
+            if (snapshot != null) {
+                bytes += write(snapshot);
+            }
+        }
+        bytes += reportStats();
+        return bytes;
+    }
+
+    private int write(Outgoing message) throws IOException {
+        if (binary) {
+            byte[] body = message.frame().get();
+            TelemetryCodec.writeFrame(out, body);
+            return body.length + 5;
+        }
+        byte[] line = (message.text() + "\n").getBytes(StandardCharsets.UTF_8);
+        out.write(line);
+        return line.length;
+    }
+
+    private int reportStats() throws IOException {
+        long now = System.currentTimeMillis();
+        if (now - lastStatsAt < STATS_INTERVAL_MS) {
+            return 0;
+        }
+        long d = dropped.get();
+        long c = coalesced.get();
+        if (d == reportedDropped && c == reportedCoalesced) {
+            return 0;
+        }
+        lastStatsAt = now;
+        reportedDropped = d;
+        reportedCoalesced = c;
+        String stats = "TELEMETRY:dropped=" + d + ",coalesced=" + c + ",queued=" + events.size();
+        return write(new Outgoing(MessageType.TELEMETRY, stats, () -> TelemetryCodec.encode(stats)));
+    }
+
+    private boolean reconnect() {
+        // Lazy reconnect with backoff to prevent socket spam
+        long now = System.currentTimeMillis();
+        if (now - lastReconnectAttempt < reconnectBackoffMs) {
+            return false; // Too soon to retry
+        }
+        lastReconnectAttempt = now;
+        if (!openConnection()) {
+            reconnectBackoffMs = Math.min(reconnectBackoffMs * 2, MAX_BACKOFF_MS);
+            return false;
+        }
+        return true;
+    }
+
+    private void discardPending() {
+        while (events.poll() != null) {
+            // Nothing to deliver them to
+        }
+        for (int i = 0; i < snapshots.length(); i++) {
+            snapshots.set(i, null);
+        }
+        agentSnapshots.clear();
+    }
+
+    // ===== TYPED MESSAGES =====
+
     /**
      * Send tick number
      */
     public void sendTick(int tick) {
-        send("TICK:" + tick);
+        enqueue(new Outgoing(MessageType.TICK, "TICK:" + tick,
+            () -> TelemetryCodec.encodeLong(MessageType.TICK, tick)));
     }
-    
+
     /**
      * Send observation data
      */
     public void sendObservation(String observation) {
         send("OBSERVATION:" + observation);
     }
-    
+
     /**
      * Send position
      */
     public void sendPosition(double x, double y, double z) {
-        send("POSITION:" + String.format("%.1f, %.1f, %.1f", x, y, z));
+        enqueue(new Outgoing(MessageType.POSITION, String.format("POSITION:%.1f, %.1f, %.1f", x, y, z),
+            () -> TelemetryCodec.encodePosition(x, y, z)));
+    }
+
+    /**
+     * Send inventory snapshot (material name → count)
+     */
+    public void sendInventory(Map<String, Integer> items) {
+        StringBuilder sb = new StringBuilder("INVENTORY:");
+        boolean first = true;
+        for (Map.Entry<String, Integer> e : items.entrySet()) {
+            if (!first) sb.append(",");
+            sb.append(e.getKey()).append("=").append(e.getValue());
+            first = false;
+        }
+        enqueue(new Outgoing(MessageType.INVENTORY, sb.toString(), () -> TelemetryCodec.encodeInventory(items)));
     }
-    
+
     /**
      * Send player count/names
      */
     public void sendPlayers(String players) {
         send("PLAYERS:" + players);
     }
-    
+
     /**
      * Send thinking/prompt
      */
     public void sendThinking(String prompt) {
         send("THINKING:" + prompt);
     }
-    
+
     /**
      * Send LLM response
      */
     public void sendLLMResponse(String response) {
         send("LLM_RESPONSE:" + response);
     }
-    
+
     /**
      * Send action
      */
     public void sendAction(String action) {
         send("ACTION:" + action);
     }
-    
+
     /**
      * Send error
      */
     public void sendError(String error) {
         send("ERROR:" + error);
     }
-    
+
     /**
      * Send response time in milliseconds
      */
     public void sendResponseTime(long milliseconds) {
-        send("RESPONSE_TIME:" + milliseconds);
+        enqueue(new Outgoing(MessageType.RESPONSE_TIME, "RESPONSE_TIME:" + milliseconds,
+            () -> TelemetryCodec.encodeLong(MessageType.RESPONSE_TIME, milliseconds)));
     }
-    
+
     /**
      * Send AI POV (what Freddy sees)
-     * Encodes multi-line visual data into a single line using escape sequences
+     * Text mode encodes multi-line visual data into a single line using escape
+     * sequences; binary frames carry real newlines (and deflate large frames)
      */
     public void sendPOV(String povData) {
-        if (povData == null || povData.isEmpty()) {
-            send("POV:");
-            return;
-        }
-        
-        // Replace newlines with \n escape sequences so the entire POV fits in one line
-        String encoded = povData.replace("\n", "\\n");
-        send("POV:" + encoded);
+        String pov = povData == null ? "" : povData;
+        enqueue(new Outgoing(MessageType.POV, "POV:" + pov.replace("\n", "\\n"),
+            () -> TelemetryCodec.encodePov(pov)));
     }
-    
+
+    /**
+     * Send structured perception for the dashboard to render
+     */
+    public void sendPovFrame(PovFrame frame) {
+        String encoded = frame.encode();
+        enqueue(new Outgoing(MessageType.POV_FRAME, "POV_FRAME:" + encoded,
+            () -> TelemetryCodec.encodePovFrame(encoded)));
+    }
+
     /**
      * Send chat message
      */
     public void sendChat(String playerName, String message) {
         send("CHAT:" + playerName + "|" + message);
     }
-    
+
+    // ===== STATE =====
+
     /**
      * Check if connected
      */
     public boolean isConnected() {
         return connected;
     }
-    
+
+    /**
+     * True when the dashboard accepted the binary frame protocol
+     */
+    public boolean isBinaryProtocol() {
+        return connected && binary;
+    }
+
+    /** Events dropped because the buffer was full. */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /** Snapshot messages replaced by a newer value before they were written. */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public int getQueuedCount() {
+        return events.size();
+    }
+
     /**
      * Disconnect from dashboard
      */
     public void disconnect() {
-        try {
-            if (out != null) {
-                out.close();
+        Thread w = writer;
+        running = false;
+        if (w != null) {
+            LockSupport.unpark(w);
+            try {
+                w.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
+        }
+        synchronized (connectLock) {
+            writer = null;
+            closeSocket();
+            connected = false;
+        }
+    }
+
+    private void closeSocket() {
+        // Close the socket, not the buffered stream: closing the stream would flush
+        // and block behind a writer that is stuck on a stalled dashboard.
+        try {
             if (socket != null && !socket.isClosed()) {
                 socket.close();
             }
         } catch (IOException e) {
             // Ignore
         }
-        connected = false;
+        out = null;
+        socket = null;
     }
 }
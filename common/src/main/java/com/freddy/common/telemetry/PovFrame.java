@@ -0,0 +1,195 @@
+package com.freddy.common.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What an NPC perceives at one moment, as data rather than a rendered picture.
+ *
+ * The plugin fills one in and sends {@link #encode()}'d; the dashboard
+ * {@link #parse}s it and does all the drawing. The wire form is a single line:
+ *
+ * <pre>
+ * source|x,y,z,yaw|biome|sky,block|name,dist,angle,vAngle;...|TYPE,dx,dy,dz,dist;...|radius,cells
+ * </pre>
+ *
+ * Decimals carry one digit, block hits carry integer offsets (relative to the NPC
+ * or to the area it scanned, depending on the source) and the grid field is empty
+ * when no {@link Grid} was attached. Names are sanitized so they never contain a
+ * separator.
+ */
+public record PovFrame(Source source,
+                       double x, double y, double z, float yaw,
+                       String biome, int skyLight, int blockLight,
+                       List<Player> players,
+                       List<BlockHit> blocks,
+                       Grid grid) {
+
+    public enum Source {
+        /** Nearby players and blocks from the perception scan */
+        SENSES('S'),
+        /** First blocks hit by the vision cone's rays */
+        VISION('V');
+
+        final char code;
+
+        Source(char code) {
+            this.code = code;
+        }
+
+        static Source byCode(char code) {
+            for (Source s : values()) {
+                if (s.code == code) return s;
+            }
+            throw new IllegalArgumentException("unknown POV source: " + code);
+        }
+    }
+
+    /**
+     * @param angle Horizontal degrees from the view direction, negative to the left
+     * @param verticalAngle Degrees above (positive) or below eye level
+     */
+    public record Player(String name, double distance, double angle, double verticalAngle) { }
+
+    public record BlockHit(String type, int dx, int dy, int dz, double distance) { }
+
+    /**
+     * Top-down occupancy around the NPC: {@code (2 × radius + 1)²} cell codes, rows from
+     * north to south, each row west to east, the NPC in the middle cell
+     */
+    public record Grid(int radius, String cells) {
+        public static final char EMPTY = '.';
+        public static final char SOLID = '#';
+        public static final char FOLIAGE = '%';
+        public static final char WATER = '~';
+        public static final char LAVA = '^';
+        public static final char ENTITY = 'e';
+        public static final char SELF = '@';
+        /** Outside the captured area */
+        public static final char UNKNOWN = '?';
+
+        public Grid {
+            int side = 2 * radius + 1;
+            if (radius < 0 || cells.length() != side * side) {
+                throw new IllegalArgumentException("grid needs " + side * side + " cells, got " + cells.length());
+            }
+        }
+
+        public int side() {
+            return 2 * radius + 1;
+        }
+
+        /**
+         * @param dx Columns east of the NPC, -radius..radius
+         * @param dz Rows south of the NPC, -radius..radius
+         */
+        public char at(int dx, int dz) {
+            return cells.charAt((dz + radius) * side() + dx + radius);
+        }
+    }
+
+    public PovFrame {
+        biome = biome == null ? "UNKNOWN" : biome;
+        players = List.copyOf(players);
+        blocks = List.copyOf(blocks);
+    }
+
+    // ===== WIRE FORM =====
+
+    public String encode() {
+        StringBuilder sb = new StringBuilder(96 + players.size() * 24 + blocks.size() * 24
+            + (grid != null ? grid.cells().length() + 8 : 0));
+        sb.append(source.code).append('|');
+        appendTenths(sb, x);
+        sb.append(',');
+        appendTenths(sb, y);
+        sb.append(',');
+        appendTenths(sb, z);
+        sb.append(',');
+        appendTenths(sb, yaw);
+        sb.append('|').append(clean(biome)).append('|')
+            .append(skyLight).append(',').append(blockLight).append('|');
+        for (int i = 0; i < players.size(); i++) {
+            Player p = players.get(i);
+            if (i > 0) sb.append(';');
+            sb.append(clean(p.name())).append(',');
+            appendTenths(sb, p.distance());
+            sb.append(',');
+            appendTenths(sb, p.angle());
+            sb.append(',');
+            appendTenths(sb, p.verticalAngle());
+        }
+        sb.append('|');
+        for (int i = 0; i < blocks.size(); i++) {
+            BlockHit b = blocks.get(i);
+            if (i > 0) sb.append(';');
+            sb.append(clean(b.type())).append(',')
+                .append(b.dx()).append(',').append(b.dy()).append(',').append(b.dz()).append(',');
+            appendTenths(sb, b.distance());
+        }
+        sb.append('|');
+        if (grid != null) {
+            sb.append(grid.radius()).append(',').append(grid.cells());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not an encoded frame
+     */
+    public static PovFrame parse(String text) {
+        String[] fields = text.trim().split("\\|", -1);
+        if (fields.length != 7 || fields[0].length() != 1) {
+            throw new IllegalArgumentException("not a POV frame");
+        }
+        try {
+            String[] pos = fields[1].split(",");
+            String[] light = fields[3].split(",");
+
+            List<Player> players = new ArrayList<>();
+            for (String entry : items(fields[4])) {
+                String[] p = entry.split(",");
+                players.add(new Player(p[0], Double.parseDouble(p[1]),
+                    Double.parseDouble(p[2]), Double.parseDouble(p[3])));
+            }
+            List<BlockHit> blocks = new ArrayList<>();
+            for (String entry : items(fields[5])) {
+                String[] b = entry.split(",");
+                blocks.add(new BlockHit(b[0], Integer.parseInt(b[1]), Integer.parseInt(b[2]),
+                    Integer.parseInt(b[3]), Double.parseDouble(b[4])));
+            }
+            Grid grid = null;
+            if (!fields[6].isEmpty()) {
+                int comma = fields[6].indexOf(',');
+                grid = new Grid(Integer.parseInt(fields[6].substring(0, comma)), fields[6].substring(comma + 1));
+            }
+
+            return new PovFrame(Source.byCode(fields[0].charAt(0)),
+                Double.parseDouble(pos[0]), Double.parseDouble(pos[1]), Double.parseDouble(pos[2]),
+                Float.parseFloat(pos[3]), fields[2],
+                Integer.parseInt(light[0]), Integer.parseInt(light[1]),
+                players, blocks, grid);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("malformed POV frame: " + e.getMessage(), e);
+        }
+    }
+
+    private static String[] items(String field) {
+        return field.isEmpty() ? new String[0] : field.split(";");
+    }
+
+    /** One decimal without String.format */
+    private static void appendTenths(StringBuilder sb, double value) {
+        long tenths = Math.round(value * 10.0);
+        if (tenths < 0) {
+            sb.append('-');
+            tenths = -tenths;
+        }
+        sb.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+    private static String clean(String s) {
+        if (s == null || s.isEmpty()) return "?";
+        return s.replace('|', '_').replace(';', '_').replace(',', '_');
+    }
+}
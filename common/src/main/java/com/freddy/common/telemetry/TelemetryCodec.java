@@ -0,0 +1,413 @@
+package com.freddy.common.telemetry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary framing for plugin → dashboard telemetry.
+ *
+ * Frame: varint(length) | type id (1 byte) | payload.
+ * TICK/RESPONSE_TIME are a single varint, POSITION is three zigzag varints in
+ * centi-blocks, INVENTORY is varint(count) + (string, varint)*, POV and
+ * POV_FRAME are a flag byte followed by (optionally deflated) UTF-8. Everything
+ * else is UTF-8 text.
+ *
+ * The text protocol ("PREFIX:payload\n") stays the fallback: the client opens
+ * with {@link #HELLO} and only switches to frames if the dashboard answers
+ * {@link #HELLO_ACK}.
+ */
+public final class TelemetryCodec {
+
+    public static final String HELLO = "HELLO:BINARY/1";
+    public static final String HELLO_ACK = "OK:BINARY/1";
+
+    /** POV and POV_FRAME payloads above this size are deflated. */
+    private static final int POV_COMPRESS_THRESHOLD = 512;
+    private static final int POV_FLAG_DEFLATED = 1;
+    private static final int MAX_FRAME_BYTES = 8 * 1024 * 1024;
+
+    public enum MessageType {
+        RAW(0, null),
+        TICK(1, "TICK"),
+        POSITION(2, "POSITION"),
+        RESPONSE_TIME(3, "RESPONSE_TIME"),
+        INVENTORY(4, "INVENTORY"),
+        POV(5, "POV"),
+        OBSERVATION(6, "OBSERVATION"),
+        PLAYERS(7, "PLAYERS"),
+        THINKING(8, "THINKING"),
+        LLM_RESPONSE(9, "LLM_RESPONSE"),
+        ACTION(10, "ACTION"),
+        ERROR(11, "ERROR"),
+        CHAT(12, "CHAT"),
+        GOAL(13, "GOAL"),
+        GOAL_STEPS(14, "GOAL_STEPS"),
+        GOAL_STEP_UPDATE(15, "GOAL_STEP_UPDATE"),
+        GOAL_CATALOG(16, "GOAL_CATALOG"),
+        GOAL_QUEUE(17, "GOAL_QUEUE"),
+        ADV_FEATURES(18, "ADV_FEATURES"),
+        ADV_STATE(19, "ADV_STATE"),
+        WORKFLOW_SAFETY(20, "WORKFLOW_SAFETY"),
+        BRAIN_CACHE(21, "BRAIN_CACHE"),
+        TELEMETRY(22, "TELEMETRY"),
+        /** "AGENT:id|PREFIX:payload" - a message from an agent other than the primary NPC */
+        AGENT(23, "AGENT"),
+        BRAIN_PROMPT(24, "BRAIN_PROMPT"),
+        /** Per-call-site LLM latency percentiles and counters */
+        LLM_METRICS(25, "LLM_METRICS"),
+        /** Per-tick microseconds and over-budget ticks per AI subsystem */
+        PROFILE(26, "PROFILE"),
+        /** Structured perception, see {@link PovFrame}; the dashboard renders it */
+        POV_FRAME(27, "POV_FRAME");
+
+        public final int id;
+        public final String prefix;
+
+        MessageType(int id, String prefix) {
+            this.id = id;
+            this.prefix = prefix;
+        }
+
+        private static final MessageType[] BY_ID = new MessageType[64];
+        static {
+            for (MessageType t : values()) BY_ID[t.id] = t;
+        }
+
+        public static MessageType byId(int id) {
+            return id >= 0 && id < BY_ID.length && BY_ID[id] != null ? BY_ID[id] : RAW;
+        }
+
+        /** Resolve the type of a text message by its "PREFIX:" (RAW if unknown). */
+        public static MessageType byPrefix(String message) {
+            int colon = message.indexOf(':');
+            if (colon <= 0) return RAW;
+            String prefix = message.substring(0, colon);
+            for (MessageType t : values()) {
+                if (prefix.equals(t.prefix)) return t;
+            }
+            return RAW;
+        }
+    }
+
+    /**
+     * Decoded frame. {@code payload} is the text the dashboard would have seen
+     * after the "PREFIX:" of the text protocol (POV with real newlines); for RAW
+     * it is the whole original line.
+     */
+    public record Frame(MessageType type, String payload) { }
+
+    private TelemetryCodec() { }
+
+    // ===== ENCODING =====
+
+    /**
+     * Encode a text-protocol message ("PREFIX:payload") into a frame body.
+     * Numeric payloads that fail to parse are sent as RAW so nothing is lost.
+     */
+    public static byte[] encode(String message) {
+        MessageType type = MessageType.byPrefix(message);
+        if (type == MessageType.RAW) {
+            return body(MessageType.RAW, utf8(message));
+        }
+        String payload = message.substring(type.prefix.length() + 1);
+        try {
+            return switch (type) {
+                case TICK, RESPONSE_TIME -> encodeLong(type, Long.parseLong(payload.trim()));
+                case POSITION -> encodePosition(payload);
+                case INVENTORY -> encodeInventory(payload);
+                case POV -> encodePov(payload.replace("\\n", "\n"));
+                case POV_FRAME -> encodePovFrame(payload);
+                default -> body(type, utf8(payload));
+            };
+        } catch (RuntimeException e) {
+            return body(MessageType.RAW, utf8(message));
+        }
+    }
+
+    public static byte[] encodeLong(MessageType type, long value) {
+        Bytes out = new Bytes(12);
+        out.write(type.id);
+        writeVarLong(out, value);
+        return out.toByteArray();
+    }
+
+    public static byte[] encodePosition(double x, double y, double z) {
+        Bytes out = new Bytes(16);
+        out.write(MessageType.POSITION.id);
+        writeVarLong(out, zigzag(Math.round(x * 100.0)));
+        writeVarLong(out, zigzag(Math.round(y * 100.0)));
+        writeVarLong(out, zigzag(Math.round(z * 100.0)));
+        return out.toByteArray();
+    }
+
+    public static byte[] encodeInventory(Map<String, Integer> items) {
+        Bytes out = new Bytes(16 + items.size() * 16);
+        out.write(MessageType.INVENTORY.id);
+        writeVarLong(out, items.size());
+        for (Map.Entry<String, Integer> e : items.entrySet()) {
+            writeString(out, e.getKey());
+            writeVarLong(out, Math.max(0, e.getValue()));
+        }
+        return out.toByteArray();
+    }
+
+    /** POV text with real newlines; deflated when large. */
+    public static byte[] encodePov(String pov) {
+        return encodeDeflatable(MessageType.POV, pov);
+    }
+
+    /** {@link PovFrame#encode()} output; deflated when large (mostly the occupancy grid). */
+    public static byte[] encodePovFrame(String frame) {
+        return encodeDeflatable(MessageType.POV_FRAME, frame);
+    }
+
+    private static byte[] encodeDeflatable(MessageType type, String text) {
+        byte[] raw = utf8(text);
+        Bytes out = new Bytes(raw.length / 2 + 8);
+        out.write(type.id);
+        if (raw.length >= POV_COMPRESS_THRESHOLD) {
+            out.write(POV_FLAG_DEFLATED);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(raw);
+                deflater.finish();
+                byte[] buf = new byte[4096];
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(buf);
+                    out.write(buf, 0, n);
+                }
+            } finally {
+                deflater.end();
+            }
+        } else {
+            out.write(0);
+            out.write(raw, 0, raw.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodePosition(String payload) {
+        String[] parts = payload.split(",");
+        if (parts.length != 3) throw new IllegalArgumentException("position needs 3 components");
+        return encodePosition(
+            Double.parseDouble(parts[0].trim()),
+            Double.parseDouble(parts[1].trim()),
+            Double.parseDouble(parts[2].trim()));
+    }
+
+    private static byte[] encodeInventory(String payload) {
+        Map<String, Integer> items = new java.util.LinkedHashMap<>();
+        if (!payload.isBlank()) {
+            for (String part : payload.split(",")) {
+                String[] kv = part.split("=");
+                if (kv.length != 2) throw new IllegalArgumentException("bad inventory entry");
+                items.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+            }
+        }
+        return encodeInventory(items);
+    }
+
+    private static byte[] body(MessageType type, byte[] payload) {
+        byte[] out = new byte[payload.length + 1];
+        out[0] = (byte) type.id;
+        System.arraycopy(payload, 0, out, 1, payload.length);
+        return out;
+    }
+
+    /** Write one length-prefixed frame. Caller flushes. */
+    public static void writeFrame(OutputStream out, byte[] body) throws IOException {
+        long len = body.length;
+        while ((len & ~0x7FL) != 0) {
+            out.write((int) ((len & 0x7F) | 0x80));
+            len >>>= 7;
+        }
+        out.write((int) len);
+        out.write(body);
+    }
+
+    // ===== DECODING =====
+
+    /**
+     * Read one frame.
+     * @return the decoded frame, or null at end of stream
+     */
+    public static Frame readFrame(InputStream in) throws IOException {
+        int first = in.read();
+        if (first < 0) return null;
+        long length = readVarLong(in, first);
+        if (length <= 0 || length > MAX_FRAME_BYTES) {
+            throw new IOException("Invalid telemetry frame length: " + length);
+        }
+        byte[] body = in.readNBytes((int) length);
+        if (body.length != length) throw new EOFException("Truncated telemetry frame");
+        return decode(body);
+    }
+
+    public static Frame decode(byte[] body) throws IOException {
+        MessageType type = MessageType.byId(body[0] & 0xFF);
+        Cursor in = new Cursor(body, 1);
+        return switch (type) {
+            case TICK, RESPONSE_TIME -> new Frame(type, Long.toString(in.varLong()));
+            case POSITION -> new Frame(type, String.format(Locale.ROOT, "%.2f, %.2f, %.2f",
+                unzigzag(in.varLong()) / 100.0, unzigzag(in.varLong()) / 100.0, unzigzag(in.varLong()) / 100.0));
+            case INVENTORY -> {
+                long count = in.varLong();
+                StringBuilder sb = new StringBuilder();
+                for (long i = 0; i < count; i++) {
+                    if (i > 0) sb.append(',');
+                    sb.append(in.string()).append('=').append(in.varLong());
+                }
+                yield new Frame(type, sb.toString());
+            }
+            case POV, POV_FRAME -> new Frame(type, decodeDeflatable(body));
+            default -> new Frame(type, new String(body, 1, body.length - 1, StandardCharsets.UTF_8));
+        };
+    }
+
+    private static String decodeDeflatable(byte[] body) throws IOException {
+        if (body.length < 2) return "";
+        if ((body[1] & POV_FLAG_DEFLATED) == 0) {
+            return new String(body, 2, body.length - 2, StandardCharsets.UTF_8);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(body, 2, body.length - 2);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length * 4);
+            byte[] buf = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buf);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                out.write(buf, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt deflated payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Read a '\n'-terminated ASCII/UTF-8 line byte by byte (no read-ahead), so the
+     * same stream can continue as frames after the handshake.
+     * @return the line without terminator, or null at end of stream
+     */
+    public static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) >= 0) {
+            if (b == '\n') break;
+            if (b != '\r') line.write(b);
+        }
+        if (b < 0 && line.size() == 0) return null;
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    // ===== PRIMITIVES =====
+
+    private static byte[] utf8(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarLong(Bytes out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static void writeString(Bytes out, String s) {
+        byte[] b = utf8(s);
+        writeVarLong(out, b.length);
+        out.write(b, 0, b.length);
+    }
+
+    private static long readVarLong(InputStream in, int first) throws IOException {
+        long result = first & 0x7F;
+        int shift = 7;
+        int b = first;
+        while ((b & 0x80) != 0) {
+            b = in.read();
+            if (b < 0) throw new EOFException("Truncated varint");
+            if (shift > 63) throw new IOException("Varint too long");
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        return result;
+    }
+
+    /** ByteArrayOutputStream without the synchronized methods. */
+    private static final class Bytes extends ByteArrayOutputStream {
+        Bytes(int size) {
+            super(size);
+        }
+
+        @Override
+        public void write(int b) {
+            ensure(1);
+            buf[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensure(len);
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+
+        private void ensure(int extra) {
+            if (count + extra > buf.length) {
+                buf = java.util.Arrays.copyOf(buf, Math.max(buf.length * 2, count + extra));
+            }
+        }
+    }
+
+    private static final class Cursor {
+        private final byte[] data;
+        private int pos;
+
+        Cursor(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        long varLong() throws IOException {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                if (pos >= data.length) throw new EOFException("Truncated varint");
+                int b = data[pos++] & 0xFF;
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return result;
+                shift += 7;
+                if (shift > 63) throw new IOException("Varint too long");
+            }
+        }
+
+        String string() throws IOException {
+            int len = (int) varLong();
+            if (len < 0 || pos + len > data.length) throw new EOFException("Truncated string");
+            String s = new String(data, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+    }
+}
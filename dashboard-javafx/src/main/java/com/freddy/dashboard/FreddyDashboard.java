@@ -1,6 +1,7 @@
 package com.freddy.dashboard;
 
 import com.freddy.dashboard.ui.DashboardUI;
+import com.freddy.dashboard.ui.PovRenderer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -36,12 +37,16 @@ import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
 import javafx.collections.FXCollections;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayDeque;
@@ -52,6 +57,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.freddy.common.telemetry.PovFrame;
+import com.freddy.common.telemetry.TelemetryCodec;
 import com.freddy.dashboard.graph.StepGraphVisualizer;
 
 /**
@@ -96,6 +103,7 @@ public class FreddyDashboard extends Application {
     private Label actionStatusControl;
     private Label missionSnapshotLabel;
     private final List<String> knownPlayers = new ArrayList<>();
+    private final java.util.Set<String> knownAgents = new java.util.HashSet<>();
     private String currentGoal = "none";
     private String currentAction = "none";
     private String currentPosition = "unknown";
@@ -1015,17 +1023,36 @@ public class FreddyDashboard extends Application {
                         // Handle each client in a separate thread
                         new Thread(() -> {
                             try {
-                                BufferedReader in = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+                                InputStream raw = new BufferedInputStream(clientSocket.getInputStream());
                                 log("SYSTEM", "Client reader started - waiting for messages...");
 
-                                String line;
                                 int messageCount = 0;
-                                while ((line = in.readLine()) != null) {
-                                    messageCount++;
-                                    if (messageCount % 10 == 0) {
-                                        log("SYSTEM", "Received " + messageCount + " messages so far");
+                                String first = TelemetryCodec.readLine(raw);
+                                if (TelemetryCodec.HELLO.equals(first)) {
+                                    // Binary frame protocol negotiated by the plugin
+                                    OutputStream ack = clientSocket.getOutputStream();
+                                    ack.write((TelemetryCodec.HELLO_ACK + "\n").getBytes(StandardCharsets.UTF_8));
+                                    ack.flush();
+                                    log("SYSTEM", "Client negotiated binary telemetry protocol");
+
+                                    TelemetryCodec.Frame frame;
+                                    while ((frame = TelemetryCodec.readFrame(raw)) != null) {
+                                        messageCount++;
+                                        if (messageCount % 10 == 0) {
+                                            log("SYSTEM", "Received " + messageCount + " messages so far");
+                                        }
+                                        processTelemetryFrame(frame);
                                     }
-                                    processTelemetryMessage(line);
+                                } else if (first != null) {
+                                    BufferedReader in = new BufferedReader(new InputStreamReader(raw, StandardCharsets.UTF_8));
+                                    String line = first;
+                                    do {
+                                        messageCount++;
+                                        if (messageCount % 10 == 0) {
+                                            log("SYSTEM", "Received " + messageCount + " messages so far");
+                                        }
+                                        processTelemetryMessage(line);
+                                    } while ((line = in.readLine()) != null);
                                 }
 
                                 clientSocket.close();
@@ -1055,148 +1082,220 @@ public class FreddyDashboard extends Application {
     }
 
     private void processTelemetryMessage(String message) {
+        // Text protocol: "PREFIX:payload" lines, POV newlines escaped as \\n
+        TelemetryCodec.MessageType type = TelemetryCodec.MessageType.byPrefix(message);
+        String payload = type == TelemetryCodec.MessageType.RAW
+            ? message
+            : message.substring(type.prefix.length() + 1);
+        if (type == TelemetryCodec.MessageType.POV) {
+            payload = payload.replace("\\n", "\n");
+        }
+        dispatchTelemetry(type, payload, message);
+    }
+
+    /**
+     * Secondary agents: "id|PREFIX:payload". The panels follow the primary NPC, so other
+     * agents only surface their events (actions, goals, errors, chat) in the log.
+     */
+    private void handleAgentMessage(String payload) {
+        int sep = payload.indexOf('|');
+        if (sep <= 0) {
+            return;
+        }
+        String agentId = payload.substring(0, sep);
+        String inner = payload.substring(sep + 1);
+        if (knownAgents.add(agentId)) {
+            log("AGENT", "Agent online: " + agentId + " (" + knownAgents.size() + " secondary)");
+        }
+        TelemetryCodec.MessageType innerType = TelemetryCodec.MessageType.byPrefix(inner);
+        switch (innerType) {
+            case ACTION, GOAL, ERROR, CHAT, GOAL_STEP_UPDATE ->
+                log("AGENT " + agentId, inner);
+            default -> { }
+        }
+    }
+
+    private void processTelemetryFrame(TelemetryCodec.Frame frame) {
+        dispatchTelemetry(frame.type(), frame.payload(), null);
+    }
+
+    /**
+     * @param rawLine original text line, or null for binary frames (logged lazily)
+     */
+    private void dispatchTelemetry(TelemetryCodec.MessageType type, String payload, String rawLine) {
         Platform.runLater(() -> {
             try {
                 // Log ALL messages for debugging
+                String message = rawLine != null ? rawLine
+                    : (type == TelemetryCodec.MessageType.RAW ? payload : type.prefix + ":" + payload);
                 if (message.length() > 100) {
                     log("RECV", message.substring(0, 80) + "... (" + message.length() + " chars)");
                 } else {
                     log("RECV", message);
                 }
                 
-                if (message.startsWith("TICK:")) {
-                    tickCounter++;
-                    cyclesValue.setText(String.valueOf(tickCounter));
-
-                    long now = System.currentTimeMillis();
-                    double freq = 1000.0 / Math.max(1, (now - lastTickTime));
-                    frequencyValue.setText(String.format("%.2f Hz", freq));
-                    lastTickTime = now;
-
-                    updateState(0);
-
-                } else if (message.startsWith("POV:")) {
-                    String povData = message.substring(4).trim();
-                    // Decode escape sequences: \n back to actual newlines
-                    povData = povData.replace("\\n", "\n");
-                    updatePOVDisplay(povData);
-                    updateState(0);
-
-                } else if (message.startsWith("VIDEO")) {
-                    // Video feeds are intentionally disabled in dashboard UI.
-                    log("VIDEO", "Video stream packet ignored (travel map mode)");
-
-                } else if (message.startsWith("OBSERVATION:")) {
-                    String obs = message.substring(12).trim();
-                    log("OBSERVE", obs);
-                    updateState(0);
-
-                } else if (message.startsWith("POSITION:")) {
-                    String pos = message.substring(9).trim();
-                    positionValue.setText(pos);
-                    currentPosition = pos;
-                    updateMissionSnapshot();
-                    updateTravelMap(pos);
-
-                } else if (message.startsWith("PLAYERS:")) {
-                    String players = message.substring(8).trim();
-                    entitiesValue.setText(players);
-                    currentPlayers = players;
-                    updatePlayerSelector(players);
-                    updateMissionSnapshot();
-
-                } else if (message.startsWith("THINKING:")) {
-                    String thinking = message.substring(9).trim();
-                    log("PROCESS", thinking);
-                    updateDecisionMatrix("PROCESSING", thinking);
-                    updateState(1);
-
-                } else if (message.startsWith("LLM_RESPONSE:")) {
-                    String response = message.substring(13).trim();
-                    log("LLM", response);
-                    updateDecisionMatrix("LLM OUTPUT", response);
-                    updateState(2);
-
-                } else if (message.startsWith("RESPONSE_TIME:")) {
-                    String time = message.substring(14).trim();
-                    latencyValue.setText(time + " ms");
-
-                } else if (message.startsWith("ACTION:")) {
-                    String action = message.substring(7).trim();
-                    log("EXECUTE", action);
-                    updateDecisionMatrix("EXECUTION", action);
-                    currentAction = action;
-                    totalActions++;
-                    if (successValue != null) {
-                        double rate = totalActions == 0 ? 0.0 : (completedSteps * 100.0 / totalActions);
-                        successValue.setText(String.format("%.0f%%", Math.max(0.0, Math.min(100.0, rate))));
+                switch (type) {
+                    case TICK -> {
+                        tickCounter++;
+                        cyclesValue.setText(String.valueOf(tickCounter));
+
+                        long now = System.currentTimeMillis();
+                        double freq = 1000.0 / Math.max(1, (now - lastTickTime));
+                        frequencyValue.setText(String.format("%.2f Hz", freq));
+                        lastTickTime = now;
+
+                        updateState(0);
+                    }
+                    case POV -> {
+                        updatePOVDisplay(payload.trim());
+                        updateState(0);
+                    }
+                    case POV_FRAME -> {
+                        try {
+                            updatePOVDisplay(PovRenderer.render(PovFrame.parse(payload)));
+                        } catch (IllegalArgumentException e) {
+                            log("ERROR", "Bad POV frame: " + e.getMessage());
+                        }
+                        updateState(0);
+                    }
+                    case OBSERVATION -> {
+                        String obs = payload.trim();
+                        log("OBSERVE", obs);
+                        updateState(0);
                     }
-                    updateMissionSnapshot();
-                    updateState(3);
-
-                } else if (message.startsWith("GOAL:")) {
-                    String goal = message.substring(5).trim();
-                    log("GOAL", goal);
-                    currentGoal = goal;
-                    updateMissionSnapshot();
-
-                } else if (message.startsWith("GOAL_CATALOG:")) {
-                    goalCatalogState = message.substring(13).trim();
-                    updateMissionSnapshot();
-
-                } else if (message.startsWith("ADV_FEATURES:")) {
-                    advancedFeaturesState = message.substring(13).trim();
-                    updateMissionSnapshot();
-
-                } else if (message.startsWith("GOAL_QUEUE:")) {
-                    goalQueueState = message.substring(11).trim();
-                    updateMissionSnapshot();
-
-                } else if (message.startsWith("WORKFLOW_SAFETY:")) {
-                    workflowSafetyState = message.substring(16).trim();
-                    updateMissionSnapshot();
-
-                } else if (message.startsWith("ADV_STATE:")) {
-                    advancedWorldState = message.substring(10).trim();
-                    updateMissionSnapshot();
-
-                } else if (message.startsWith("CHAT:")) {
-                    String chat = message.substring(5).trim();
-                    log("CHAT", chat);
-
-                } else if (message.startsWith("GOAL_STEPS:")) {
-                    String stepsJson = message.substring(11).trim();
-                    log("GOAL_STEPS", "Received steps: " + stepsJson);
-                    updateGoalSteps(stepsJson);
-
-                } else if (message.startsWith("GOAL_STEP_UPDATE:")) {
-                    String payload = message.substring(17).trim();
-                    String id = extractJsonValue(payload, "id");
-                    String status = extractJsonValue(payload, "status");
-                    if (id != null && !id.isEmpty() && status != null && !status.isEmpty()) {
-                        log("STEP_UPDATE", id + " -> " + status);
-                        if ("COMPLETED".equalsIgnoreCase(status)) {
-                            completedSteps++;
-                            if (successValue != null) {
-                                double rate = totalActions == 0 ? 100.0 : (completedSteps * 100.0 / totalActions);
-                                successValue.setText(String.format("%.0f%%", Math.max(0.0, Math.min(100.0, rate))));
+                    case POSITION -> {
+                        String pos = payload.trim();
+                        positionValue.setText(pos);
+                        currentPosition = pos;
+                        updateMissionSnapshot();
+                        updateTravelMap(pos);
+                    }
+                    case PLAYERS -> {
+                        String players = payload.trim();
+                        entitiesValue.setText(players);
+                        currentPlayers = players;
+                        updatePlayerSelector(players);
+                        updateMissionSnapshot();
+                    }
+                    case THINKING -> {
+                        String thinking = payload.trim();
+                        log("PROCESS", thinking);
+                        updateDecisionMatrix("PROCESSING", thinking);
+                        updateState(1);
+                    }
+                    case LLM_RESPONSE -> {
+                        String response = payload.trim();
+                        log("LLM", response);
+                        updateDecisionMatrix("LLM OUTPUT", response);
+                        updateState(2);
+                    }
+                    case RESPONSE_TIME -> {
+                        String time = payload.trim();
+                        latencyValue.setText(time + " ms");
+                    }
+                    case ACTION -> {
+                        String action = payload.trim();
+                        log("EXECUTE", action);
+                        updateDecisionMatrix("EXECUTION", action);
+                        currentAction = action;
+                        totalActions++;
+                        if (successValue != null) {
+                            double rate = totalActions == 0 ? 0.0 : (completedSteps * 100.0 / totalActions);
+                            successValue.setText(String.format("%.0f%%", Math.max(0.0, Math.min(100.0, rate))));
+                        }
+                        updateMissionSnapshot();
+                        updateState(3);
+                    }
+                    case GOAL -> {
+                        String goal = payload.trim();
+                        log("GOAL", goal);
+                        currentGoal = goal;
+                        updateMissionSnapshot();
+                    }
+                    case GOAL_CATALOG -> {
+                        goalCatalogState = payload.trim();
+                        updateMissionSnapshot();
+                    }
+                    case ADV_FEATURES -> {
+                        advancedFeaturesState = payload.trim();
+                        updateMissionSnapshot();
+                    }
+                    case GOAL_QUEUE -> {
+                        goalQueueState = payload.trim();
+                        updateMissionSnapshot();
+                    }
+                    case WORKFLOW_SAFETY -> {
+                        workflowSafetyState = payload.trim();
+                        updateMissionSnapshot();
+                    }
+                    case ADV_STATE -> {
+                        advancedWorldState = payload.trim();
+                        updateMissionSnapshot();
+                    }
+                    case BRAIN_CACHE -> {
+                        log("CACHE", payload.trim());
+                    }
+                    case BRAIN_PROMPT -> {
+                        log("PROMPT", payload.trim());
+                    }
+                    case LLM_METRICS -> {
+                        for (String site : payload.trim().split(";")) {
+                            if (!site.isEmpty()) log("LLM_METRICS", site);
+                        }
+                    }
+                    case PROFILE -> {
+                        for (String section : payload.trim().split(";")) {
+                            if (!section.isEmpty()) log("PROFILE", section);
+                        }
+                    }
+                    case TELEMETRY -> {
+                        log("TELEMETRY", payload.trim());
+                    }
+                    case AGENT -> {
+                        handleAgentMessage(payload.trim());
+                    }
+                    case CHAT -> {
+                        String chat = payload.trim();
+                        log("CHAT", chat);
+                    }
+                    case GOAL_STEPS -> {
+                        String stepsJson = payload.trim();
+                        log("GOAL_STEPS", "Received steps: " + stepsJson);
+                        updateGoalSteps(stepsJson);
+                    }
+                    case GOAL_STEP_UPDATE -> {
+                        String update = payload.trim();
+                        String id = extractJsonValue(update, "id");
+                        String status = extractJsonValue(update, "status");
+                        if (id != null && !id.isEmpty() && status != null && !status.isEmpty()) {
+                            log("STEP_UPDATE", id + " -> " + status);
+                            if ("COMPLETED".equalsIgnoreCase(status)) {
+                                completedSteps++;
+                                if (successValue != null) {
+                                    double rate = totalActions == 0 ? 100.0 : (completedSteps * 100.0 / totalActions);
+                                    successValue.setText(String.format("%.0f%%", Math.max(0.0, Math.min(100.0, rate))));
+                                }
+                            }
+                            if (stepGraphVisualizer != null) {
+                                stepGraphVisualizer.updateStepStatus(id, status);
                             }
                         }
-                        if (stepGraphVisualizer != null) {
-                            stepGraphVisualizer.updateStepStatus(id, status);
+                    }
+                    case INVENTORY -> {
+                        updateInventoryUI(payload.trim());
+                    }
+                    case ERROR -> {
+                        String error = payload.trim();
+                        log("ERROR", error);
+                    }
+                    default -> {
+                        if (message.startsWith("VIDEO")) {
+                            // Video feeds are intentionally disabled in dashboard UI.
+                            log("VIDEO", "Video stream packet ignored (travel map mode)");
+                        } else {
+                            log("DATA", message);
                         }
                     }
-
-                } else if (message.startsWith("INVENTORY:")) {
-                    String payload = message.substring(10).trim();
-                    updateInventoryUI(payload);
-
-                } else if (message.startsWith("ERROR:")) {
-                    String error = message.substring(6).trim();
-                    log("ERROR", error);
-
-                } else {
-                    log("DATA", message);
                 }
 
             } catch (Exception e) {
@@ -1293,7 +1392,7 @@ public class FreddyDashboard extends Application {
 
     private void updatePOVDisplay(String rawPOV) {
         // Display the visual stream directly without additional formatting
-        // The visual stream from WorldVisualization already has proper formatting
+        // Frames arrive already laid out by PovRenderer, or as plain text from older plugins
         if (rawPOV == null || rawPOV.isEmpty()) {
             povTextArea.setText(
                 "╔════════════════════════════════════════════════════════════╗\n" +
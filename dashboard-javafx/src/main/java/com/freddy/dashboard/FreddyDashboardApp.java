@@ -1,6 +1,8 @@
 package com.freddy.dashboard;
 
+import com.freddy.common.telemetry.PovFrame;
 import com.freddy.dashboard.ui.DashboardUI;
+import com.freddy.dashboard.ui.PovRenderer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
@@ -252,6 +254,14 @@ public class FreddyDashboardApp extends Application {
                     updatePOVDisplay(povData);
                     updateState(0);
                     
+                } else if (message.startsWith("POV_FRAME:")) {
+                    try {
+                        updatePOVDisplay(PovRenderer.render(PovFrame.parse(message.substring(10))));
+                    } catch (IllegalArgumentException e) {
+                        log("ERROR", "Bad POV frame: " + e.getMessage());
+                    }
+                    updateState(0);
+                    
                 } else if (message.startsWith("POSITION:")) {
                     String pos = message.substring(9).trim();
                     positionValue.setText(pos);
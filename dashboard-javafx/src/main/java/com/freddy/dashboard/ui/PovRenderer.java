@@ -0,0 +1,113 @@
+package com.freddy.dashboard.ui;
+
+import com.freddy.common.telemetry.PovFrame;
+
+import java.util.Locale;
+
+/**
+ * Draws a {@link PovFrame} as the box-drawing text shown in the POV panel.
+ *
+ * The plugin only sends the data; everything visual lives here.
+ */
+public final class PovRenderer {
+
+    private static final int MAX_BLOCK_LINES = 6;
+
+    private PovRenderer() { }
+
+    public static String render(PovFrame pov) {
+        StringBuilder frame = new StringBuilder(1024);
+        frame.append("╔════════════════════════════════════════════════════════════╗\n");
+        frame.append(pov.source() == PovFrame.Source.VISION
+            ? "║           ⚡ VISION RAYTRACING CONE (LINE-OF-SIGHT)         ║\n"
+            : "║                 RAYTRACING VISION ACTIVE                  ║\n");
+        frame.append("╠════════════════════════════════════════════════════════════╣\n");
+        frame.append(String.format(Locale.ROOT, "║ POS: X=%6.1f Y=%6.1f Z=%6.1f  YAW=%6.1f           ║\n",
+            pov.x(), pov.y(), pov.z(), (double) pov.yaw()));
+        frame.append(String.format(Locale.ROOT, "║ BIOME: %-50s║\n", pov.biome()));
+        frame.append(String.format(Locale.ROOT, "║ LIGHT: sky=%02d block=%02d visiblePlayers=%02d blocks=%02d     ║\n",
+            pov.skyLight(),
+            pov.blockLight(),
+            pov.players().size(),
+            pov.blocks().size()));
+        frame.append("╠════════════════════════════════════════════════════════════╣\n");
+
+        if (pov.players().isEmpty()) {
+            frame.append("║ PLAYERS: [none]                                            ║\n");
+        } else {
+            frame.append("║ PLAYERS:                                                  ║\n");
+            for (PovFrame.Player player : pov.players()) {
+                frame.append(String.format(Locale.ROOT, "║  • %-16s %6.1fm  %-6s %-6s        ║\n",
+                    player.name(),
+                    player.distance(),
+                    side(player.angle()),
+                    height(player.verticalAngle())));
+            }
+        }
+
+        frame.append("╠════════════════════════════════════════════════════════════╣\n");
+        if (pov.blocks().isEmpty()) {
+            frame.append("║ BLOCKS: [none]                                             ║\n");
+        } else {
+            int limit = Math.min(MAX_BLOCK_LINES, pov.blocks().size());
+            frame.append("║ BLOCKS:                                                   ║\n");
+            for (int i = 0; i < limit; i++) {
+                PovFrame.BlockHit block = pov.blocks().get(i);
+                frame.append(String.format(Locale.ROOT, "║  • %-14s %5.1fm [%d,%d,%d]            ║\n",
+                    block.type(),
+                    block.distance(),
+                    block.dx(),
+                    block.dy(),
+                    block.dz()));
+            }
+        }
+
+        if (pov.grid() != null) {
+            appendGrid(frame, pov.grid());
+        }
+
+        frame.append("╚════════════════════════════════════════════════════════════╝");
+        return frame.toString();
+    }
+
+    /**
+     * Top-down map, north up
+     */
+    private static void appendGrid(StringBuilder frame, PovFrame.Grid grid) {
+        frame.append("╠════════════════════════════════════════════════════════════╣\n");
+        int side = grid.side();
+        for (int row = 0; row < side; row++) {
+            frame.append("║ ");
+            for (int col = 0; col < side; col++) {
+                frame.append(glyph(grid.cells().charAt(row * side + col)));
+            }
+            frame.append(" ║\n");
+        }
+        frame.append("║ @ = You | ◆ = Entities | █ = Blocks | ░ = Empty            ║\n");
+    }
+
+    private static char glyph(char cell) {
+        return switch (cell) {
+            case PovFrame.Grid.SELF -> '@';
+            case PovFrame.Grid.ENTITY -> '◆';
+            case PovFrame.Grid.EMPTY -> '░';
+            case PovFrame.Grid.SOLID -> '█';
+            case PovFrame.Grid.FOLIAGE -> '▓';
+            case PovFrame.Grid.WATER -> '▒';
+            case PovFrame.Grid.LAVA -> '≈';
+            default -> ' ';
+        };
+    }
+
+    private static String side(double angle) {
+        if (angle < -45) return "LEFT";
+        if (angle > 45) return "RIGHT";
+        return "CENTER";
+    }
+
+    private static String height(double angle) {
+        if (angle < -15) return "BELOW";
+        if (angle > 15) return "ABOVE";
+        return "LEVEL";
+    }
+}
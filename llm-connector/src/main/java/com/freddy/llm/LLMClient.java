@@ -1,14 +1,37 @@
 package com.freddy.llm;
 
-import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public class LLMClient {
 
     private static String model = "qwen2.5:3b";
     private static String ollamaUrl = "http://localhost:11434/api/generate";
     private static int defaultTimeoutMs = 12000;
+    private static int maxConcurrentRequests = 2;
+    private static final int DEFAULT_MAX_RETRIES = 2;
+    /** Extra time a blocking ask allows for waiting in the queue behind other requests */
+    private static final int QUEUE_ALLOWANCE_MS = 30000;
+    /** Loading a model from disk can take far longer than a normal reply */
+    private static final int WARM_UP_TIMEOUT_MS = 120000;
+    /** keep_alive JSON value (quoted duration or bare number), null for Ollama's default */
+    private static volatile String keepAliveJson = null;
+
+    /** Most requests on the wire per {@link LLMPriority} (chat, planning, thinking) */
+    private static int[] laneCaps = {2, 1, 1};
+
+    private static LLMTransport transport;
+    /** Stateless requests in flight by request body, for coalescing identical prompts */
+    private static final Map<String, CompletableFuture<String>> inFlightPrompts = new ConcurrentHashMap<>();
+    private static final AtomicLong coalesced = new AtomicLong();
+    private static final LLMMetrics metrics = new LLMMetrics();
 
     /** Allow runtime configuration from plugin config. */
     public static void configure(String modelName, String url, int timeoutMs) {
@@ -17,86 +40,353 @@ public class LLMClient {
         if (timeoutMs > 0) defaultTimeoutMs = timeoutMs;
     }
 
+    /**
+     * Cap on concurrent HTTP requests to Ollama. Callers beyond the cap queue
+     * inside the transport instead of opening more connections. A live transport is
+     * adjusted in place, so pending and coalesced requests still complete.
+     */
+    public static synchronized void configureConcurrency(int maxConcurrent) {
+        if (maxConcurrent <= 0 || maxConcurrent == maxConcurrentRequests) return;
+        maxConcurrentRequests = maxConcurrent;
+        if (transport != null) {
+            transport.reconfigure(maxConcurrentRequests, laneCaps);
+        }
+    }
+
+    /**
+     * How long Ollama keeps the model loaded after each request: a duration such as
+     * "30m", a number of seconds, -1 to keep it loaded, or blank for the server default.
+     */
+    public static void configureKeepAlive(String keepAlive) {
+        if (keepAlive == null || keepAlive.isBlank()) {
+            keepAliveJson = null;
+            return;
+        }
+        String value = keepAlive.trim();
+        keepAliveJson = value.matches("-?\\d+") ? value : "\"" + escapeJson(value) + "\"";
+    }
+
+    /**
+     * Per-lane caps on requests on the wire (each at most the overall cap).
+     * Values of 0 or less keep the current cap for that lane. Applied in place like
+     * {@link #configureConcurrency(int)}.
+     */
+    public static synchronized void configureLanes(int chat, int planning, int thinking) {
+        int[] caps = {
+            chat > 0 ? chat : laneCaps[0],
+            planning > 0 ? planning : laneCaps[1],
+            thinking > 0 ? thinking : laneCaps[2]
+        };
+        if (Arrays.equals(caps, laneCaps)) return;
+        laneCaps = caps;
+        if (transport != null) {
+            transport.reconfigure(maxConcurrentRequests, laneCaps);
+        }
+    }
+
     public static String getModel() { return model; }
     public static String getUrl() { return ollamaUrl; }
     public static int getDefaultTimeout() { return defaultTimeoutMs; }
+    public static int getMaxConcurrentRequests() { return maxConcurrentRequests; }
 
+    public static int getQueuedRequestCount() {
+        LLMTransport t = transport;
+        return t == null ? 0 : t.getQueuedCount();
+    }
+
+    public static int getQueuedRequestCount(LLMPriority priority) {
+        LLMTransport t = transport;
+        return t == null ? 0 : t.getQueuedCount(priority);
+    }
+
+    public static int getInFlightRequestCount() {
+        LLMTransport t = transport;
+        return t == null ? 0 : t.getInFlightCount();
+    }
+
+    /** Requests dropped because a newer one with the same supersede key was issued */
+    public static long getSupersededCount() {
+        LLMTransport t = transport;
+        return t == null ? 0 : t.getSupersededCount();
+    }
+
+    /** Requests answered by joining an identical prompt already in flight */
+    public static long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /** Per-call-site latency histograms and counters; kept across reconfiguration */
+    public static LLMMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Blocking wrapper around {@link #askAsync(String)}. Returns null on failure.
+     */
     public static String ask(String prompt) {
         return ask(prompt, defaultTimeoutMs);
     }
 
     public static String ask(String prompt, int timeoutMs) {
-        return askWithRetry(prompt, timeoutMs, 2);
+        return ask(prompt, timeoutMs, LLMPriority.PLANNING);
+    }
+
+    public static String ask(String prompt, LLMPriority priority) {
+        return ask(prompt, defaultTimeoutMs, priority);
+    }
+
+    public static String ask(String prompt, int timeoutMs, LLMPriority priority) {
+        return await(askAsync(prompt, timeoutMs, priority), timeoutMs);
     }
 
     /**
-     * Ask with automatic retry on transient failures.
+     * Blocking wrapper around {@link #askAsync(String, LLMPriority, String)}. Returns null
+     * on failure or when superseded.
      */
-    private static String askWithRetry(String prompt, int timeoutMs, int maxRetries) {
-        Exception lastError = null;
-        for (int attempt = 0; attempt <= maxRetries; attempt++) {
-            try {
-                String result = doAsk(prompt, timeoutMs);
-                if (result != null && !result.isBlank()) {
-                    return result;
-                }
-            } catch (Exception e) {
-                lastError = e;
-                System.err.println("[LLMClient] Attempt " + (attempt + 1) + " failed: " + e.getMessage());
-                if (attempt < maxRetries) {
-                    try { Thread.sleep(500L * (attempt + 1)); } catch (InterruptedException ignored) {}
-                }
-            }
+    public static String ask(String prompt, LLMPriority priority, String supersedeKey) {
+        return await(askAsync(prompt, priority, supersedeKey), defaultTimeoutMs);
+    }
+
+    /**
+     * Wait for a reply for at most every attempt's timeout plus retry delays and a
+     * queue allowance; null on failure, supersession or when the wait runs out
+     */
+    private static String await(CompletableFuture<String> reply, int timeoutMs) {
+        long limitMs = replyWaitLimitMs(timeoutMs);
+        try {
+            return reply.get(limitMs, TimeUnit.MILLISECONDS);
+        } catch (CancellationException e) {
+            return null;
+        } catch (TimeoutException e) {
+            reply.cancel(false);
+            System.err.println("[LLMClient] Request gave up after " + limitMs + "ms");
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            System.err.println("[LLMClient] Request failed: " + e.getMessage());
+            return null;
         }
-        System.err.println("[LLMClient] All retries exhausted: " + (lastError != null ? lastError.getMessage() : "null response"));
-        return null;
     }
 
-    private static String doAsk(String prompt, int timeoutMs) throws Exception {
-        URL url = new URL(ollamaUrl);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        int safeTimeout = Math.max(2000, timeoutMs);
-        conn.setConnectTimeout(5000);
-        conn.setReadTimeout(safeTimeout);
+    /**
+     * How long a blocking caller waits for a reply to a request with this per-attempt
+     * timeout: every attempt and retry delay, plus a queue allowance
+     */
+    public static long replyWaitLimitMs(int timeoutMs) {
+        return (Math.max(2000, timeoutMs) + 500L * DEFAULT_MAX_RETRIES) * (DEFAULT_MAX_RETRIES + 1)
+            + QUEUE_ALLOWANCE_MS;
+    }
 
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setDoOutput(true);
+    public static CompletableFuture<String> askAsync(String prompt) {
+        return askAsync(prompt, defaultTimeoutMs);
+    }
 
-        // Properly escape JSON string
-        String escapedPrompt = escapeJson(prompt);
-        String body = "{\"model\":\"" + model + "\",\"prompt\":\"" + escapedPrompt + "\",\"stream\":false}";
+    /**
+     * Send a prompt without blocking the caller. The future completes with the
+     * model's reply, or with null once retries are exhausted.
+     */
+    public static CompletableFuture<String> askAsync(String prompt, int timeoutMs) {
+        return askAsync(prompt, timeoutMs, LLMPriority.PLANNING);
+    }
+
+    public static CompletableFuture<String> askAsync(String prompt, LLMPriority priority) {
+        return askAsync(prompt, defaultTimeoutMs, priority);
+    }
+
+    /**
+     * {@link #askAsync(String, int)} in the given priority lane. If the same prompt is
+     * already in flight, the caller shares its reply instead of sending it again.
+     */
+    public static CompletableFuture<String> askAsync(String prompt, int timeoutMs, LLMPriority priority) {
+        return askAsync(prompt, timeoutMs, LLMOptions.DEFAULTS, null, null, priority, null, null);
+    }
 
-        try (OutputStream os = conn.getOutputStream()) {
-            os.write(body.getBytes("UTF-8"));
+    /**
+     * Request that a newer one with the same {@code supersedeKey} replaces while it is
+     * still queued; the replaced future fails with a CancellationException
+     */
+    public static CompletableFuture<String> askAsync(String prompt, LLMPriority priority, String supersedeKey) {
+        return askAsync(prompt, defaultTimeoutMs, LLMOptions.DEFAULTS, null, null, priority, supersedeKey, null);
+    }
+
+    /**
+     * @param context Conversation to continue (from an earlier reply), or null
+     * @param onContext Receives the reply's updated context, if any
+     * @param supersedeKey Requests with the same key replace each other while queued
+     *                     (the older one is cancelled); null for none. Stateless requests
+     *                     without a key are coalesced with identical ones in flight.
+     * @param site Call site for {@link #getMetrics()}, or null to name it after the key or lane
+     */
+    static CompletableFuture<String> askAsync(String prompt, int timeoutMs, LLMOptions options,
+                                              int[] context, Consumer<int[]> onContext,
+                                              LLMPriority priority, String supersedeKey, String site) {
+        String body = requestBody(prompt, false, options, context);
+        boolean coalesce = onContext == null && supersedeKey == null;
+        CompletableFuture<String> shared = null;
+        if (coalesce) {
+            shared = new CompletableFuture<>();
+            CompletableFuture<String> existing = inFlightPrompts.putIfAbsent(body, shared);
+            if (existing != null) {
+                coalesced.incrementAndGet();
+                return existing.copy();
+            }
         }
 
-        int responseCode = conn.getResponseCode();
-        if (responseCode != 200) {
-            InputStream errorStream = conn.getErrorStream();
-            String errorBody = "";
-            if (errorStream != null) {
-                try (BufferedReader errorReader = new BufferedReader(new InputStreamReader(errorStream))) {
-                    StringBuilder sb = new StringBuilder();
-                    String errorLine;
-                    while ((errorLine = errorReader.readLine()) != null) {
-                        sb.append(errorLine);
+        LLMMetrics.Site stats = metricsSite(site, supersedeKey, priority);
+        stats.promptChars.record(prompt.length());
+        LLMTransport t = transport();
+        CompletableFuture<String> reply = t.post(ollamaUrl, body, timeoutMs, DEFAULT_MAX_RETRIES,
+            t.ticket(priority, supersedeKey, stats), json -> {
+                String text = parseJsonResponse(json);
+                if (text != null) {
+                    stats.responseChars.record(text.length());
+                    if (onContext != null) {
+                        onContext.accept(extractIntArrayField(json, "context"));
                     }
-                    errorBody = sb.toString();
                 }
-            }
-            throw new IOException("HTTP " + responseCode + ": " + errorBody);
+                return text;
+            });
+        if (!coalesce) {
+            return reply;
         }
+        CompletableFuture<String> owner = shared;
+        reply.whenComplete((text, error) -> {
+            inFlightPrompts.remove(body, owner);
+            if (error != null) {
+                owner.completeExceptionally(error);
+            } else {
+                owner.complete(text);
+            }
+        });
+        return owner.copy();
+    }
+
+    /**
+     * Load the model ahead of the first real prompt (an empty prompt only loads it).
+     * Completes with true once Ollama reports the model ready, false on failure.
+     */
+    public static CompletableFuture<Boolean> warmUp() {
+        String body = requestBody("", false, LLMOptions.DEFAULTS, null);
+        int timeoutMs = Math.max(defaultTimeoutMs, WARM_UP_TIMEOUT_MS);
+        LLMTransport t = transport();
+        return t.post(ollamaUrl, body, timeoutMs, 1, t.ticket(LLMPriority.PLANNING, null, metrics.site("warm-up")),
+                json -> json != null && json.contains("\"done\":true") ? "ready" : null)
+            .thenApply(ready -> ready != null);
+    }
+
+    /**
+     * Receives tokens as Ollama streams them. Return false to stop generation
+     * (the connection is closed and the text received so far becomes the result).
+     */
+    @FunctionalInterface
+    public interface TokenListener {
+        boolean onToken(String token, String textSoFar);
+    }
+
+    public static CompletableFuture<String> askStreaming(String prompt, TokenListener listener) {
+        return askStreaming(prompt, defaultTimeoutMs, listener);
+    }
+
+    /**
+     * Streaming variant of {@link #askAsync(String, int)}. Reads Ollama's NDJSON
+     * chunks incrementally and hands each token to {@code listener}. The future
+     * completes with the accumulated reply (trimmed), or null if nothing arrived.
+     */
+    public static CompletableFuture<String> askStreaming(String prompt, int timeoutMs, TokenListener listener) {
+        return askStreaming(prompt, timeoutMs, LLMOptions.DEFAULTS, null, null, LLMPriority.THINKING, null, null, listener);
+    }
 
-        StringBuilder response = new StringBuilder();
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(conn.getInputStream(), "UTF-8"))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                response.append(line);
+    /**
+     * @param context Conversation to continue (from an earlier reply), or null
+     * @param onContext Receives the updated context from the final chunk; not called
+     *                  when the listener stops generation early
+     * @param supersedeKey See {@link #askAsync(String, int, LLMOptions, int[], Consumer, LLMPriority, String, String)};
+     *                     a superseded stream fails with a CancellationException
+     * @param site Call site for {@link #getMetrics()}, or null to name it after the key or lane
+     */
+    static CompletableFuture<String> askStreaming(String prompt, int timeoutMs, LLMOptions options, int[] context,
+                                                  Consumer<int[]> onContext, LLMPriority priority,
+                                                  String supersedeKey, String site, TokenListener listener) {
+        String body = requestBody(prompt, true, options, context);
+        StringBuilder text = new StringBuilder();
+        LLMMetrics.Site stats = metricsSite(site, supersedeKey, priority);
+        stats.promptChars.record(prompt.length());
+
+        LLMTransport t = transport();
+        return t.postStreaming(ollamaUrl, body, timeoutMs, t.ticket(priority, supersedeKey, stats), line -> {
+            String token = extractStringField(line, "response");
+            if (token != null && !token.isEmpty()) {
+                text.append(token);
+                if (listener != null && !listener.onToken(token, text.toString())) {
+                    return false;
+                }
+            }
+            if (line.contains("\"done\":true")) {
+                if (onContext != null) {
+                    onContext.accept(extractIntArrayField(line, "context"));
+                }
+                return false;
+            }
+            return true;
+        }).handle((ignored, error) -> {
+            if (error instanceof CancellationException cancelled) {
+                throw cancelled;
+            }
+            if (error != null) {
+                System.err.println("[LLMClient] Streaming request failed: " + error.getMessage());
             }
+            String result = text.toString().trim();
+            if (result.isEmpty()) {
+                return null;
+            }
+            stats.responseChars.record(result.length());
+            return result;
+        });
+    }
+
+    private static LLMMetrics.Site metricsSite(String site, String supersedeKey, LLMPriority priority) {
+        return metrics.site(site != null ? site : LLMMetrics.siteName(null, supersedeKey, priority));
+    }
+
+    /** Release pooled connections and worker threads (plugin disable). */
+    public static synchronized void shutdown() {
+        if (transport != null) {
+            transport.shutdown();
+            transport = null;
+        }
+        inFlightPrompts.clear();
+    }
+
+    private static synchronized LLMTransport transport() {
+        if (transport == null) {
+            transport = new LLMTransport(maxConcurrentRequests, laneCaps);
         }
+        return transport;
+    }
 
-        return parseJsonResponse(response.toString());
+    private static String requestBody(String prompt, boolean stream, LLMOptions options, int[] context) {
+        StringBuilder body = new StringBuilder(prompt.length() + 128 + (context != null ? context.length * 7 : 0));
+        body.append("{\"model\":\"").append(model)
+            .append("\",\"prompt\":\"").append(escapeJson(prompt))
+            .append("\",\"stream\":").append(stream);
+        String keepAlive = keepAliveJson;
+        if (keepAlive != null) {
+            body.append(",\"keep_alive\":").append(keepAlive);
+        }
+        if (options != null) {
+            options.appendJson(body);
+        }
+        if (context != null && context.length > 0) {
+            body.append(",\"context\":[");
+            for (int i = 0; i < context.length; i++) {
+                if (i > 0) body.append(',');
+                body.append(context[i]);
+            }
+            body.append(']');
+        }
+        return body.append('}').toString();
     }
 
     /**
@@ -108,16 +398,30 @@ public class LLMClient {
             return null;
         }
 
-        // Find the "response" key and extract its string value properly
-        String key = "\"response\":\"";
+        String value = extractStringField(json, "response");
+        if (value == null) {
+            System.err.println("[LLMClient] No 'response' field found in: " + json.substring(0, Math.min(200, json.length())));
+            return null;
+        }
+
+        String result = value.trim();
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * Extract and unescape a top-level JSON string field without trimming it.
+     * Returns null when the field is absent.
+     */
+    static String extractStringField(String json, String field) {
+        // Find the key and extract its string value properly
+        String key = "\"" + field + "\":\"";
         int start = json.indexOf(key);
         if (start == -1) {
-            // Try alternate format: "response": " (with space after colon)
-            key = "\"response\": \"";
+            // Try alternate format: "field": " (with space after colon)
+            key = "\"" + field + "\": \"";
             start = json.indexOf(key);
         }
         if (start == -1) {
-            System.err.println("[LLMClient] No 'response' field found in: " + json.substring(0, Math.min(200, json.length())));
             return null;
         }
 
@@ -150,8 +454,58 @@ public class LLMClient {
             }
         }
 
-        String result = value.toString().trim();
-        return result.isEmpty() ? null : result;
+        return value.toString();
+    }
+
+    /**
+     * Parse a top-level JSON array of integers (Ollama's "context"). Returns null when
+     * the field is absent or malformed.
+     */
+    static int[] extractIntArrayField(String json, String field) {
+        String key = "\"" + field + "\":";
+        int start = json.indexOf(key);
+        if (start == -1) {
+            return null;
+        }
+        int i = start + key.length();
+        while (i < json.length() && json.charAt(i) == ' ') i++;
+        if (i >= json.length() || json.charAt(i) != '[') {
+            return null;
+        }
+        int end = json.indexOf(']', i);
+        if (end == -1) {
+            return null;
+        }
+
+        int count = 0;
+        for (int j = i + 1; j < end; j++) {
+            if (json.charAt(j) == ',') count++;
+        }
+        int[] values = new int[end > i + 1 ? count + 1 : 0];
+        int n = 0;
+        int value = 0;
+        boolean digits = false;
+        boolean negative = false;
+        for (int j = i + 1; j <= end; j++) {
+            char c = json.charAt(j);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits = true;
+            } else if (c == '-') {
+                negative = true;
+            } else if (c == ',' || c == ']') {
+                if (!digits) {
+                    return n == 0 && c == ']' ? values : null;
+                }
+                values[n++] = negative ? -value : value;
+                value = 0;
+                digits = false;
+                negative = false;
+            } else if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return null;
+            }
+        }
+        return n == values.length ? values : null;
     }
 
     /**
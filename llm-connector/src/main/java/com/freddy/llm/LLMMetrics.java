@@ -0,0 +1,166 @@
+package com.freddy.llm;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and volume metrics for LLM requests, kept per call site.
+ *
+ * A call site is the session name up to its first ':' ("brain", "chat"), the
+ * supersede key of a one-off request ("autopilot"), or otherwise the priority lane
+ * ("chat", "planning", "thinking"). For every site it keeps histograms of queue wait
+ * (per attempt), time to first byte (request sent to response headers, per attempt,
+ * connection setup included), and total time (issued to answered, retries included),
+ * plus prompt and response sizes in characters and counters for retries, timeouts,
+ * errors and superseded requests.
+ */
+public final class LLMMetrics {
+
+    /** Percentiles shown by {@link #formatSummary} */
+    private static final double[] PERCENTILES = {50.0, 95.0, 99.0};
+
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+
+    public static final class Site {
+        final LogHistogram queueWaitMicros = new LogHistogram();
+        final LogHistogram firstByteMicros = new LogHistogram();
+        final LogHistogram totalMicros = new LogHistogram();
+        final LogHistogram promptChars = new LogHistogram();
+        final LogHistogram responseChars = new LogHistogram();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong superseded = new AtomicLong();
+
+        public LogHistogram getQueueWaitMicros() { return queueWaitMicros; }
+        public LogHistogram getFirstByteMicros() { return firstByteMicros; }
+        public LogHistogram getTotalMicros() { return totalMicros; }
+        public LogHistogram getPromptChars() { return promptChars; }
+        public LogHistogram getResponseChars() { return responseChars; }
+        public long getRetries() { return retries.get(); }
+        public long getTimeouts() { return timeouts.get(); }
+        public long getErrors() { return errors.get(); }
+        public long getSuperseded() { return superseded.get(); }
+
+        /** Logical requests that finished (answered, failed or superseded) */
+        public long getRequests() {
+            return totalMicros.getCount() + superseded.get();
+        }
+
+        void reset() {
+            queueWaitMicros.reset();
+            firstByteMicros.reset();
+            totalMicros.reset();
+            promptChars.reset();
+            responseChars.reset();
+            retries.set(0L);
+            timeouts.set(0L);
+            errors.set(0L);
+            superseded.set(0L);
+        }
+    }
+
+    Site site(String name) {
+        return sites.computeIfAbsent(name, k -> new Site());
+    }
+
+    /**
+     * @return Sites by name, sorted
+     */
+    public Map<String, Site> getSites() {
+        return new TreeMap<>(sites);
+    }
+
+    /** Requests finished across every site, to tell whether anything changed */
+    public long getRequestCount() {
+        long n = 0;
+        for (Site s : sites.values()) {
+            n += s.getRequests();
+        }
+        return n;
+    }
+
+    public void reset() {
+        for (Site s : sites.values()) {
+            s.reset();
+        }
+    }
+
+    /**
+     * Compact stats line for telemetry ("LLM_METRICS:" payload): one
+     * {@code site{...}} group per call site, latencies in milliseconds.
+     */
+    public String formatStats() {
+        StringBuilder sb = new StringBuilder(256);
+        for (Map.Entry<String, Site> e : getSites().entrySet()) {
+            Site s = e.getValue();
+            if (sb.length() > 0) sb.append(';');
+            sb.append(e.getKey()).append("{n=").append(s.getRequests());
+            appendPercentiles(sb, "queue", s.queueWaitMicros);
+            appendPercentiles(sb, "ttfb", s.firstByteMicros);
+            appendPercentiles(sb, "total", s.totalMicros);
+            sb.append(",promptAvg=").append(Math.round(s.promptChars.getMean()))
+                .append(",replyAvg=").append(Math.round(s.responseChars.getMean()))
+                .append(",retries=").append(s.getRetries())
+                .append(",timeouts=").append(s.getTimeouts())
+                .append(",errors=").append(s.getErrors())
+                .append(",superseded=").append(s.getSuperseded())
+                .append('}');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Human-readable lines, one block per call site (for commands and logs)
+     */
+    public String[] formatSummary() {
+        Map<String, Site> sorted = getSites();
+        String[] lines = new String[sorted.size() * 3];
+        int i = 0;
+        for (Map.Entry<String, Site> e : sorted.entrySet()) {
+            Site s = e.getValue();
+            lines[i++] = String.format(Locale.ROOT, "%s: %d requests, %d retries, %d timeouts, %d errors, %d superseded",
+                e.getKey(), s.getRequests(), s.getRetries(), s.getTimeouts(), s.getErrors(), s.getSuperseded());
+            lines[i++] = String.format(Locale.ROOT, "  total %s | ttfb %s | queue %s",
+                millis(s.totalMicros), millis(s.firstByteMicros), millis(s.queueWaitMicros));
+            lines[i++] = String.format(Locale.ROOT, "  prompt ~%d chars (p95 %d), reply ~%d chars (p95 %d)",
+                Math.round(s.promptChars.getMean()), s.promptChars.getValueAtPercentile(95.0),
+                Math.round(s.responseChars.getMean()), s.responseChars.getValueAtPercentile(95.0));
+        }
+        return lines;
+    }
+
+    private static void appendPercentiles(StringBuilder sb, String name, LogHistogram h) {
+        for (double p : PERCENTILES) {
+            sb.append(',').append(name).append("P").append((int) p).append('=')
+                .append(h.getValueAtPercentile(p) / 1000L);
+        }
+    }
+
+    /** "p50/p95/p99 ms" */
+    private static String millis(LogHistogram h) {
+        StringBuilder sb = new StringBuilder();
+        for (double p : PERCENTILES) {
+            if (sb.length() > 0) sb.append('/');
+            sb.append(h.getValueAtPercentile(p) / 1000L);
+        }
+        return sb.append(" ms").toString();
+    }
+
+    /**
+     * Call-site name for a request
+     */
+    static String siteName(String sessionName, String supersedeKey, LLMPriority priority) {
+        if (sessionName != null) {
+            int colon = sessionName.indexOf(':');
+            return colon > 0 ? sessionName.substring(0, colon) : sessionName;
+        }
+        if (supersedeKey != null) {
+            return supersedeKey;
+        }
+        return (priority != null ? priority : LLMPriority.PLANNING).name().toLowerCase(Locale.ROOT);
+    }
+}
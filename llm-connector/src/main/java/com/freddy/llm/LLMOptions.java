@@ -0,0 +1,49 @@
+package com.freddy.llm;
+
+/**
+ * Per-call generation options sent as Ollama's "options" object.
+ * A null field leaves the model's own default in place.
+ *
+ * @param numCtx Context window in tokens (num_ctx)
+ * @param numPredict Most tokens to generate (num_predict)
+ * @param temperature Sampling temperature
+ */
+public record LLMOptions(Integer numCtx, Integer numPredict, Double temperature) {
+
+    public static final LLMOptions DEFAULTS = new LLMOptions(null, null, null);
+
+    /**
+     * Options from config values, where a value of 0 or less means "model default"
+     */
+    public static LLMOptions of(int numCtx, int numPredict, double temperature) {
+        return new LLMOptions(
+            numCtx > 0 ? numCtx : null,
+            numPredict > 0 ? numPredict : null,
+            temperature >= 0 ? temperature : null);
+    }
+
+    public boolean isEmpty() {
+        return numCtx == null && numPredict == null && temperature == null;
+    }
+
+    /** Append ,"options":{...} to a request body (nothing when all defaults) */
+    void appendJson(StringBuilder body) {
+        if (isEmpty()) return;
+        body.append(",\"options\":{");
+        boolean first = true;
+        if (numCtx != null) {
+            body.append("\"num_ctx\":").append(numCtx.intValue());
+            first = false;
+        }
+        if (numPredict != null) {
+            if (!first) body.append(',');
+            body.append("\"num_predict\":").append(numPredict.intValue());
+            first = false;
+        }
+        if (temperature != null) {
+            if (!first) body.append(',');
+            body.append("\"temperature\":").append(temperature.doubleValue());
+        }
+        body.append('}');
+    }
+}
@@ -0,0 +1,14 @@
+package com.freddy.llm;
+
+/**
+ * Request classes for the LLM transport, highest priority first. Queued requests
+ * of a higher class always go on the wire before lower ones.
+ */
+public enum LLMPriority {
+    /** A player is waiting for a reply */
+    CHAT,
+    /** Goal and step planning */
+    PLANNING,
+    /** Autonomous brain-loop decisions; superseded by the next tick */
+    THINKING
+}
@@ -0,0 +1,138 @@
+package com.freddy.llm;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A conversation with the model that carries Ollama's "context" between turns.
+ *
+ * Each reply returns the encoded conversation so far; sending it back with the next
+ * prompt lets the model continue without the caller repeating earlier turns, and lets
+ * Ollama reuse the cached prefix instead of prefilling it again. The context is dropped
+ * once it fills most of the window (or on {@link #reset()}), and the next prompt starts
+ * a fresh conversation.
+ *
+ * Turns are meant to be sequential; if two overlap, the one that finishes last wins.
+ * In the {@link LLMPriority#THINKING} lane a new turn supersedes one still waiting to
+ * be sent: the older future fails with a CancellationException.
+ */
+public final class LLMSession {
+
+    /** Context window assumed when the options don't set num_ctx (Ollama's default) */
+    private static final int DEFAULT_NUM_CTX = 2048;
+
+    private final String name;
+    private final LLMOptions options;
+    private final boolean reuseContext;
+    private final LLMPriority priority;
+    private final String site;
+    private final int maxContextTokens;
+    private volatile int[] context;
+    private final AtomicLong turns = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+
+    /**
+     * @param name Shown in logs; the part before the first ':' names the call site in
+     *             {@link LLMClient#getMetrics()}
+     * @param options Generation options for every turn
+     * @param reuseContext False to only apply the options (every prompt stands alone)
+     * @param priority Lane for this session's requests
+     */
+    public LLMSession(String name, LLMOptions options, boolean reuseContext, LLMPriority priority) {
+        this.name = name;
+        this.options = options != null ? options : LLMOptions.DEFAULTS;
+        this.reuseContext = reuseContext;
+        this.priority = priority != null ? priority : LLMPriority.PLANNING;
+        this.site = LLMMetrics.siteName(name, null, this.priority);
+        int window = this.options.numCtx() != null ? this.options.numCtx() : DEFAULT_NUM_CTX;
+        // Leave room for the next prompt and reply
+        this.maxContextTokens = window * 3 / 4;
+    }
+
+    public CompletableFuture<String> askAsync(String prompt) {
+        return LLMClient.askAsync(prompt, LLMClient.getDefaultTimeout(), options, turnContext(), this::keep,
+            priority, supersedeKey(), site);
+    }
+
+    /**
+     * Blocking wrapper around {@link #askAsync(String)}. Returns null on failure.
+     */
+    public String ask(String prompt) {
+        try {
+            return askAsync(prompt).join();
+        } catch (Exception e) {
+            System.err.println("[LLMSession] " + name + " request failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Streaming turn. If the listener stops generation early, Ollama never sends the
+     * updated context, so the conversation continues from the previous turn.
+     */
+    public CompletableFuture<String> askStreaming(String prompt, LLMClient.TokenListener listener) {
+        return LLMClient.askStreaming(prompt, LLMClient.getDefaultTimeout(), options, turnContext(), this::keep,
+            priority, supersedeKey(), site, listener);
+    }
+
+    /**
+     * True when the next prompt continues an earlier turn, so it can leave out
+     * whatever the model has already seen
+     */
+    public boolean hasContext() {
+        return context != null;
+    }
+
+    public void reset() {
+        if (context != null) {
+            resets.incrementAndGet();
+        }
+        context = null;
+    }
+
+    public int getContextTokens() {
+        int[] c = context;
+        return c == null ? 0 : c.length;
+    }
+
+    public long getTurnCount() {
+        return turns.get();
+    }
+
+    public long getResetCount() {
+        return resets.get();
+    }
+
+    public LLMOptions getOptions() {
+        return options;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LLMPriority getPriority() {
+        return priority;
+    }
+
+    private String supersedeKey() {
+        return priority == LLMPriority.THINKING ? "session:" + name : null;
+    }
+
+    private int[] turnContext() {
+        turns.incrementAndGet();
+        return reuseContext ? context : null;
+    }
+
+    private void keep(int[] returned) {
+        if (!reuseContext || returned == null) {
+            return;
+        }
+        if (returned.length > maxContextTokens) {
+            resets.incrementAndGet();
+            context = null;
+            return;
+        }
+        context = returned;
+    }
+}
@@ -0,0 +1,498 @@
+package com.freddy.llm;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Async HTTP transport for Ollama.
+ *
+ * One shared {@link HttpClient} keeps connections alive between prompts, a cap
+ * limits how many requests are on the wire at once (extra requests wait instead of
+ * opening more sockets), and retries are scheduled on a timer rather than sleeping
+ * the caller's thread.
+ *
+ * Waiting requests sit in one FIFO lane per {@link LLMPriority}; a free slot always
+ * goes to the highest lane with work, each lane has its own cap, and while more than
+ * one slot exists the last one is kept for chat so a reply never waits behind two
+ * long planning prompts. A request with a supersede key is dropped (its future
+ * cancelled) as soon as a newer request with the same key is issued, if it hasn't
+ * reached the wire yet.
+ *
+ * Queue wait, time to first byte, total time, retries, timeouts and errors are
+ * recorded into the {@link LLMMetrics.Site} carried by each ticket.
+ *
+ * {@link #shutdown()} settles every request that has not completed yet: plain
+ * requests with null (as if retries were exhausted), streams with an IOException.
+ */
+final class LLMTransport {
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final long RETRY_BASE_DELAY_MS = 500L;
+    private static final LLMPriority[] PRIORITIES = LLMPriority.values();
+
+    /**
+     * Lane, supersede identity and metrics of one logical request (shared by its retries)
+     */
+    record Ticket(LLMPriority priority, String supersedeKey, long seq, LLMMetrics.Site site) { }
+
+    private record Waiting(Ticket ticket, Runnable launch, Runnable drop, long enqueuedAt) { }
+
+    private final ExecutorService httpExecutor;
+    private final ScheduledExecutorService retryScheduler;
+    private final HttpClient http;
+    private final AtomicLong superseded = new AtomicLong();
+    /** Unfinished requests and how to settle each one on shutdown */
+    private final Map<CompletableFuture<?>, Runnable> pending = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    // Guarded by this
+    private int maxInFlight;
+    private final int[] laneCaps = new int[PRIORITIES.length];
+    private final List<ArrayDeque<Waiting>> lanes = new ArrayList<>();
+    private final int[] laneInFlight = new int[PRIORITIES.length];
+    private final Map<String, Long> latestByKey = new HashMap<>();
+    private int inFlight;
+    private long nextSeq;
+
+    /**
+     * @param laneCaps Most requests on the wire per {@link LLMPriority} (by ordinal)
+     */
+    LLMTransport(int maxInFlight, int[] laneCaps) {
+        for (LLMPriority p : PRIORITIES) {
+            lanes.add(new ArrayDeque<>());
+        }
+        setCaps(maxInFlight, laneCaps);
+        this.httpExecutor = Executors.newCachedThreadPool(daemonFactory("LLM-http"));
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(daemonFactory("LLM-retry"));
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MS))
+            .executor(httpExecutor)
+            .build();
+    }
+
+    synchronized int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Change the caps without dropping anything: queued requests stay queued and
+     * requests already on the wire finish normally. Lowering a cap only holds back
+     * new starts until enough of them have finished.
+     */
+    void reconfigure(int maxInFlight, int[] laneCaps) {
+        synchronized (this) {
+            setCaps(maxInFlight, laneCaps);
+        }
+        drain();
+    }
+
+    private void setCaps(int maxInFlight, int[] laneCaps) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        for (LLMPriority p : PRIORITIES) {
+            int cap = laneCaps != null && p.ordinal() < laneCaps.length ? laneCaps[p.ordinal()] : this.maxInFlight;
+            this.laneCaps[p.ordinal()] = Math.max(1, Math.min(this.maxInFlight, cap));
+        }
+    }
+
+    synchronized int getQueuedCount() {
+        int queued = 0;
+        for (ArrayDeque<Waiting> lane : lanes) {
+            queued += lane.size();
+        }
+        return queued;
+    }
+
+    synchronized int getQueuedCount(LLMPriority priority) {
+        return lanes.get(priority.ordinal()).size();
+    }
+
+    synchronized int getInFlightCount() {
+        return inFlight;
+    }
+
+    long getSupersededCount() {
+        return superseded.get();
+    }
+
+    /**
+     * Issue a ticket for a new request. With a supersede key, any older request with
+     * the same key that is still waiting is dropped now, and retries of older ones are
+     * dropped when they come back to the queue.
+     */
+    Ticket ticket(LLMPriority priority, String supersedeKey, LLMMetrics.Site site) {
+        List<Runnable> drops = new ArrayList<>();
+        Ticket ticket;
+        synchronized (this) {
+            ticket = new Ticket(priority != null ? priority : LLMPriority.PLANNING, supersedeKey, ++nextSeq, site);
+            if (supersedeKey != null) {
+                latestByKey.put(supersedeKey, ticket.seq());
+                for (ArrayDeque<Waiting> lane : lanes) {
+                    for (Iterator<Waiting> it = lane.iterator(); it.hasNext(); ) {
+                        Waiting w = it.next();
+                        if (supersedeKey.equals(w.ticket().supersedeKey())) {
+                            it.remove();
+                            drops.add(w.drop());
+                        }
+                    }
+                }
+            }
+        }
+        runDrops(drops);
+        return ticket;
+    }
+
+    /**
+     * POST a JSON body and map the response body with {@code parser}.
+     * A null/blank parse result or any transport error counts as a failed attempt.
+     * A superseded request completes with a {@link CancellationException}.
+     */
+    CompletableFuture<String> post(String url, String body, int timeoutMs, int maxRetries, Ticket ticket,
+                                   Function<String, String> parser) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        long issuedAt = System.nanoTime();
+        result.whenComplete((text, error) -> recordOutcome(ticket, issuedAt, error, text == null));
+        if (!track(result, () -> result.complete(null))) {
+            return result;
+        }
+        attempt(url, body, timeoutMs, maxRetries, ticket, parser, 0, null, result);
+        return result;
+    }
+
+    private void attempt(String url, String body, int timeoutMs, int maxRetries, Ticket ticket,
+                         Function<String, String> parser, int attempt, Throwable lastError,
+                         CompletableFuture<String> result) {
+        if (result.isDone()) {
+            return;
+        }
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(Math.max(2000, timeoutMs)))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+        } catch (IllegalArgumentException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+
+        enqueue(ticket, () -> send(request, ticket.site()).handle((response, error) -> {
+            release(ticket);
+
+            Throwable failure = error;
+            String parsed = null;
+            if (failure == null) {
+                if (response.statusCode() != 200) {
+                    failure = new IOException("HTTP " + response.statusCode() + ": " + response.body());
+                } else {
+                    parsed = parser.apply(response.body());
+                }
+            }
+
+            if (parsed != null && !parsed.isBlank()) {
+                result.complete(parsed);
+                return null;
+            }
+
+            Throwable cause = failure != null ? unwrap(failure) : lastError;
+            if (failure != null) {
+                System.err.println("[LLMClient] Attempt " + (attempt + 1) + " failed: " + describe(cause));
+                if (cause instanceof HttpTimeoutException) {
+                    ticket.site().timeouts.incrementAndGet();
+                }
+            }
+
+            if (attempt < maxRetries && !retryScheduler.isShutdown()) {
+                ticket.site().retries.incrementAndGet();
+                long delay = failure != null ? RETRY_BASE_DELAY_MS * (attempt + 1) : 0L;
+                retryScheduler.schedule(
+                    () -> attempt(url, body, timeoutMs, maxRetries, ticket, parser, attempt + 1, cause, result),
+                    delay, TimeUnit.MILLISECONDS);
+            } else {
+                System.err.println("[LLMClient] All retries exhausted: "
+                    + (cause != null ? describe(cause) : "null response"));
+                result.complete(null);
+            }
+            return null;
+        }), () -> result.completeExceptionally(new CancellationException("superseded")));
+    }
+
+    /**
+     * POST a JSON body and feed the response to {@code onLine} one line at a time
+     * (Ollama streams NDJSON). Returning false from {@code onLine} closes the
+     * connection early. {@code timeoutMs} bounds the whole stream, not just the
+     * wait for headers. Streams are not retried: partial output may already have
+     * been consumed by the caller.
+     */
+    CompletableFuture<Void> postStreaming(String url, String body, int timeoutMs, Ticket ticket,
+                                          Predicate<String> onLine) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        int safeTimeout = Math.max(2000, timeoutMs);
+        long issuedAt = System.nanoTime();
+        result.whenComplete((ignored, error) -> recordOutcome(ticket, issuedAt, error, false));
+        if (!track(result, () -> result.completeExceptionally(new IOException("LLM transport shut down")))) {
+            return result;
+        }
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(safeTimeout))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+        } catch (IllegalArgumentException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        enqueue(ticket, () -> sendStreaming(request, ticket.site()).handleAsync((response, error) -> {
+            try {
+                if (error != null) {
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof HttpTimeoutException) {
+                        ticket.site().timeouts.incrementAndGet();
+                    }
+                    result.completeExceptionally(cause);
+                    return null;
+                }
+                if (response.statusCode() != 200) {
+                    closeQuietly(response.body());
+                    result.completeExceptionally(new IOException("HTTP " + response.statusCode()));
+                    return null;
+                }
+                readLines(response.body(), safeTimeout, onLine);
+                result.complete(null);
+            } catch (Exception e) {
+                if (e instanceof HttpTimeoutException) {
+                    ticket.site().timeouts.incrementAndGet();
+                }
+                result.completeExceptionally(e);
+            } finally {
+                release(ticket);
+            }
+            return null;
+        }, httpExecutor), () -> result.completeExceptionally(new CancellationException("superseded")));
+        return result;
+    }
+
+    private void readLines(InputStream in, int timeoutMs, Predicate<String> onLine) throws IOException {
+        // The request timeout stops applying once headers arrive, so a watchdog
+        // closes the body if the model stalls mid-stream.
+        ScheduledFuture<?> watchdog = retryScheduler.schedule(() -> closeQuietly(in), timeoutMs, TimeUnit.MILLISECONDS);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                if (!onLine.test(line)) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            if (watchdog.isDone() && !watchdog.isCancelled()) {
+                throw new HttpTimeoutException("stream stalled for " + timeoutMs + "ms");
+            }
+            throw e;
+        } finally {
+            watchdog.cancel(false);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<InputStream>> sendStreaming(HttpRequest request, LLMMetrics.Site site) {
+        long sentAt = System.nanoTime();
+        try {
+            return http.sendAsync(request, info -> {
+                site.firstByteMicros.record((System.nanoTime() - sentAt) / 1000L);
+                return HttpResponse.BodySubscribers.ofInputStream();
+            });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Send with the body read as a string; time to first byte is taken when the
+     * response headers arrive, before the body is read
+     */
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request, LLMMetrics.Site site) {
+        long sentAt = System.nanoTime();
+        try {
+            return http.sendAsync(request, info -> {
+                site.firstByteMicros.record((System.nanoTime() - sentAt) / 1000L);
+                return HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8);
+            });
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Total time for answered and failed requests; superseded ones are only counted
+     */
+    private static void recordOutcome(Ticket ticket, long issuedAt, Throwable error, boolean noAnswer) {
+        LLMMetrics.Site site = ticket.site();
+        Throwable cause = error != null ? unwrap(error) : null;
+        if (cause instanceof CancellationException) {
+            site.superseded.incrementAndGet();
+            return;
+        }
+        site.totalMicros.record((System.nanoTime() - issuedAt) / 1000L);
+        if (cause != null || noAnswer) {
+            site.errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * Remember an unfinished request until it completes; after shutdown it is settled
+     * right away instead
+     *
+     * @return false if the transport is already shut down
+     */
+    private boolean track(CompletableFuture<?> result, Runnable settle) {
+        pending.put(result, settle);
+        result.whenComplete((value, error) -> pending.remove(result));
+        if (closed) {
+            settle.run();
+            return false;
+        }
+        return true;
+    }
+
+    private void enqueue(Ticket ticket, Runnable launch, Runnable drop) {
+        boolean stale;
+        synchronized (this) {
+            Long latest = ticket.supersedeKey() != null ? latestByKey.get(ticket.supersedeKey()) : null;
+            stale = latest != null && latest > ticket.seq();
+            if (!stale) {
+                lanes.get(ticket.priority().ordinal()).add(new Waiting(ticket, launch, drop, System.nanoTime()));
+            }
+        }
+        if (stale) {
+            runDrops(List.of(drop));
+        }
+        drain();
+    }
+
+    private void release(Ticket ticket) {
+        synchronized (this) {
+            inFlight--;
+            laneInFlight[ticket.priority().ordinal()]--;
+        }
+        drain();
+    }
+
+    /**
+     * Start waiting requests while slots are free, highest lane first. Launches run
+     * outside the lock (a failed send releases its slot straight back).
+     */
+    private void drain() {
+        List<Waiting> starting = new ArrayList<>();
+        synchronized (this) {
+            for (LLMPriority p : PRIORITIES) {
+                ArrayDeque<Waiting> lane = lanes.get(p.ordinal());
+                while (!lane.isEmpty() && canStart(p)) {
+                    starting.add(lane.poll());
+                    inFlight++;
+                    laneInFlight[p.ordinal()]++;
+                }
+            }
+        }
+        long now = System.nanoTime();
+        for (Waiting w : starting) {
+            w.ticket().site().queueWaitMicros.record((now - w.enqueuedAt()) / 1000L);
+            w.launch().run();
+        }
+    }
+
+    private boolean canStart(LLMPriority p) {
+        if (inFlight >= maxInFlight || laneInFlight[p.ordinal()] >= laneCaps[p.ordinal()]) {
+            return false;
+        }
+        // Keep the last slot for chat when there is more than one
+        return p == LLMPriority.CHAT || maxInFlight == 1 || inFlight < maxInFlight - 1;
+    }
+
+    private void runDrops(List<Runnable> drops) {
+        for (Runnable drop : drops) {
+            superseded.incrementAndGet();
+            drop.run();
+        }
+    }
+
+    /**
+     * Stop all work. Queued and in-flight requests are settled here, since their
+     * HTTP callbacks and retries will never run.
+     */
+    void shutdown() {
+        closed = true;
+        retryScheduler.shutdownNow();
+        httpExecutor.shutdownNow();
+        synchronized (this) {
+            for (ArrayDeque<Waiting> lane : lanes) {
+                lane.clear();
+            }
+        }
+        for (Runnable settle : List.copyOf(pending.values())) {
+            settle.run();
+        }
+        pending.clear();
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        while ((t instanceof java.util.concurrent.CompletionException
+                || t instanceof java.util.concurrent.ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    private static String describe(Throwable t) {
+        return t.getMessage() != null ? t.getMessage() : t.getClass().getSimpleName();
+    }
+
+    private static ThreadFactory daemonFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,20 +1,34 @@
 package com.freddy.plugin;
 
 import com.freddy.ai.AgentBrain;
+import com.freddy.plugin.agent.Agent;
+import com.freddy.plugin.agent.AgentRegistry;
+import com.freddy.plugin.agent.AgentScheduler;
+import com.freddy.plugin.agent.TickProfiler;
 import com.freddy.plugin.brain.BrainLoop;
 import com.freddy.plugin.brain.AIBrainLoop;
+import com.freddy.plugin.build.BuildEngine;
 import com.freddy.plugin.ai.FreddyCraftRequest;
 import com.freddy.plugin.ai.FreddyCraftResult;
 import com.freddy.plugin.ai.FreddyCraftingService;
 import com.freddy.plugin.commands.CommandServer;
 import com.freddy.plugin.commands.DevToolsCommand;
+import com.freddy.plugin.listener.BlockChangeListener;
+import com.freddy.plugin.listener.DroppedItemListener;
 import com.freddy.plugin.listener.PlayerChatListener;
+import com.freddy.plugin.listener.ReactiveSignalListener;
 import com.freddy.plugin.actions.GameActions;
+import com.freddy.plugin.navigation.PathOptions;
+import com.freddy.plugin.navigation.Pathfinder;
 import com.freddy.plugin.npc.FreddyMovement;
 import com.freddy.plugin.npc.Goal;
 import com.freddy.plugin.npc.GoalStep;
 import com.freddy.plugin.npc.StepPlanner;
 import com.freddy.plugin.perception.AIPerception;
+import com.freddy.plugin.perception.BlockIndex;
+import com.freddy.plugin.perception.DroppedItemIndex;
+import com.freddy.plugin.perception.PerceptionPipeline;
+import com.freddy.plugin.perception.PovFrames;
 import com.freddy.common.TelemetryClient;
 import net.citizensnpcs.api.CitizensAPI;
 import net.citizensnpcs.api.npc.NPC;
@@ -35,19 +49,25 @@ public class FreddyPlugin extends JavaPlugin {
     private static NPC freddy;
     private static AgentBrain brain;
     private static BrainLoop brainLoop;
-    private static AIBrainLoop aiBrainLoop;
+    private static AgentRegistry agentRegistry;
+    private static AgentScheduler agentScheduler;
+    private static TickProfiler tickProfiler;
     private static CommandServer commandServer;
     private static TelemetryClient telemetry;
     private static FreddyCraftingService craftingService;
+    private static BlockIndex blockIndex;
+    private static DroppedItemIndex droppedItemIndex;
+    private static PerceptionPipeline perceptionPipeline;
+    private static Pathfinder pathfinder;
+    private static BlockChangeListener blockChanges;
+    private static BuildEngine buildEngine;
     private static final String NPC_NAME = "Freddy";
+    private static final int AGENT_TICK_STAGGER = 7;
     private static Map<String, Goal.GoalType> goalMap = new HashMap<>();
-    private static String currentGoalLabel = "none";
     private static String lastGoalCommandRaw = "";
     private static long lastGoalCommandAt = 0L;
     private static final long GOAL_COMMAND_DEBOUNCE_MS = 900L;
-    private static long lastGoalSetAt = 0L;
     private static final long GOAL_CLEAR_PROTECTION_MS = 5000L;
-    private static long lastGoalClearRequestedAt = 0L;
     private static final long GOAL_CLEAR_CONFIRM_WINDOW_MS = 1000L;
     private static volatile long lastDashboardCommandAt = 0L;
     private static final long DASHBOARD_CONTROL_TTL_MS = 10L * 60_000L;
@@ -72,46 +92,56 @@ public class FreddyPlugin extends JavaPlugin {
     private com.freddy.plugin.ai.reactive.ReactiveGoalGenerator reactiveGoalGeneratorPeer;
 
     /**
-     * Ensure the AI brain loop is initialized once the Citizens NPC is available/spawned.
+     * Resolve the agent for a Citizens NPC, creating its brain loop once the NPC is available/spawned.
+     *
+     * @return The agent, or null if the NPC is missing or cannot be controlled
      */
-    private static synchronized boolean ensureAIBrainLoopInitialized() {
-        if (aiBrainLoop != null) {
-            return true;
+    private static synchronized Agent ensureAgent(String npcName) {
+        if (agentRegistry == null) {
+            return null;
+        }
+        Agent existing = agentRegistry.get(npcName);
+        if (existing != null) {
+            return existing;
         }
 
         try {
             NPC npc = StreamSupport.stream(
                     CitizensAPI.getNPCRegistry().spliterator(),
                     false
-            ).filter(n -> n.getName().equalsIgnoreCase(NPC_NAME)).findFirst().orElse(null);
+            ).filter(n -> n.getName().equalsIgnoreCase(npcName)).findFirst().orElse(null);
 
             if (npc == null) {
-                Bukkit.getLogger().warning("[AI] Citizens NPC '" + NPC_NAME + "' not found.");
-                return false;
+                Bukkit.getLogger().warning("[AI] Citizens NPC '" + npcName + "' not found.");
+                return null;
             }
 
             if (npc.getEntity() == null) {
                 try {
                     npc.spawn(Bukkit.getWorlds().get(0).getSpawnLocation());
-                    Bukkit.getLogger().info("[AI] Spawned NPC '" + NPC_NAME + "' for AI initialization.");
+                    Bukkit.getLogger().info("[AI] Spawned NPC '" + npcName + "' for AI initialization.");
                 } catch (Exception e) {
-                    Bukkit.getLogger().severe("[AI] Failed to spawn NPC '" + NPC_NAME + "': " + e.getMessage());
-                    return false;
+                    Bukkit.getLogger().severe("[AI] Failed to spawn NPC '" + npcName + "': " + e.getMessage());
+                    return null;
                 }
             }
 
             if (!(npc.getEntity() instanceof Player)) {
-                Bukkit.getLogger().warning("[AI] NPC '" + NPC_NAME + "' is not a player entity; AI cannot control it.");
-                return false;
+                Bukkit.getLogger().warning("[AI] NPC '" + npcName + "' is not a player entity; AI cannot control it.");
+                return null;
             }
 
-            aiBrainLoop = new AIBrainLoop(NPC_NAME);
-            aiBrainLoop.start();
-            Bukkit.getLogger().info("[AI] Brain loop initialized lazily for NPC '" + NPC_NAME + "'.");
-            return true;
+            AIBrainLoop loop = new AIBrainLoop(npc.getName());
+            // Spread decision and perception cycles so agents don't all think on the same tick
+            loop.setTickOffset(agentRegistry.size() * AGENT_TICK_STAGGER);
+            Agent agent = new Agent(npc.getName(), npc, loop, agentRegistry.isPrimary(npcName));
+            agentRegistry.register(agent);
+            Bukkit.getLogger().info("[AI] Brain loop initialized for NPC '" + npc.getName() + "' ("
+                + agentRegistry.size() + " agent(s) active).");
+            return agent;
         } catch (Exception e) {
-            Bukkit.getLogger().severe("[AI] Error ensuring brain loop: " + e.getMessage());
-            return false;
+            Bukkit.getLogger().severe("[AI] Error ensuring brain loop for '" + npcName + "': " + e.getMessage());
+            return null;
         }
     }
 
@@ -128,11 +158,44 @@ public class FreddyPlugin extends JavaPlugin {
         String llmModel = getConfig().getString("llm.model", "qwen2.5:3b");
         String llmUrl = getConfig().getString("llm.url", "http://localhost:11434/api/generate");
         int llmTimeout = getConfig().getInt("llm.timeout-ms", 12000);
+        int llmMaxConcurrent = getConfig().getInt("llm.max-concurrent-requests", 2);
         com.freddy.llm.LLMClient.configure(llmModel, llmUrl, llmTimeout);
-        getLogger().info("[FreddyAI] LLM configured: model=" + llmModel + ", timeout=" + llmTimeout + "ms");
+        com.freddy.llm.LLMClient.configureConcurrency(llmMaxConcurrent);
+        com.freddy.llm.LLMClient.configureLanes(
+            getConfig().getInt("llm.lanes.chat", llmMaxConcurrent),
+            getConfig().getInt("llm.lanes.planning", 1),
+            getConfig().getInt("llm.lanes.thinking", 1));
+        String llmKeepAlive = getConfig().getString("llm.keep-alive", "30m");
+        com.freddy.llm.LLMClient.configureKeepAlive(llmKeepAlive);
+        getLogger().info("[FreddyAI] LLM configured: model=" + llmModel + ", timeout=" + llmTimeout
+            + "ms, max-concurrent=" + llmMaxConcurrent + ", keep-alive=" + llmKeepAlive);
+        if (getConfig().getBoolean("llm.warm-up", true)) {
+            long warmUpStart = System.currentTimeMillis();
+            com.freddy.llm.LLMClient.warmUp().thenAccept(ready -> {
+                if (ready) {
+                    getLogger().info("[FreddyAI] LLM model loaded in " + (System.currentTimeMillis() - warmUpStart) + "ms");
+                } else {
+                    getLogger().warning("[FreddyAI] LLM warm-up failed; the first request will load the model");
+                }
+            });
+        }
 
         // Create brain first
         brain = new AgentBrain("Freddy");
+        brain.setStreamingEnabled(getConfig().getBoolean("llm.streaming", true));
+        brain.setPromptTokenBudget(getConfig().getInt("ai.prompt.token-budget", 480));
+        brain.setSession(new com.freddy.llm.LLMSession("brain:" + brain.getNpcName(),
+            com.freddy.llm.LLMOptions.of(
+                getConfig().getInt("llm.brain.num-ctx", 4096),
+                getConfig().getInt("llm.brain.num-predict", 48),
+                getConfig().getDouble("llm.brain.temperature", 0.7)),
+            getConfig().getBoolean("llm.brain.reuse-context", true),
+            com.freddy.llm.LLMPriority.THINKING));
+        if (getConfig().getBoolean("ai.decision-cache.enabled", true)) {
+            brain.setDecisionCache(new com.freddy.ai.DecisionCache(
+                getConfig().getInt("ai.decision-cache.max-entries", 256),
+                getConfig().getLong("ai.decision-cache.ttl-ms", 30000L)));
+        }
         getLogger().info("[FreddyAI] AgentBrain initialized");
 
         // Initialize goal map
@@ -144,12 +207,18 @@ public class FreddyPlugin extends JavaPlugin {
         // Initialize telemetry for dashboard
         String telemetryHost = getConfig().getString("telemetry.host", "localhost");
         int telemetryPort = getConfig().getInt("telemetry.port", 25566);
-        telemetry = new TelemetryClient(telemetryHost, telemetryPort);
+        boolean telemetryBinary = !"text".equalsIgnoreCase(getConfig().getString("telemetry.protocol", "binary"));
+        int telemetryQueue = getConfig().getInt("telemetry.queue-capacity", 1024);
+        telemetry = new TelemetryClient(telemetryHost, telemetryPort, telemetryBinary, telemetryQueue);
         if (telemetry.connect()) {
             getLogger().info("[FreddyAI] Connected to dashboard on port " + telemetryPort);
         } else {
             getLogger().info("[FreddyAI] Dashboard not available (optional)");
         }
+        long metricsInterval = getConfig().getLong("llm.metrics.report-interval-ticks", 200L);
+        if (metricsInterval > 0L) {
+            startLLMMetricsReporter(metricsInterval);
+        }
 
         // Start command server for dashboard commands
         commandServer = new CommandServer();
@@ -159,6 +228,78 @@ public class FreddyPlugin extends JavaPlugin {
         getServer().getPluginManager()
                 .registerEvents(new PlayerChatListener(), this);
 
+        // Spatial index of ores/logs/crops/liquids for nearest-block queries
+        if (getConfig().getBoolean("perception.block-index.enabled", true)) {
+            blockIndex = new BlockIndex(this,
+                getConfig().getInt("perception.block-index.snapshots-per-tick", 4));
+            blockIndex.start();
+        }
+
+        // Event-fed index of dropped items, so NPC pickup never queries the entity tracker
+        if (getConfig().getBoolean("perception.item-index.enabled", true)) {
+            droppedItemIndex = new DroppedItemIndex();
+            getServer().getPluginManager()
+                    .registerEvents(new DroppedItemListener(droppedItemIndex), this);
+            droppedItemIndex.start(getServer().getWorlds());
+        }
+
+        // Snapshot-based perception: world scans and ray casts run on worker threads
+        if (getConfig().getBoolean("perception.pipeline.enabled", true)) {
+            perceptionPipeline = new PerceptionPipeline(this,
+                getConfig().getInt("perception.pipeline.workers", 2),
+                getConfig().getInt("perception.pipeline.block-radius", 16),
+                getConfig().getDouble("perception.pipeline.entity-radius", 50.0));
+        }
+
+        // Plugin-owned A* over chunk snapshots for NPC routes that can tunnel and scaffold
+        if (getConfig().getBoolean("navigation.pathfinder.enabled", true)) {
+            pathfinder = new Pathfinder(this,
+                getConfig().getInt("navigation.pathfinder.threads", 1),
+                new PathOptions(
+                    getConfig().getBoolean("navigation.pathfinder.allow-mining", true),
+                    getConfig().getBoolean("navigation.pathfinder.allow-scaffold", true),
+                    getConfig().getInt("navigation.pathfinder.max-expansions", 20000)),
+                getConfig().getLong("navigation.pathfinder.slice-micros", 2000L),
+                getConfig().getInt("navigation.pathfinder.max-region-chunks", 8),
+                getConfig().getInt("navigation.pathfinder.cache-size", 256));
+        }
+
+        // One block-event listener feeding the index, the pathfinder and the vision-ray cache
+        blockChanges = new BlockChangeListener(blockIndex, pathfinder,
+            perceptionPipeline != null ? perceptionPipeline.getSectionChanges() : null);
+        getServer().getPluginManager()
+                .registerEvents(blockChanges, this);
+
+        // Schematic templates placed several blocks per tick within a time budget
+        buildEngine = new BuildEngine(this,
+            getConfig().getInt("build.blocks-per-tick", 6),
+            getConfig().getLong("build.tick-budget-micros", 400L));
+
+        // Per-tick time of each AI subsystem, for /freddy profile and the dashboard
+        Map<TickProfiler.Section, Long> profileBudgets = new HashMap<>();
+        for (TickProfiler.Section section : TickProfiler.Section.values()) {
+            String key = "profiler.budget-micros." + section.label;
+            if (getConfig().isSet(key)) {
+                profileBudgets.put(section, getConfig().getLong(key));
+            }
+        }
+        tickProfiler = new TickProfiler(getConfig().getBoolean("profiler.enabled", true),
+            profileBudgets, getConfig().getInt("profiler.window-ticks", 1200));
+        long profileInterval = getConfig().getLong("profiler.report-interval-ticks", 100L);
+        if (profileInterval > 0L) {
+            startProfileReporter(profileInterval);
+        }
+
+        // One scheduler time-slices every agent's tick; planning runs on its shared think pool
+        agentRegistry = new AgentRegistry(NPC_NAME);
+        agentScheduler = new AgentScheduler(this, agentRegistry,
+            getConfig().getDouble("agents.tick-budget-ms", 8.0),
+            getConfig().getInt("agents.think-threads", 4));
+        agentScheduler.start();
+        // Damage and mob targeting wake reactive goals without a world scan
+        getServer().getPluginManager()
+                .registerEvents(new ReactiveSignalListener(agentRegistry), this);
+
         DevToolsCommand devToolsCommand = new DevToolsCommand(this);
         if (getCommand("devtools") != null) {
             getCommand("devtools").setExecutor(devToolsCommand);
@@ -183,11 +324,46 @@ public class FreddyPlugin extends JavaPlugin {
         if (getCommand("freddy-goal") != null) {
             getCommand("freddy-goal").setExecutor(new com.freddy.plugin.command.FreddyGoalCommand(this));
         }
+        if (getCommand("freddy") != null) {
+            getCommand("freddy").setExecutor(new com.freddy.plugin.command.FreddyCommand(this));
+        }
 
         // Delay Citizens access (Citizens loads after plugins)
         Bukkit.getScheduler().runTaskLater(this, this::loadFreddyNPC, 20L);
     }
 
+    /**
+     * Send LLM latency percentiles to the dashboard, only when requests finished since the last report
+     */
+    private void startLLMMetricsReporter(long intervalTicks) {
+        long[] reported = {-1L};
+        Bukkit.getScheduler().runTaskTimerAsynchronously(this, () -> {
+            com.freddy.llm.LLMMetrics metrics = com.freddy.llm.LLMClient.getMetrics();
+            long requests = metrics.getRequestCount();
+            if (requests == reported[0] || telemetry == null || !telemetry.isConnected()) {
+                return;
+            }
+            reported[0] = requests;
+            telemetry.send("LLM_METRICS:" + metrics.formatStats());
+        }, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Send per-tick subsystem timings to the dashboard while profiling is on
+     */
+    private void startProfileReporter(long intervalTicks) {
+        Bukkit.getScheduler().runTaskTimerAsynchronously(this, () -> {
+            TickProfiler profiler = tickProfiler;
+            if (profiler == null || !profiler.isEnabled() || telemetry == null || !telemetry.isConnected()) {
+                return;
+            }
+            String stats = profiler.formatStats();
+            if (!stats.isEmpty()) {
+                telemetry.send("PROFILE:" + stats);
+            }
+        }, intervalTicks, intervalTicks);
+    }
+
     private void loadFreddyNPC() {
         freddy = StreamSupport.stream(
                         CitizensAPI.getNPCRegistry().spliterator(),
@@ -215,8 +391,9 @@ public class FreddyPlugin extends JavaPlugin {
             // INITIALIZE AUTONOMOUS AI BRAIN LOOP
             initializeAIBrainLoop();
 
-            if (aiBrainLoop != null && aiBrainLoop.getNpcController() != null) {
-                craftingService = new FreddyCraftingService(aiBrainLoop.getNpcController().getInventory());
+            Agent primary = agentRegistry.getPrimary();
+            if (primary != null && primary.getCraftingService() != null) {
+                craftingService = primary.getCraftingService();
             }
             initializePeerCompatibilitySystems();
             
@@ -252,17 +429,31 @@ public class FreddyPlugin extends JavaPlugin {
             return;
         }
         
-        Player freddyPlayer = (Player) freddy.getEntity();
         getLogger().info("🤖 Starting AI Brain Loop for: " + NPC_NAME);
         
-        aiBrainLoop = new AIBrainLoop(NPC_NAME);
-        aiBrainLoop.start();
+        Agent primary = ensureAgent(NPC_NAME);
+        if (primary == null) {
+            getLogger().warning("⚠️ AI Brain Loop could not be created for " + NPC_NAME);
+            return;
+        }
         
         // Set initial goal
-        aiBrainLoop.setGoal(Goal.GoalType.EXPLORE_AREA, "Initial autonomous exploration");
+        primary.getBrainLoop().setGoal(Goal.GoalType.EXPLORE_AREA, "Initial autonomous exploration");
         
         getLogger().info("✅ AI Brain Loop STARTED");
-        getLogger().info("   Status: " + aiBrainLoop.getAIStatus());
+        getLogger().info("   Status: " + primary.getBrainLoop().getAIStatus());
+
+        // Additional agents share the same scheduler; commands reach them as "@<name> <command>"
+        for (String npcName : getConfig().getStringList("agents.npcs")) {
+            if (npcName == null || npcName.isBlank() || agentRegistry.isPrimary(npcName)) {
+                continue;
+            }
+            Agent agent = ensureAgent(npcName.trim());
+            if (agent != null) {
+                agent.getBrainLoop().setGoal(Goal.GoalType.EXPLORE_AREA, "Initial autonomous exploration");
+                getLogger().info("✅ Agent started: " + agent.getId());
+            }
+        }
     }
 
     private void initializePeerCompatibilitySystems() {
@@ -299,24 +490,28 @@ public class FreddyPlugin extends JavaPlugin {
     }
     
     /**
-     * Set goal for AI from dashboard
+     * Set goal for the primary agent from dashboard
      */
     public static void setAIGoal(String goalName) {
-        ParsedGoalPayload payload = parseGoalPayload(goalName);
-
-        // Resolve goal type (accept exact UI labels and plain names)
-        Goal.GoalType goalType = goalMap.getOrDefault(payload.goalToken.toUpperCase(Locale.ROOT), Goal.GoalType.EXPLORE_AREA);
-        Bukkit.getLogger().info("📌 AI Goal: " + goalType + " - " + payload.rawGoal);
-
-        // Ensure brain loop exists
-        if (!ensureAIBrainLoopInitialized()) {
+        Agent agent = ensureAgent(NPC_NAME);
+        if (agent == null) {
             Bukkit.getLogger().warning("⚠️ AI Brain Loop not initialized; cannot set goal.");
             if (telemetry != null) {
                 telemetry.send("ERROR:AI Brain not initialized. Ensure Citizens NPC '" + NPC_NAME + "' exists and is spawned.");
             }
             return;
         }
+        setAIGoal(agent, goalName);
+    }
 
+    private static void setAIGoal(Agent agent, String goalName) {
+        ParsedGoalPayload payload = parseGoalPayload(goalName);
+
+        // Resolve goal type (accept exact UI labels and plain names)
+        Goal.GoalType goalType = goalMap.getOrDefault(payload.goalToken.toUpperCase(Locale.ROOT), Goal.GoalType.EXPLORE_AREA);
+        Bukkit.getLogger().info("📌 AI Goal: " + goalType + " - " + payload.rawGoal);
+
+        AIBrainLoop aiBrainLoop = agent.getBrainLoop();
         List<GoalStep> steps;
         // Always include amount in the goal description so step executors can infer quantities
         // even when a step label doesn't contain digits (e.g., "Verify ... in inventory").
@@ -350,26 +545,17 @@ public class FreddyPlugin extends JavaPlugin {
             Bukkit.getLogger().info("   📡 Sent steps to dashboard");
         }
 
-        currentGoalLabel = payload.rawGoal;
-        setAICreativeAssist(true);
+        agent.setGoalLabel(payload.rawGoal);
+        setAICreativeAssist(agent, true);
         aiBrainLoop.clearGoals();
         if (aiBrainLoop.getNpcController() != null) {
             aiBrainLoop.getNpcController().clearActionQueue();
         }
         aiBrainLoop.setGoalWithSteps(goalType, goalDescription, steps);
-        lastGoalSetAt = System.currentTimeMillis();
-    }
-
-    private static void setAIGoalFromPrompt(String goalPrompt) {
-        setAIGoalFromPromptAsync(goalPrompt);
+        agent.markGoalSet();
     }
 
-    private static void setAIGoalFromPromptAsync(String goalPrompt) {
-        if (!ensureAIBrainLoopInitialized()) {
-            sendErrorTelemetry("AI Brain not initialized. Ensure Freddy exists and is spawned.");
-            return;
-        }
-
+    private static void setAIGoalFromPromptAsync(Agent agent, String goalPrompt) {
         String normalized = goalPrompt == null ? "" : goalPrompt.trim();
         if (normalized.isEmpty()) {
             sendErrorTelemetry("Goal prompt is empty.");
@@ -381,18 +567,23 @@ public class FreddyPlugin extends JavaPlugin {
             telemetry.send("ACTION:PROCESSING CUSTOM GOAL");
         }
 
-        if (instance == null) {
-            applyPromptGoal(normalized, StepPlanner.planFromPrompt(normalized));
+        if (instance == null || agentScheduler == null) {
+            applyPromptGoal(agent, normalized, StepPlanner.planFromPrompt(normalized));
             return;
         }
 
-        Bukkit.getScheduler().runTaskAsynchronously(instance, () -> {
-            List<GoalStep> steps = StepPlanner.planFromPrompt(normalized);
-            Bukkit.getScheduler().runTask(instance, () -> applyPromptGoal(normalized, steps));
-        });
+        // Planning may call the LLM: run it on the shared think pool, apply on the main thread
+        agentScheduler.submitThinking(agent, () -> StepPlanner.planFromPrompt(normalized))
+            .whenComplete((steps, error) -> {
+                if (error != null) {
+                    Bukkit.getLogger().warning("[AI] Prompt planning failed for " + agent.getId() + ": " + error.getMessage());
+                }
+                Bukkit.getScheduler().runTask(instance,
+                    () -> withAgentScope(agent, () -> applyPromptGoal(agent, normalized, steps)));
+            });
     }
 
-    private static void applyPromptGoal(String normalizedPrompt, List<GoalStep> plannedSteps) {
+    private static void applyPromptGoal(Agent agent, String normalizedPrompt, List<GoalStep> plannedSteps) {
         Goal.GoalType goalType = inferGoalTypeFromPrompt(normalizedPrompt);
         List<GoalStep> steps = (plannedSteps == null || plannedSteps.isEmpty())
             ? StepPlanner.planFor(goalType, 1)
@@ -411,14 +602,15 @@ public class FreddyPlugin extends JavaPlugin {
             telemetry.send("GOAL_STEPS:" + stepsJson);
         }
 
-        currentGoalLabel = "Custom - " + normalizedPrompt;
-        setAICreativeAssist(true);
+        agent.setGoalLabel("Custom - " + normalizedPrompt);
+        setAICreativeAssist(agent, true);
+        AIBrainLoop aiBrainLoop = agent.getBrainLoop();
         aiBrainLoop.clearGoals();
         if (aiBrainLoop.getNpcController() != null) {
             aiBrainLoop.getNpcController().clearActionQueue();
         }
         aiBrainLoop.setGoalWithSteps(goalType, "Goal: " + normalizedPrompt, steps);
-        lastGoalSetAt = System.currentTimeMillis();
+        agent.markGoalSet();
     }
 
     private static Goal.GoalType inferGoalTypeFromPrompt(String prompt) {
@@ -500,24 +692,26 @@ public class FreddyPlugin extends JavaPlugin {
         }
     }
 
-    private static void clearAIGoal() {
+    private static void clearAIGoal(Agent agent) {
+        AIBrainLoop aiBrainLoop = agent.getBrainLoop();
         if (aiBrainLoop != null) {
             aiBrainLoop.clearGoals();
             if (aiBrainLoop.getNpcController() != null) {
                 aiBrainLoop.getNpcController().clearActionQueue();
             }
         }
-        setAICreativeAssist(true);
-        currentGoalLabel = "none";
+        setAICreativeAssist(agent, true);
+        agent.setGoalLabel("none");
         if (telemetry != null) {
             telemetry.send("GOAL:none");
         }
     }
     
     /**
-     * Get AI status
+     * Get AI status of the primary agent
      */
     public static String getAIStatus() {
+        AIBrainLoop aiBrainLoop = getAIBrainLoop();
         if (aiBrainLoop == null) return "NOT INITIALIZED";
         return aiBrainLoop.getAIStatus();
     }
@@ -568,9 +762,18 @@ public class FreddyPlugin extends JavaPlugin {
     }
 
     public static String getCurrentGoalLabel() {
-        return currentGoalLabel == null || currentGoalLabel.isBlank() ? "none" : currentGoalLabel;
+        return getCurrentGoalLabel(NPC_NAME);
     }
 
+    public static String getCurrentGoalLabel(String agentId) {
+        Agent agent = agentRegistry != null ? agentRegistry.get(agentId) : null;
+        return agent != null ? agent.getGoalLabel() : "none";
+    }
+
+    /**
+     * Handle a dashboard command. "@<agentId> <command>" targets a specific agent;
+     * commands without the prefix go to the primary agent.
+     */
     public static void handleDashboardCommand(String rawCommand) {
         if (rawCommand == null || rawCommand.isBlank()) {
             return;
@@ -583,68 +786,101 @@ public class FreddyPlugin extends JavaPlugin {
             Bukkit.getLogger().info("[AI] Stopped legacy BrainLoop to avoid action conflicts.");
         }
 
-        if (!ensureAIBrainLoopInitialized()) {
-            Bukkit.getLogger().warning("[AI] Dashboard command ignored; Freddy is not ready.");
+        String command = rawCommand.trim();
+        String agentId = NPC_NAME;
+        if (command.startsWith("@")) {
+            int space = command.indexOf(' ');
+            if (space < 0) {
+                Bukkit.getLogger().warning("[AI] Agent command without a body: " + command);
+                return;
+            }
+            agentId = command.substring(1, space).trim();
+            command = command.substring(space + 1).trim();
+        }
+
+        Agent agent = ensureAgent(agentId);
+        if (agent == null) {
+            Bukkit.getLogger().warning("[AI] Dashboard command ignored; " + agentId + " is not ready.");
             return;
         }
 
-        String command = rawCommand.trim();
+        final String body = command;
+        withAgentScope(agent, () -> dispatchDashboardCommand(agent, body));
+    }
 
+    /**
+     * Run with the agent's telemetry scope so messages reach the dashboard keyed by agent
+     */
+    private static void withAgentScope(Agent agent, Runnable work) {
+        String scope = agent.getTelemetryScope();
+        if (telemetry == null || scope == null) {
+            work.run();
+            return;
+        }
+        telemetry.setAgentScope(scope);
+        try {
+            work.run();
+        } finally {
+            telemetry.setAgentScope(null);
+        }
+    }
+
+    private static void dispatchDashboardCommand(Agent agent, String command) {
         if ((command.equalsIgnoreCase("GOAL_CLEAR") || command.equalsIgnoreCase("GOAL_CLEAR_FORCE") || command.startsWith("GOAL_TEXT:"))
-            && isDuplicateGoalCommand(command)) {
+            && isDuplicateGoalCommand(agent.getId() + "|" + command)) {
             Bukkit.getLogger().info("[AI] Ignored duplicate goal command: " + command);
             return;
         }
 
         if (command.startsWith("ACTION:")) {
-            handleActionCommand(command.substring(7).trim());
+            handleActionCommand(agent, command.substring(7).trim());
             return;
         }
 
         if (command.startsWith("CRAFT:")) {
-            handleCraftCommand(command.substring(6).trim());
+            handleCraftCommand(agent, command.substring(6).trim());
             return;
         }
 
         if (command.equalsIgnoreCase("OBSERVE")) {
-            handleObserveCommand();
+            handleObserveCommand(agent);
             return;
         }
 
         if (command.equalsIgnoreCase("RETURN_HOME")) {
-            handleReturnHome();
+            handleReturnHome(agent);
             return;
         }
 
         if (command.startsWith("GOAL:")) {
-            setAIGoal(command.substring(5).trim());
-            lastGoalClearRequestedAt = 0L;
+            setAIGoal(agent, command.substring(5).trim());
+            agent.setLastGoalClearRequestedAt(0L);
             return;
         }
 
         if (command.startsWith("GOAL_TEXT:")) {
-            setAIGoalFromPromptAsync(command.substring(10).trim());
-            lastGoalClearRequestedAt = 0L;
+            setAIGoalFromPromptAsync(agent, command.substring(10).trim());
+            agent.setLastGoalClearRequestedAt(0L);
             return;
         }
 
         if (command.equalsIgnoreCase("GOAL_CLEAR_FORCE")) {
-            if (shouldProtectActiveGoalFromClear()) {
+            if (shouldProtectActiveGoalFromClear(agent)) {
                 return;
             }
-            lastGoalClearRequestedAt = 0L;
-            clearAIGoal();
+            agent.setLastGoalClearRequestedAt(0L);
+            clearAIGoal(agent);
             return;
         }
 
         if (command.equalsIgnoreCase("GOAL_CLEAR")) {
-            if (!isClearConfirmedForActiveGoal()) {
+            if (!isClearConfirmedForActiveGoal(agent)) {
                 return;
             }
-            if (shouldProtectActiveGoalFromClear()) {
+            if (shouldProtectActiveGoalFromClear(agent)) {
                 return;
             }
-            clearAIGoal();
+            clearAIGoal(agent);
             return;
         }
 
@@ -659,7 +895,8 @@ public class FreddyPlugin extends JavaPlugin {
         return duplicate;
     }
 
-    private static boolean shouldProtectActiveGoalFromClear() {
+    private static boolean shouldProtectActiveGoalFromClear(Agent agent) {
+        AIBrainLoop aiBrainLoop = agent.getBrainLoop();
         if (aiBrainLoop == null) {
             return false;
         }
@@ -669,7 +906,7 @@ public class FreddyPlugin extends JavaPlugin {
             return false;
         }
 
-        long elapsedSinceSet = System.currentTimeMillis() - lastGoalSetAt;
+        long elapsedSinceSet = System.currentTimeMillis() - agent.getLastGoalSetAt();
         if (elapsedSinceSet < GOAL_CLEAR_PROTECTION_MS) {
             Bukkit.getLogger().warning("[AI] Ignored GOAL_CLEAR during goal activation window (" + elapsedSinceSet + "ms).");
             return true;
@@ -678,7 +915,8 @@ public class FreddyPlugin extends JavaPlugin {
         return false;
     }
 
-    private static boolean isClearConfirmedForActiveGoal() {
+    private static boolean isClearConfirmedForActiveGoal(Agent agent) {
+        AIBrainLoop aiBrainLoop = agent.getBrainLoop();
         if (aiBrainLoop == null) {
             return true;
         }
@@ -686,24 +924,27 @@ public class FreddyPlugin extends JavaPlugin {
         Goal active = aiBrainLoop.getCurrentGoal();
         if (active == null || active.getStatus() != Goal.GoalStatus.IN_PROGRESS) {
             // No active goal -> allow clear.
-            lastGoalClearRequestedAt = 0L;
+            agent.setLastGoalClearRequestedAt(0L);
             return true;
         }
 
         long now = System.currentTimeMillis();
-        if (lastGoalClearRequestedAt > 0L && (now - lastGoalClearRequestedAt) <= GOAL_CLEAR_CONFIRM_WINDOW_MS) {
-            lastGoalClearRequestedAt = 0L;
+        long lastClearRequestedAt = agent.getLastGoalClearRequestedAt();
+        if (lastClearRequestedAt > 0L && (now - lastClearRequestedAt) <= GOAL_CLEAR_CONFIRM_WINDOW_MS) {
+            agent.setLastGoalClearRequestedAt(0L);
             return true;
         }
 
-        lastGoalClearRequestedAt = now;
+        agent.setLastGoalClearRequestedAt(now);
         Bukkit.getLogger().warning("[AI] Ignored GOAL_CLEAR for in-progress goal; send again within "
             + GOAL_CLEAR_CONFIRM_WINDOW_MS + "ms to confirm.");
         return false;
     }
 
-    private static void handleActionCommand(String payload) {
-        if (freddy == null || freddy.getEntity() == null) {
+    private static void handleActionCommand(Agent agent, String payload) {
+        NPC npc = agent.getNpc();
+        AIBrainLoop aiBrainLoop = agent.getBrainLoop();
+        if (npc == null || npc.getEntity() == null) {
             return;
         }
 
@@ -729,8 +970,8 @@ public class FreddyPlugin extends JavaPlugin {
                 aiBrainLoop.getNpcController().clearActionQueue();
             }
             aiBrainLoop.setGoalWithSteps(Goal.GoalType.FOLLOW_PLAYER, "Follow player " + playerName, List.of(s1, s2));
-            currentGoalLabel = "FOLLOW_PLAYER:" + playerName;
-            lastGoalSetAt = System.currentTimeMillis();
+            agent.setGoalLabel("FOLLOW_PLAYER:" + playerName);
+            agent.markGoalSet();
             sendActionTelemetry("GOAL FOLLOW " + playerName);
             return;
         }
@@ -752,8 +993,8 @@ public class FreddyPlugin extends JavaPlugin {
                 aiBrainLoop.getNpcController().clearActionQueue();
             }
             aiBrainLoop.setGoalWithSteps(Goal.GoalType.PROTECT_PLAYER, "Protect player " + playerName, List.of(s1, s2, s3));
-            currentGoalLabel = "PROTECT_PLAYER:" + playerName;
-            lastGoalSetAt = System.currentTimeMillis();
+            agent.setGoalLabel("PROTECT_PLAYER:" + playerName);
+            agent.markGoalSet();
             sendActionTelemetry("GOAL PROTECT " + playerName);
             return;
         }
@@ -764,7 +1005,7 @@ public class FreddyPlugin extends JavaPlugin {
                 sendErrorTelemetry("CREATE requires item name");
                 return;
             }
-            setAIGoalFromPromptAsync("craft " + itemName.toLowerCase(Locale.ROOT));
+            setAIGoalFromPromptAsync(agent, "craft " + itemName.toLowerCase(Locale.ROOT));
             sendActionTelemetry("GOAL CREATE " + itemName);
             return;
         }
@@ -773,13 +1014,13 @@ public class FreddyPlugin extends JavaPlugin {
             aiBrainLoop.clearGoals();
             aiBrainLoop.pauseAutonomyTicks(240); // ~12 seconds manual control window
         }
-        setAICreativeAssist(false);
-        currentGoalLabel = "manual-direct-action";
+        setAICreativeAssist(agent, false);
+        agent.setGoalLabel("manual-direct-action");
         if (telemetry != null) {
             telemetry.send("GOAL:manual-direct-action");
         }
 
-        GameActions actions = new GameActions(freddy, null);
+        GameActions actions = new GameActions(npc, null);
 
         switch (action) {
             case "WANDER" -> {
@@ -801,7 +1042,7 @@ public class FreddyPlugin extends JavaPlugin {
                         actions.turnTowards(player);
                         sendActionTelemetry("LOOK_AT " + player.getName());
                     } else {
-                        org.bukkit.Location location = parseLocation(primaryArg, freddy.getEntity().getLocation());
+                        org.bukkit.Location location = parseLocation(primaryArg, npc.getEntity().getLocation());
                         if (location != null) {
                             actions.lookAt(location);
                             sendActionTelemetry("LOOK_AT " + formatLocation(location));
@@ -814,7 +1055,7 @@ public class FreddyPlugin extends JavaPlugin {
                 }
             }
             case "MOVE_TO", "WALK_TO" -> {
-                org.bukkit.Location location = parseLocation(primaryArg, freddy.getEntity().getLocation());
+                org.bukkit.Location location = parseLocation(primaryArg, npc.getEntity().getLocation());
                 if (location != null) {
                     actions.walkTo(location);
                     sendActionTelemetry("WALK_TO " + formatLocation(location));
@@ -827,7 +1068,7 @@ public class FreddyPlugin extends JavaPlugin {
                 sendActionTelemetry("MINE_NEARBY");
             }
             case "BREAK_BLOCK" -> {
-                org.bukkit.Location location = parseLocation(primaryArg, freddy.getEntity().getLocation());
+                org.bukkit.Location location = parseLocation(primaryArg, npc.getEntity().getLocation());
                 if (location != null) {
                     actions.breakBlockAt(location);
                     sendActionTelemetry("BREAK_BLOCK " + formatLocation(location));
@@ -838,7 +1079,7 @@ public class FreddyPlugin extends JavaPlugin {
             }
             case "PLACE_BLOCK" -> {
                 org.bukkit.Material material = parseMaterial(primaryArg, secondaryArg);
-                org.bukkit.Location location = parseLocation(secondaryArg, freddy.getEntity().getLocation());
+                org.bukkit.Location location = parseLocation(secondaryArg, npc.getEntity().getLocation());
                 if (material != null) {
                     if (location != null) {
                         actions.placeBlockAt(location, material);
@@ -894,8 +1135,8 @@ public class FreddyPlugin extends JavaPlugin {
                 aiBrainLoop.getNpcController().pickupNearbyItems();
                 sendActionTelemetry("PICKUP_ITEMS");
             }
-            case "OBSERVE" -> handleObserveCommand();
-            case "RETURN_HOME" -> handleReturnHome();
+            case "OBSERVE" -> handleObserveCommand(agent);
+            case "RETURN_HOME" -> handleReturnHome(agent);
             default -> Bukkit.getLogger().warning("[AI] Unknown action: " + action);
         }
     }
@@ -947,22 +1188,20 @@ public class FreddyPlugin extends JavaPlugin {
         return String.format(Locale.ROOT, "%.1f,%.1f,%.1f", location.getX(), location.getY(), location.getZ());
     }
 
-    private static void handleCraftCommand(String payload) {
+    private static void handleCraftCommand(Agent agent, String payload) {
+        AIBrainLoop aiBrainLoop = agent.getBrainLoop();
         if (aiBrainLoop != null) {
             aiBrainLoop.clearGoals();
             aiBrainLoop.pauseAutonomyTicks(160);
         }
-        setAICreativeAssist(false);
-        currentGoalLabel = "manual-direct-action";
+        setAICreativeAssist(agent, false);
+        agent.setGoalLabel("manual-direct-action");
         if (telemetry != null) {
             telemetry.send("GOAL:manual-direct-action");
         }
 
-        if (craftingService == null && aiBrainLoop != null && aiBrainLoop.getNpcController() != null) {
-            craftingService = new FreddyCraftingService(aiBrainLoop.getNpcController().getInventory());
-        }
-
-        if (craftingService == null) {
+        FreddyCraftingService crafting = agent.getCraftingService();
+        if (crafting == null) {
             sendErrorTelemetry("Crafting service not ready.");
             return;
         }
@@ -976,7 +1215,7 @@ public class FreddyPlugin extends JavaPlugin {
             } catch (NumberFormatException ignore) { }
         }
 
-        FreddyCraftResult result = craftingService.craft(new FreddyCraftRequest(item, amount));
+        FreddyCraftResult result = crafting.craft(new FreddyCraftRequest(item, amount));
         if (telemetry != null) {
             if (result.crafted) {
                 telemetry.send("ACTION:CRAFTED " + result.craftedAmount + "x " + result.craftedItem);
@@ -986,42 +1225,46 @@ public class FreddyPlugin extends JavaPlugin {
         }
     }
 
-    private static void handleObserveCommand() {
-        if (freddy == null || freddy.getEntity() == null) {
+    private static void handleObserveCommand(Agent agent) {
+        NPC npc = agent.getNpc();
+        if (npc == null || npc.getEntity() == null) {
             return;
         }
 
+        AIBrainLoop aiBrainLoop = agent.getBrainLoop();
         if (aiBrainLoop != null) {
             aiBrainLoop.pauseAutonomyTicks(120);
         }
 
-        Location loc = freddy.getEntity().getLocation();
+        Location loc = npc.getEntity().getLocation();
         AIPerception perception = new AIPerception(loc, 50.0, loc.getYaw());
-        var pov = perception.buildPOV(freddy.getEntity().getNearbyEntities(50, 50, 50));
+        var pov = perception.buildPOV(npc.getEntity().getNearbyEntities(50, 50, 50));
         sendActionTelemetry("OBSERVE");
 
         if (telemetry != null) {
-            telemetry.send("POV:" + pov.toString().replace("\n", "\\n"));
+            telemetry.sendPovFrame(PovFrames.senses(loc.getX(), loc.getY(), loc.getZ(), loc.getYaw(), pov, null));
         }
     }
 
-    private static void handleReturnHome() {
-        if (freddy == null || freddy.getEntity() == null) {
+    private static void handleReturnHome(Agent agent) {
+        NPC npc = agent.getNpc();
+        if (npc == null || npc.getEntity() == null) {
             return;
         }
 
+        AIBrainLoop aiBrainLoop = agent.getBrainLoop();
         if (aiBrainLoop != null) {
             aiBrainLoop.clearGoals();
             aiBrainLoop.pauseAutonomyTicks(200);
         }
-        setAICreativeAssist(false);
-        currentGoalLabel = "manual-direct-action";
+        setAICreativeAssist(agent, false);
+        agent.setGoalLabel("manual-direct-action");
         if (telemetry != null) {
             telemetry.send("GOAL:manual-direct-action");
         }
 
-        Location spawn = freddy.getEntity().getWorld().getSpawnLocation();
-        freddy.getNavigator().setTarget(spawn);
+        Location spawn = npc.getEntity().getWorld().getSpawnLocation();
+        npc.getNavigator().setTarget(spawn);
         sendActionTelemetry("RETURN_HOME");
     }
 
@@ -1037,7 +1280,8 @@ public class FreddyPlugin extends JavaPlugin {
         }
     }
 
-    private static void setAICreativeAssist(boolean enabled) {
+    private static void setAICreativeAssist(Agent agent, boolean enabled) {
+        AIBrainLoop aiBrainLoop = agent.getBrainLoop();
         if (aiBrainLoop != null && aiBrainLoop.getNpcController() != null) {
             aiBrainLoop.getNpcController().setCreativeMode(enabled);
         }
@@ -1057,9 +1301,10 @@ public class FreddyPlugin extends JavaPlugin {
             getLogger().info("🛑 Telemetry disconnected");
         }
         
-        // Stop AI brain loop
-        if (aiBrainLoop != null) {
-            aiBrainLoop.cancel();
+        // Stop agent scheduler (all AI brain loops)
+        if (agentScheduler != null) {
+            agentScheduler.stop();
+            agentScheduler = null;
             getLogger().info("🛑 AI Brain Loop stopped");
         }
         
@@ -1068,6 +1313,33 @@ public class FreddyPlugin extends JavaPlugin {
             brainLoop.stop();
             getLogger().info("🛑 Brain loop stopped");
         }
+
+        if (blockIndex != null) {
+            blockIndex.stop();
+            blockIndex = null;
+        }
+
+        if (droppedItemIndex != null) {
+            droppedItemIndex.stop();
+            droppedItemIndex = null;
+        }
+
+        if (perceptionPipeline != null) {
+            perceptionPipeline.shutdown();
+            perceptionPipeline = null;
+        }
+
+        if (pathfinder != null) {
+            pathfinder.shutdown();
+            pathfinder = null;
+        }
+
+        blockChanges = null;
+
+        buildEngine = null;
+        tickProfiler = null;
+
+        com.freddy.llm.LLMClient.shutdown();
         
         getLogger().info("🤖 FreddyAI disabled");
     }
@@ -1086,10 +1358,76 @@ public class FreddyPlugin extends JavaPlugin {
     }
 
     /**
-     * Expose AIBrainLoop to other components (e.g., BrainLoop coordination)
+     * Spatial block index, or null when disabled
+     */
+    public static BlockIndex getBlockIndex() {
+        return blockIndex;
+    }
+
+    /**
+     * Dropped item index, or null when disabled
+     */
+    public static DroppedItemIndex getDroppedItemIndex() {
+        return droppedItemIndex;
+    }
+
+    /**
+     * Off-main-thread perception pipeline, or null when disabled
+     */
+    public static PerceptionPipeline getPerceptionPipeline() {
+        return perceptionPipeline;
+    }
+
+    /**
+     * NPC route planner, or null when disabled
+     */
+    public static Pathfinder getPathfinder() {
+        return pathfinder;
+    }
+
+    /**
+     * Block-change fan-out for code that edits blocks without events, or null before
+     * the plugin is enabled
+     */
+    public static BlockChangeListener getBlockChanges() {
+        return blockChanges;
+    }
+
+    /**
+     * Per-tick AI profiler, or null before the plugin is enabled
+     */
+    public static TickProfiler getTickProfiler() {
+        return tickProfiler;
+    }
+
+    /**
+     * Schematic build engine, or null before the plugin is enabled
+     */
+    public static BuildEngine getBuildEngine() {
+        return buildEngine;
+    }
+
+    /**
+     * Expose the primary agent's AIBrainLoop to other components (e.g., BrainLoop coordination)
      */
     public static AIBrainLoop getAIBrainLoop() {
-        return aiBrainLoop;
+        return getAIBrainLoop(NPC_NAME);
+    }
+
+    /**
+     * @return The brain loop driving the named NPC, or null if it is not an agent
+     */
+    public static AIBrainLoop getAIBrainLoop(String agentId) {
+        Agent agent = agentRegistry != null ? agentRegistry.get(agentId) : null;
+        return agent != null ? agent.getBrainLoop() : null;
+    }
+
+    public static AgentRegistry getAgentRegistry() {
+        return agentRegistry;
+    }
+
+    public static AgentScheduler getAgentScheduler() {
+        return agentScheduler;
     }
 
     public static FreddyCraftingService getCraftingService() {
@@ -175,7 +175,7 @@ public class GameActions {
         }
         // Delegate to NPCController for weapon-scaled damage if available
         try {
-            var brainLoop = com.freddy.plugin.FreddyPlugin.getAIBrainLoop();
+            var brainLoop = com.freddy.plugin.FreddyPlugin.getAIBrainLoop(freddy.getName());
             if (brainLoop != null && brainLoop.getNpcController() != null) {
                 brainLoop.getNpcController().attackEntity(target);
                 return;
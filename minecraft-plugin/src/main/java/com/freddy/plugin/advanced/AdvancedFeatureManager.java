@@ -5,12 +5,28 @@ import org.bukkit.entity.Player;
 
 /**
  * Advanced module holder.
+ *
+ * Reactive goals only look at the world when they could act: while a goal is active
+ * (or within their cooldown) they ask for no perception at all. Hazards reach them as
+ * {@link ReactiveSignal}s from events and a cheap block probe, so they can react
+ * before the next full scan.
  */
 public class AdvancedFeatureManager {
+    /** Oldest published state the reactive goals act on when no signal is pending */
+    private static final long REACTIVE_STATE_MAX_AGE_MS = 5000L;
+    /** A signal older than this no longer counts as a current hazard */
+    private static final long SIGNAL_WINDOW_MS = 10000L;
+
     private final AdvancedPerception perception;
     private final DeterministicPlanner deterministicPlanner;
     private final WorkflowSafety workflowSafety;
     private final ReactiveGoalGenerator reactiveGoals;
+    // Latest state from the perception cycle; reactive goals only re-evaluate on a new one
+    private volatile AdvancedWorldState latestState;
+    private AdvancedWorldState lastReactedState;
+    // Main thread only (events and ticks)
+    private final long[] signalledAt = new long[ReactiveSignal.values().length];
+    private long lastSignalAt = 0L;
 
     public AdvancedFeatureManager(Player npcEntity, GoalManager goalManager) {
         this.perception = new AdvancedPerception(npcEntity);
@@ -39,11 +55,70 @@ public class AdvancedFeatureManager {
         perception.setNpc(npcEntity);
     }
 
+    /**
+     * Publish a freshly built state; may be called from any thread.
+     */
+    public void publishState(AdvancedWorldState state) {
+        this.latestState = state;
+    }
+
+    public AdvancedWorldState latestState() {
+        return latestState;
+    }
+
+    /**
+     * Record a hazard signal (main thread)
+     */
+    public void signal(ReactiveSignal signal) {
+        long now = System.currentTimeMillis();
+        signalledAt[signal.ordinal()] = now;
+        lastSignalAt = now;
+    }
+
+    public long getLastSignalAt(ReactiveSignal signal) {
+        return signalledAt[signal.ordinal()];
+    }
+
+    /**
+     * How fresh a published state must be for the reactive goals right now;
+     * Long.MAX_VALUE while they cannot act, so no perception is needed for them
+     */
+    public long requiredStateAgeMs() {
+        if (com.freddy.plugin.FreddyPlugin.isDashboardControlActive() || !reactiveGoals.isReady()) {
+            return Long.MAX_VALUE;
+        }
+        return REACTIVE_STATE_MAX_AGE_MS;
+    }
+
+    /**
+     * Run the cheap lava/fall probe, only when a reactive goal could follow from it
+     */
+    public void probeHazards() {
+        if (requiredStateAgeMs() == Long.MAX_VALUE) {
+            return;
+        }
+        ReactiveSignal hazard = perception.probeHazards();
+        if (hazard != null) {
+            signal(hazard);
+        }
+    }
+
     public void tickReactive() {
-        if (com.freddy.plugin.FreddyPlugin.isDashboardControlActive()) {
+        if (com.freddy.plugin.FreddyPlugin.isDashboardControlActive() || !reactiveGoals.isReady()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        AdvancedWorldState state = latestState;
+        if (lastSignalAt > 0L && now - lastSignalAt <= SIGNAL_WINDOW_MS) {
+            lastSignalAt = 0L;
+            lastReactedState = state;
+            reactiveGoals.maybeGenerate(state, true);
+            return;
+        }
+        if (state == null || state == lastReactedState || now - state.tickTime > REACTIVE_STATE_MAX_AGE_MS) {
             return;
         }
-        AdvancedWorldState state = perception.observe();
+        lastReactedState = state;
         reactiveGoals.maybeGenerate(state);
     }
 }
@@ -1,18 +1,23 @@
 package com.freddy.plugin.advanced;
 
+import com.freddy.plugin.perception.PerceptionSnapshot;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.EntityType;
-import org.bukkit.entity.Monster;
 import org.bukkit.entity.Player;
 
 /**
  * Observe-only world scanner.
  */
 public class AdvancedPerception {
+    private static final int SCAN_RADIUS = 8;
+    private static final int THREAT_RADIUS = 10;
+    private static final int LAVA_PROBE_RADIUS = 2;
+    private static final int FALL_PROBE_DEPTH = 4;
+
     private Player npc;
 
     public AdvancedPerception(Player npc) {
@@ -28,43 +33,52 @@ public class AdvancedPerception {
     }
 
     public AdvancedWorldState observe(AdvancedQuery query) {
-        AdvancedWorldState state = new AdvancedWorldState();
         if (npc == null || npc.getWorld() == null) {
+            AdvancedWorldState state = new AdvancedWorldState();
             state.tickTime = System.currentTimeMillis();
             return state;
         }
 
-        Location loc = npc.getLocation();
-        World world = npc.getWorld();
-
-        state.x = loc.getX();
-        state.y = loc.getY();
-        state.z = loc.getZ();
-        state.biome = world.getBiome(loc).toString();
+        AdvancedWorldState state = fromSnapshot(PerceptionSnapshot.capture(npc, SCAN_RADIUS, THREAT_RADIUS));
 
-        scanPlayers(state, loc, world);
-        scanThreats(state, loc, world);
-        scanBlocks(state, loc, world, 8);
+        if (query != null && !query.isEmpty()) {
+            applyQuery(state, npc.getLocation(), npc.getWorld(), query);
+        }
 
-        Block below = loc.clone().add(0, -1, 0).getBlock();
-        state.standingOnSolidBlock = below.getType().isSolid();
-        state.tickTime = System.currentTimeMillis();
+        return state;
+    }
 
-        if (query != null && !query.isEmpty()) {
-            applyQuery(state, loc, world, query);
+    /**
+     * Build the base state from a snapshot. Touches no Bukkit state, so it is safe
+     * to call from perception workers.
+     */
+    public static AdvancedWorldState fromSnapshot(PerceptionSnapshot snapshot) {
+        AdvancedWorldState state = new AdvancedWorldState();
+        if (snapshot == null) {
+            state.tickTime = System.currentTimeMillis();
+            return state;
         }
 
+        state.x = snapshot.x;
+        state.y = snapshot.y;
+        state.z = snapshot.z;
+        state.biome = snapshot.biome;
+
+        scanPlayers(state, snapshot);
+        scanThreats(state, snapshot);
+        scanBlocks(state, snapshot, SCAN_RADIUS);
+
+        Material below = snapshot.getType(snapshot.getBlockX(), snapshot.getBlockY() - 1, snapshot.getBlockZ());
+        state.standingOnSolidBlock = below.isSolid();
+        state.tickTime = System.currentTimeMillis();
         return state;
     }
 
-    private void scanPlayers(AdvancedWorldState state, Location loc, World world) {
+    private static void scanPlayers(AdvancedWorldState state, PerceptionSnapshot snapshot) {
         double best = Double.MAX_VALUE;
-        Player bestPlayer = null;
-        for (Player p : world.getPlayers()) {
-            if (p.getUniqueId().equals(npc.getUniqueId())) {
-                continue;
-            }
-            double d = p.getLocation().distance(loc);
+        PerceptionSnapshot.EntityInfo bestPlayer = null;
+        for (PerceptionSnapshot.EntityInfo p : snapshot.worldPlayers) {
+            double d = snapshot.distanceTo(p);
             if (d < best) {
                 best = d;
                 bestPlayer = p;
@@ -72,26 +86,28 @@ public class AdvancedPerception {
         }
         if (bestPlayer != null) {
             state.playerNearby = true;
-            state.nearestPlayer = bestPlayer.getName();
+            state.nearestPlayer = bestPlayer.name();
             state.playerDistance = best;
         }
     }
 
-    private void scanThreats(AdvancedWorldState state, Location loc, World world) {
-        for (Entity e : world.getNearbyEntities(loc, 10, 10, 10)) {
-            if (e instanceof Monster m) {
+    private static void scanThreats(AdvancedWorldState state, PerceptionSnapshot snapshot) {
+        for (PerceptionSnapshot.EntityInfo e : snapshot.entities) {
+            if (e.monster() && snapshot.withinBox(e, THREAT_RADIUS)) {
                 state.threatNearby = true;
-                state.nearbyHostileMobs.add(m.getType().name());
+                state.nearbyHostileMobs.add(e.type());
             }
         }
     }
 
-    private void scanBlocks(AdvancedWorldState state, Location loc, World world, int radius) {
+    private static void scanBlocks(AdvancedWorldState state, PerceptionSnapshot snapshot, int radius) {
+        int cx = snapshot.getBlockX();
+        int cy = snapshot.getBlockY();
+        int cz = snapshot.getBlockZ();
         for (int dx = -radius; dx <= radius; dx++) {
             for (int dy = -radius; dy <= radius; dy++) {
                 for (int dz = -radius; dz <= radius; dz++) {
-                    Block b = world.getBlockAt(loc.getBlockX() + dx, loc.getBlockY() + dy, loc.getBlockZ() + dz);
-                    Material type = b.getType();
+                    Material type = snapshot.getType(cx + dx, cy + dy, cz + dz);
 
                     if (type == Material.LAVA) {
                         state.lavaNearby = true;
@@ -110,6 +126,48 @@ public class AdvancedPerception {
         }
     }
 
+    /**
+     * Cheap main-thread check for the reactive triggers: lava around the feet, or
+     * nothing solid for several blocks below while out of water. About fifty block
+     * reads instead of the full scan.
+     *
+     * @return The hazard found, or null
+     */
+    public ReactiveSignal probeHazards() {
+        if (npc == null || npc.getWorld() == null) {
+            return null;
+        }
+        Location loc = npc.getLocation();
+        World world = npc.getWorld();
+        int x = loc.getBlockX();
+        int y = loc.getBlockY();
+        int z = loc.getBlockZ();
+        if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+            return null;
+        }
+
+        for (int dx = -LAVA_PROBE_RADIUS; dx <= LAVA_PROBE_RADIUS; dx++) {
+            for (int dz = -LAVA_PROBE_RADIUS; dz <= LAVA_PROBE_RADIUS; dz++) {
+                for (int dy = -1; dy <= 0; dy++) {
+                    if (world.getBlockAt(x + dx, y + dy, z + dz).getType() == Material.LAVA) {
+                        return ReactiveSignal.LAVA_NEARBY;
+                    }
+                }
+            }
+        }
+
+        // Swimming is no fall: the open column below is water, not air
+        if (world.getBlockAt(x, y, z).isLiquid() || world.getBlockAt(x, y - 1, z).isLiquid()) {
+            return null;
+        }
+        for (int dy = 1; dy <= FALL_PROBE_DEPTH; dy++) {
+            if (world.getBlockAt(x, y - dy, z).getType().isSolid()) {
+                return null;
+            }
+        }
+        return ReactiveSignal.FALL_RISK;
+    }
+
     private void applyQuery(AdvancedWorldState state, Location loc, World world, AdvancedQuery query) {
         if (query.blockType != null && !query.blockType.isBlank()) {
             tryFindBlock(state, loc, world, query);
@@ -196,7 +254,7 @@ public class AdvancedPerception {
         }
     }
 
-    private boolean isUsefulBlock(Material type) {
+    private static boolean isUsefulBlock(Material type) {
         return type.name().endsWith("_ORE")
             || type.name().endsWith("_LOG")
             || type == Material.COBBLESTONE
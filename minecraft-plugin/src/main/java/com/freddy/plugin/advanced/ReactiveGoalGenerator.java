@@ -16,16 +16,31 @@ public class ReactiveGoalGenerator {
         this.goalManager = goalManager;
     }
 
+    /**
+     * True when a reactive goal could be set now (interval passed, no goal active).
+     * While false, nothing needs to be observed for this generator.
+     */
+    public boolean isReady() {
+        return (System.currentTimeMillis() - lastReactiveAt) >= MIN_REACTIVE_INTERVAL_MS
+            && goalManager.getCurrentGoal() == null;
+    }
+
     public void maybeGenerate(AdvancedWorldState state) {
-        long now = System.currentTimeMillis();
-        if ((now - lastReactiveAt) < MIN_REACTIVE_INTERVAL_MS) {
-            return;
-        }
-        if (goalManager.getCurrentGoal() != null) {
+        maybeGenerate(state, false);
+    }
+
+    /**
+     * @param state Latest observed state, or null when acting on a signal alone
+     * @param hazardSignalled A damage/targeting/lava/fall signal arrived recently
+     */
+    public void maybeGenerate(AdvancedWorldState state, boolean hazardSignalled) {
+        if (!isReady()) {
             return;
         }
+        long now = System.currentTimeMillis();
 
-        if (state.threatNearby || state.lavaNearby || !state.standingOnSolidBlock) {
+        if (hazardSignalled || (state != null
+                && (state.threatNearby || state.lavaNearby || !state.standingOnSolidBlock))) {
             Goal goal = new Goal(Goal.GoalType.BUILD_STRUCTURE, "Reactive shelter setup");
             goalManager.setGoal(goal);
             lastReactiveAt = now;
@@ -0,0 +1,15 @@
+package com.freddy.plugin.advanced;
+
+/**
+ * Cheap hazard signals that wake the reactive goals without a full perception scan.
+ */
+public enum ReactiveSignal {
+    /** The NPC took damage */
+    DAMAGED,
+    /** A hostile mob picked the NPC as its target */
+    TARGETED,
+    /** Lava within a couple of blocks of the NPC's feet */
+    LAVA_NEARBY,
+    /** A long drop right below the NPC */
+    FALL_RISK
+}
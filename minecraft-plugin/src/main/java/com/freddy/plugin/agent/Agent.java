@@ -0,0 +1,87 @@
+package com.freddy.plugin.agent;
+
+import com.freddy.plugin.ai.FreddyCraftingService;
+import com.freddy.plugin.brain.AIBrainLoop;
+import net.citizensnpcs.api.npc.NPC;
+
+/**
+ * One AI-driven NPC: its Citizens NPC, brain loop and the dashboard command
+ * state that used to live in static fields on the plugin.
+ */
+public class Agent {
+
+    private final String id;
+    private final NPC npc;
+    private final AIBrainLoop brainLoop;
+    private final boolean primary;
+    private FreddyCraftingService craftingService;
+
+    // Dashboard command state (main thread)
+    private volatile String goalLabel = "none";
+    private long lastGoalSetAt = 0L;
+    private long lastGoalClearRequestedAt = 0L;
+
+    public Agent(String id, NPC npc, AIBrainLoop brainLoop, boolean primary) {
+        this.id = id;
+        this.npc = npc;
+        this.brainLoop = brainLoop;
+        this.primary = primary;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public NPC getNpc() {
+        return npc;
+    }
+
+    public AIBrainLoop getBrainLoop() {
+        return brainLoop;
+    }
+
+    /**
+     * The primary agent keeps the untagged telemetry format the dashboard panels follow
+     */
+    public boolean isPrimary() {
+        return primary;
+    }
+
+    /**
+     * Telemetry scope for this agent: null for the primary agent, else its id
+     */
+    public String getTelemetryScope() {
+        return primary ? null : id;
+    }
+
+    public FreddyCraftingService getCraftingService() {
+        if (craftingService == null && brainLoop.getNpcController() != null) {
+            craftingService = new FreddyCraftingService(brainLoop.getNpcController().getInventory());
+        }
+        return craftingService;
+    }
+
+    public String getGoalLabel() {
+        return goalLabel == null || goalLabel.isBlank() ? "none" : goalLabel;
+    }
+
+    public void setGoalLabel(String goalLabel) {
+        this.goalLabel = goalLabel;
+    }
+
+    public long getLastGoalSetAt() {
+        return lastGoalSetAt;
+    }
+
+    public void markGoalSet() {
+        this.lastGoalSetAt = System.currentTimeMillis();
+    }
+
+    public long getLastGoalClearRequestedAt() {
+        return lastGoalClearRequestedAt;
+    }
+
+    public void setLastGoalClearRequestedAt(long lastGoalClearRequestedAt) {
+        this.lastGoalClearRequestedAt = lastGoalClearRequestedAt;
+    }
+}
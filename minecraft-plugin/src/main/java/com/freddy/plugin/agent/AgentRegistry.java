@@ -0,0 +1,72 @@
+package com.freddy.plugin.agent;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * All active agents, keyed by id (the NPC name, case-insensitive).
+ * Registration order is kept so the scheduler's round robin is stable.
+ */
+public class AgentRegistry {
+
+    private final Map<String, Agent> byId = new ConcurrentHashMap<>();
+    private final List<Agent> ordered = new CopyOnWriteArrayList<>();
+    private final String primaryId;
+
+    public AgentRegistry(String primaryId) {
+        this.primaryId = primaryId;
+    }
+
+    public synchronized void register(Agent agent) {
+        Agent previous = byId.put(key(agent.getId()), agent);
+        if (previous != null) {
+            ordered.remove(previous);
+        }
+        ordered.add(agent);
+    }
+
+    public synchronized Agent unregister(String id) {
+        Agent removed = byId.remove(key(id));
+        if (removed != null) {
+            ordered.remove(removed);
+        }
+        return removed;
+    }
+
+    /**
+     * @return The agent, or null if none is registered under this id
+     */
+    public Agent get(String id) {
+        return id == null ? null : byId.get(key(id));
+    }
+
+    public Agent getPrimary() {
+        return get(primaryId);
+    }
+
+    public String getPrimaryId() {
+        return primaryId;
+    }
+
+    public boolean isPrimary(String id) {
+        return primaryId.equalsIgnoreCase(id);
+    }
+
+    /**
+     * Snapshot-safe view in registration order
+     */
+    public List<Agent> all() {
+        return ordered;
+    }
+
+    public int size() {
+        return ordered.size();
+    }
+
+    private static String key(String id) {
+        return id.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,174 @@
+package com.freddy.plugin.agent;
+
+import com.freddy.common.TelemetryClient;
+import com.freddy.plugin.FreddyPlugin;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * AgentScheduler - one server-tick task that drives every registered agent
+ *
+ * Agents are ticked round-robin until the per-tick millisecond budget is spent;
+ * whoever did not get a turn goes first on the next tick, so a crowded server
+ * slows agents down evenly instead of stretching the tick. LLM-bound work goes
+ * to a shared daemon pool via {@link #submitThinking}, never onto the tick.
+ *
+ * Each agent runs with its telemetry scope set, so its messages reach the
+ * dashboard keyed by agent id.
+ */
+public class AgentScheduler extends BukkitRunnable {
+
+    private static final Logger logger = Logger.getLogger("FreddyAI");
+    private static final long BUDGET_WARN_INTERVAL_MS = 30000L;
+
+    private final Plugin plugin;
+    private final AgentRegistry registry;
+    private final long tickBudgetNanos;
+    private final ExecutorService thinkPool;
+
+    private int cursor = 0;
+    private long deferredAgentTicks = 0L;
+    private long lastTickNanos = 0L;
+    private long lastBudgetWarnAt = 0L;
+
+    /**
+     * @param tickBudgetMs Milliseconds per server tick shared by all agents
+     * @param thinkThreads Threads in the shared LLM/planning pool
+     */
+    public AgentScheduler(Plugin plugin, AgentRegistry registry, double tickBudgetMs, int thinkThreads) {
+        this.plugin = plugin;
+        this.registry = registry;
+        this.tickBudgetNanos = (long) (Math.max(0.5, tickBudgetMs) * 1_000_000L);
+        this.thinkPool = Executors.newFixedThreadPool(Math.max(1, thinkThreads), daemonFactory("Freddy-think"));
+    }
+
+    public void start() {
+        TickProfiler profiler = FreddyPlugin.getTickProfiler();
+        if (profiler != null) {
+            profiler.setSchedulerBudgetMicros(tickBudgetNanos / 1000L);
+        }
+        runTaskTimer(plugin, 0L, 1L);
+        logger.info("[AGENTS] Scheduler started (budget " + (tickBudgetNanos / 1_000_000.0) + "ms/tick)");
+    }
+
+    @Override
+    public void run() {
+        List<Agent> agents = registry.all();
+        int count = agents.size();
+        TickProfiler profiler = FreddyPlugin.getTickProfiler();
+        if (count == 0) {
+            if (profiler != null) {
+                profiler.endTick();
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        long profiled = TickProfiler.begin();
+        int index = cursor % count;
+        int ticked = 0;
+        // Always tick at least one agent so progress is guaranteed under any budget
+        while (ticked < count) {
+            tickAgent(agents.get(index));
+            ticked++;
+            index = (index + 1) % count;
+            if (System.nanoTime() - start >= tickBudgetNanos) {
+                break;
+            }
+        }
+        cursor = index;
+        lastTickNanos = System.nanoTime() - start;
+        TickProfiler.end(TickProfiler.Section.AGENTS, profiled);
+        if (profiler != null) {
+            profiler.endTick();
+        }
+
+        if (ticked < count) {
+            deferredAgentTicks += count - ticked;
+            long now = System.currentTimeMillis();
+            if (now - lastBudgetWarnAt > BUDGET_WARN_INTERVAL_MS) {
+                lastBudgetWarnAt = now;
+                logger.warning("[AGENTS] Tick budget spent after " + ticked + "/" + count
+                    + " agents; the rest run next tick");
+            }
+        }
+    }
+
+    private void tickAgent(Agent agent) {
+        TelemetryClient telemetry = FreddyPlugin.getTelemetry();
+        String scope = agent.getTelemetryScope();
+        if (telemetry != null && scope != null) {
+            telemetry.setAgentScope(scope);
+        }
+        long profiled = TickProfiler.begin();
+        try {
+            agent.getBrainLoop().tick();
+        } catch (Exception e) {
+            logger.warning("[AGENTS] Tick failed for " + agent.getId() + ": " + e.getMessage());
+        } finally {
+            TickProfiler.end(TickProfiler.Section.BRAIN, profiled);
+            if (telemetry != null && scope != null) {
+                telemetry.setAgentScope(null);
+            }
+        }
+    }
+
+    /**
+     * Run LLM-bound or otherwise slow work for an agent on the shared pool.
+     * The agent's telemetry scope is carried over to the worker thread.
+     */
+    public <T> CompletableFuture<T> submitThinking(Agent agent, Supplier<T> work) {
+        String scope = agent != null ? agent.getTelemetryScope() : null;
+        return CompletableFuture.supplyAsync(() -> {
+            TelemetryClient telemetry = FreddyPlugin.getTelemetry();
+            if (telemetry != null && scope != null) {
+                telemetry.setAgentScope(scope);
+            }
+            try {
+                return work.get();
+            } finally {
+                if (telemetry != null && scope != null) {
+                    telemetry.setAgentScope(null);
+                }
+            }
+        }, thinkPool);
+    }
+
+    /**
+     * Agent turns pushed to a later tick because the budget ran out
+     */
+    public long getDeferredAgentTicks() {
+        return deferredAgentTicks;
+    }
+
+    public double getLastTickMillis() {
+        return lastTickNanos / 1_000_000.0;
+    }
+
+    public void stop() {
+        try {
+            cancel();
+        } catch (IllegalStateException ignore) {
+            // Never scheduled
+        }
+        thinkPool.shutdownNow();
+    }
+
+    private static ThreadFactory daemonFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
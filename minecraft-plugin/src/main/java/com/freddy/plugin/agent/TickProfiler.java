@@ -0,0 +1,214 @@
+package com.freddy.plugin.agent;
+
+import com.freddy.llm.LogHistogram;
+import com.freddy.plugin.FreddyPlugin;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TickProfiler - main-thread time per AI subsystem, per server tick
+ *
+ * Code brackets a subsystem with {@link #begin()} / {@link #end(Section, long)}; the
+ * time of every call in a server tick (all agents together) is summed, and when the
+ * {@link AgentScheduler} finishes the tick each section that ran records its total in
+ * microseconds and counts the tick as over budget if the total exceeds the section's
+ * budget. Sections nest: BRAIN includes every other section but AGENTS, BEHAVIOR
+ * includes CONTROLLER and BUILD, and TELEMETRY includes POV. Telemetry sent for a
+ * fresh perception frame counts under both PERCEPTION and TELEMETRY.
+ *
+ * Percentiles cover a rolling window of the last {@code windowTicks} to
+ * {@code 2 × windowTicks} ticks: every tick is recorded into two histograms that are
+ * cleared alternately, and the older one is read.
+ *
+ * Recording happens on the main thread only; reading is safe from any thread.
+ */
+public final class TickProfiler {
+
+    public enum Section {
+        /** The whole agent scheduler tick */
+        AGENTS("agents", 0L),
+        BRAIN("brain", 2000L),
+        BEHAVIOR("behavior", 1000L),
+        CONTROLLER("controller", 500L),
+        BUILD("build", 500L),
+        REACTIVE("reactive", 300L),
+        PERCEPTION("perception", 500L),
+        POV("pov", 200L),
+        TELEMETRY("telemetry", 300L);
+
+        public final String label;
+        final long defaultBudgetMicros;
+
+        Section(String label, long defaultBudgetMicros) {
+            this.label = label;
+            this.defaultBudgetMicros = defaultBudgetMicros;
+        }
+    }
+
+    private static final double[] PERCENTILES = {50.0, 95.0, 99.0};
+
+    private static final class Stats {
+        final LogHistogram[] windows = {new LogHistogram(), new LogHistogram()};
+        final AtomicLong[] windowOverBudget = {new AtomicLong(), new AtomicLong()};
+        final AtomicLong overBudget = new AtomicLong();
+        long budgetMicros;
+        // Accumulated during the current server tick (main thread)
+        long tickNanos;
+        boolean ran;
+    }
+
+    private final Map<Section, Stats> stats = new EnumMap<>(Section.class);
+    private final int windowTicks;
+    private volatile boolean enabled;
+    private volatile int older = 0;
+    private long tickCount = 0L;
+
+    /**
+     * @param budgetsMicros Per-section budgets; sections left out keep their defaults
+     * @param windowTicks Ticks per histogram window
+     */
+    public TickProfiler(boolean enabled, Map<Section, Long> budgetsMicros, int windowTicks) {
+        this.enabled = enabled;
+        this.windowTicks = Math.max(20, windowTicks);
+        for (Section section : Section.values()) {
+            Stats s = new Stats();
+            Long budget = budgetsMicros.get(section);
+            s.budgetMicros = budget != null ? budget : section.defaultBudgetMicros;
+            stats.put(section, s);
+        }
+    }
+
+    /**
+     * Start timing a section
+     *
+     * @return Start time, or 0 when profiling is off
+     */
+    public static long begin() {
+        TickProfiler profiler = FreddyPlugin.getTickProfiler();
+        return profiler != null && profiler.enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Stop timing a section started with {@link #begin()}
+     */
+    public static void end(Section section, long started) {
+        if (started == 0L) {
+            return;
+        }
+        TickProfiler profiler = FreddyPlugin.getTickProfiler();
+        if (profiler != null) {
+            profiler.record(section, System.nanoTime() - started);
+        }
+    }
+
+    void record(Section section, long nanos) {
+        Stats s = stats.get(section);
+        s.tickNanos += nanos;
+        s.ran = true;
+    }
+
+    /**
+     * Close the current server tick (called by the scheduler)
+     */
+    void endTick() {
+        for (Stats s : stats.values()) {
+            if (!s.ran) {
+                continue;
+            }
+            long micros = s.tickNanos / 1000L;
+            s.windows[0].record(micros);
+            s.windows[1].record(micros);
+            if (s.budgetMicros > 0L && micros > s.budgetMicros) {
+                s.overBudget.incrementAndGet();
+                s.windowOverBudget[0].incrementAndGet();
+                s.windowOverBudget[1].incrementAndGet();
+            }
+            s.tickNanos = 0L;
+            s.ran = false;
+        }
+        if (++tickCount % windowTicks == 0L) {
+            int stale = older;
+            for (Stats s : stats.values()) {
+                s.windows[stale].reset();
+                s.windowOverBudget[stale].set(0L);
+            }
+            older = 1 - stale;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Budget for the AGENTS section, taken from the scheduler's own
+     */
+    void setSchedulerBudgetMicros(long micros) {
+        Stats s = stats.get(Section.AGENTS);
+        if (s.budgetMicros <= 0L) {
+            s.budgetMicros = micros;
+        }
+    }
+
+    public void reset() {
+        for (Stats s : stats.values()) {
+            s.windows[0].reset();
+            s.windows[1].reset();
+            s.windowOverBudget[0].set(0L);
+            s.windowOverBudget[1].set(0L);
+            s.overBudget.set(0L);
+        }
+    }
+
+    /**
+     * Compact stats line for telemetry ("PROFILE:" payload): one {@code section{...}}
+     * group per section that ran, times in microseconds over the rolling window
+     */
+    public String formatStats() {
+        int window = older;
+        StringBuilder sb = new StringBuilder(256);
+        for (Map.Entry<Section, Stats> e : stats.entrySet()) {
+            Stats s = e.getValue();
+            LogHistogram h = s.windows[window];
+            if (h.getCount() == 0) {
+                continue;
+            }
+            if (sb.length() > 0) sb.append(';');
+            sb.append(e.getKey().label).append("{n=").append(h.getCount());
+            for (double p : PERCENTILES) {
+                sb.append(",p").append((int) p).append('=').append(h.getValueAtPercentile(p));
+            }
+            sb.append(",max=").append(h.getMax())
+                .append(",budget=").append(s.budgetMicros)
+                .append(",over=").append(s.windowOverBudget[window].get())
+                .append(",overTotal=").append(s.overBudget.get())
+                .append('}');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Human-readable lines, one per section that ran (for commands and logs)
+     */
+    public String[] formatSummary() {
+        int window = older;
+        return stats.entrySet().stream()
+            .filter(e -> e.getValue().windows[window].getCount() > 0)
+            .map(e -> {
+                Stats s = e.getValue();
+                LogHistogram h = s.windows[window];
+                return String.format(Locale.ROOT, "%-10s p50 %5dµs  p95 %5dµs  p99 %5dµs  max %6dµs  over %dµs: %d/%d ticks",
+                    e.getKey().label,
+                    h.getValueAtPercentile(50.0), h.getValueAtPercentile(95.0), h.getValueAtPercentile(99.0),
+                    h.getMax(), s.budgetMicros, s.windowOverBudget[window].get(), h.getCount());
+            })
+            .toArray(String[]::new);
+    }
+}
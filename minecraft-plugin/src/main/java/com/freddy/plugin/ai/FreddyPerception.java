@@ -1,10 +1,12 @@
 package com.freddy.plugin.ai;
 
+import com.freddy.plugin.FreddyPlugin;
+import com.freddy.plugin.perception.BlockIndex;
+import com.freddy.plugin.perception.PerceptionSnapshot;
 import net.citizensnpcs.api.npc.NPC;
 import org.bukkit.*;
 import org.bukkit.block.Block;
 import org.bukkit.entity.*;
-import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
 
@@ -21,6 +23,9 @@ import java.util.*;
  */
 public class FreddyPerception {
 
+    private static final int ENVIRONMENT_RADIUS = 6;
+    private static final int THREAT_RADIUS = 8;
+
     private final NPC freddy;
 
     public FreddyPerception(NPC freddy) {
@@ -73,32 +78,39 @@ public class FreddyPerception {
      * Perform base world observation (no queries)
      */
     private FreddyWorldState observeBase() {
-        FreddyWorldState s = new FreddyWorldState();
-
         if (!(freddy.getEntity() instanceof Player npc)) {
-            return s;
+            return new FreddyWorldState();
         }
+        return fromSnapshot(PerceptionSnapshot.capture(npc, ENVIRONMENT_RADIUS, THREAT_RADIUS));
+    }
 
-        Location loc = npc.getLocation();
-        World world = loc.getWorld();
+    /**
+     * Build the base world state from a perception snapshot.
+     * Reads no live Bukkit state, so perception workers can call it off the main thread.
+     */
+    public static FreddyWorldState fromSnapshot(PerceptionSnapshot snapshot) {
+        FreddyWorldState s = new FreddyWorldState();
+        if (snapshot == null) {
+            return s;
+        }
 
         // Position
-        observePosition(s, loc);
+        observePosition(s, snapshot);
 
         // Player context
-        observePlayerContext(s, npc, loc, world);
+        observePlayerContext(s, snapshot);
 
         // Threats
-        observeThreats(s, loc, world);
+        observeThreats(s, snapshot);
 
         // Environment scan
-        observeEnvironment(s, loc, world);
+        observeEnvironment(s, snapshot);
 
         // Inventory
-        observeInventory(s, npc);
+        observeInventory(s, snapshot);
 
         // Safety checks
-        observeSafety(s, loc);
+        observeSafety(s, snapshot);
 
         // Meta
         s.tickTime = System.currentTimeMillis();
@@ -110,21 +122,19 @@ public class FreddyPerception {
     // OBSERVATION HELPERS
     // =========================
 
-    private void observePosition(FreddyWorldState s, Location loc) {
-        s.x = loc.getX();
-        s.y = loc.getY();
-        s.z = loc.getZ();
-        s.biome = loc.getBlock().getBiome().toString();
+    private static void observePosition(FreddyWorldState s, PerceptionSnapshot snap) {
+        s.x = snap.x;
+        s.y = snap.y;
+        s.z = snap.z;
+        s.biome = snap.biome;
     }
 
-    private void observePlayerContext(FreddyWorldState s, Player npc, Location loc, World world) {
-        Player nearest = null;
+    private static void observePlayerContext(FreddyWorldState s, PerceptionSnapshot snap) {
+        PerceptionSnapshot.EntityInfo nearest = null;
         double nearestDist = Double.MAX_VALUE;
 
-        for (Player p : world.getPlayers()) {
-            if (p.equals(npc))
-                continue;
-            double d = p.getLocation().distance(loc);
+        for (PerceptionSnapshot.EntityInfo p : snap.worldPlayers) {
+            double d = snap.distanceTo(p);
             if (d < nearestDist) {
                 nearestDist = d;
                 nearest = p;
@@ -133,37 +143,35 @@ public class FreddyPerception {
 
         if (nearest != null && nearestDist <= 10) {
             s.playerNearby = true;
-            s.nearestPlayer = nearest.getName();
+            s.nearestPlayer = nearest.name();
             s.playerDistance = nearestDist;
-            s.playerHealth = nearest.getHealth();
+            s.playerHealth = nearest.health();
         }
     }
 
-    private void observeThreats(FreddyWorldState s, Location loc, World world) {
+    private static void observeThreats(FreddyWorldState s, PerceptionSnapshot snap) {
         s.nearbyHostileMobs = new ArrayList<>();
         s.threatNearby = false;
 
-        for (Entity e : world.getNearbyEntities(loc, 8, 8, 8)) {
-            if (e instanceof Monster m) {
+        for (PerceptionSnapshot.EntityInfo e : snap.entities) {
+            if (e.monster() && snap.withinBox(e, THREAT_RADIUS)) {
                 s.threatNearby = true;
-                s.nearbyHostileMobs.add(m.getType().name());
+                s.nearbyHostileMobs.add(e.type());
             }
         }
     }
 
-    private void observeEnvironment(FreddyWorldState s, Location loc, World world) {
-        int scanRadius = 6;
+    private static void observeEnvironment(FreddyWorldState s, PerceptionSnapshot snap) {
+        int scanRadius = ENVIRONMENT_RADIUS;
         s.nearbyOres = new ArrayList<>();
 
         for (int x = -scanRadius; x <= scanRadius; x++) {
             for (int y = -scanRadius; y <= scanRadius; y++) {
                 for (int z = -scanRadius; z <= scanRadius; z++) {
-                    Block b = world.getBlockAt(
-                            loc.getBlockX() + x,
-                            loc.getBlockY() + y,
-                            loc.getBlockZ() + z);
-
-                    Material type = b.getType();
+                    Material type = snap.getType(
+                            snap.getBlockX() + x,
+                            snap.getBlockY() + y,
+                            snap.getBlockZ() + z);
 
                     if (type == Material.LAVA)
                         s.lavaNearby = true;
@@ -180,16 +188,16 @@ public class FreddyPerception {
         }
     }
 
-    private void observeInventory(FreddyWorldState s, Player npc) {
-        s.obsidianCount = countItem(npc, Material.OBSIDIAN);
-        s.hasDiamondPickaxe = hasItem(npc, Material.DIAMOND_PICKAXE);
-        s.hasWaterBucket = hasItem(npc, Material.WATER_BUCKET);
+    private static void observeInventory(FreddyWorldState s, PerceptionSnapshot snap) {
+        s.obsidianCount = snap.countItem(Material.OBSIDIAN);
+        s.hasDiamondPickaxe = snap.countItem(Material.DIAMOND_PICKAXE) > 0;
+        s.hasWaterBucket = snap.countItem(Material.WATER_BUCKET) > 0;
     }
 
-    private void observeSafety(FreddyWorldState s, Location loc) {
-        Block below = loc.clone().add(0, -1, 0).getBlock();
-        s.standingOnSolidBlock = below.getType().isSolid();
-        s.lavaBelow = below.getType() == Material.LAVA;
+    private static void observeSafety(FreddyWorldState s, PerceptionSnapshot snap) {
+        Material below = snap.getType(snap.getBlockX(), snap.getBlockY() - 1, snap.getBlockZ());
+        s.standingOnSolidBlock = below.isSolid();
+        s.lavaBelow = below == Material.LAVA;
     }
 
     // =========================
@@ -213,27 +221,37 @@ public class FreddyPerception {
         double bestDist = Double.MAX_VALUE;
         Location bestLoc = null;
 
-        for (int x = -q.radius; x <= q.radius; x++) {
-            for (int y = -q.radius; y <= q.radius; y++) {
-                for (int z = -q.radius; z <= q.radius; z++) {
-                    Block b = world.getBlockAt(
-                            loc.getBlockX() + x,
-                            loc.getBlockY() + y,
-                            loc.getBlockZ() + z);
-
-                    if (b.getType() != target)
-                        continue;
-
-                    double d = b.getLocation().distance(loc);
-
-                    if (d < bestDist) {
-                        bestDist = d;
-                        bestLoc = b.getLocation();
+        BlockIndex index = FreddyPlugin.getBlockIndex();
+        Material[] targets = {target};
+        if (index != null && index.canAnswer(loc, targets, q.radius)) {
+            Block nearest = index.findNearest(loc, targets, q.radius, q.radius, null);
+            if (nearest != null) {
+                bestLoc = nearest.getLocation();
+                bestDist = bestLoc.distance(loc);
+            }
+        } else {
+            for (int x = -q.radius; x <= q.radius; x++) {
+                for (int y = -q.radius; y <= q.radius; y++) {
+                    for (int z = -q.radius; z <= q.radius; z++) {
+                        Block b = world.getBlockAt(
+                                loc.getBlockX() + x,
+                                loc.getBlockY() + y,
+                                loc.getBlockZ() + z);
+
+                        if (b.getType() != target)
+                            continue;
+
+                        double d = b.getLocation().distance(loc);
+
+                        if (d < bestDist) {
+                            bestDist = d;
+                            bestLoc = b.getLocation();
+                        }
+
+                        // If not looking for nearest, break early
+                        if (!q.nearestOnly)
+                            break;
                     }
-
-                    // If not looking for nearest, break early
-                    if (!q.nearestOnly)
-                        break;
                 }
             }
         }
@@ -288,26 +306,4 @@ public class FreddyPerception {
             s.queryZ = best.getLocation().getZ();
         }
     }
-
-    // =========================
-    // INVENTORY HELPERS
-    // =========================
-
-    private int countItem(Player p, Material mat) {
-        int count = 0;
-        for (ItemStack i : p.getInventory().getContents()) {
-            if (i != null && i.getType() == mat) {
-                count += i.getAmount();
-            }
-        }
-        return count;
-    }
-
-    private boolean hasItem(Player p, Material mat) {
-        for (ItemStack i : p.getInventory().getContents()) {
-            if (i != null && i.getType() == mat)
-                return true;
-        }
-        return false;
-    }
 }
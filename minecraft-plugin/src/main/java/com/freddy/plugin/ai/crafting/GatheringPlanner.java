@@ -1,6 +1,7 @@
 package com.freddy.plugin.ai.crafting;
 
 import com.freddy.llm.LLMClient;
+import com.freddy.llm.LLMPriority;
 import com.freddy.plugin.FreddyPlugin;
 import com.freddy.plugin.ai.FreddyStep;
 import com.freddy.plugin.ai.FreddyWorkflow;
@@ -59,7 +60,7 @@ public class GatheringPlanner {
         plugin.getLogger().info("\nLLM Prompt:\n" + prompt);
 
         // Call LLM
-        String llmResponse = LLMClient.ask(prompt);
+        String llmResponse = LLMClient.ask(prompt, LLMPriority.PLANNING);
 
         plugin.getLogger().info("\nLLM Response:\n" + llmResponse);
 
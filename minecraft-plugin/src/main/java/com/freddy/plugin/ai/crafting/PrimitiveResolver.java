@@ -2,14 +2,14 @@ package com.freddy.plugin.ai.crafting;
 
 import org.bukkit.Material;
 
-import java.util.HashMap;
 import java.util.Map;
 
 /**
  * PrimitiveResolver - Recursive recipe expansion
  * 
  * Resolves craftable items to their primitive requirements.
- * This is DETERMINISTIC - no LLM involvement.
+ * This is DETERMINISTIC - no LLM involvement. The expansion (direct drop,
+ * then smelting, then crafting) runs once per item in {@link RecipeIndex}.
  * 
  * Example:
  * DIAMOND_SWORD → { DIAMOND: 2, STICK: 1 }
@@ -29,59 +29,8 @@ public class PrimitiveResolver {
      * @return Map of primitive materials to quantities
      */
     public Map<Material, Integer> resolve(Material target, int amount) {
-        Map<Material, Integer> result = new HashMap<>();
-        expand(target, amount, result);
-        return result;
-    }
-
-    /**
-     * Recursively expand item requirements
-     * 
-     * EXPANSION ORDER:
-     * 1. Smelting (INGOT → ORE)
-     * 2. Crafting (STICK → PLANKS → LOG)
-     * 3. Primitive (gatherable from world)
-     * 
-     * @param item   Current item to expand
-     * @param qty    Quantity needed
-     * @param output Accumulator for primitive requirements
-     */
-    private void expand(Material item, int qty, Map<Material, Integer> output) {
-
-        // [1] Check if this is a direct drop (DIAMOND → DIAMOND_ORE, etc.)
-        if (ConversionRegistry.isDirectDrop(item)) {
-            Material ore = ConversionRegistry.getOreForDrop(item);
-            output.merge(ore, qty, Integer::sum);
-            return;
-        }
-
-        // [2] Check if this requires smelting (INGOT → ORE)
-        if (ConversionRegistry.requiresSmelting(item)) {
-            Material ore = ConversionRegistry.getRequiredOre(item);
-
-            // ORE is primitive (gatherable from world)
-            output.merge(ore, qty, Integer::sum);
-            return;
-        }
-
-        // [3] Check if craftable
-        if (!RecipeRegistry.isCraftable(item)) {
-            // Primitive (gatherable from world)
-            output.merge(item, qty, Integer::sum);
-            return;
-        }
-
-        // [4] Expand crafting recipe
-        RecipeOption recipe = RecipeRegistry.get(item).get(0);
-
-        // Recursively expand each ingredient
-        for (Map.Entry<Material, Integer> entry : recipe.inputs.entrySet()) {
-            Material ingredient = entry.getKey();
-            int ingredientQty = entry.getValue();
-
-            // Recursively expand this ingredient
-            expand(ingredient, ingredientQty * qty, output);
-        }
+        // Per-unit bill of materials precomputed by RecipeIndex; resolving is a scale-and-copy
+        return RecipeIndex.bom(target).scale(amount);
     }
 
     /**
@@ -92,8 +41,7 @@ public class PrimitiveResolver {
      * @return true if item needs primitive gathering
      */
     public boolean needsGathering(Material target, int amount) {
-        Map<Material, Integer> primitives = resolve(target, amount);
-        return !primitives.isEmpty();
+        return !RecipeIndex.bom(target).isEmpty();
     }
 
     /**
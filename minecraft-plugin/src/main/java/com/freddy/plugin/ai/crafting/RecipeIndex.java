@@ -0,0 +1,268 @@
+package com.freddy.plugin.ai.crafting;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * RecipeIndex - Precomputed views of the RecipeRegistry
+ *
+ * For every craftable item, two tables are built once:
+ * - a primitive bill of materials for ONE unit (parallel Material/int arrays),
+ *   so resolving (target, qty) is a scale-and-copy
+ * - a plan template: the DeterministicPlanner tree flattened in pre-order
+ *   (parents before children) with the coefficients needed to recompute
+ *   quantities for any root amount
+ *
+ * Tables are immutable and published through a volatile reference, so readers
+ * never lock. {@link #rebuild()} is the invalidation hook: RecipeRegistry calls
+ * it after any registration.
+ */
+public final class RecipeIndex {
+
+    private static final Logger logger = Logger.getLogger("FreddyAI");
+
+    /**
+     * Primitive requirements for one unit of an item
+     */
+    public static final class Bom {
+        private final Material[] materials;
+        private final int[] perUnit;
+
+        private Bom(Material[] materials, int[] perUnit) {
+            this.materials = materials;
+            this.perUnit = perUnit;
+        }
+
+        /**
+         * @return A fresh, mutable map of primitives for qty units
+         */
+        public Map<Material, Integer> scale(int qty) {
+            Map<Material, Integer> result = new EnumMap<>(Material.class);
+            addTo(result, qty);
+            return result;
+        }
+
+        public void addTo(Map<Material, Integer> output, int qty) {
+            for (int i = 0; i < materials.length; i++) {
+                output.merge(materials[i], perUnit[i] * qty, Integer::sum);
+            }
+        }
+
+        public boolean isEmpty() {
+            return materials.length == 0;
+        }
+    }
+
+    /**
+     * How a plan node is obtained
+     */
+    public enum Kind {
+        PRIMITIVE,
+        SMELT,
+        CRAFT
+    }
+
+    /**
+     * Plan tree in pre-order. Node 0 is the root; parent(i) < i for every other node.
+     */
+    public static final class PlanTemplate {
+        private final Material[] items;
+        private final Kind[] kinds;
+        private final int[] parents;
+        private final int[] perCraft;
+        private final int[] yields;
+
+        private PlanTemplate(List<Material> items, List<Kind> kinds, List<int[]> links) {
+            int n = items.size();
+            this.items = items.toArray(new Material[0]);
+            this.kinds = kinds.toArray(new Kind[0]);
+            this.parents = new int[n];
+            this.perCraft = new int[n];
+            this.yields = new int[n];
+            for (int i = 0; i < n; i++) {
+                int[] link = links.get(i);
+                parents[i] = link[0];
+                perCraft[i] = link[1];
+                yields[i] = link[2];
+            }
+        }
+
+        public int size() {
+            return items.length;
+        }
+
+        public Material item(int node) {
+            return items[node];
+        }
+
+        public Kind kind(int node) {
+            return kinds[node];
+        }
+
+        /**
+         * @return Parent node index, or -1 for the root
+         */
+        public int parent(int node) {
+            return parents[node];
+        }
+
+        /**
+         * Quantity of every node when rootQty of the root item is wanted.
+         * Matches the recursive expansion: a crafted node is made
+         * ceil(qty / yield) times, each needing perCraft of every ingredient.
+         */
+        public int[] quantities(int rootQty) {
+            int[] qty = new int[items.length];
+            qty[0] = rootQty;
+            for (int i = 1; i < items.length; i++) {
+                int p = parents[i];
+                if (kinds[p] == Kind.CRAFT) {
+                    int crafts = (qty[p] + yields[p] - 1) / yields[p];
+                    qty[i] = perCraft[i] * crafts;
+                } else {
+                    qty[i] = qty[p];
+                }
+            }
+            return qty;
+        }
+    }
+
+    private record Tables(Map<Material, Bom> boms, Map<Material, PlanTemplate> templates) { }
+
+    private static volatile Tables tables = new Tables(new EnumMap<>(Material.class), new EnumMap<>(Material.class));
+
+    private RecipeIndex() {
+    }
+
+    /**
+     * Recompute every table from the current RecipeRegistry contents
+     */
+    public static synchronized void rebuild() {
+        Map<Material, Bom> boms = new EnumMap<>(Material.class);
+        Map<Material, PlanTemplate> templates = new EnumMap<>(Material.class);
+        for (Material item : RecipeRegistry.getCraftableItems()) {
+            boms.put(item, buildBom(item));
+            templates.put(item, buildTemplate(item));
+        }
+        tables = new Tables(boms, templates);
+    }
+
+    /**
+     * Primitive bill of materials for one unit of the item
+     */
+    public static Bom bom(Material item) {
+        Bom bom = tables.boms().get(item);
+        return bom != null ? bom : buildBom(item);
+    }
+
+    /**
+     * Flattened DeterministicPlanner tree for the item
+     */
+    public static PlanTemplate planTemplate(Material item) {
+        PlanTemplate template = tables.templates().get(item);
+        return template != null ? template : buildTemplate(item);
+    }
+
+    // =========================
+    // BUILDERS
+    // =========================
+
+    private static Bom buildBom(Material item) {
+        Map<Material, Integer> perUnit = new EnumMap<>(Material.class);
+        expandBom(item, 1, perUnit, EnumSet.noneOf(Material.class));
+        Material[] materials = new Material[perUnit.size()];
+        int[] amounts = new int[perUnit.size()];
+        int i = 0;
+        for (Map.Entry<Material, Integer> entry : perUnit.entrySet()) {
+            materials[i] = entry.getKey();
+            amounts[i] = entry.getValue();
+            i++;
+        }
+        return new Bom(materials, amounts);
+    }
+
+    /**
+     * Same order of checks as PrimitiveResolver always used: direct drop, smelting, craft
+     */
+    private static void expandBom(Material item, int qty, Map<Material, Integer> output, Set<Material> path) {
+        if (ConversionRegistry.isDirectDrop(item)) {
+            output.merge(ConversionRegistry.getOreForDrop(item), qty, Integer::sum);
+            return;
+        }
+        if (ConversionRegistry.requiresSmelting(item)) {
+            output.merge(ConversionRegistry.getRequiredOre(item), qty, Integer::sum);
+            return;
+        }
+        List<RecipeOption> recipes = RecipeRegistry.get(item);
+        if (recipes.isEmpty() || !path.add(item)) {
+            if (!recipes.isEmpty()) {
+                logger.warning("[RECIPES] Recipe cycle through " + item.name() + "; treating it as primitive");
+            }
+            output.merge(item, qty, Integer::sum);
+            return;
+        }
+        for (Map.Entry<Material, Integer> entry : recipes.get(0).inputs.entrySet()) {
+            expandBom(entry.getKey(), entry.getValue() * qty, output, path);
+        }
+        path.remove(item);
+    }
+
+    private static PlanTemplate buildTemplate(Material item) {
+        List<Material> items = new ArrayList<>();
+        List<Kind> kinds = new ArrayList<>();
+        List<int[]> links = new ArrayList<>();
+        expandTemplate(item, -1, 1, items, kinds, links, EnumSet.noneOf(Material.class));
+        return new PlanTemplate(items, kinds, links);
+    }
+
+    /**
+     * Same order of checks as DeterministicPlanner always used: smelting, direct drop, craft.
+     * links hold {parent, perCraft, yield} per node.
+     */
+    private static void expandTemplate(Material item, int parent, int perCraft, List<Material> items,
+                                       List<Kind> kinds, List<int[]> links, Set<Material> path) {
+        int index = items.size();
+
+        if (ConversionRegistry.requiresSmelting(item)) {
+            items.add(item);
+            kinds.add(Kind.SMELT);
+            links.add(new int[]{parent, perCraft, 1});
+            expandTemplate(ConversionRegistry.getRequiredOre(item), index, 1, items, kinds, links, path);
+            return;
+        }
+
+        if (ConversionRegistry.isDirectDrop(item)) {
+            items.add(ConversionRegistry.getOreForDrop(item));
+            kinds.add(Kind.PRIMITIVE);
+            links.add(new int[]{parent, perCraft, 1});
+            return;
+        }
+
+        List<RecipeOption> recipes = RecipeRegistry.get(item);
+        if (recipes.isEmpty() || !path.add(item)) {
+            if (!recipes.isEmpty()) {
+                logger.warning("[RECIPES] Recipe cycle through " + item.name() + "; treating it as primitive");
+            }
+            items.add(item);
+            kinds.add(Kind.PRIMITIVE);
+            links.add(new int[]{parent, perCraft, 1});
+            return;
+        }
+
+        RecipeOption recipe = recipes.get(0);
+        items.add(item);
+        kinds.add(Kind.CRAFT);
+        links.add(new int[]{parent, perCraft, Math.max(1, recipe.yield)});
+        for (Map.Entry<Material, Integer> entry : recipe.inputs.entrySet()) {
+            expandTemplate(entry.getKey(), index, entry.getValue(), items, kinds, links, path);
+        }
+        path.remove(item);
+    }
+}
@@ -2,9 +2,11 @@ package com.freddy.plugin.ai.crafting;
 
 import org.bukkit.Material;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * RecipeRegistry - Deterministic recipe knowledge base
@@ -19,10 +21,11 @@ import java.util.Map;
  */
 public class RecipeRegistry {
 
-    private static final Map<Material, List<RecipeOption>> RECIPES = new HashMap<>();
+    private static final Map<Material, List<RecipeOption>> RECIPES = new ConcurrentHashMap<>();
 
     static {
         registerVanillaRecipes();
+        RecipeIndex.rebuild();
     }
 
     /**
@@ -193,6 +196,18 @@ public class RecipeRegistry {
 
     // ==================== PUBLIC API ====================
 
+    /**
+     * Register (or replace) a recipe at runtime and refresh the precomputed
+     * bills of materials and plan templates in {@link RecipeIndex}
+     */
+    public static void registerRecipe(Material output, RecipeOption recipe) {
+        if (output == null || recipe == null || !recipe.isValid()) {
+            return;
+        }
+        register(output, recipe);
+        RecipeIndex.rebuild();
+    }
+
     /**
      * Get all recipe options for a material
      * 
@@ -223,6 +238,13 @@ public class RecipeRegistry {
         return !isCraftable(material);
     }
 
+    /**
+     * Every material that has at least one recipe
+     */
+    public static Set<Material> getCraftableItems() {
+        return Collections.unmodifiableSet(RECIPES.keySet());
+    }
+
     /**
      * Get total number of registered recipes
      */
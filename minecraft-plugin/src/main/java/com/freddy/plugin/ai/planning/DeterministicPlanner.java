@@ -2,12 +2,12 @@ package com.freddy.plugin.ai.planning;
 
 import com.freddy.plugin.ai.action.*;
 import com.freddy.plugin.ai.crafting.ConversionRegistry;
-import com.freddy.plugin.ai.crafting.RecipeOption;
-import com.freddy.plugin.ai.crafting.RecipeRegistry;
+import com.freddy.plugin.ai.crafting.RecipeIndex;
 import com.freddy.plugin.FreddyPlugin;
 import org.bukkit.Material;
 
 import java.util.*;
+import java.util.logging.Logger;
 
 /**
  * DeterministicPlanner - Build dependency graphs WITHOUT LLM
@@ -33,9 +33,14 @@ import java.util.*;
 public class DeterministicPlanner {
 
     private final FreddyPlugin plugin;
+    private final Logger logger;
 
+    /**
+     * @param plugin Owning plugin; may be null when only {@link #plan} is used (e.g. benchmarks)
+     */
     public DeterministicPlanner(FreddyPlugin plugin) {
         this.plugin = plugin;
+        this.logger = plugin != null ? plugin.getLogger() : Logger.getLogger("FreddyAI");
     }
 
     /**
@@ -46,75 +51,39 @@ public class DeterministicPlanner {
      * @return Root plan node with full dependency tree
      */
     public PlanNode plan(Material target, int quantity) {
-        plugin.getLogger().info(String.format("Planning for %s x%d", target.name(), quantity));
+        logger.info(String.format("Planning for %s x%d", target.name(), quantity));
 
         PlanNode root = expand(target, quantity);
 
-        plugin.getLogger().info("Plan created:\n" + root.visualize());
+        logger.info("Plan created:\n" + root.visualize());
 
         return root;
     }
 
     /**
-     * Recursively expand a material into its dependencies
+     * Build the dependency tree from the item's precomputed template
+     * (smelting, then direct drop, then first recipe; see {@link RecipeIndex})
      */
     private PlanNode expand(Material item, int qty) {
-
-        // [1] Check if this requires smelting (INGOT → ORE)
-        if (ConversionRegistry.requiresSmelting(item)) {
-            PlanNode node = new PlanNode(item, qty, PlanNode.NodeType.SMELT);
-
-            // Get the ore required for smelting
-            Material ore = ConversionRegistry.getRequiredOre(item);
-
-            // Recursively expand the ore (which might need mining)
-            PlanNode oreDep = expand(ore, qty);
-            node.addDependency(oreDep);
-
-            // Also need furnace (if we don't check inventory, we assume we might need it)
-            // For now, we'll assume furnace is available or can be crafted
-
-            return node;
-        }
-
-        // [2] Check if this is a direct drop (DIAMOND → DIAMOND_ORE)
-        if (ConversionRegistry.isDirectDrop(item)) {
-            Material ore = ConversionRegistry.getOreForDrop(item);
-            return new PlanNode(ore, qty, PlanNode.NodeType.PRIMITIVE);
-        }
-
-        // [3] Check if craftable
-        if (!RecipeRegistry.isCraftable(item)) {
-            // Primitive (gatherable from world)
-            return new PlanNode(item, qty, PlanNode.NodeType.PRIMITIVE);
-        }
-
-        // [4] Expand crafting recipe
-        PlanNode node = new PlanNode(item, qty, PlanNode.NodeType.CRAFT);
-
-        List<RecipeOption> recipes = RecipeRegistry.get(item);
-        if (recipes.isEmpty()) {
-            plugin.getLogger().warning("No recipe found for craftable item: " + item.name());
-            return new PlanNode(item, qty, PlanNode.NodeType.PRIMITIVE);
-        }
-
-        // Use first recipe (deterministic choice)
-        RecipeOption recipe = recipes.get(0);
-
-        // Calculate how many times to craft based on yield
-        int craftCount = (int) Math.ceil((double) qty / recipe.yield);
-
-        // Recursively expand each ingredient
-        for (Map.Entry<Material, Integer> entry : recipe.inputs.entrySet()) {
-            Material ingredient = entry.getKey();
-            int ingredientPerCraft = entry.getValue();
-            int totalNeeded = ingredientPerCraft * craftCount;
-
-            PlanNode ingredientNode = expand(ingredient, totalNeeded);
-            node.addDependency(ingredientNode);
+        RecipeIndex.PlanTemplate template = RecipeIndex.planTemplate(item);
+        int[] quantities = template.quantities(qty);
+        PlanNode[] nodes = new PlanNode[template.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new PlanNode(template.item(i), quantities[i], nodeType(template.kind(i)));
+            if (i > 0) {
+                // Pre-order: the parent is already built and children keep recipe order
+                nodes[template.parent(i)].addDependency(nodes[i]);
+            }
         }
+        return nodes[0];
+    }
 
-        return node;
+    private static PlanNode.NodeType nodeType(RecipeIndex.Kind kind) {
+        return switch (kind) {
+            case SMELT -> PlanNode.NodeType.SMELT;
+            case CRAFT -> PlanNode.NodeType.CRAFT;
+            default -> PlanNode.NodeType.PRIMITIVE;
+        };
     }
 
     /**
@@ -172,7 +141,7 @@ public class DeterministicPlanner {
                 return new CraftAction(plugin, node.item, node.quantity);
 
             default:
-                plugin.getLogger().warning("Unknown node type: " + node.type);
+                logger.warning("Unknown node type: " + node.type);
                 return null;
         }
     }
@@ -1,21 +1,32 @@
 package com.freddy.plugin.brain;
 
+import com.freddy.common.telemetry.PovFrame;
 import com.freddy.plugin.advanced.AdvancedFeatureManager;
+import com.freddy.plugin.advanced.AdvancedWorldState;
+import com.freddy.plugin.advanced.ReactiveSignal;
+import com.freddy.plugin.agent.TickProfiler;
+import com.freddy.plugin.agent.TickProfiler.Section;
 import com.freddy.plugin.perception.AIPerception;
+import com.freddy.plugin.perception.PerceptionPipeline;
+import com.freddy.plugin.perception.PerceptionSnapshot;
+import com.freddy.plugin.perception.PovFrames;
 import com.freddy.plugin.npc.*;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 
 /**
- * AI Brain Loop - integrates AI decision making with NPC actions
+ * AI Brain Loop - integrates AI decision making with NPC actions.
+ * One per agent; ticked by the shared {@link com.freddy.plugin.agent.AgentScheduler}.
  */
-public class AIBrainLoop extends BukkitRunnable {
+public class AIBrainLoop {
     private static final Logger logger = Logger.getLogger("AI Brain");
+    /** Frame age the dashboard's POV/ADV_STATE view accepts (refreshed about every perception check) */
+    private static final long DASHBOARD_FRAME_MAX_AGE_MS = 750L;
+    private static final int HAZARD_PROBE_INTERVAL = 10;
     
     private String npcName;
     private NPCController npcController;
@@ -25,6 +36,8 @@ public class AIBrainLoop extends BukkitRunnable {
     private final AdvancedFeatureManager advancedFeatures;
     private int tickCount = 0;
     private boolean bootstrapTelemetrySent = false;
+    private long lastFrameVersion = 0L;
+    private long lastInlineObserveAt = 0L;
     
     public AIBrainLoop(String npcName) {
         this.npcName = npcName;
@@ -54,8 +67,10 @@ public class AIBrainLoop extends BukkitRunnable {
         return null;
     }
     
-    @Override
-    public void run() {
+    /**
+     * One server tick for this agent
+     */
+    public void tick() {
         long loopStartNanos = System.nanoTime();
         Player npcEntity = getNPCEntity();
         if (npcEntity == null) {
@@ -78,8 +93,20 @@ public class AIBrainLoop extends BukkitRunnable {
         advancedFeatures.setNpcEntity(npcEntity);
         
         // Main AI tick
+        long profiled = TickProfiler.begin();
         aiBehavior.tick();
+        TickProfiler.end(Section.BEHAVIOR, profiled);
+
+        profiled = TickProfiler.begin();
+        consumePerceptionFrame(npcEntity);
+        TickProfiler.end(Section.PERCEPTION, profiled);
+
+        profiled = TickProfiler.begin();
+        if (tickCount % HAZARD_PROBE_INTERVAL == 0) {
+            advancedFeatures.probeHazards();
+        }
         advancedFeatures.tickReactive();
+        TickProfiler.end(Section.REACTIVE, profiled);
         tickCount++;
         
         // Log status periodically
@@ -89,19 +116,17 @@ public class AIBrainLoop extends BukkitRunnable {
         }
 
         // Send periodic inventory snapshot to dashboard (every 40 ticks ~2s)
+        profiled = TickProfiler.begin();
         if (tickCount % 40 == 0) {
             try {
                 com.freddy.common.TelemetryClient t = com.freddy.plugin.FreddyPlugin.getTelemetry();
                 if (t != null) {
                     java.util.Map<org.bukkit.Material, Integer> items = npcController.getInventory().getItems();
-                    StringBuilder sb = new StringBuilder();
-                    boolean first = true;
+                    java.util.Map<String, Integer> byName = new java.util.LinkedHashMap<>();
                     for (java.util.Map.Entry<org.bukkit.Material, Integer> e : items.entrySet()) {
-                        if (!first) sb.append(",");
-                        sb.append(e.getKey().name()).append("=").append(e.getValue());
-                        first = false;
+                        byName.put(e.getKey().name(), e.getValue());
                     }
-                    t.send("INVENTORY:" + sb.toString());
+                    t.sendInventory(byName);
                 }
             } catch (Exception ignore) { }
         }
@@ -117,10 +142,10 @@ public class AIBrainLoop extends BukkitRunnable {
                         bootstrapTelemetrySent = true;
                     }
 
-                    t.send("TICK:" + tickCount);
+                    t.sendTick(tickCount);
 
                     org.bukkit.Location loc = npcEntity.getLocation();
-                    t.send(String.format("POSITION:%.2f,%.2f,%.2f", loc.getX(), loc.getY(), loc.getZ()));
+                    t.sendPosition(loc.getX(), loc.getY(), loc.getZ());
 
                     List<String> players = new ArrayList<>();
                     for (Player p : loc.getWorld().getPlayers()) {
@@ -129,7 +154,7 @@ public class AIBrainLoop extends BukkitRunnable {
                         }
                     }
                     t.send("PLAYERS:" + (players.isEmpty() ? "none" : String.join(",", players)));
-                    t.send("GOAL:" + com.freddy.plugin.FreddyPlugin.getCurrentGoalLabel());
+                    t.send("GOAL:" + com.freddy.plugin.FreddyPlugin.getCurrentGoalLabel(npcName));
                     t.send("GOAL_QUEUE:active=" + goalManager.hasActiveGoal()
                         + ",current=" + goalManager.getCurrentGoalType()
                         + ",pending=" + goalManager.getPendingGoalCount()
@@ -138,101 +163,110 @@ public class AIBrainLoop extends BukkitRunnable {
                         + ",blacklisted=" + goalManager.workflowSafetyBlacklistedCount());
 
                     long elapsedMs = Math.max(1L, (System.nanoTime() - loopStartNanos) / 1_000_000L);
-                    t.send("RESPONSE_TIME:" + elapsedMs);
+                    t.sendResponseTime(elapsedMs);
                 }
             } catch (Exception ignore) { }
         }
+        TickProfiler.end(Section.TELEMETRY, profiled);
 
-        // Send POV text stream for mission control visual cortex.
+        // Perception cycle, only when a consumer needs a fresher frame: snapshot on this
+        // thread, scans and ray casts on pipeline workers
         if (tickCount % 20 == 0) {
-            try {
-                com.freddy.common.TelemetryClient t = com.freddy.plugin.FreddyPlugin.getTelemetry();
-                if (t != null) {
-                    org.bukkit.Location loc = npcEntity.getLocation();
-                    AIPerception perception = new AIPerception(loc, 50.0, loc.getYaw());
-                    var pov = perception.buildPOV(npcEntity.getNearbyEntities(50, 50, 50));
-                    t.send("POV:" + formatPovFrame(loc, pov).replace("\n", "\\n"));
-
-                    if (advancedFeatures.isEnabled()) {
-                        var ws = advancedFeatures.perception().observe();
-                        t.send(String.format("ADV_STATE:threat=%s,lava=%s,playerNearby=%s,blocks=%d",
-                            ws.threatNearby,
-                            ws.lavaNearby,
-                            ws.playerNearby,
-                            ws.nearbyBlocks.size()));
-                    }
+            profiled = TickProfiler.begin();
+            long maxAgeMs = perceptionMaxAgeMs();
+            if (maxAgeMs != Long.MAX_VALUE) {
+                PerceptionPipeline pipeline = com.freddy.plugin.FreddyPlugin.getPerceptionPipeline();
+                if (pipeline != null) {
+                    pipeline.require(npcEntity, maxAgeMs);
+                } else if (System.currentTimeMillis() - lastInlineObserveAt > maxAgeMs) {
+                    observeInline(npcEntity);
                 }
-            } catch (Exception ignore) { }
+            }
+            TickProfiler.end(Section.PERCEPTION, profiled);
         }
     }
 
-    private String formatPovFrame(org.bukkit.Location loc, AIPerception.POVData pov) {
-        StringBuilder frame = new StringBuilder();
-        frame.append("╔════════════════════════════════════════════════════════════╗\n");
-        frame.append("║                 RAYTRACING VISION ACTIVE                  ║\n");
-        frame.append("╠════════════════════════════════════════════════════════════╣\n");
-        frame.append(String.format("║ POS: X=%6.1f Y=%6.1f Z=%6.1f  YAW=%6.1f           ║\n",
-            loc.getX(), loc.getY(), loc.getZ(), (double) loc.getYaw()));
-        frame.append(String.format("║ BIOME: %-50s║\n", safeBiome(loc)));
-        frame.append(String.format("║ LIGHT: sky=%02d block=%02d visiblePlayers=%02d blocks=%02d     ║\n",
-            pov.environment.skyLight,
-            pov.environment.blockLight,
-            pov.players.size(),
-            pov.blocks.size()));
-        frame.append("╠════════════════════════════════════════════════════════════╣\n");
-
-        if (pov.players.isEmpty()) {
-            frame.append("║ PLAYERS: [none]                                            ║\n");
-        } else {
-            frame.append("║ PLAYERS:                                                  ║\n");
-            for (AIPerception.PlayerPerception player : pov.players) {
-                frame.append(String.format("║  • %-16s %6.1fm  %-6s %-6s        ║\n",
-                    player.name,
-                    player.distance,
-                    playerToSide(player.angle),
-                    playerToHeight(player.verticalAngle)));
-            }
+    /**
+     * Oldest frame any consumer accepts right now: the dashboard view while it is
+     * connected, the reactive goals while they could act. Long.MAX_VALUE when nobody
+     * needs one (e.g. a goal is running and no dashboard is attached).
+     */
+    private long perceptionMaxAgeMs() {
+        long maxAgeMs = advancedFeatures.requiredStateAgeMs();
+        com.freddy.common.TelemetryClient t = com.freddy.plugin.FreddyPlugin.getTelemetry();
+        if (t != null && t.isConnected()) {
+            maxAgeMs = Math.min(maxAgeMs, DASHBOARD_FRAME_MAX_AGE_MS);
         }
+        return maxAgeMs;
+    }
 
-        frame.append("╠════════════════════════════════════════════════════════════╣\n");
-        if (pov.blocks.isEmpty()) {
-            frame.append("║ BLOCKS: [none]                                             ║\n");
-        } else {
-            int limit = Math.min(6, pov.blocks.size());
-            frame.append("║ BLOCKS:                                                   ║\n");
-            for (int i = 0; i < limit; i++) {
-                AIPerception.BlockPerception block = pov.blocks.get(i);
-                frame.append(String.format("║  • %-14s %5.1fm [%d,%d,%d]            ║\n",
-                    block.blockType,
-                    block.distance,
-                    block.relativePosition[0],
-                    block.relativePosition[1],
-                    block.relativePosition[2]));
-            }
+    /**
+     * Hazard signal from an event listener (main thread)
+     */
+    public void signalReactive(ReactiveSignal signal) {
+        advancedFeatures.signal(signal);
+    }
+
+    /**
+     * Hand the newest pipeline frame to reactive goals and the dashboard, once per version
+     */
+    private void consumePerceptionFrame(Player npcEntity) {
+        PerceptionPipeline pipeline = com.freddy.plugin.FreddyPlugin.getPerceptionPipeline();
+        PerceptionPipeline.Frame frame = pipeline != null && npcEntity != null
+            ? pipeline.getLatest(npcEntity.getUniqueId()) : null;
+        if (frame == null || frame.version() == lastFrameVersion) {
+            return;
         }
+        lastFrameVersion = frame.version();
+        advancedFeatures.publishState(frame.advancedState());
 
-        frame.append("╚════════════════════════════════════════════════════════════╝");
-        return frame.toString();
+        PerceptionSnapshot snap = frame.snapshot();
+        sendPerceptionTelemetry(snap.x, snap.y, snap.z, snap.yaw, frame.pov(), frame.occupancy(), frame.advancedState());
     }
 
-    private String safeBiome(org.bukkit.Location loc) {
-        try {
-            return loc.getWorld() == null ? "UNKNOWN" : loc.getWorld().getBiome(loc).toString();
-        } catch (Exception ignore) {
-            return "UNKNOWN";
+    /**
+     * Fallback when the pipeline is disabled: observe synchronously on the main thread
+     */
+    private void observeInline(Player npcEntity) {
+        lastInlineObserveAt = System.currentTimeMillis();
+        var ws = advancedFeatures.perception().observe();
+        advancedFeatures.publishState(ws);
+
+        if (com.freddy.plugin.FreddyPlugin.getTelemetry() != null) {
+            org.bukkit.Location loc = npcEntity.getLocation();
+            AIPerception perception = new AIPerception(loc, 50.0, loc.getYaw());
+            var pov = perception.buildPOV(npcEntity.getNearbyEntities(50, 50, 50));
+            sendPerceptionTelemetry(loc.getX(), loc.getY(), loc.getZ(), loc.getYaw(), pov, null, ws);
         }
     }
 
-    private String playerToSide(double angle) {
-        if (angle < -45) return "LEFT";
-        if (angle > 45) return "RIGHT";
-        return "CENTER";
-    }
+    /**
+     * Send the structured POV frame and advanced state for mission control visual cortex;
+     * the dashboard renders the frame
+     *
+     * @param occupancy Top-down grid built with the pipeline frame, or null
+     */
+    private void sendPerceptionTelemetry(double x, double y, double z, float yaw,
+                                         AIPerception.POVData pov, PovFrame.Grid occupancy, AdvancedWorldState ws) {
+        long profiled = TickProfiler.begin();
+        try {
+            com.freddy.common.TelemetryClient t = com.freddy.plugin.FreddyPlugin.getTelemetry();
+            if (t != null) {
+                long framing = TickProfiler.begin();
+                PovFrame frame = PovFrames.senses(x, y, z, yaw, pov, occupancy);
+                TickProfiler.end(Section.POV, framing);
+                t.sendPovFrame(frame);
 
-    private String playerToHeight(double angle) {
-        if (angle < -15) return "BELOW";
-        if (angle > 15) return "ABOVE";
-        return "LEVEL";
+                if (advancedFeatures.isEnabled()) {
+                    t.send(String.format("ADV_STATE:threat=%s,lava=%s,playerNearby=%s,blocks=%d",
+                        ws.threatNearby,
+                        ws.lavaNearby,
+                        ws.playerNearby,
+                        ws.nearbyBlocks.size()));
+                }
+            }
+        } catch (Exception ignore) { }
+        TickProfiler.end(Section.TELEMETRY, profiled);
     }
     
     /**
@@ -279,12 +313,16 @@ public class AIBrainLoop extends BukkitRunnable {
         }
     }
     
+    public String getNpcName() {
+        return npcName;
+    }
+
     /**
-     * Start the AI brain loop (call from plugin enable)
+     * Shift this agent's periodic work (telemetry, perception, decisions) so that
+     * agents registered together do not all do it on the same server tick.
      */
-    public void start() {
-        // Schedule using the correct plugin name from plugin.yml
-        this.runTaskTimer(Bukkit.getPluginManager().getPlugin("FreddyAI"), 0, 1);  // Run every tick
-        logger.info("[AI BRAIN] Started for: " + npcName);
+    public void setTickOffset(int offset) {
+        tickCount = Math.max(0, offset);
+        aiBehavior.setTickOffset(offset);
     }
 }
@@ -7,7 +7,10 @@ import com.freddy.common.TelemetryClient;
 import com.freddy.plugin.actions.GameActions;
 import com.freddy.plugin.chat.ChatSystem;
 import com.freddy.plugin.perception.AIPerception;
-import com.freddy.plugin.perception.WorldVisualization;
+import com.freddy.plugin.perception.PerceptionPipeline;
+import com.freddy.plugin.perception.PerceptionSnapshot;
+import com.freddy.plugin.perception.PovFrames;
+import com.freddy.plugin.perception.VisionCone;
 import net.citizensnpcs.api.npc.NPC;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -45,8 +48,12 @@ public class BrainLoop extends BukkitRunnable {
     private int tickCount = 0;
     private long lastActionTime = 0;
     
-    // Cache for nearby entities (populated on main thread, read on async thread)
-    private List<Entity> cachedNearbyEntities = List.of();
+    // Perception frames older than this are not trusted for a think cycle
+    private static final long FRAME_MAX_AGE_MS = 5000;
+    
+    // Snapshot used by the current think cycle (captured on main thread, read on async thread)
+    private volatile PerceptionSnapshot cachedSnapshot;
+    private volatile VisionCone.Result cachedVision;
     
     public BrainLoop(NPC freddy, AgentBrain brain, Plugin plugin, ChatSystem chatSystem) {
         this.freddy = freddy;
@@ -142,11 +149,11 @@ public class BrainLoop extends BukkitRunnable {
             telemetry.sendObservation(formatObservation(observation));
             
             // Send RAYTRACING vision cone (what the NPC actually sees with line-of-sight)
-            String visionCone = WorldVisualization.createVisionConeView(
-                freddy.getEntity().getLocation(), 
-                cachedNearbyEntities
-            );
-            telemetry.sendPOV(visionCone);
+            PerceptionSnapshot snap = cachedSnapshot;
+            VisionCone.Result vision = cachedVision != null
+                ? cachedVision
+                : VisionCone.castOnce(snap.x, snap.y, snap.z, snap.yaw, snap.pitch, snap, snap.entities);
+            telemetry.sendPovFrame(PovFrames.vision(snap, vision));
             
             telemetry.sendPosition(observation.currentX(), observation.currentY(), observation.currentZ());
             telemetry.sendPlayers(observation.nearbyPlayers().isEmpty() ? "0" : 
@@ -163,9 +170,9 @@ public class BrainLoop extends BukkitRunnable {
             telemetry.sendResponseTime(responseTime);
             
             if (action == null) {
-                logger.warning("⚠️ Brain returned null action, defaulting to IDLE");
-                action = new Action.Idle();
-                telemetry.sendError("Brain returned null, defaulting to IDLE");
+                // A newer tick replaced this request in the LLM queue; that tick acts instead
+                logger.info("⏭️ Decision superseded by a newer tick, skipping");
+                return;
             }
             
             logger.info("✨ DECISION: " + action);
@@ -206,63 +213,62 @@ public class BrainLoop extends BukkitRunnable {
         
         var loc = entity.getLocation();
         
-        // Get nearby entities on the main thread (required by Bukkit API)
-        // Since we're on async thread, schedule sync task and wait for result
-        List<Entity> nearbyEntities = getNearbyEntitiesSync(entity);
-        cachedNearbyEntities = nearbyEntities; // Cache for use in run() method
+        // Use the pipeline's latest snapshot; only fall back to a main-thread capture without one
+        PerceptionPipeline pipeline = com.freddy.plugin.FreddyPlugin.getPerceptionPipeline();
+        PerceptionPipeline.Frame frame = pipeline != null
+            ? pipeline.getLatest(entity.getUniqueId(), FRAME_MAX_AGE_MS) : null;
+        if (pipeline != null && entity instanceof Player npcPlayer) {
+            pipeline.requestCycle(npcPlayer); // fresh frame for the next think cycle
+        }
+        PerceptionSnapshot snapshot = frame != null ? frame.snapshot() : captureSnapshotSync(entity);
+        if (snapshot == null) return null;
+        cachedSnapshot = snapshot;
+        cachedVision = frame != null ? frame.vision() : null;
         
         // Get nearby players within perception radius
-        List<String> nearbyPlayers = Bukkit.getOnlinePlayers().stream()
-            .filter(p -> {
-                Location pLoc = p.getLocation();
-                return pLoc.getWorld().equals(loc.getWorld()) && 
-                       pLoc.distance(loc) < PERCEPTION_RADIUS;
-            })
-            .map(Player::getName)
+        List<String> nearbyPlayers = snapshot.worldPlayers.stream()
+            .filter(p -> snapshot.distanceTo(p) < PERCEPTION_RADIUS)
+            .map(PerceptionSnapshot.EntityInfo::name)
             .collect(Collectors.toList());
         
         // Get world time
-        int worldTime = (int) (entity.getWorld().getTime() % 24000);
+        int worldTime = (int) (snapshot.worldTime % 24000);
         
         // Get last action from brain
         String lastAction = brain.getCurrentAction() != null ? 
             brain.getCurrentAction() : "Initialized";
         
         // === Environmental data ===
-        double health = 20.0;
-        int foodLevel = 20;
-        if (entity instanceof Player playerEntity) {
-            health = playerEntity.getHealth();
-            foodLevel = playerEntity.getFoodLevel();
-        }
+        double health = snapshot.npcHealth;
+        int foodLevel = snapshot.npcFoodLevel;
 
         // Biome/weather/light
-        String biome = "UNKNOWN";
-        String weather = "CLEAR";
-        int lightLevel = 15;
-        try {
-            World world = loc.getWorld();
-            if (world != null) {
-                biome = world.getBiome(loc).toString();
-                lightLevel = loc.getBlock().getLightLevel();
-                if (world.isThundering()) weather = "THUNDER";
-                else if (world.hasStorm()) weather = "RAIN";
-            }
-        } catch (Exception ignore) {}
+        String biome = snapshot.biome;
+        String weather = snapshot.weather;
+        int lightLevel = snapshot.lightLevel;
 
         // Nearby notable blocks (resources/ores)
         List<String> nearbyBlocks = new java.util.ArrayList<>();
         try {
             World world = loc.getWorld();
-            if (world != null) {
+            com.freddy.plugin.perception.BlockIndex index = com.freddy.plugin.FreddyPlugin.getBlockIndex();
+            if (world != null && index != null) {
+                // Index reads are thread-safe; this loop runs off the main thread
+                var counts = index.countNearby(world, loc.getBlockX(), loc.getBlockY(), loc.getBlockZ(), 8);
+                for (var entry : counts.entrySet()) {
+                    String name = entry.getKey().name();
+                    if (name.endsWith("_ORE") || name.endsWith("_LOG") || name.equals("DIAMOND_BLOCK")) {
+                        nearbyBlocks.add(name + "x" + entry.getValue());
+                    }
+                }
+            } else {
                 java.util.Map<String, Integer> blockCounts = new java.util.HashMap<>();
                 int r = 8;
                 for (int dx = -r; dx <= r; dx += 2) {
                     for (int dy = -r; dy <= r; dy += 2) {
                         for (int dz = -r; dz <= r; dz += 2) {
-                            org.bukkit.block.Block b = world.getBlockAt(
-                                loc.getBlockX() + dx, loc.getBlockY() + dy, loc.getBlockZ() + dz);
-                            String name = b.getType().name();
+                            String name = snapshot.getType(
+                                loc.getBlockX() + dx, loc.getBlockY() + dy, loc.getBlockZ() + dz).name();
                             if (name.endsWith("_ORE") || name.endsWith("_LOG") || name.equals("DIAMOND_BLOCK")) {
                                 blockCounts.merge(name, 1, Integer::sum);
                             }
@@ -277,9 +283,9 @@ public class BrainLoop extends BukkitRunnable {
 
         // Nearby entity types
         List<String> nearbyEntityTypes = new java.util.ArrayList<>();
-        for (Entity e : nearbyEntities) {
-            if (!(e instanceof Player)) {
-                nearbyEntityTypes.add(e.getType().name());
+        for (PerceptionSnapshot.EntityInfo e : snapshot.entities) {
+            if (!e.player()) {
+                nearbyEntityTypes.add(e.type());
             }
         }
         // Deduplicate
@@ -307,28 +313,29 @@ public class BrainLoop extends BukkitRunnable {
     }
     
     /**
-     * Get nearby entities on the main thread (synchronously).
-     * This is needed because getNearbyEntities() can only be called from the main thread.
+     * Capture a perception snapshot on the main thread and wait for it.
+     * Only used when the perception pipeline is disabled or has no recent frame.
      */
-    private List<Entity> getNearbyEntitiesSync(Entity entity) {
-        // Use CompletableFuture for proper thread synchronization instead of Thread.sleep
-        java.util.concurrent.CompletableFuture<List<Entity>> future = new java.util.concurrent.CompletableFuture<>();
+    private PerceptionSnapshot captureSnapshotSync(Entity entity) {
+        if (!(entity instanceof Player npcPlayer)) {
+            return null;
+        }
+        java.util.concurrent.CompletableFuture<PerceptionSnapshot> future = new java.util.concurrent.CompletableFuture<>();
         
         Bukkit.getScheduler().runTask(plugin, () -> {
             try {
-                List<Entity> nearby = entity.getNearbyEntities(50, 50, 50);
-                future.complete(new java.util.ArrayList<>(nearby));
+                future.complete(PerceptionSnapshot.capture(npcPlayer, 16, PERCEPTION_RADIUS));
             } catch (Exception e) {
-                logger.warning("[BrainLoop] Failed to get nearby entities: " + e.getMessage());
-                future.complete(new java.util.ArrayList<>());
+                logger.warning("[BrainLoop] Failed to capture perception snapshot: " + e.getMessage());
+                future.complete(null);
             }
         });
         
         try {
             return future.get(2, java.util.concurrent.TimeUnit.SECONDS);
         } catch (Exception e) {
-            logger.warning("[BrainLoop] Timeout waiting for entity scan: " + e.getMessage());
-            return new java.util.ArrayList<>();
+            logger.warning("[BrainLoop] Timeout waiting for perception snapshot: " + e.getMessage());
+            return null;
         }
     }
     
@@ -0,0 +1,160 @@
+package com.freddy.plugin.build;
+
+import com.freddy.plugin.npc.NPCController;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * BuildEngine - places schematic blocks in batches
+ *
+ * Each call to {@link #run} works through a {@link BuildJob} for up to
+ * {@code blocksPerTick} placements or {@code tickBudgetMicros} of main-thread time,
+ * whichever comes first. Cells that already hold the right block are counted and
+ * skipped, so starting a job over a half-built structure only places what is missing.
+ *
+ * A block out of reach sends the NPC to stand about two blocks from it; if a few walks
+ * don't bring it closer, the block is placed from where the NPC is.
+ *
+ * Main thread only.
+ */
+public class BuildEngine {
+
+    private static final Logger logger = Logger.getLogger("FreddyAI");
+
+    private static final double REACH_DISTANCE = 4.5;
+    private static final double STAND_OFF_DISTANCE = 2.0;
+    private static final long MOVE_RETRY_MS = 2000L;
+    private static final int MAX_MOVE_ATTEMPTS = 3;
+
+    public enum Status {
+        /** Blocks were handled this call and more remain */
+        PLACING,
+        /** Walking toward the next block */
+        MOVING,
+        /** Nothing to place the next block with */
+        NO_MATERIAL,
+        DONE
+    }
+
+    private final SchematicLibrary library;
+    private final int blocksPerTick;
+    private final long tickBudgetNanos;
+
+    public BuildEngine(JavaPlugin plugin, int blocksPerTick, long tickBudgetMicros) {
+        this.library = new SchematicLibrary(plugin);
+        this.blocksPerTick = Math.max(1, blocksPerTick);
+        this.tickBudgetNanos = Math.max(50L, tickBudgetMicros) * 1000L;
+        logger.info("[Build] " + library.size() + " schematics, up to " + this.blocksPerTick
+            + " blocks per tick in " + tickBudgetMicros + "µs");
+    }
+
+    public SchematicLibrary getLibrary() {
+        return library;
+    }
+
+    /**
+     * Advance the job by one tick's worth of blocks.
+     *
+     * @param buildMaterial Asked for every '@' block; null means nothing left to build with
+     */
+    public Status run(BuildJob job, Entity npc, NPCController controller, Supplier<Material> buildMaterial) {
+        BuildPlan plan = job.getPlan();
+        Location origin = job.getOrigin();
+        World world = origin.getWorld();
+        if (world == null || npc == null) {
+            return job.isDone() ? Status.DONE : Status.PLACING;
+        }
+        int ox = origin.getBlockX();
+        int oy = origin.getBlockY();
+        int oz = origin.getBlockZ();
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        int placedNow = 0;
+
+        while (job.cursor < plan.size()) {
+            if (placedNow >= blocksPerTick || System.nanoTime() >= deadline) {
+                return Status.PLACING;
+            }
+            int i = job.cursor;
+            Block block = world.getBlockAt(ox + plan.getX(i), oy + plan.getY(i), oz + plan.getZ(i));
+            Material want = plan.getMaterial(i);
+            Material current = block.getType();
+            boolean free = NPCController.isReplaceable(current);
+
+            // Diff against the world: any solid block satisfies '@', explicit blocks must match
+            if (want == null ? !free : current == want) {
+                job.present++;
+                job.cursor++;
+                continue;
+            }
+            if (!free) {
+                job.obstructed++;
+                job.cursor++;
+                continue;
+            }
+
+            Location eye = npc instanceof LivingEntity living ? living.getEyeLocation() : npc.getLocation().add(0, 1.62, 0);
+            double cx = block.getX() + 0.5;
+            double cy = block.getY() + 0.5;
+            double cz = block.getZ() + 0.5;
+            double dx = cx - eye.getX();
+            double dy = cy - eye.getY();
+            double dz = cz - eye.getZ();
+            if (dx * dx + dy * dy + dz * dz > REACH_DISTANCE * REACH_DISTANCE) {
+                if (job.moveAttempts < MAX_MOVE_ATTEMPTS) {
+                    long now = System.currentTimeMillis();
+                    if (now - job.lastMoveAt >= MOVE_RETRY_MS) {
+                        job.moveAttempts++;
+                        job.lastMoveAt = now;
+                        walkNear(npc, controller, cx, cz);
+                    }
+                    return placedNow > 0 ? Status.PLACING : Status.MOVING;
+                }
+                // Could not get closer; place from here like the one-block builder did
+            } else {
+                job.moveAttempts = 0;
+            }
+
+            Material material = want != null ? want : buildMaterial.get();
+            if (material == null) {
+                return Status.NO_MATERIAL;
+            }
+            controller.placeBlock(block.getX(), block.getY(), block.getZ(), material);
+            if (block.getType() != material) {
+                // Declined (not in the inventory); '@' waits for materials, explicit blocks are skipped
+                if (want == null) {
+                    return Status.NO_MATERIAL;
+                }
+                job.obstructed++;
+            } else {
+                job.placed++;
+                placedNow++;
+            }
+            job.cursor++;
+        }
+        return Status.DONE;
+    }
+
+    /**
+     * Walk to a spot {@link #STAND_OFF_DISTANCE} from the block, on the NPC's side of it
+     */
+    private static void walkNear(Entity npc, NPCController controller, double cx, double cz) {
+        Location feet = npc.getLocation();
+        double hx = feet.getX() - cx;
+        double hz = feet.getZ() - cz;
+        double len = Math.sqrt(hx * hx + hz * hz);
+        if (len < 1.0e-3) {
+            hx = 1.0;
+            hz = 0.0;
+            len = 1.0;
+        }
+        controller.walkTo(cx + hx / len * STAND_OFF_DISTANCE, feet.getY(), cz + hz / len * STAND_OFF_DISTANCE);
+    }
+}
@@ -0,0 +1,58 @@
+package com.freddy.plugin.build;
+
+import org.bukkit.Location;
+
+/**
+ * BuildJob - one NPC working through a {@link BuildPlan} at a fixed origin
+ *
+ * Advanced only by {@link BuildEngine#run}, on the main thread.
+ */
+public final class BuildJob {
+
+    private final BuildPlan plan;
+    private final Location origin;
+    int cursor = 0;
+    int placed = 0;
+    int present = 0;
+    int obstructed = 0;
+
+    // Reach-aware repositioning for the block at the cursor
+    int moveAttempts = 0;
+    long lastMoveAt = 0L;
+
+    public BuildJob(BuildPlan plan, Location origin) {
+        this.plan = plan;
+        this.origin = origin.clone();
+    }
+
+    public BuildPlan getPlan() {
+        return plan;
+    }
+
+    public Location getOrigin() {
+        return origin.clone();
+    }
+
+    public boolean isDone() {
+        return cursor >= plan.size();
+    }
+
+    /** Blocks handled so far (placed, already there, or skipped) */
+    public int getProgress() {
+        return cursor;
+    }
+
+    public int getPlaced() {
+        return placed;
+    }
+
+    /** Blocks that already matched the world, e.g. when resuming a half-built structure */
+    public int getPresent() {
+        return present;
+    }
+
+    /** Blocks skipped because something else occupies the cell */
+    public int getObstructed() {
+        return obstructed;
+    }
+}
@@ -0,0 +1,166 @@
+package com.freddy.plugin.build;
+
+import org.bukkit.Material;
+
+/**
+ * BuildPlan - the blocks of one schematic phase in the order they are placed
+ *
+ * Ordering is support-first: the phase's lowest layer can be placed at once, and any
+ * other block once a face neighbour from the plan is down. Among placeable blocks the
+ * lowest comes first, then the one nearest the block placed last, so the NPC works
+ * outward in short steps instead of sweeping the footprint row by row. Blocks that no
+ * chain of neighbours reaches (they rest on terrain, not on the plan) go last, lowest
+ * first.
+ *
+ * Offsets are relative to the schematic's own corner (its offset is applied to the
+ * origin, not here). Immutable; built on the think pool.
+ */
+public final class BuildPlan {
+
+    private static final int[][] FACES = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+
+    private final Schematic schematic;
+    private final String phase;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] zs;
+    private final Material[] materials;
+
+    private BuildPlan(Schematic schematic, String phase, int[] xs, int[] ys, int[] zs, Material[] materials) {
+        this.schematic = schematic;
+        this.phase = phase;
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.materials = materials;
+    }
+
+    public static BuildPlan create(Schematic schematic, String phase) {
+        int total = schematic.getBlockCount();
+        int[] members = new int[total];
+        int n = 0;
+        int minY = Integer.MAX_VALUE;
+        for (int i = 0; i < total; i++) {
+            if (schematic.inPhase(i, phase)) {
+                members[n++] = i;
+                minY = Math.min(minY, schematic.getY(i));
+            }
+        }
+
+        // Dense grid of plan positions (slot + 1, 0 = not in the plan) for neighbour lookups
+        int sx = schematic.getSizeX();
+        int sy = schematic.getSizeY();
+        int sz = schematic.getSizeZ();
+        int[] grid = new int[sx * sy * sz];
+        for (int k = 0; k < n; k++) {
+            int i = members[k];
+            grid[(schematic.getY(i) * sz + schematic.getZ(i)) * sx + schematic.getX(i)] = k + 1;
+        }
+
+        boolean[] supported = new boolean[n];
+        boolean[] placed = new boolean[n];
+        for (int k = 0; k < n; k++) {
+            supported[k] = schematic.getY(members[k]) == minY;
+        }
+
+        int[] order = new int[n];
+        int count = 0;
+        int lastX = 0;
+        int lastY = minY;
+        int lastZ = 0;
+        while (count < n) {
+            int best = -1;
+            long bestScore = Long.MAX_VALUE;
+            boolean fallback = true;
+            for (int k = 0; k < n; k++) {
+                if (!placed[k] && supported[k]) {
+                    fallback = false;
+                    break;
+                }
+            }
+            for (int k = 0; k < n; k++) {
+                if (placed[k] || (!fallback && !supported[k])) {
+                    continue;
+                }
+                int i = members[k];
+                int dx = schematic.getX(i) - lastX;
+                int dy = schematic.getY(i) - lastY;
+                int dz = schematic.getZ(i) - lastZ;
+                // Height dominates; distance to the last block breaks ties
+                long score = ((long) schematic.getY(i) << 32) + (long) dx * dx + (long) dy * dy + (long) dz * dz;
+                if (score < bestScore) {
+                    bestScore = score;
+                    best = k;
+                }
+            }
+
+            placed[best] = true;
+            order[count++] = best;
+            int i = members[best];
+            lastX = schematic.getX(i);
+            lastY = schematic.getY(i);
+            lastZ = schematic.getZ(i);
+            supportNeighbours(grid, sx, sy, sz, lastX, lastY, lastZ, supported);
+        }
+
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        int[] zs = new int[n];
+        Material[] materials = new Material[n];
+        for (int j = 0; j < n; j++) {
+            int i = members[order[j]];
+            xs[j] = schematic.getX(i);
+            ys[j] = schematic.getY(i);
+            zs[j] = schematic.getZ(i);
+            materials[j] = schematic.getMaterial(i);
+        }
+        return new BuildPlan(schematic, phase, xs, ys, zs, materials);
+    }
+
+    private static void supportNeighbours(int[] grid, int sx, int sy, int sz, int x, int y, int z, boolean[] supported) {
+        for (int[] f : FACES) {
+            int nx = x + f[0];
+            int ny = y + f[1];
+            int nz = z + f[2];
+            if (nx < 0 || ny < 0 || nz < 0 || nx >= sx || ny >= sy || nz >= sz) {
+                continue;
+            }
+            int slot = grid[(ny * sz + nz) * sx + nx];
+            if (slot > 0) {
+                supported[slot - 1] = true;
+            }
+        }
+    }
+
+    public Schematic getSchematic() {
+        return schematic;
+    }
+
+    public String getPhase() {
+        return phase;
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public boolean isEmpty() {
+        return xs.length == 0;
+    }
+
+    /** Offsets from the build origin */
+    public int getX(int index) { return xs[index]; }
+    public int getY(int index) { return ys[index]; }
+    public int getZ(int index) { return zs[index]; }
+
+    /**
+     * @return The block's material, or null for the build material
+     */
+    public Material getMaterial(int index) {
+        return materials[index];
+    }
+
+    public boolean isFinal() {
+        return schematic.isFinalPhase(phase);
+    }
+}
@@ -0,0 +1,228 @@
+package com.freddy.plugin.build;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Schematic - a build template loaded from a small text file
+ *
+ * Format (one directive per line, '#' starts a comment only at the start of a line):
+ * <pre>
+ * size 6 6 6              width (x), height (y), depth (z)
+ * offset -2 0 -2          origin relative to where the NPC stands
+ * key G GLASS             extra palette entry ('@' = build material, '.' or ' ' = leave as is)
+ * phase WALLS 1 4         named phase covering layers 1..4 (one number = a single layer)
+ * final ROOF              phases that finish the template ("ALL" always does)
+ * layer 1                 then one row per z, one character per x
+ * @@..@@
+ * </pre>
+ * Layers that are never declared are empty. The build material ('@') is whatever the
+ * NPC has on hand when the block is placed. A schematic without phase lines builds
+ * everything in every phase; otherwise an undeclared phase holds nothing.
+ *
+ * Immutable once parsed; safe to share between threads.
+ */
+public final class Schematic {
+
+    public static final char BUILD_MATERIAL = '@';
+    public static final String PHASE_ALL = "ALL";
+
+    private final String name;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final int offsetX;
+    private final int offsetY;
+    private final int offsetZ;
+    // One entry per block, in file order; a null material means the build material
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] zs;
+    private final Material[] materials;
+    private final Map<String, int[]> phases;
+    private final Set<String> finalPhases;
+
+    private Schematic(String name, int[] size, int[] offset, List<int[]> cells, List<Material> cellMaterials,
+                      Map<String, int[]> phases, Set<String> finalPhases) {
+        this.name = name;
+        this.sizeX = size[0];
+        this.sizeY = size[1];
+        this.sizeZ = size[2];
+        this.offsetX = offset[0];
+        this.offsetY = offset[1];
+        this.offsetZ = offset[2];
+        int n = cells.size();
+        this.xs = new int[n];
+        this.ys = new int[n];
+        this.zs = new int[n];
+        this.materials = cellMaterials.toArray(new Material[0]);
+        for (int i = 0; i < n; i++) {
+            int[] c = cells.get(i);
+            xs[i] = c[0];
+            ys[i] = c[1];
+            zs[i] = c[2];
+        }
+        this.phases = Collections.unmodifiableMap(phases);
+        this.finalPhases = Collections.unmodifiableSet(finalPhases);
+    }
+
+    /**
+     * @throws IllegalArgumentException With the offending line number when the text is malformed
+     */
+    public static Schematic parse(String name, List<String> lines) {
+        int[] size = null;
+        int[] offset = {0, 0, 0};
+        Map<Character, Material> palette = new HashMap<>();
+        Map<String, int[]> phases = new LinkedHashMap<>();
+        Set<String> finalPhases = new HashSet<>();
+        List<int[]> cells = new ArrayList<>();
+        List<Material> cellMaterials = new ArrayList<>();
+        Set<Integer> declaredLayers = new HashSet<>();
+
+        int layer = -1;
+        int row = 0;
+        for (int lineNo = 1; lineNo <= lines.size(); lineNo++) {
+            String raw = lines.get(lineNo - 1);
+            String line = raw.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] parts = line.split("\\s+");
+            String directive = parts[0].toLowerCase(Locale.ROOT);
+            try {
+                switch (directive) {
+                    case "size" -> size = ints(parts, 3);
+                    case "offset" -> offset = ints(parts, 3);
+                    case "key" -> {
+                        if (parts.length != 3 || parts[1].length() != 1) {
+                            throw new IllegalArgumentException("expected: key <char> <MATERIAL>");
+                        }
+                        Material material = Material.matchMaterial(parts[2]);
+                        if (material == null || !material.isBlock()) {
+                            throw new IllegalArgumentException("unknown block " + parts[2]);
+                        }
+                        palette.put(parts[1].charAt(0), material);
+                    }
+                    case "phase" -> {
+                        if (parts.length != 3 && parts.length != 4) {
+                            throw new IllegalArgumentException("expected: phase <NAME> <from> [to]");
+                        }
+                        int from = Integer.parseInt(parts[2]);
+                        int to = parts.length == 4 ? Integer.parseInt(parts[3]) : from;
+                        phases.put(parts[1].toUpperCase(Locale.ROOT), new int[] {Math.min(from, to), Math.max(from, to)});
+                    }
+                    case "final" -> {
+                        for (int i = 1; i < parts.length; i++) {
+                            finalPhases.add(parts[i].toUpperCase(Locale.ROOT));
+                        }
+                    }
+                    case "layer" -> {
+                        if (size == null) {
+                            throw new IllegalArgumentException("size must come before the first layer");
+                        }
+                        layer = ints(parts, 1)[0];
+                        if (layer < 0 || layer >= size[1] || !declaredLayers.add(layer)) {
+                            throw new IllegalArgumentException("layer " + layer + " out of range or repeated");
+                        }
+                        row = 0;
+                    }
+                    default -> {
+                        if (layer < 0) {
+                            throw new IllegalArgumentException("unknown directive " + parts[0]);
+                        }
+                        // A row of the current layer (taken unstripped so leading spaces keep their columns)
+                        String rowText = raw.stripTrailing();
+                        if (row >= size[2] || rowText.length() > size[0]) {
+                            throw new IllegalArgumentException("row does not fit size " + size[0] + "x" + size[2]);
+                        }
+                        for (int x = 0; x < rowText.length(); x++) {
+                            char c = rowText.charAt(x);
+                            if (c == '.' || c == ' ') {
+                                continue;
+                            }
+                            Material material = null;
+                            if (c != BUILD_MATERIAL) {
+                                material = palette.get(c);
+                                if (material == null) {
+                                    throw new IllegalArgumentException("no key for '" + c + "'");
+                                }
+                            }
+                            cells.add(new int[] {x, layer, row});
+                            cellMaterials.add(material);
+                        }
+                        row++;
+                    }
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " line " + lineNo + ": bad number in '" + line + "'");
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(name + " line " + lineNo + ": " + e.getMessage());
+            }
+        }
+        if (size == null) {
+            throw new IllegalArgumentException(name + ": missing size");
+        }
+        return new Schematic(name.toUpperCase(Locale.ROOT), size, offset, cells, cellMaterials, phases, finalPhases);
+    }
+
+    private static int[] ints(String[] parts, int count) {
+        if (parts.length != count + 1) {
+            throw new IllegalArgumentException("expected " + count + " number(s) after " + parts[0]);
+        }
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Integer.parseInt(parts[i + 1]);
+        }
+        return values;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSizeX() { return sizeX; }
+    public int getSizeY() { return sizeY; }
+    public int getSizeZ() { return sizeZ; }
+    public int getOffsetX() { return offsetX; }
+    public int getOffsetY() { return offsetY; }
+    public int getOffsetZ() { return offsetZ; }
+
+    public int getBlockCount() {
+        return xs.length;
+    }
+
+    public int getX(int index) { return xs[index]; }
+    public int getY(int index) { return ys[index]; }
+    public int getZ(int index) { return zs[index]; }
+
+    /**
+     * @return The block's material, or null for the build material
+     */
+    public Material getMaterial(int index) {
+        return materials[index];
+    }
+
+    /**
+     * True if block {@code index} belongs to the phase
+     */
+    public boolean inPhase(int index, String phase) {
+        if (PHASE_ALL.equals(phase) || phases.isEmpty()) {
+            return true;
+        }
+        int[] range = phases.get(phase);
+        return range != null && ys[index] >= range[0] && ys[index] <= range[1];
+    }
+
+    public boolean isFinalPhase(String phase) {
+        return PHASE_ALL.equals(phase) || finalPhases.contains(phase);
+    }
+}
@@ -0,0 +1,88 @@
+package com.freddy.plugin.build;
+
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * SchematicLibrary - build templates by name
+ *
+ * Bundled templates ship in the jar under schematics/; any *.txt file in the plugin's
+ * schematics/ data folder adds a template or replaces the bundled one of the same name.
+ */
+public final class SchematicLibrary {
+
+    private static final Logger logger = Logger.getLogger("FreddyAI");
+
+    public static final String DEFAULT_TEMPLATE = "PILLAR_SMALL";
+    private static final String[] BUNDLED = {
+        "HOUSE_6X6", "HUT_4X4", "WALL_10", "TOWER_7", "FARM_PLOT_5X5", DEFAULT_TEMPLATE
+    };
+
+    private final Map<String, Schematic> schematics = new ConcurrentHashMap<>();
+
+    public SchematicLibrary(JavaPlugin plugin) {
+        for (String name : BUNDLED) {
+            try (InputStream in = plugin.getResource("schematics/" + name + ".txt")) {
+                if (in == null) {
+                    logger.warning("[Build] Bundled schematic missing: " + name);
+                    continue;
+                }
+                BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                schematics.put(name, Schematic.parse(name, reader.lines().toList()));
+            } catch (IOException | IllegalArgumentException e) {
+                logger.warning("[Build] Could not load bundled schematic " + name + ": " + e.getMessage());
+            }
+        }
+
+        File[] files = new File(plugin.getDataFolder(), "schematics").listFiles((dir, file) -> file.endsWith(".txt"));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName().substring(0, file.getName().length() - 4).toUpperCase(Locale.ROOT);
+                try {
+                    List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+                    schematics.put(name, Schematic.parse(name, lines));
+                    logger.info("[Build] Loaded schematic " + name + " from " + file.getName());
+                } catch (IOException | IllegalArgumentException e) {
+                    logger.warning("[Build] Skipping schematic " + file.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Template for a goal's template name: an exact match, else the longest known name the
+     * template contains ("STONE_HOUSE_6X6" finds HOUSE_6X6), else the small pillar.
+     *
+     * @return Null only if not even the default template could be loaded
+     */
+    public Schematic find(String template) {
+        String key = template == null ? DEFAULT_TEMPLATE : template.trim().toUpperCase(Locale.ROOT);
+        Schematic exact = schematics.get(key);
+        if (exact != null) {
+            return exact;
+        }
+        Schematic best = null;
+        for (Map.Entry<String, Schematic> e : schematics.entrySet()) {
+            if (key.contains(e.getKey()) && (best == null || e.getKey().length() > best.getName().length())) {
+                best = e.getValue();
+            }
+        }
+        return best != null ? best : schematics.get(DEFAULT_TEMPLATE);
+    }
+
+    public int size() {
+        return schematics.size();
+    }
+}
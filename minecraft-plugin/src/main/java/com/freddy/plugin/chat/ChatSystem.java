@@ -10,7 +10,9 @@ import net.citizensnpcs.api.npc.NPC;
 
 import java.util.*;
 import java.util.logging.Logger;
-import com.freddy.llm.LLMClient;
+import com.freddy.llm.LLMOptions;
+import com.freddy.llm.LLMPriority;
+import com.freddy.llm.LLMSession;
 
 /**
  * Intelligent Chat System for Freddy AI
@@ -25,6 +27,8 @@ public class ChatSystem implements Listener {
     // Memory of conversations
     private Map<String, ConversationContext> conversations;
     private Queue<String> recentMessages;
+    private final LLMOptions chatOptions;
+    private final boolean reuseContext;
     
     public ChatSystem(NPC freddy, Plugin plugin) {
         this.freddy = freddy;
@@ -32,6 +36,11 @@ public class ChatSystem implements Listener {
         this.logger = plugin.getLogger();
         this.conversations = new HashMap<>();
         this.recentMessages = new LinkedList<>();
+        this.chatOptions = LLMOptions.of(
+            plugin.getConfig().getInt("llm.chat.num-ctx", 4096),
+            plugin.getConfig().getInt("llm.chat.num-predict", 96),
+            plugin.getConfig().getDouble("llm.chat.temperature", 0.8));
+        this.reuseContext = plugin.getConfig().getBoolean("llm.chat.reuse-context", true);
         
         Bukkit.getPluginManager().registerEvents(this, plugin);
     }
@@ -61,31 +70,32 @@ public class ChatSystem implements Listener {
      */
     private void respondToChat(Player player, String message) {
         ConversationContext context = getOrCreateContext(player.getName());
+        if (!context.isActive()) {
+            context.session.reset(); // Quiet for a while: start the conversation over
+        }
         context.addMessage(message);
         
-        String prompt = buildChatPrompt(player, message, context);
-        
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            try {
-                String rawResponse = LLMClient.ask(prompt);
-                
-                if (rawResponse == null || rawResponse.isBlank()) {
-                    rawResponse = "Hmm, I'm not sure what to say...";
-                }
-                
-                final String response = cleanResponse(rawResponse);
-                
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    sendFreddyChat(response);
-                    context.addResponse(response);
-                });
-                
-                logger.info("[FreddyAI Chat] " + player.getName() + " -> Freddy: " + message);
-                logger.info("[FreddyAI Chat] Freddy -> " + player.getName() + ": " + response);
-                
-            } catch (Exception e) {
-                logger.warning("Chat response error: " + e.getMessage());
+        // The session remembers earlier turns, so follow-ups only carry the new message
+        String prompt = context.session.hasContext()
+            ? buildFollowUpPrompt(player, message)
+            : buildChatPrompt(player, message, context);
+        
+        context.session.askAsync(prompt).whenComplete((rawResponse, error) -> {
+            if (error != null) {
+                logger.warning("Chat response error: " + error.getMessage());
+                return;
             }
+
+            final String response = cleanResponse(
+                rawResponse == null || rawResponse.isBlank() ? "Hmm, I'm not sure what to say..." : rawResponse);
+
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                sendFreddyChat(response);
+                context.addResponse(response);
+            });
+
+            logger.info("[FreddyAI Chat] " + player.getName() + " -> Freddy: " + message);
+            logger.info("[FreddyAI Chat] Freddy -> " + player.getName() + ": " + response);
         });
     }
     
@@ -124,6 +134,18 @@ public class ChatSystem implements Listener {
         return prompt.toString();
     }
     
+    /**
+     * Next turn of a conversation the model already has in its context
+     */
+    private String buildFollowUpPrompt(Player player, String message) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("\n").append(player.getName()).append(" (health ").append((int) player.getHealth())
+            .append("/20, at ").append(formatLocation(player.getLocation())).append(") says: \"")
+            .append(message).append("\"\n");
+        prompt.append("Reply in character, 1-2 sentences (no quotes): ");
+        return prompt.toString();
+    }
+    
     /**
      * Check if should respond to message
      */
@@ -203,7 +225,7 @@ public class ChatSystem implements Listener {
     private ConversationContext getOrCreateContext(String playerName) {
         return conversations.computeIfAbsent(
             playerName, 
-            k -> new ConversationContext(playerName)
+            k -> new ConversationContext(playerName, new LLMSession("chat:" + playerName, chatOptions, reuseContext, LLMPriority.CHAT))
         );
     }
     
@@ -221,9 +243,11 @@ public class ChatSystem implements Listener {
         private List<String> messages = new ArrayList<>();
         private List<String> responses = new ArrayList<>();
         private long lastInteraction = System.currentTimeMillis();
+        private final LLMSession session;
         
-        public ConversationContext(String playerName) {
+        public ConversationContext(String playerName, LLMSession session) {
             this.playerName = playerName;
+            this.session = session;
         }
         
         public void addMessage(String message) {
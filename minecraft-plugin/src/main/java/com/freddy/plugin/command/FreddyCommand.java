@@ -0,0 +1,143 @@
+package com.freddy.plugin.command;
+
+import com.freddy.llm.LLMClient;
+import com.freddy.llm.LLMMetrics;
+import com.freddy.llm.LLMPriority;
+import com.freddy.plugin.FreddyPlugin;
+import com.freddy.plugin.agent.TickProfiler;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+
+/**
+ * FreddyCommand - Diagnostics for the running plugin
+ *
+ * Usage:
+ * /freddy metrics - LLM latency percentiles (p50/p95/p99) and counters per call site
+ * /freddy metrics reset - Clear the LLM metrics
+ * /freddy profile - Per-tick microseconds (p50/p95/p99) and over-budget ticks per AI subsystem
+ * /freddy profile reset|on|off - Clear the profile, or turn profiling on or off
+ *
+ * Clearing metrics and changing the profiler need {@value #MANAGE_PERMISSION}.
+ */
+public class FreddyCommand implements CommandExecutor {
+
+    static final String MANAGE_PERMISSION = "freddy.diagnostics.manage";
+
+    private final FreddyPlugin plugin;
+
+    public FreddyCommand(FreddyPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (args.length == 0) {
+            showUsage(sender);
+            return true;
+        }
+
+        String action = args[0].toLowerCase();
+
+        switch (action) {
+            case "metrics" -> handleMetrics(sender, args);
+            case "profile" -> handleProfile(sender, args);
+            default -> showUsage(sender);
+        }
+
+        return true;
+    }
+
+    private void handleMetrics(CommandSender sender, String[] args) {
+        LLMMetrics metrics = LLMClient.getMetrics();
+        if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+            if (!canManage(sender)) {
+                return;
+            }
+            metrics.reset();
+            sender.sendMessage("§a✓ LLM metrics cleared");
+            return;
+        }
+
+        sender.sendMessage("§6========== LLM Metrics ==========");
+        sender.sendMessage(String.format("§eModel: §f%s §7| in flight %d, queued %d (chat %d, planning %d, thinking %d)",
+                LLMClient.getModel(),
+                LLMClient.getInFlightRequestCount(),
+                LLMClient.getQueuedRequestCount(),
+                LLMClient.getQueuedRequestCount(LLMPriority.CHAT),
+                LLMClient.getQueuedRequestCount(LLMPriority.PLANNING),
+                LLMClient.getQueuedRequestCount(LLMPriority.THINKING)));
+        sender.sendMessage(String.format("§7Coalesced %d, superseded %d",
+                LLMClient.getCoalescedCount(), LLMClient.getSupersededCount()));
+
+        String[] lines = metrics.formatSummary();
+        if (lines.length == 0) {
+            sender.sendMessage("§7(No requests yet)");
+        } else {
+            for (String line : lines) {
+                sender.sendMessage((line.startsWith(" ") ? "§f" : "§e") + line);
+            }
+        }
+        sender.sendMessage("§6=================================");
+    }
+
+    private void handleProfile(CommandSender sender, String[] args) {
+        TickProfiler profiler = FreddyPlugin.getTickProfiler();
+        if (profiler == null) {
+            sender.sendMessage("§cProfiler not available");
+            return;
+        }
+        if (args.length > 1) {
+            if (!canManage(sender)) {
+                return;
+            }
+            switch (args[1].toLowerCase()) {
+                case "reset" -> {
+                    profiler.reset();
+                    sender.sendMessage("§a✓ Tick profile cleared");
+                }
+                case "on" -> {
+                    profiler.setEnabled(true);
+                    sender.sendMessage("§a✓ Tick profiling on");
+                }
+                case "off" -> {
+                    profiler.setEnabled(false);
+                    sender.sendMessage("§a✓ Tick profiling off");
+                }
+                default -> showUsage(sender);
+            }
+            return;
+        }
+
+        sender.sendMessage("§6========== Tick Profile ==========");
+        if (!profiler.isEnabled()) {
+            sender.sendMessage("§7(Profiling is off - /freddy profile on)");
+        }
+        String[] lines = profiler.formatSummary();
+        if (lines.length == 0) {
+            sender.sendMessage("§7(No ticks recorded yet)");
+        } else {
+            for (String line : lines) {
+                sender.sendMessage("§f" + line);
+            }
+        }
+        sender.sendMessage("§6==================================");
+    }
+
+    private boolean canManage(CommandSender sender) {
+        if (sender.hasPermission(MANAGE_PERMISSION)) {
+            return true;
+        }
+        sender.sendMessage("§cYou don't have permission to change Freddy diagnostics");
+        return false;
+    }
+
+    private void showUsage(CommandSender sender) {
+        sender.sendMessage("§6========== Freddy ==========");
+        sender.sendMessage("§eUsage:");
+        sender.sendMessage("  §f/freddy metrics");
+        sender.sendMessage("  §f/freddy metrics reset");
+        sender.sendMessage("  §f/freddy profile [reset|on|off]");
+        sender.sendMessage("§6============================");
+    }
+}
@@ -17,6 +17,7 @@ import java.util.logging.Logger;
  * CRAFT:<item>[:amount]
  * OBSERVE
  * RETURN_HOME
+ * Prefix any command with "@<agentId> " to target an agent other than Freddy.
  */
 public class CommandServer extends Thread {
     private static final int PORT = 25567;
@@ -0,0 +1,193 @@
+package com.freddy.plugin.listener;
+
+import com.freddy.plugin.navigation.Pathfinder;
+import com.freddy.plugin.perception.BlockIndex;
+import com.freddy.plugin.perception.SectionChangeLog;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+/**
+ * Reports block changes to every cache built from block contents: the
+ * {@link BlockIndex}, the {@link Pathfinder}'s routes and chunk copies, and the
+ * perception {@link SectionChangeLog}. Any of them may be null when disabled.
+ *
+ * Events fire before the change lands, so consumers only mark what changed and
+ * re-read it later. setType() fires no events, so code that edits blocks directly
+ * reports them through {@link #markChanged(Block)}.
+ */
+public class BlockChangeListener implements Listener {
+
+    private final BlockIndex index;
+    private final Pathfinder pathfinder;
+    private final SectionChangeLog sections;
+
+    public BlockChangeListener(BlockIndex index, Pathfinder pathfinder, SectionChangeLog sections) {
+        this.index = index;
+        this.pathfinder = pathfinder;
+        this.sections = sections;
+    }
+
+    /**
+     * A block changed (or is about to); main thread
+     */
+    public void markChanged(Block block) {
+        if (index != null) {
+            index.markDirty(block);
+        }
+        if (pathfinder != null) {
+            pathfinder.invalidate(block);
+        }
+        if (sections != null) {
+            sections.markChanged(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkLoad(ChunkLoadEvent event) {
+        if (index != null) {
+            index.requestChunk(event.getChunk());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        if (index != null) {
+            index.forgetChunk(event.getChunk());
+        }
+        if (pathfinder != null) {
+            pathfinder.forgetChunk(event.getWorld(), event.getChunk().getX(), event.getChunk().getZ());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        if (index != null) {
+            index.forgetWorld(event.getWorld());
+        }
+        if (pathfinder != null) {
+            pathfinder.forgetWorld(event.getWorld());
+        }
+        if (sections != null) {
+            sections.forgetWorld(event.getWorld());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        markChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        markChanged(event.getBlockPlaced());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        markChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            markChanged(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        for (Block block : event.blockList()) {
+            markChanged(block);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        markChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLiquidFlow(BlockFromToEvent event) {
+        // Fires on every spread tick, so each consumer only takes the flows it cares about
+        Block to = event.getToBlock();
+        if (index != null && BlockIndex.isIndexed(event.getBlock().getType())) {
+            index.markDirty(to);
+        }
+        if (pathfinder != null && pathfinder.changesPassability(to.getType(), event.getBlock().getType())) {
+            pathfinder.invalidate(to);
+        }
+        if (sections != null && to.getType() != event.getBlock().getType()) {
+            sections.markChanged(to);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        markChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        markChanged(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        for (Block block : event.getBlocks()) {
+            markChanged(block);
+            markChanged(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        for (Block block : event.getBlocks()) {
+            markChanged(block);
+            markChanged(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        for (BlockState state : event.getBlocks()) {
+            Block block = state.getBlock();
+            if (index != null && BlockIndex.isIndexed(state.getType())) {
+                index.markDirty(block);
+            }
+            if (pathfinder != null) {
+                pathfinder.invalidate(block);
+            }
+            if (sections != null) {
+                sections.markChanged(block);
+            }
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPhysics(BlockPhysicsEvent event) {
+        // Very hot event: only the block index follows it, and only for indexed materials
+        if (index != null
+            && (BlockIndex.isIndexed(event.getChangedType()) || BlockIndex.isIndexed(event.getBlock().getType()))) {
+            index.markDirty(event.getBlock());
+        }
+    }
+}
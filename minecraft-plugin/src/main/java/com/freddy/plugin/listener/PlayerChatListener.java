@@ -1,6 +1,7 @@
 package com.freddy.plugin.listener;
 
 import com.freddy.llm.LLMClient;
+import com.freddy.llm.LLMPriority;
 import com.freddy.plugin.npc.FreddyMovement;
 import net.citizensnpcs.api.CitizensAPI;
 import net.citizensnpcs.api.npc.NPC;
@@ -56,20 +57,13 @@ public class PlayerChatListener implements Listener {
             }
         });
 
-        // Chat response (ASYNC)
-        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-            String reply = LLMClient.ask(event.getMessage());
-            if (reply != null && !reply.isBlank()) {
-                Bukkit.getScheduler().runTask(
-                    plugin,
-                    () -> player.sendMessage("§a[Freddy] §f" + reply)
-                );
-            } else {
-                Bukkit.getScheduler().runTask(
-                    plugin,
-                    () -> player.sendMessage("§a[Freddy] §f*seems lost in thought*")
-                );
-            }
+        // Chat response (ASYNC, no worker thread held while the model generates)
+        LLMClient.askAsync(event.getMessage(), LLMPriority.CHAT).thenAccept(reply -> {
+            String text = (reply != null && !reply.isBlank()) ? reply : "*seems lost in thought*";
+            Bukkit.getScheduler().runTask(
+                plugin,
+                () -> player.sendMessage("§a[Freddy] §f" + text)
+            );
         });
     }
 }
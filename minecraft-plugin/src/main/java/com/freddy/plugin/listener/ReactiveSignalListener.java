@@ -0,0 +1,99 @@
+package com.freddy.plugin.listener;
+
+import com.freddy.plugin.advanced.ReactiveSignal;
+import com.freddy.plugin.agent.Agent;
+import com.freddy.plugin.agent.AgentRegistry;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Monster;
+import org.bukkit.entity.Projectile;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityTargetLivingEntityEvent;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Turns damage and mob targeting on agent NPCs into {@link ReactiveSignal}s,
+ * so reactive goals hear about hazards without polling world scans.
+ */
+public class ReactiveSignalListener implements Listener {
+
+    /** Damage from the surroundings rather than from another entity */
+    private static final Set<EntityDamageEvent.DamageCause> ENVIRONMENTAL = EnumSet.of(
+        EntityDamageEvent.DamageCause.CONTACT,
+        EntityDamageEvent.DamageCause.SUFFOCATION,
+        EntityDamageEvent.DamageCause.FIRE,
+        EntityDamageEvent.DamageCause.FIRE_TICK,
+        EntityDamageEvent.DamageCause.HOT_FLOOR,
+        EntityDamageEvent.DamageCause.CAMPFIRE,
+        EntityDamageEvent.DamageCause.DROWNING,
+        EntityDamageEvent.DamageCause.FREEZE,
+        EntityDamageEvent.DamageCause.BLOCK_EXPLOSION,
+        EntityDamageEvent.DamageCause.LIGHTNING,
+        EntityDamageEvent.DamageCause.FALLING_BLOCK,
+        EntityDamageEvent.DamageCause.WORLD_BORDER,
+        EntityDamageEvent.DamageCause.VOID);
+
+    private final AgentRegistry registry;
+
+    public ReactiveSignalListener(AgentRegistry registry) {
+        this.registry = registry;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onDamage(EntityDamageEvent event) {
+        Agent agent = agentFor(event.getEntity());
+        if (agent == null) {
+            return;
+        }
+        ReactiveSignal signal = switch (event.getCause()) {
+            case LAVA -> ReactiveSignal.LAVA_NEARBY;
+            case FALL -> ReactiveSignal.FALL_RISK;
+            default -> isHazard(event) ? ReactiveSignal.DAMAGED : null;
+        };
+        if (signal != null) {
+            agent.getBrainLoop().signalReactive(signal);
+        }
+    }
+
+    /**
+     * Hits from hostile mobs (directly or with a projectile) and environmental damage;
+     * a player hitting the NPC, or potion and command damage, is no reason to take shelter
+     */
+    private static boolean isHazard(EntityDamageEvent event) {
+        if (event instanceof EntityDamageByEntityEvent byEntity) {
+            Entity damager = byEntity.getDamager();
+            if (damager instanceof Projectile projectile && projectile.getShooter() instanceof Entity shooter) {
+                damager = shooter;
+            }
+            return damager instanceof Monster;
+        }
+        return ENVIRONMENTAL.contains(event.getCause());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTarget(EntityTargetLivingEntityEvent event) {
+        if (!(event.getEntity() instanceof Monster)) {
+            return;
+        }
+        Agent agent = agentFor(event.getTarget());
+        if (agent != null) {
+            agent.getBrainLoop().signalReactive(ReactiveSignal.TARGETED);
+        }
+    }
+
+    private Agent agentFor(Entity entity) {
+        if (entity == null || !entity.hasMetadata("NPC")) {
+            return null;
+        }
+        Agent agent = registry.get(entity.getName());
+        if (agent == null || agent.getNpc() == null || agent.getNpc().getEntity() != entity) {
+            return null;
+        }
+        return agent;
+    }
+}
@@ -0,0 +1,90 @@
+package com.freddy.plugin.navigation;
+
+import org.bukkit.Material;
+
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * MoveCosts - per-material movement rules for the pathfinder
+ *
+ * Every material is classified once into open (walk through), solid (stand on,
+ * maybe break), fluid (wade through slowly) or hazard (never enter, never stand on),
+ * with a break cost derived from hardness. Searches only read the arrays, so one
+ * instance is shared by all pathfinder threads.
+ */
+public final class MoveCosts {
+
+    static final byte OPEN = 0;
+    static final byte SOLID = 1;
+    static final byte FLUID = 2;
+    static final byte HAZARD = 3;
+
+    /** Blocks harder than this (obsidian, bedrock-like) are never mined for a route */
+    private static final double MAX_BREAK_HARDNESS = 20.0;
+    private static final double BREAK_COST_PER_HARDNESS = 1.0;
+    private static final double BREAK_BASE_COST = 0.5;
+
+    private final byte[] kinds;
+    private final double[] breakCosts;
+
+    /**
+     * @param solid Whether a block occupies its cell (see {@link Material#isSolid()})
+     * @param hardness Block hardness; negative for unbreakable blocks
+     */
+    public MoveCosts(Predicate<Material> solid, ToDoubleFunction<Material> hardness) {
+        Material[] materials = Material.values();
+        this.kinds = new byte[materials.length];
+        this.breakCosts = new double[materials.length];
+        for (Material m : materials) {
+            int i = m.ordinal();
+            if (m.name().startsWith("LEGACY_")) {
+                kinds[i] = SOLID;
+                breakCosts[i] = -1;
+                continue;
+            }
+            if (isHazard(m)) {
+                kinds[i] = HAZARD;
+                breakCosts[i] = -1;
+            } else if (m == Material.WATER || m == Material.BUBBLE_COLUMN) {
+                kinds[i] = FLUID;
+                breakCosts[i] = -1;
+            } else if (solid.test(m)) {
+                kinds[i] = SOLID;
+                double h = hardness.applyAsDouble(m);
+                breakCosts[i] = h < 0 || h > MAX_BREAK_HARDNESS ? -1 : BREAK_BASE_COST + h * BREAK_COST_PER_HARDNESS;
+            } else {
+                kinds[i] = OPEN;
+                breakCosts[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Rules read from the server's block data (main thread, after startup)
+     */
+    public static MoveCosts fromServer() {
+        return new MoveCosts(
+            m -> m.isBlock() && m.isSolid(),
+            m -> m.isBlock() ? m.getHardness() : -1);
+    }
+
+    byte kind(Material type) {
+        return type == null ? SOLID : kinds[type.ordinal()];
+    }
+
+    /**
+     * @return Cost of mining the block out of the way, or -1 when it must not be broken
+     */
+    double breakCost(Material type) {
+        return type == null ? -1 : breakCosts[type.ordinal()];
+    }
+
+    private static boolean isHazard(Material m) {
+        return switch (m) {
+            case LAVA, FIRE, SOUL_FIRE, MAGMA_BLOCK, CAMPFIRE, SOUL_CAMPFIRE, CACTUS,
+                 SWEET_BERRY_BUSH, POWDER_SNOW, COBWEB, WITHER_ROSE, POINTED_DRIPSTONE -> true;
+            default -> false;
+        };
+    }
+}
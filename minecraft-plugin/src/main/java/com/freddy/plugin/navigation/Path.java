@@ -0,0 +1,126 @@
+package com.freddy.plugin.navigation;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Path - a route found by {@link PathSearch}
+ *
+ * Steps are feet positions in walking order (the start position is not included).
+ * A step may first require blocks to be mined out of the way or a block to be
+ * placed under it. Partial routes end at the position that got closest to the
+ * goal when the search budget ran out; followers walk them and search again.
+ */
+public final class Path {
+
+    public enum Move {
+        WALK,
+        ASCEND,
+        DESCEND,
+        PILLAR,
+        DIG_DOWN,
+        BRIDGE
+    }
+
+    /**
+     * @param breaks Blocks to mine before entering, as x,y,z triples
+     * @param placeBelow Place a block at (x, y - 1, z) before entering
+     */
+    public record Step(int x, int y, int z, Move move, int[] breaks, boolean placeBelow) {
+
+        public boolean isPlainWalk() {
+            return move == Move.WALK && breaks.length == 0 && !placeBelow;
+        }
+    }
+
+    private final UUID worldId;
+    private final PathGoal goal;
+    private final PathOptions options;
+    private final List<Step> steps;
+    private final boolean complete;
+    private final double cost;
+    private final long[] sections;
+
+    Path(UUID worldId, PathGoal goal, PathOptions options, List<Step> steps, boolean complete,
+         double cost, long[] sections) {
+        this.worldId = worldId;
+        this.goal = goal;
+        this.options = options;
+        this.steps = steps;
+        this.complete = complete;
+        this.cost = cost;
+        this.sections = sections;
+    }
+
+    public UUID getWorldId() {
+        return worldId;
+    }
+
+    public PathGoal getGoal() {
+        return goal;
+    }
+
+    public PathOptions getOptions() {
+        return options;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    public int size() {
+        return steps.size();
+    }
+
+    public Step step(int index) {
+        return steps.get(index);
+    }
+
+    /**
+     * @return True if the last step reaches the goal, false for a partial route
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public double getCost() {
+        return cost;
+    }
+
+    /**
+     * Sorted section keys ({@link #sectionKey}) of every block the route stands in,
+     * stands on or changes; a block change in any of them invalidates the route
+     */
+    long[] getSections() {
+        return sections;
+    }
+
+    /**
+     * The same route starting at step index (used to resume a cached route)
+     */
+    public Path from(int index) {
+        if (index <= 0) {
+            return this;
+        }
+        return new Path(worldId, goal, options, steps.subList(index, steps.size()), complete, cost, sections);
+    }
+
+    /**
+     * Index of the step the NPC at feet block (x, y, z) should head for next, or -1
+     * if it isn't next to the route. Used to pick up a cached route mid-way.
+     */
+    public int resumeIndex(int x, int y, int z) {
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            if (Math.abs(step.x() - x) <= 1 && Math.abs(step.z() - z) <= 1 && Math.abs(step.y() - y) <= 1) {
+                return step.x() == x && step.y() == y && step.z() == z ? i + 1 : i;
+            }
+        }
+        return -1;
+    }
+
+    // 22 bits chunk x, 20 bits section y, 22 bits chunk z
+    static long sectionKey(int x, int y, int z) {
+        return ((long) ((x >> 4) & 0x3FFFFF) << 42) | ((long) ((y >> 4) & 0xFFFFF) << 22) | ((z >> 4) & 0x3FFFFF);
+    }
+}
@@ -0,0 +1,97 @@
+package com.freddy.plugin.navigation;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * PathCache - recent routes keyed by (world, start section, goal section)
+ *
+ * A reverse index from every chunk section a route touches to its cache key lets a
+ * block change drop exactly the routes that ran through that section. Least recently
+ * used routes are evicted past the size limit.
+ *
+ * Main thread only.
+ */
+final class PathCache {
+
+    record Key(UUID world, long startSection, long goalSection) { }
+
+    private record SectionRef(UUID world, long section) { }
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Path> paths = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<SectionRef, Set<Key>> bySection = new HashMap<>();
+
+    PathCache(int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    Path get(Key key) {
+        return paths.get(key);
+    }
+
+    void put(Key key, Path path) {
+        remove(key);
+        paths.put(key, path);
+        for (long section : path.getSections()) {
+            bySection.computeIfAbsent(new SectionRef(key.world(), section), s -> new HashSet<>()).add(key);
+        }
+        if (paths.size() > maxEntries) {
+            Iterator<Key> eldest = paths.keySet().iterator();
+            remove(eldest.next());
+        }
+    }
+
+    void remove(Key key) {
+        Path path = paths.remove(key);
+        if (path == null) {
+            return;
+        }
+        for (long section : path.getSections()) {
+            SectionRef ref = new SectionRef(key.world(), section);
+            Set<Key> keys = bySection.get(ref);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    bySection.remove(ref);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop every route that touches the section
+     *
+     * @return Number of routes dropped
+     */
+    int invalidate(UUID world, long section) {
+        Set<Key> keys = bySection.get(new SectionRef(world, section));
+        if (keys == null) {
+            return 0;
+        }
+        Key[] affected = keys.toArray(new Key[0]);
+        for (Key key : affected) {
+            remove(key);
+        }
+        return affected.length;
+    }
+
+    void forgetWorld(UUID world) {
+        paths.keySet().removeIf(key -> key.world().equals(world));
+        bySection.keySet().removeIf(ref -> ref.world().equals(world));
+    }
+
+    void clear() {
+        paths.clear();
+        bySection.clear();
+    }
+
+    int size() {
+        return paths.size();
+    }
+}
@@ -0,0 +1,32 @@
+package com.freddy.plugin.navigation;
+
+import org.bukkit.Location;
+
+/**
+ * Where a route should end: any standing position whose feet are within reach
+ * of the target block's centre (the same measure as
+ * {@code npc.getLocation().distance(blockCenter)} used for mining reach)
+ */
+public record PathGoal(int x, int y, int z, double reach) {
+
+    /**
+     * Feet position (fx + 0.5, fy, fz + 0.5) to target centre
+     */
+    public double distanceFrom(int fx, int fy, int fz) {
+        double dx = fx - x;
+        double dy = fy - (y + 0.5);
+        double dz = fz - z;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    public boolean isReachedFrom(int fx, int fy, int fz) {
+        return distanceFrom(fx, fy, fz) <= reach;
+    }
+
+    public boolean isReachedFrom(Location feet) {
+        double dx = feet.getX() - (x + 0.5);
+        double dy = feet.getY() - (y + 0.5);
+        double dz = feet.getZ() - (z + 0.5);
+        return dx * dx + dy * dy + dz * dz <= reach * reach;
+    }
+}
@@ -0,0 +1,15 @@
+package com.freddy.plugin.navigation;
+
+/**
+ * What a route may do besides walking
+ *
+ * @param allowMining Break blocks that are in the way (tunnels, staircases, digging down)
+ * @param allowScaffold Place blocks to pillar up or bridge gaps
+ * @param maxExpansions Node budget; when it runs out the best partial route is returned
+ */
+public record PathOptions(boolean allowMining, boolean allowScaffold, int maxExpansions) {
+
+    public PathOptions withScaffold(boolean scaffold) {
+        return new PathOptions(allowMining, scaffold, maxExpansions);
+    }
+}
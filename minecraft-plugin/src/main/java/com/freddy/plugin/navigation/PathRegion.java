@@ -0,0 +1,56 @@
+package com.freddy.plugin.navigation;
+
+import com.freddy.plugin.perception.BlockTypeLookup;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+
+/**
+ * PathRegion - the chunk snapshots one search runs against
+ *
+ * A rectangle of chunk columns copied on the main thread. Anything outside the
+ * rectangle, in a chunk that wasn't loaded, or below the world floor reads as
+ * BEDROCK, so the search treats it as a wall it can't dig through.
+ */
+public final class PathRegion implements BlockTypeLookup {
+
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int minY;
+    private final int maxY;
+    private final ChunkSnapshot[][] chunks;
+
+    /**
+     * @param chunks chunks[cx - minChunkX][cz - minChunkZ], null where not loaded
+     */
+    public PathRegion(int minChunkX, int minChunkZ, int minY, int maxY, ChunkSnapshot[][] chunks) {
+        this.minChunkX = minChunkX;
+        this.minChunkZ = minChunkZ;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.chunks = chunks;
+    }
+
+    @Override
+    public Material getType(int x, int y, int z) {
+        if (y < minY) {
+            return Material.BEDROCK;
+        }
+        if (y >= maxY) {
+            return Material.AIR;
+        }
+        int cx = (x >> 4) - minChunkX;
+        int cz = (z >> 4) - minChunkZ;
+        if (cx < 0 || cz < 0 || cx >= chunks.length || cz >= chunks[cx].length || chunks[cx][cz] == null) {
+            return Material.BEDROCK;
+        }
+        return chunks[cx][cz].getBlockType(x & 15, y, z & 15);
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+}
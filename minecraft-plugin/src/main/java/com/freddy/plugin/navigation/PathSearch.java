@@ -0,0 +1,468 @@
+package com.freddy.plugin.navigation;
+
+import com.freddy.plugin.perception.BlockTypeLookup;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * PathSearch - resumable A* over feet positions
+ *
+ * The NPC occupies two blocks (feet and head). From each position the search tries
+ * level walks (8 directions), one-block step-ups, drops of up to three blocks, and,
+ * when the options allow, mining through walls, staircasing down, digging straight
+ * down, pillaring up and bridging gaps. Mined blocks cost more the harder they are,
+ * so open routes win unless tunnelling is much shorter.
+ *
+ * {@link #step(long)} runs until a deadline and can be called again to continue,
+ * so a long search never holds a thread for more than one slice. When the node
+ * budget runs out the route to the position closest to the goal is returned as
+ * a partial path.
+ *
+ * Reads only the {@link BlockTypeLookup} it was given; not thread-safe itself.
+ */
+final class PathSearch {
+
+    enum State {
+        RUNNING,
+        FOUND,
+        PARTIAL,
+        FAILED
+    }
+
+    private static final double WALK_COST = 1.0;
+    private static final double DIAGONAL_COST = 1.414;
+    private static final double ASCEND_COST = 0.5;
+    private static final double DROP_COST_PER_BLOCK = 0.3;
+    private static final double FLUID_COST = 2.0;
+    private static final double PILLAR_COST = 3.0;
+    private static final double BRIDGE_COST = 3.0;
+    private static final double DIG_DOWN_COST = 1.0;
+    private static final double HEURISTIC_WEIGHT = 2.0;
+    /**
+     * Extra estimate per block above a goal that lies below, when mining is allowed.
+     * Going down almost always means digging, and without this the search floods
+     * the surface before committing to a shaft.
+     */
+    private static final double DESCENT_BIAS = 0.5;
+    private static final int MAX_DROP = 3;
+    private static final int DEADLINE_CHECK_INTERVAL = 64;
+    private static final int[] NO_BREAKS = new int[0];
+
+    private static final int[][] CARDINAL = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] DIAGONAL = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final class Node {
+        final int x;
+        final int y;
+        final int z;
+        final double h;
+        double g = Double.MAX_VALUE;
+        Node parent;
+        Path.Move move;
+        int[] breaks = NO_BREAKS;
+        boolean place;
+        int heapIndex = -1;
+        boolean closed;
+
+        Node(int x, int y, int z, double h) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.h = h;
+        }
+
+        double f() {
+            return g + h * HEURISTIC_WEIGHT;
+        }
+    }
+
+    private final BlockTypeLookup blocks;
+    private final MoveCosts costs;
+    private final int minY;
+    private final int maxY;
+    private final UUID worldId;
+    private final PathGoal goal;
+    private final PathOptions options;
+    private final boolean goalInRegion;
+
+    private final Map<Long, Node> nodes = new HashMap<>();
+    private Node[] heap = new Node[256];
+    private int heapSize;
+    private final Node start;
+    private Node best;
+    private int expanded;
+    private State state = State.RUNNING;
+    private Path result;
+
+    // Blocks to mine for the move being evaluated, as x,y,z triples
+    private final int[] scratch = new int[12];
+    private int scratchLen;
+
+    /**
+     * @param goalInRegion False when the region was clipped short of the goal; running
+     *                     out of nodes then yields a partial route instead of a failure
+     */
+    PathSearch(BlockTypeLookup blocks, MoveCosts costs, int minY, int maxY, UUID worldId,
+               int startX, int startY, int startZ, PathGoal goal, PathOptions options, boolean goalInRegion) {
+        this.blocks = blocks;
+        this.costs = costs;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.worldId = worldId;
+        this.goal = goal;
+        this.options = options;
+        this.goalInRegion = goalInRegion;
+
+        // Feet inside a partial block (farmland, path, soul sand): stand on top of it
+        if (costs.kind(blocks.getType(startX, startY, startZ)) == MoveCosts.SOLID) {
+            startY++;
+        }
+        this.start = node(startX, startY, startZ);
+        start.g = 0;
+        this.best = start;
+        push(start);
+    }
+
+    State getState() {
+        return state;
+    }
+
+    /**
+     * @return The route once the state is FOUND or PARTIAL, otherwise null
+     */
+    Path getResult() {
+        return result;
+    }
+
+    int getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Expand nodes until the search ends or System.nanoTime() passes the deadline
+     */
+    State step(long deadlineNanos) {
+        if (state != State.RUNNING) {
+            return state;
+        }
+        int sinceCheck = 0;
+        while (heapSize > 0) {
+            Node n = pop();
+            n.closed = true;
+            if (goal.isReachedFrom(n.x, n.y, n.z)) {
+                finish(n, State.FOUND);
+                return state;
+            }
+            if (n.h < best.h || (n.h == best.h && n.g < best.g)) {
+                best = n;
+            }
+            if (++expanded >= options.maxExpansions()) {
+                finish(best, best == start ? State.FAILED : State.PARTIAL);
+                return state;
+            }
+            expand(n);
+            if (++sinceCheck >= DEADLINE_CHECK_INTERVAL) {
+                sinceCheck = 0;
+                if (System.nanoTime() >= deadlineNanos) {
+                    return state;
+                }
+            }
+        }
+        // Every reachable position in the region was visited
+        finish(best, goalInRegion || best == start ? State.FAILED : State.PARTIAL);
+        return state;
+    }
+
+    // =========================
+    // MOVES
+    // =========================
+
+    private void expand(Node n) {
+        int x = n.x;
+        int y = n.y;
+        int z = n.z;
+
+        for (int[] d : CARDINAL) {
+            int nx = x + d[0];
+            int nz = z + d[1];
+
+            // Level: walk in, mining feet/head blocks if needed; drop or bridge when there's no floor
+            scratchLen = 0;
+            double feet = clearCost(nx, y, nz);
+            double head = feet < 0 ? -1 : clearCost(nx, y + 1, nz);
+            if (head >= 0) {
+                byte floor = kindAt(nx, y - 1, nz);
+                if (floor == MoveCosts.SOLID) {
+                    offer(n, nx, y, nz, WALK_COST + feet + head, Path.Move.WALK, false);
+                } else if (floor == MoveCosts.OPEN) {
+                    int landY = findLanding(nx, y, nz);
+                    if (landY != Integer.MIN_VALUE) {
+                        offer(n, nx, landY, nz, WALK_COST + feet + head + DROP_COST_PER_BLOCK * (y - landY),
+                            Path.Move.DESCEND, false);
+                    } else if (options.allowScaffold()) {
+                        offer(n, nx, y, nz, WALK_COST + feet + head + BRIDGE_COST, Path.Move.BRIDGE, true);
+                    }
+                }
+            }
+
+            // Step up onto the block ahead (needs headroom above the current position to jump)
+            if (y + 2 < maxY && kindAt(nx, y, nz) == MoveCosts.SOLID) {
+                scratchLen = 0;
+                double jump = clearCost(x, y + 2, z);
+                double upFeet = jump < 0 ? -1 : clearCost(nx, y + 1, nz);
+                double upHead = upFeet < 0 ? -1 : clearCost(nx, y + 2, nz);
+                if (upHead >= 0) {
+                    offer(n, nx, y + 1, nz, WALK_COST + ASCEND_COST + jump + upFeet + upHead,
+                        Path.Move.ASCEND, false);
+                }
+            }
+
+            // Staircase down: mine the block ahead-and-below and step into it
+            if (options.allowMining() && kindAt(nx, y - 1, nz) == MoveCosts.SOLID
+                && kindAt(nx, y - 2, nz) == MoveCosts.SOLID) {
+                scratchLen = 0;
+                double top = clearCost(nx, y + 1, nz);
+                double mid = top < 0 ? -1 : clearCost(nx, y, nz);
+                double low = mid < 0 ? -1 : clearCost(nx, y - 1, nz);
+                if (low >= 0) {
+                    offer(n, nx, y - 1, nz, WALK_COST + top + mid + low, Path.Move.DESCEND, false);
+                }
+            }
+        }
+
+        // Diagonal walks only through open corners; no mining or placing
+        for (int[] d : DIAGONAL) {
+            int nx = x + d[0];
+            int nz = z + d[1];
+            if (isOpen(nx, y, nz) && isOpen(nx, y + 1, nz)
+                && isOpen(x, y, nz) && isOpen(x, y + 1, nz)
+                && isOpen(nx, y, z) && isOpen(nx, y + 1, z)
+                && kindAt(nx, y - 1, nz) == MoveCosts.SOLID) {
+                scratchLen = 0;
+                offer(n, nx, y, nz, DIAGONAL_COST, Path.Move.WALK, false);
+            }
+        }
+
+        // Pillar: jump and place a block where the feet were
+        if (options.allowScaffold() && y + 2 < maxY && isOpen(x, y, z)) {
+            scratchLen = 0;
+            double above = clearCost(x, y + 2, z);
+            if (above >= 0) {
+                offer(n, x, y + 1, z, PILLAR_COST + above, Path.Move.PILLAR, true);
+            }
+        }
+
+        // Dig straight down through the floor
+        if (options.allowMining() && y - 2 > minY && kindAt(x, y - 1, z) == MoveCosts.SOLID
+            && kindAt(x, y - 2, z) == MoveCosts.SOLID) {
+            scratchLen = 0;
+            double floor = clearCost(x, y - 1, z);
+            if (floor >= 0) {
+                offer(n, x, y - 1, z, DIG_DOWN_COST + floor, Path.Move.DIG_DOWN, false);
+            }
+        }
+    }
+
+    /**
+     * Cost of making (x, y, z) passable, recording any block that has to be mined;
+     * -1 if it can't be entered at all
+     */
+    private double clearCost(int x, int y, int z) {
+        Material type = blocks.getType(x, y, z);
+        switch (costs.kind(type)) {
+            case MoveCosts.OPEN:
+                return 0;
+            case MoveCosts.FLUID:
+                return FLUID_COST;
+            case MoveCosts.HAZARD:
+                return -1;
+            default:
+                if (!options.allowMining()) {
+                    return -1;
+                }
+                double cost = costs.breakCost(type);
+                if (cost < 0) {
+                    return -1;
+                }
+                // Never open a hole under water or lava
+                byte above = kindAt(x, y + 1, z);
+                if (above == MoveCosts.FLUID || above == MoveCosts.HAZARD) {
+                    return -1;
+                }
+                scratch[scratchLen++] = x;
+                scratch[scratchLen++] = y;
+                scratch[scratchLen++] = z;
+                return cost;
+        }
+    }
+
+    /**
+     * Feet y after dropping into column (x, z) from level y, or MIN_VALUE if the
+     * fall is longer than MAX_DROP or lands in something unsafe
+     */
+    private int findLanding(int x, int y, int z) {
+        for (int k = 1; k <= MAX_DROP; k++) {
+            int feetY = y - k;
+            if (feetY <= minY || kindAt(x, feetY, z) != MoveCosts.OPEN) {
+                return Integer.MIN_VALUE;
+            }
+            byte floor = kindAt(x, feetY - 1, z);
+            if (floor == MoveCosts.SOLID) {
+                return feetY;
+            }
+            if (floor != MoveCosts.OPEN) {
+                return Integer.MIN_VALUE;
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    private byte kindAt(int x, int y, int z) {
+        return costs.kind(blocks.getType(x, y, z));
+    }
+
+    private boolean isOpen(int x, int y, int z) {
+        return kindAt(x, y, z) == MoveCosts.OPEN;
+    }
+
+    // =========================
+    // OPEN SET
+    // =========================
+
+    private Node node(int x, int y, int z) {
+        long key = blockKey(x, y, z);
+        Node node = nodes.get(key);
+        if (node == null) {
+            node = new Node(x, y, z, heuristic(x, y, z));
+            nodes.put(key, node);
+        }
+        return node;
+    }
+
+    private double heuristic(int x, int y, int z) {
+        double h = Math.max(0.0, goal.distanceFrom(x, y, z) - goal.reach());
+        if (options.allowMining() && y > goal.y()) {
+            h += DESCENT_BIAS * Math.max(0.0, y - goal.y() - goal.reach());
+        }
+        return h;
+    }
+
+    private void offer(Node parent, int x, int y, int z, double stepCost, Path.Move move, boolean place) {
+        if (y <= minY || y + 1 >= maxY) {
+            return;
+        }
+        Node node = node(x, y, z);
+        double g = parent.g + stepCost;
+        if (node.closed || g >= node.g) {
+            return;
+        }
+        node.g = g;
+        node.parent = parent;
+        node.move = move;
+        node.place = place;
+        node.breaks = scratchLen == 0 ? NO_BREAKS : Arrays.copyOf(scratch, scratchLen);
+        if (node.heapIndex < 0) {
+            push(node);
+        } else {
+            siftUp(node.heapIndex);
+        }
+    }
+
+    private void push(Node node) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        heap[heapSize] = node;
+        node.heapIndex = heapSize;
+        siftUp(heapSize++);
+    }
+
+    private Node pop() {
+        Node top = heap[0];
+        heapSize--;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            heap[0].heapIndex = 0;
+            siftDown(0);
+        }
+        heap[heapSize] = null;
+        top.heapIndex = -1;
+        return top;
+    }
+
+    private void siftUp(int i) {
+        Node node = heap[i];
+        double f = node.f();
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (heap[parent].f() <= f) {
+                break;
+            }
+            heap[i] = heap[parent];
+            heap[i].heapIndex = i;
+            i = parent;
+        }
+        heap[i] = node;
+        node.heapIndex = i;
+    }
+
+    private void siftDown(int i) {
+        Node node = heap[i];
+        double f = node.f();
+        while (true) {
+            int child = (i << 1) + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1].f() < heap[child].f()) {
+                child++;
+            }
+            if (heap[child].f() >= f) {
+                break;
+            }
+            heap[i] = heap[child];
+            heap[i].heapIndex = i;
+            i = child;
+        }
+        heap[i] = node;
+        node.heapIndex = i;
+    }
+
+    // =========================
+    // RESULT
+    // =========================
+
+    private void finish(Node end, State outcome) {
+        state = outcome;
+        if (outcome == State.FAILED) {
+            return;
+        }
+        List<Path.Step> steps = new ArrayList<>();
+        List<Long> sections = new ArrayList<>();
+        for (Node n = end; n != start; n = n.parent) {
+            steps.add(new Path.Step(n.x, n.y, n.z, n.move, n.breaks, n.place));
+            sections.add(Path.sectionKey(n.x, n.y - 1, n.z));
+            sections.add(Path.sectionKey(n.x, n.y, n.z));
+            sections.add(Path.sectionKey(n.x, n.y + 1, n.z));
+            for (int i = 0; i < n.breaks.length; i += 3) {
+                sections.add(Path.sectionKey(n.breaks[i], n.breaks[i + 1], n.breaks[i + 2]));
+            }
+        }
+        Collections.reverse(steps);
+        long[] touched = sections.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+        result = new Path(worldId, goal, options, Collections.unmodifiableList(steps),
+            outcome == State.FOUND, end.g, touched);
+    }
+
+    // 26 bits x, 12 bits y, 26 bits z
+    private static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (y & 0xFFF) << 26) | (z & 0x3FFFFFF);
+    }
+}
@@ -0,0 +1,351 @@
+package com.freddy.plugin.navigation;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Pathfinder - plugin-owned route planning for NPC movement
+ *
+ * A request copies the chunks between the NPC and its goal as {@link ChunkSnapshot}s
+ * on the main thread (reusing recent copies), then runs a {@link PathSearch} on a
+ * daemon worker in short time slices so several NPCs share the pool fairly.
+ * Finished routes are handed back on the main thread.
+ *
+ * Complete routes are cached by (start section, goal section). Block changes reported
+ * through {@link #invalidate} drop the cached routes and chunk copies they touch;
+ * a route whose sections changed while it was being searched is delivered but not cached.
+ *
+ * Requests, invalidation and results all happen on the main thread.
+ */
+public class Pathfinder {
+
+    private static final Logger logger = Logger.getLogger("FreddyAI");
+
+    /** Blocks of slack around the start/goal box so routes can go around obstacles */
+    private static final int REGION_MARGIN = 16;
+    /** Chunk copies older than this are taken again even without a block event */
+    private static final long SNAPSHOT_MAX_AGE_MS = 10000L;
+    private static final int MAX_CACHED_SNAPSHOTS = 256;
+    private static final int MAX_TRACKED_CHANGES = 4096;
+
+    private final Plugin plugin;
+    private final ExecutorService workers;
+    private final MoveCosts costs;
+    private final PathOptions defaults;
+    private final long sliceNanos;
+    private final int maxRegionChunks;
+    private final PathCache cache;
+
+    // Main-thread state
+    // Access-ordered: the least recently used copy is dropped first once over the cap
+    private final LinkedHashMap<ChunkRef, CachedChunk> snapshots = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<SectionRef, Long> changedAt = new LinkedHashMap<>();
+    private long changeVersion;
+    private long forgottenVersion;
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong partials = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong expansions = new AtomicLong();
+
+    private record ChunkRef(UUID world, int cx, int cz) { }
+
+    private record SectionRef(UUID world, long section) { }
+
+    private record CachedChunk(ChunkSnapshot snapshot, long takenAt) { }
+
+    /**
+     * @param threads Search threads
+     * @param defaults Moves allowed and node budget when the caller doesn't override them
+     * @param sliceMicros How long one search runs before yielding its thread
+     * @param maxRegionChunks Widest region, in chunks per axis, copied for one search
+     * @param cacheSize Complete routes kept
+     */
+    public Pathfinder(Plugin plugin, int threads, PathOptions defaults, long sliceMicros,
+                      int maxRegionChunks, int cacheSize) {
+        this.plugin = plugin;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), daemonFactory("Freddy-pathfinder"));
+        this.costs = MoveCosts.fromServer();
+        this.defaults = defaults;
+        this.sliceNanos = Math.max(100L, sliceMicros) * 1000L;
+        this.maxRegionChunks = Math.max(2, maxRegionChunks);
+        this.cache = new PathCache(cacheSize);
+    }
+
+    public PathOptions getDefaults() {
+        return defaults;
+    }
+
+    // =========================
+    // REQUESTS (main thread)
+    // =========================
+
+    /**
+     * Find a route from the feet position to the goal.
+     *
+     * @param useCache False to force a fresh search (e.g. after the last route stalled)
+     * @return Completes on the main thread with the route (possibly partial), or null
+     *         when there is no route within the search region and budget
+     */
+    public CompletableFuture<Path> find(Location from, PathGoal goal, PathOptions options, boolean useCache) {
+        CompletableFuture<Path> done = new CompletableFuture<>();
+        World world = from.getWorld();
+        if (world == null || workers.isShutdown()) {
+            done.complete(null);
+            return done;
+        }
+        int sx = from.getBlockX();
+        int sy = from.getBlockY();
+        int sz = from.getBlockZ();
+        UUID worldId = world.getUID();
+        PathCache.Key key = new PathCache.Key(worldId, Path.sectionKey(sx, sy, sz),
+            Path.sectionKey(goal.x(), goal.y(), goal.z()));
+
+        if (useCache) {
+            Path cached = cache.get(key);
+            if (cached != null && cached.getOptions().equals(options) && cached.size() > 0) {
+                Path.Step last = cached.step(cached.size() - 1);
+                int resume = cached.resumeIndex(sx, sy, sz);
+                if (goal.isReachedFrom(last.x(), last.y(), last.z()) && resume >= 0 && resume < cached.size()) {
+                    cacheHits.incrementAndGet();
+                    done.complete(cached.from(resume));
+                    return done;
+                }
+            }
+        }
+
+        // Chunk box around start and goal, clipped to the widest allowed region
+        int[] xs = regionSpan(sx, goal.x());
+        int[] zs = regionSpan(sz, goal.z());
+        ChunkSnapshot[][] chunks = new ChunkSnapshot[xs[1] - xs[0] + 1][zs[1] - zs[0] + 1];
+        long now = System.currentTimeMillis();
+        for (int cx = xs[0]; cx <= xs[1]; cx++) {
+            for (int cz = zs[0]; cz <= zs[1]; cz++) {
+                chunks[cx - xs[0]][cz - zs[0]] = snapshot(world, cx, cz, now);
+            }
+        }
+        boolean goalInRegion = (goal.x() >> 4) >= xs[0] && (goal.x() >> 4) <= xs[1]
+            && (goal.z() >> 4) >= zs[0] && (goal.z() >> 4) <= zs[1];
+        PathRegion region = new PathRegion(xs[0], zs[0], world.getMinHeight(), world.getMaxHeight(), chunks);
+        PathSearch search = new PathSearch(region, costs, region.getMinY(), region.getMaxY(), worldId,
+            sx, sy, sz, goal, options, goalInRegion);
+
+        long capturedVersion = changeVersion;
+        searches.incrementAndGet();
+        CompletableFuture<Path> searched = new CompletableFuture<>();
+        try {
+            workers.execute(() -> runSlice(search, searched));
+        } catch (RejectedExecutionException e) {
+            done.complete(null);
+            return done;
+        }
+
+        searched.whenComplete((path, error) -> {
+            if (!plugin.isEnabled()) {
+                return;
+            }
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (path != null && path.isComplete() && !changedSince(worldId, path, capturedVersion)) {
+                    cache.put(key, path);
+                }
+                done.complete(path);
+            });
+        });
+        return done;
+    }
+
+    private void runSlice(PathSearch search, CompletableFuture<Path> searched) {
+        PathSearch.State state;
+        try {
+            state = search.step(System.nanoTime() + sliceNanos);
+        } catch (RuntimeException e) {
+            logger.warning("[Pathfinder] Search failed: " + e.getMessage());
+            failures.incrementAndGet();
+            searched.complete(null);
+            return;
+        }
+        if (state == PathSearch.State.RUNNING) {
+            try {
+                workers.execute(() -> runSlice(search, searched));
+            } catch (RejectedExecutionException e) {
+                searched.complete(null);
+            }
+            return;
+        }
+        expansions.addAndGet(search.getExpanded());
+        if (state == PathSearch.State.PARTIAL) {
+            partials.incrementAndGet();
+        } else if (state == PathSearch.State.FAILED) {
+            failures.incrementAndGet();
+        }
+        searched.complete(search.getResult());
+    }
+
+    /**
+     * [min, max] chunk coordinate on one axis covering start and goal plus margin,
+     * no wider than maxRegionChunks; when clipped, the region extends from the start
+     * toward the goal
+     */
+    private int[] regionSpan(int start, int goal) {
+        int lo = (Math.min(start, goal) - REGION_MARGIN) >> 4;
+        int hi = (Math.max(start, goal) + REGION_MARGIN) >> 4;
+        if (hi - lo + 1 > maxRegionChunks) {
+            if (goal >= start) {
+                lo = (start >> 4) - 1;
+                hi = lo + maxRegionChunks - 1;
+            } else {
+                hi = (start >> 4) + 1;
+                lo = hi - maxRegionChunks + 1;
+            }
+        }
+        return new int[] {lo, hi};
+    }
+
+    private ChunkSnapshot snapshot(World world, int cx, int cz, long now) {
+        if (!world.isChunkLoaded(cx, cz)) {
+            return null;
+        }
+        ChunkRef ref = new ChunkRef(world.getUID(), cx, cz);
+        CachedChunk cached = snapshots.get(ref);
+        if (cached != null) {
+            if (now - cached.takenAt() <= SNAPSHOT_MAX_AGE_MS) {
+                return cached.snapshot();
+            }
+            snapshots.remove(ref);
+        }
+        ChunkSnapshot snapshot = world.getChunkAt(cx, cz).getChunkSnapshot(false, false, false);
+        snapshots.put(ref, new CachedChunk(snapshot, now));
+        if (snapshots.size() > MAX_CACHED_SNAPSHOTS) {
+            Iterator<CachedChunk> eldest = snapshots.values().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+        return snapshot;
+    }
+
+    // =========================
+    // INVALIDATION (main thread)
+    // =========================
+
+    /**
+     * A block changed (or is about to): drop routes and chunk copies that include it
+     */
+    public void invalidate(Block block) {
+        invalidate(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    public void invalidate(World world, int x, int y, int z) {
+        UUID worldId = world.getUID();
+        long section = Path.sectionKey(x, y, z);
+        changeVersion++;
+        cache.invalidate(worldId, section);
+        snapshots.remove(new ChunkRef(worldId, x >> 4, z >> 4));
+
+        SectionRef ref = new SectionRef(worldId, section);
+        changedAt.remove(ref);
+        changedAt.put(ref, changeVersion);
+        if (changedAt.size() > MAX_TRACKED_CHANGES) {
+            Iterator<Long> eldest = changedAt.values().iterator();
+            forgottenVersion = eldest.next();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * True if replacing {@code before} with {@code after} can change a route: the
+     * cell switches between open, solid, fluid and hazard
+     */
+    public boolean changesPassability(Material before, Material after) {
+        return costs.kind(before) != costs.kind(after);
+    }
+
+    public void forgetChunk(World world, int cx, int cz) {
+        snapshots.remove(new ChunkRef(world.getUID(), cx, cz));
+    }
+
+    public void forgetWorld(World world) {
+        UUID worldId = world.getUID();
+        cache.forgetWorld(worldId);
+        snapshots.keySet().removeIf(ref -> ref.world().equals(worldId));
+        changedAt.keySet().removeIf(ref -> ref.world().equals(worldId));
+    }
+
+    private boolean changedSince(UUID worldId, Path path, long version) {
+        if (forgottenVersion > version) {
+            return true; // Changes since then are no longer tracked
+        }
+        if (changeVersion == version) {
+            return false;
+        }
+        for (long section : path.getSections()) {
+            Long at = changedAt.get(new SectionRef(worldId, section));
+            if (at != null && at > version) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // =========================
+    // STATS / LIFECYCLE
+    // =========================
+
+    public long getSearchCount() {
+        return searches.get();
+    }
+
+    public long getCacheHitCount() {
+        return cacheHits.get();
+    }
+
+    public long getPartialCount() {
+        return partials.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    public long getExpansionCount() {
+        return expansions.get();
+    }
+
+    public int getCachedPathCount() {
+        return cache.size();
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+        cache.clear();
+        snapshots.clear();
+        changedAt.clear();
+    }
+
+    private static ThreadFactory daemonFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
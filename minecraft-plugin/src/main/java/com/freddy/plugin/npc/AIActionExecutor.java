@@ -1,6 +1,14 @@
 package com.freddy.plugin.npc;
 
+import com.freddy.plugin.FreddyPlugin;
+import com.freddy.plugin.agent.AgentScheduler;
 import com.freddy.plugin.ai.FreddyCraftingService;
+import com.freddy.plugin.build.BuildEngine;
+import com.freddy.plugin.build.BuildJob;
+import com.freddy.plugin.build.BuildPlan;
+import com.freddy.plugin.build.Schematic;
+import com.freddy.plugin.navigation.PathGoal;
+import com.freddy.plugin.perception.BlockIndex;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
@@ -9,9 +17,9 @@ import org.bukkit.entity.LivingEntity;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.List;
 import java.util.Map;
 import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 public class AIActionExecutor {
@@ -51,14 +59,35 @@ public class AIActionExecutor {
     private static final long WOOD_EXPLORE_COOLDOWN_MS = 8000L; // 8 seconds
     private static final long DIAMOND_STRIP_EXPLORE_COOLDOWN_MS = 15000L; // 15 seconds
     private static final double BLOCK_REACH_DISTANCE = 4.5;
+    private static final int DIAMOND_DEPTH_Y = 12;
+    private static final int DESCENT_LEAD_BLOCKS = 8;
 
-    // Build template state (one-block-at-a-time)
+    // Pathfinder goal while descending to diamond depth (kept stable across ticks)
+    private PathGoal descentGoal = null;
+
+    // Build template state; blocks are placed in batches by tickBuild()
     private String activeBuildTemplate = null;
     private String activeBuildStepKey = null;
-    private int buildProgress = 0;
     private Location buildOrigin = null;
-    private List<int[]> activeBuildPlan = null;
-    private int activeBuildPlanIndex = 0;
+    private BuildJob activeBuildJob = null;
+    private long buildRequestedAt = 0L;
+    private boolean buildMaterialWarned = false;
+    // Where each template was last started, so a template picked up again nearby resumes in place
+    private final Map<String, Location> buildOrigins = new ConcurrentHashMap<>();
+    private static final double BUILD_RESUME_DISTANCE = 32.0;
+    // The build keeps running between decisions only while its step is still being asked for
+    private static final long BUILD_REQUEST_TTL_MS = 5000L;
+
+    // Lookahead: work resolved on the think pool for upcoming steps
+    private static final int PREFETCH_RANGE = 64;
+    private static final long PREFETCH_MAX_AGE_MS = 20000L;
+    private static final double PREFETCH_MAX_DRIFT = 6.0;
+    private final Map<String, PrefetchedTarget> prefetchedTargets = new ConcurrentHashMap<>();
+    private final Map<String, BuildPlan> prefetchedBuildPlans = new ConcurrentHashMap<>();
+
+    private record PrefetchedTarget(Location origin, Block block, Material[] types, long at) { }
+
+    private record ResourceSearch(Material[] types, int verticalRange) { }
 
     public AIActionExecutor(NPCController npcController, org.bukkit.entity.Entity npcEntity) {
         this.npcController = npcController;
@@ -81,17 +110,23 @@ public class AIActionExecutor {
             Material.BEETROOTS, Material.MELON, Material.PUMPKIN
         };
         
-        for (int x = -range; x <= range; x++) {
-            for (int y = -range; y <= range; y++) {
-                for (int z = -range; z <= range; z++) {
-                    Location probe = baseLoc.clone().add(x, y, z);
-                    Block block = probe.getBlock();
-                    for (Material crop : crops) {
-                        if (block.getType() == crop) {
-                            double distance = baseLoc.distance(block.getLocation());
-                            if (distance < closestDistance) {
-                                nearest = block;
-                                closestDistance = distance;
+        BlockIndex index = FreddyPlugin.getBlockIndex();
+        if (index != null && index.canAnswer(baseLoc, crops, range)) {
+            nearest = index.findNearest(baseLoc, crops, range, range,
+                b -> baseLoc.distance(b.getLocation()) < range);
+        } else {
+            for (int x = -range; x <= range; x++) {
+                for (int y = -range; y <= range; y++) {
+                    for (int z = -range; z <= range; z++) {
+                        Location probe = baseLoc.clone().add(x, y, z);
+                        Block block = probe.getBlock();
+                        for (Material crop : crops) {
+                            if (block.getType() == crop) {
+                                double distance = baseLoc.distance(block.getLocation());
+                                if (distance < closestDistance) {
+                                    nearest = block;
+                                    closestDistance = distance;
+                                }
                             }
                         }
                     }
@@ -205,6 +240,7 @@ public class AIActionExecutor {
         
         // If we're already at diamond level, stop descending
         if (currentY <= 16) {
+            descentGoal = null;
             return;
         }
         
@@ -217,6 +253,19 @@ public class AIActionExecutor {
         if (dx == 0 && dz == 0) {
             dx = 1;
         }
+
+        // Let the pathfinder work out the staircase/shaft down to diamond depth
+        if (npcController.hasPathfinder()) {
+            if (descentGoal == null) {
+                descentGoal = new PathGoal(loc.getBlockX() + dx * DESCENT_LEAD_BLOCKS, DIAMOND_DEPTH_Y,
+                    loc.getBlockZ() + dz * DESCENT_LEAD_BLOCKS, 3.0);
+            }
+            if (npcController.navigateTo(descentGoal) != PathFollower.Status.UNREACHABLE) {
+                return;
+            }
+            logger.info("[AI] No route down to diamond level; staircasing in place");
+            descentGoal = null;
+        }
         
         // Staircase pattern: to go down and forward 1 step, we need to clear space.
         // We will clear:
@@ -271,7 +320,10 @@ public class AIActionExecutor {
                     return;
                 }
 
-                Location wood = findNearbyWoodTarget(woodSearchRadius, 12); // Reduced vertical range
+                Location wood = prefetchedLocation("WOOD", woodSearchRadius);
+                if (wood == null) {
+                    wood = findNearbyWoodTarget(woodSearchRadius, 12); // Reduced vertical range
+                }
                 if (wood != null) {
                     Block target = wood.getBlock();
                     double heightDiff = target.getY() - npcEntity.getLocation().getY();
@@ -359,7 +411,7 @@ public class AIActionExecutor {
 
         String key = resourceType == null ? "" : resourceType.trim().toUpperCase();
         if ((key.equals("STONE") || key.equals("COBBLESTONE") || key.equals("DIAMOND") || key.equals("DIAMONDS"))
-            && queueMineTowards(target)) {
+            && !npcController.hasPathfinder() && queueMineTowards(target)) {
             return true;
         }
 
@@ -379,38 +431,138 @@ public class AIActionExecutor {
         }
 
         String key = resourceType.trim().toUpperCase();
+        Location prefetched = prefetchedLocation(key, range);
+        if (prefetched != null) {
+            return prefetched;
+        }
+
+        ResourceSearch search = resourceSearch(key);
+        if (search == null) {
+            return null;
+        }
         if (key.equals("WOOD") || key.equals("LOG")) {
-            return findNearbyWoodTarget(range, 24);
+            return findNearbyWoodTarget(range, search.verticalRange());
+        }
+        return findNearbyBlockAny(search.types(), range, search.verticalRange());
+    }
+
+    private static ResourceSearch resourceSearch(String key) {
+        if (key.equals("WOOD") || key.equals("LOG")) {
+            return new ResourceSearch(new Material[] {
+                Material.OAK_LOG, Material.BIRCH_LOG, Material.SPRUCE_LOG,
+                Material.JUNGLE_LOG, Material.ACACIA_LOG, Material.DARK_OAK_LOG
+            }, 24);
         }
 
         if (key.equals("STONE") || key.equals("COBBLESTONE")) {
-            return findNearbyBlockAny(new Material[] {Material.STONE, Material.COBBLESTONE, Material.DEEPSLATE}, range, 18);
+            return new ResourceSearch(new Material[] {Material.STONE, Material.COBBLESTONE, Material.DEEPSLATE}, 18);
         }
 
         if (key.equals("DIAMOND") || key.equals("DIAMONDS")) {
-            return findNearbyBlockAny(new Material[] {Material.DIAMOND_ORE, Material.DEEPSLATE_DIAMOND_ORE}, range, 22);
+            return new ResourceSearch(new Material[] {Material.DIAMOND_ORE, Material.DEEPSLATE_DIAMOND_ORE}, 22);
         }
 
         if (key.contains("IRON")) {
-            return findNearbyBlockAny(new Material[] {Material.IRON_ORE, Material.DEEPSLATE_IRON_ORE}, range, 24);
+            return new ResourceSearch(new Material[] {Material.IRON_ORE, Material.DEEPSLATE_IRON_ORE}, 24);
         }
 
         if (key.contains("GOLD")) {
-            return findNearbyBlockAny(new Material[] {Material.GOLD_ORE, Material.DEEPSLATE_GOLD_ORE}, range, 24);
+            return new ResourceSearch(new Material[] {Material.GOLD_ORE, Material.DEEPSLATE_GOLD_ORE}, 24);
         }
 
         if (key.contains("COAL")) {
-            return findNearbyBlockAny(new Material[] {Material.COAL_ORE, Material.DEEPSLATE_COAL_ORE}, range, 24);
+            return new ResourceSearch(new Material[] {Material.COAL_ORE, Material.DEEPSLATE_COAL_ORE}, 24);
         }
 
         return null;
     }
 
+    // =========================
+    // LOOKAHEAD
+    // =========================
+
+    /**
+     * Resolve the nearest block of an upcoming step's resource on the think pool, so the
+     * step's first {@link #moveToNearestResource} call does not rescan. Main thread.
+     */
+    public void prefetchResource(String resourceType) {
+        AgentScheduler scheduler = FreddyPlugin.getAgentScheduler();
+        if (npcEntity == null || resourceType == null || scheduler == null) {
+            return;
+        }
+        String key = resourceType.trim().toUpperCase();
+        ResourceSearch search = resourceSearch(key);
+        if (search == null || !canUseIndex(search.types(), PREFETCH_RANGE)) {
+            return;
+        }
+
+        Location origin = npcEntity.getLocation().clone();
+        boolean wood = key.equals("WOOD") || key.equals("LOG");
+        BlockIndex index = FreddyPlugin.getBlockIndex();
+        scheduler.submitThinking(
+            FreddyPlugin.getAgentRegistry() != null ? FreddyPlugin.getAgentRegistry().get(npcEntity.getName()) : null,
+            () -> index.findNearest(origin, search.types(), PREFETCH_RANGE, search.verticalRange(),
+                b -> !wood || Math.abs(b.getY() - origin.getY()) <= 2.5)
+        ).whenComplete((block, error) -> {
+            if (error == null && block != null) {
+                prefetchedTargets.put(key, new PrefetchedTarget(origin, block, search.types(), System.currentTimeMillis()));
+            }
+        });
+    }
+
+    /**
+     * Build the block plan for an upcoming BUILD step on the think pool. Main thread.
+     */
+    public void prefetchBuildPlan(String templateName, String stepLabel) {
+        AgentScheduler scheduler = FreddyPlugin.getAgentScheduler();
+        BuildEngine engine = FreddyPlugin.getBuildEngine();
+        if (scheduler == null || engine == null) {
+            return;
+        }
+        String template = normalizeBuildTemplate(templateName);
+        String phase = inferBuildPhase(template, stepLabel);
+        String stepKey = template + ":" + phase;
+        Schematic schematic = engine.getLibrary().find(template);
+        if (schematic == null || prefetchedBuildPlans.containsKey(stepKey)) {
+            return;
+        }
+        scheduler.submitThinking(null, () -> BuildPlan.create(schematic, phase))
+            .thenAccept(plan -> prefetchedBuildPlans.put(stepKey, plan));
+    }
+
+    /**
+     * A prefetched target is used while the NPC is still near where it was resolved and the
+     * block is unchanged; anything else drops it and the caller searches as usual.
+     */
+    private Location prefetchedLocation(String key, int range) {
+        PrefetchedTarget target = prefetchedTargets.get(key);
+        if (target == null) {
+            return null;
+        }
+        Location here = npcEntity.getLocation();
+        Block block = target.block();
+        boolean valid = System.currentTimeMillis() - target.at() <= PREFETCH_MAX_AGE_MS
+            && here.getWorld() != null
+            && here.getWorld().equals(target.origin().getWorld())
+            && here.distance(target.origin()) <= PREFETCH_MAX_DRIFT
+            && here.distance(block.getLocation()) <= range
+            && matchesAny(block.getType(), target.types())
+            && !npcController.isMineTargetCoolingDown(block.getX(), block.getY(), block.getZ());
+        if (!valid) {
+            prefetchedTargets.remove(key);
+            return null;
+        }
+        return block.getLocation();
+    }
+
     private void gatherStoneWithApproach() {
         if (npcEntity == null) return;
 
-        Block stoneBlock = findNearestMineableBlockAny(new Material[] {Material.STONE, Material.COBBLESTONE, Material.DEEPSLATE}, stoneSearchRadius, 18);
-        Location stone = stoneBlock == null ? null : stoneBlock.getLocation();
+        Location stone = prefetchedLocation("STONE", stoneSearchRadius);
+        if (stone == null) {
+            Block stoneBlock = findNearestMineableBlockAny(new Material[] {Material.STONE, Material.COBBLESTONE, Material.DEEPSLATE}, stoneSearchRadius, 18);
+            stone = stoneBlock == null ? null : stoneBlock.getLocation();
+        }
         if (stone != null) {
             approachAndQueueMine(stone.getBlock(), true);
             stoneSearchRadius = 24;
@@ -456,7 +608,8 @@ public class AIActionExecutor {
             }
 
             // If stone blocks are between Freddy and ore, tunnel through blocker first.
-            Block blocker = findBlockingSolidOnLine(ore.getLocation());
+            // (With the pathfinder the route itself tunnels, so these line probes are skipped.)
+            Block blocker = npcController.hasPathfinder() ? null : findBlockingSolidOnLine(ore.getLocation());
             if (blocker != null && blocker.getType() != Material.BEDROCK && blocker.getType() != Material.OBSIDIAN) {
                 logger.info("[AI] Tunneling blocker " + blocker.getType() + " at "
                     + blocker.getX() + "," + blocker.getY() + "," + blocker.getZ()
@@ -469,7 +622,7 @@ public class AIActionExecutor {
 
             // If direct line-of-sight blocker is not detected, still dig a short tunnel step
             // toward ore so Freddy can recover from pathfinder dead-ends underground.
-            Block tunnelStep = findTunnelStepTowards(ore.getLocation());
+            Block tunnelStep = npcController.hasPathfinder() ? null : findTunnelStepTowards(ore.getLocation());
             if (tunnelStep != null && tunnelStep.getType() != Material.BEDROCK && tunnelStep.getType() != Material.OBSIDIAN) {
                 logger.info("[AI] Tunneling toward ore via " + tunnelStep.getType() + " at "
                     + tunnelStep.getX() + "," + tunnelStep.getY() + "," + tunnelStep.getZ());
@@ -521,6 +674,25 @@ public class AIActionExecutor {
         double distance = npcLoc.distance(center);
         double heightDiff = center.getY() - npcLoc.getY();
         String key = targetBlock.getX() + ":" + targetBlock.getY() + ":" + targetBlock.getZ();
+
+        if (npcController.hasPathfinder()) {
+            // Routes (tunnels, staircases and scaffold columns included) come from the pathfinder;
+            // NPCController follows them and drops the target with a cooldown when none exists.
+            if (distance <= BLOCK_REACH_DISTANCE) {
+                npcController.mineBlock(targetBlock.getX(), targetBlock.getY(), targetBlock.getZ());
+                if (heightDiff > 1.5) {
+                    scheduleReturnToGround();
+                }
+                clearApproachStall();
+                return true;
+            }
+            npcController.walkToMiningApproach(targetBlock.getX(), targetBlock.getY(), targetBlock.getZ());
+            if (!npcController.hasQueuedMineAt(targetBlock.getX(), targetBlock.getY(), targetBlock.getZ())) {
+                npcController.queueAction(new NPCAction.MineBlock(targetBlock.getX(), targetBlock.getY(), targetBlock.getZ()));
+            }
+            return true;
+        }
+
         trackApproachStall(key, distance);
 
         // If we've already scaffolded too many times for this same target, abandon it.
@@ -721,12 +893,23 @@ public class AIActionExecutor {
         }
 
         Location baseLoc = npcEntity.getLocation();
+        BlockIndex index = FreddyPlugin.getBlockIndex();
+        if (index != null && index.canAnswer(baseLoc, blockTypes, horizontalRange)) {
+            return index.findNearest(baseLoc, blockTypes, horizontalRange, verticalRange,
+                npcController::isMineSectionCoolingDown,
+                b -> !npcController.isMineTargetCoolingDown(b.getX(), b.getY(), b.getZ()));
+        }
+
         Block nearest = null;
         double bestDistance = Double.MAX_VALUE;
 
         for (int x = -horizontalRange; x <= horizontalRange; x++) {
             for (int y = -verticalRange; y <= verticalRange; y++) {
                 for (int z = -horizontalRange; z <= horizontalRange; z++) {
+                    if (npcController.isMineSectionCoolingDown((baseLoc.getBlockX() + x) >> 4,
+                            (baseLoc.getBlockY() + y) >> 4, (baseLoc.getBlockZ() + z) >> 4)) {
+                        continue; // Whole area abandoned; don't read its blocks
+                    }
                     Block block = baseLoc.clone().add(x, y, z).getBlock();
                     if (!matchesAny(block.getType(), blockTypes)) {
                         continue;
@@ -759,6 +942,25 @@ public class AIActionExecutor {
 
         Location base = npcEntity.getLocation();
         double baseY = base.getY();
+
+        BlockIndex index = FreddyPlugin.getBlockIndex();
+        if (index != null && index.canAnswer(base, logs, horizontalRange)) {
+            boolean canScaffold = hasScaffoldMaterials();
+            Block reachable = index.findNearest(base, logs, horizontalRange, verticalRange,
+                npcController::isMineSectionCoolingDown, b -> {
+                double heightDiff = Math.abs(b.getY() - baseY);
+                return (heightDiff <= 2.5 || (heightDiff <= 4 && canScaffold))
+                    && !npcController.isMineTargetCoolingDown(b.getX(), b.getY(), b.getZ());
+            });
+            if (reachable != null) {
+                return reachable.getLocation();
+            }
+            Block any = index.findNearest(base, logs, horizontalRange, verticalRange,
+                npcController::isMineSectionCoolingDown,
+                b -> !npcController.isMineTargetCoolingDown(b.getX(), b.getY(), b.getZ()));
+            return any != null ? any.getLocation() : null;
+        }
+
         Block bestReachable = null;
         Block bestAny = null;
         double bestReachableDist = Double.MAX_VALUE;
@@ -768,6 +970,10 @@ public class AIActionExecutor {
         for (int x = -horizontalRange; x <= horizontalRange; x++) {
             for (int y = -verticalRange; y <= verticalRange; y++) {
                 for (int z = -horizontalRange; z <= horizontalRange; z++) {
+                    if (npcController.isMineSectionCoolingDown((base.getBlockX() + x) >> 4,
+                            (base.getBlockY() + y) >> 4, (base.getBlockZ() + z) >> 4)) {
+                        continue; // Whole area abandoned; don't read its blocks
+                    }
                     Block scanned = base.clone().add(x, y, z).getBlock();
                     if (!matchesAny(scanned.getType(), logs)) {
                         continue;
@@ -819,6 +1025,10 @@ public class AIActionExecutor {
             return null;
         }
 
+        if (canUseIndex(blockTypes, horizontalRange)) {
+            return findIndexedBlock(blockTypes, horizontalRange, verticalRange);
+        }
+
         Location nearest = null;
         double bestDistance = Double.MAX_VALUE;
         for (Material material : blockTypes) {
@@ -844,6 +1054,11 @@ public class AIActionExecutor {
             return null;
         }
         
+        Material[] single = {blockType};
+        if (canUseIndex(single, horizontalRange)) {
+            return findIndexedBlock(single, horizontalRange, verticalRange);
+        }
+
         Location baseLoc = npcEntity.getLocation();
         Block nearest = null;
         double closestDistance = Math.max(horizontalRange, verticalRange);
@@ -867,6 +1082,23 @@ public class AIActionExecutor {
         return nearest != null ? nearest.getLocation() : null;
     }
 
+    private boolean canUseIndex(Material[] blockTypes, int horizontalRange) {
+        BlockIndex index = FreddyPlugin.getBlockIndex();
+        return npcEntity != null && index != null && index.canAnswer(npcEntity.getLocation(), blockTypes, horizontalRange);
+    }
+
+    /**
+     * Index-backed equivalent of {@link #findNearbyBlock}: nearest match closer than
+     * max(horizontalRange, verticalRange) to the block corner.
+     */
+    private Location findIndexedBlock(Material[] blockTypes, int horizontalRange, int verticalRange) {
+        Location baseLoc = npcEntity.getLocation();
+        double maxDistance = Math.max(horizontalRange, verticalRange);
+        Block block = FreddyPlugin.getBlockIndex().findNearest(baseLoc, blockTypes, horizontalRange, verticalRange,
+            b -> baseLoc.distance(b.getLocation()) < maxDistance);
+        return block != null ? block.getLocation() : null;
+    }
+
     private boolean matchesAny(Material type, Material[] candidates) {
         if (type == null || candidates == null) {
             return false;
@@ -962,75 +1194,72 @@ public class AIActionExecutor {
     }
 
     /**
-     * Build one block per call, aligned to the current BUILD_STRUCTURE step label.
-     * Returns true when the requested phase for this step is complete.
+     * Start or continue the build for the current BUILD_STRUCTURE step label; the blocks
+     * themselves are placed in batches by {@link #tickBuild()} every tick while the step
+     * keeps being requested. Returns true when the requested phase for this step is complete.
      */
     public boolean buildTemplateStep(String templateName, String stepLabel) {
         if (npcEntity == null) {
             return false;
         }
+        BuildEngine engine = FreddyPlugin.getBuildEngine();
+        if (engine == null) {
+            return false;
+        }
 
-        String template = templateName == null ? "PILLAR_SMALL" : templateName.trim().toUpperCase(java.util.Locale.ROOT);
+        String template = normalizeBuildTemplate(templateName);
         String phase = inferBuildPhase(template, stepLabel);
         String stepKey = template + ":" + phase;
+        if (phase.equals("MARK") || phase.equals("INSPECT")) {
+            // Nothing to place for marking/inspection steps.
+            return true;
+        }
+        Schematic schematic = engine.getLibrary().find(template);
+        if (schematic == null) {
+            logger.warning("[AI] No schematic for build template " + template);
+            return true;
+        }
 
         // Initialize build origin when starting a new template.
         if (!template.equals(activeBuildTemplate) || buildOrigin == null) {
             activeBuildTemplate = template;
-            buildOrigin = npcEntity.getLocation().clone();
-            buildOrigin.setY(Math.floor(buildOrigin.getY()));
-            
-            // Offset origin so Freddy is inside the house footprint, not stuck in a wall
-            if (template.contains("HOUSE_6X6")) {
-                buildOrigin.add(-2, 0, -2);
-            } else if (template.contains("HUT_4X4")) {
-                buildOrigin.add(-1, 0, -1);
-            }
-
-            buildProgress = 0;
             activeBuildStepKey = null;
-            activeBuildPlan = null;
-            activeBuildPlanIndex = 0;
-            logger.info("[AI] Starting build template: " + template + " at " + buildOrigin);
+            activeBuildJob = null;
+            buildOrigin = resumableOrigin(template);
+            if (buildOrigin == null) {
+                buildOrigin = npcEntity.getLocation().clone();
+                buildOrigin.setY(Math.floor(buildOrigin.getY()));
+                // Offset origin so Freddy is inside the house footprint, not stuck in a wall
+                buildOrigin.add(schematic.getOffsetX(), schematic.getOffsetY(), schematic.getOffsetZ());
+                logger.info("[AI] Starting build template: " + template + " (" + schematic.getName() + ") at " + buildOrigin);
+            } else {
+                logger.info("[AI] Resuming build template: " + template + " at " + buildOrigin);
+            }
+            buildOrigins.put(template, buildOrigin.clone());
         }
 
-        // Phase switch: rebuild plan for this specific step.
-        if (!stepKey.equals(activeBuildStepKey) || activeBuildPlan == null) {
+        // Phase switch: new plan for this specific step.
+        if (!stepKey.equals(activeBuildStepKey) || activeBuildJob == null) {
             activeBuildStepKey = stepKey;
-            activeBuildPlan = createBuildPlan(template, phase);
-            activeBuildPlanIndex = 0;
-        }
-
-        if (activeBuildPlan == null || activeBuildPlan.isEmpty()) {
-            // Nothing to place for this step (e.g., MARK/INSPECT style steps).
-            return true;
-        }
-
-        Material buildMat = selectBuildMaterial();
-        if (buildMat == null) {
-            logger.warning("[AI] No building materials available");
-            return false;
+            BuildPlan prefetched = prefetchedBuildPlans.remove(stepKey);
+            BuildPlan plan = prefetched != null && prefetched.getSchematic() == schematic
+                ? prefetched : BuildPlan.create(schematic, phase);
+            activeBuildJob = new BuildJob(plan, buildOrigin);
+            buildMaterialWarned = false;
         }
+        buildRequestedAt = System.currentTimeMillis();
 
-        int ox = buildOrigin.getBlockX();
-        int oy = buildOrigin.getBlockY();
-        int oz = buildOrigin.getBlockZ();
-
-        if (activeBuildPlanIndex < activeBuildPlan.size()) {
-            int[] off = activeBuildPlan.get(activeBuildPlanIndex);
-            npcController.placeBlock(ox + off[0], oy + off[1], oz + off[2], buildMat);
-            activeBuildPlanIndex++;
-            buildProgress++;
-        }
-
-        boolean done = activeBuildPlanIndex >= activeBuildPlan.size();
+        boolean done = activeBuildJob.isDone();
         if (done) {
+            BuildJob job = activeBuildJob;
+            logger.info("[AI] Build step " + stepKey + " done: " + job.getPlaced() + " placed, "
+                + job.getPresent() + " already there, " + job.getObstructed() + " skipped");
             // If this step finishes the overall template, mark template complete.
-            if (isFinalBuildPhase(template, phase)) {
+            if (job.getPlan().isFinal()) {
                 activeBuildTemplate = null;
                 activeBuildStepKey = null;
-                activeBuildPlan = null;
-                activeBuildPlanIndex = 0;
+                activeBuildJob = null;
+                buildOrigins.remove(template);
                 logger.info("[AI] Build template complete: " + template);
                 scheduleReturnToGround();
             }
@@ -1039,6 +1268,50 @@ public class AIActionExecutor {
         return done;
     }
 
+    /**
+     * Place the next batch of blocks for the active build step. Called every tick;
+     * a no-op unless a build step was requested within the last few seconds.
+     */
+    public void tickBuild() {
+        BuildJob job = activeBuildJob;
+        if (job == null || job.isDone() || npcEntity == null) {
+            return;
+        }
+        if (System.currentTimeMillis() - buildRequestedAt > BUILD_REQUEST_TTL_MS) {
+            return;
+        }
+        BuildEngine engine = FreddyPlugin.getBuildEngine();
+        if (engine == null) {
+            return;
+        }
+        BuildEngine.Status status = engine.run(job, npcEntity, npcController, this::selectBuildMaterial);
+        if (status == BuildEngine.Status.NO_MATERIAL) {
+            if (!buildMaterialWarned) {
+                buildMaterialWarned = true;
+                logger.warning("[AI] No building materials available");
+            }
+        } else {
+            buildMaterialWarned = false;
+        }
+    }
+
+    /**
+     * Origin of an unfinished build of this template near the NPC, or null
+     */
+    private Location resumableOrigin(String template) {
+        Location previous = buildOrigins.get(template);
+        if (previous == null) {
+            return null;
+        }
+        Location cur = npcEntity.getLocation();
+        if (previous.getWorld() == null || !previous.getWorld().equals(cur.getWorld())
+            || previous.distance(cur) > BUILD_RESUME_DISTANCE) {
+            buildOrigins.remove(template);
+            return null;
+        }
+        return previous.clone();
+    }
+
     /**
      * Place furniture items inside the built house.
      * Uses the buildOrigin as reference.
@@ -1117,6 +1390,10 @@ public class AIActionExecutor {
         return false;
     }
 
+    private static String normalizeBuildTemplate(String templateName) {
+        return templateName == null ? "PILLAR_SMALL" : templateName.trim().toUpperCase(java.util.Locale.ROOT);
+    }
+
     private String inferBuildPhase(String template, String stepLabel) {
         String s = stepLabel == null ? "" : stepLabel.toLowerCase(java.util.Locale.ROOT);
         if (s.contains("mark") || s.contains("foundation") || s.contains("segment") || s.contains("center")) {
@@ -1146,267 +1423,6 @@ public class AIActionExecutor {
         return "ALL";
     }
 
-    private boolean isFinalBuildPhase(String template, String phase) {
-        if (phase == null) {
-            return false;
-        }
-        if (template.contains("HOUSE_6X6")) {
-            return phase.equals("ROOF") || phase.equals("ALL");
-        }
-        if (template.contains("HUT_4X4")) {
-            return phase.equals("ROOF") || phase.equals("ALL");
-        }
-        if (template.contains("WALL_10")) {
-            return phase.equals("LAYER3") || phase.equals("ALL");
-        }
-        if (template.contains("BRIDGE_8")) {
-            return phase.equals("FENCE") || phase.equals("ALL");
-        }
-        if (template.contains("TOWER_7")) {
-            return phase.equals("ALL");
-        }
-        return phase.equals("ALL");
-    }
-
-    private List<int[]> createBuildPlan(String template, String phase) {
-        java.util.ArrayList<int[]> plan = new java.util.ArrayList<>();
-
-        String t = template == null ? "" : template.trim().toUpperCase(java.util.Locale.ROOT);
-        String p = phase == null ? "ALL" : phase.trim().toUpperCase(java.util.Locale.ROOT);
-
-        if (p.equals("MARK") || p.equals("INSPECT")) {
-            return plan;
-        }
-
-        if (t.contains("HOUSE_6X6")) {
-            if (p.equals("FLOOR") || p.equals("FLOOR_WALLS") || p.equals("ALL")) {
-                for (int x = 0; x < 6; x++) {
-                    for (int z = 0; z < 6; z++) {
-                        plan.add(new int[] {x, 0, z});
-                    }
-                }
-            }
-            if (p.equals("WALLS") || p.equals("FLOOR_WALLS") || p.equals("ALL")) {
-                for (int y = 1; y <= 4; y++) {
-                    for (int x = 0; x < 6; x++) {
-                        // Front wall (z=0) with 2-wide door opening at x=2..3 for y=1..2
-                        if (!((x == 2 || x == 3) && (y == 1 || y == 2))) {
-                            plan.add(new int[] {x, y, 0});
-                        }
-                        plan.add(new int[] {x, y, 5});
-                    }
-                    for (int z = 1; z < 5; z++) {
-                        plan.add(new int[] {0, y, z});
-                        plan.add(new int[] {5, y, z});
-                    }
-                }
-            }
-            if (p.equals("ROOF") || p.equals("ALL")) {
-                for (int x = 0; x < 6; x++) {
-                    for (int z = 0; z < 6; z++) {
-                        plan.add(new int[] {x, 5, z});
-                    }
-                }
-            }
-            return plan;
-        }
-
-        if (t.contains("HUT_4X4")) {
-            if (p.equals("FLOOR") || p.equals("FLOOR_WALLS") || p.equals("ALL")) {
-                for (int x = 0; x < 4; x++) {
-                    for (int z = 0; z < 4; z++) {
-                        plan.add(new int[] {x, 0, z});
-                    }
-                }
-            }
-            if (p.equals("WALLS") || p.equals("ALL") || p.equals("FLOOR_WALLS")) {
-                for (int y = 1; y <= 3; y++) {
-                    for (int x = 0; x < 4; x++) {
-                        // Front wall (z=0) with door opening at x=1 for y=1..2
-                        if (!(x == 1 && (y == 1 || y == 2))) {
-                            plan.add(new int[] {x, y, 0});
-                        }
-                        plan.add(new int[] {x, y, 3});
-                    }
-                    for (int z = 1; z < 3; z++) {
-                        plan.add(new int[] {0, y, z});
-                        plan.add(new int[] {3, y, z});
-                    }
-                }
-            }
-            if (p.equals("ROOF") || p.equals("ALL")) {
-                for (int x = 0; x < 4; x++) {
-                    for (int z = 0; z < 4; z++) {
-                        plan.add(new int[] {x, 4, z});
-                    }
-                }
-            }
-            return plan;
-        }
-
-        if (t.contains("WALL_10")) {
-            int yStart = 1;
-            int yEnd = 3;
-            if (p.equals("LAYER1")) {
-                yStart = 1;
-                yEnd = 1;
-            } else if (p.equals("LAYER2")) {
-                yStart = 2;
-                yEnd = 2;
-            } else if (p.equals("LAYER3")) {
-                yStart = 3;
-                yEnd = 3;
-            }
-            for (int x = 0; x < 10; x++) {
-                for (int y = yStart; y <= yEnd; y++) {
-                    plan.add(new int[] {x, y, 0});
-                }
-            }
-            return plan;
-        }
-
-        if (t.contains("TOWER_7")) {
-            for (int y = 1; y <= 7; y++) {
-                plan.add(new int[] {0, y, 0});
-                plan.add(new int[] {1, y, 0});
-                plan.add(new int[] {0, y, 1});
-                plan.add(new int[] {1, y, 1});
-            }
-            return plan;
-        }
-
-        if (t.contains("FARM_PLOT_5X5")) {
-            if (p.equals("FLOOR") || p.equals("ALL") || p.equals("MARK")) {
-                for (int x = 0; x < 5; x++) {
-                    for (int z = 0; z < 5; z++) {
-                        plan.add(new int[] {x, 0, z});
-                    }
-                }
-            }
-            return plan;
-        }
-
-        // Default: small pillar
-        for (int y = 1; y <= 5; y++) {
-            plan.add(new int[] {0, y, 0});
-        }
-        return plan;
-    }
-
-    private void buildHouse6x6(int ox, int oy, int oz, Material mat) {
-        int phase = buildProgress % 4;
-        switch (phase) {
-            case 0 -> {
-                // Floor
-                for (int x = 0; x < 6; x++)
-                    for (int z = 0; z < 6; z++)
-                        npcController.placeBlock(ox + x, oy, oz + z, mat);
-            }
-            case 1 -> {
-                // Walls layer (4 high, skip door)
-                for (int y = 1; y <= 4; y++) {
-                    for (int x = 0; x < 6; x++) {
-                        npcController.placeBlock(ox + x, oy + y, oz, mat);     // front wall
-                        npcController.placeBlock(ox + x, oy + y, oz + 5, mat); // back wall
-                    }
-                    for (int z = 1; z < 5; z++) {
-                        npcController.placeBlock(ox, oy + y, oz + z, mat);     // left wall
-                        npcController.placeBlock(ox + 5, oy + y, oz + z, mat); // right wall
-                    }
-                }
-                // Door opening (remove blocks at front center)
-                npcController.placeBlock(ox + 2, oy + 1, oz, Material.AIR);
-                npcController.placeBlock(ox + 2, oy + 2, oz, Material.AIR);
-                npcController.placeBlock(ox + 3, oy + 1, oz, Material.AIR);
-                npcController.placeBlock(ox + 3, oy + 2, oz, Material.AIR);
-            }
-            case 2 -> {
-                // Roof
-                for (int x = 0; x < 6; x++)
-                    for (int z = 0; z < 6; z++)
-                        npcController.placeBlock(ox + x, oy + 5, oz + z, mat);
-            }
-            case 3 -> {
-                activeBuildTemplate = null;
-                logger.info("[AI] House 6x6 build complete");
-            }
-        }
-    }
-
-    private void buildWall10(int ox, int oy, int oz, Material mat) {
-        int phase = buildProgress % 2;
-        if (phase == 0) {
-            for (int x = 0; x < 10; x++)
-                for (int y = 1; y <= 3; y++)
-                    npcController.placeBlock(ox + x, oy + y, oz, mat);
-        } else {
-            activeBuildTemplate = null;
-            logger.info("[AI] Wall build complete");
-        }
-    }
-
-    private void buildTower7(int ox, int oy, int oz, Material mat) {
-        int phase = buildProgress % 2;
-        if (phase == 0) {
-            for (int y = 1; y <= 7; y++) {
-                npcController.placeBlock(ox, oy + y, oz, mat);
-                npcController.placeBlock(ox + 1, oy + y, oz, mat);
-                npcController.placeBlock(ox, oy + y, oz + 1, mat);
-                npcController.placeBlock(ox + 1, oy + y, oz + 1, mat);
-            }
-        } else {
-            activeBuildTemplate = null;
-            logger.info("[AI] Tower build complete");
-        }
-    }
-
-    private void buildFarmPlot5x5(int ox, int oy, int oz, Material mat) {
-        int phase = buildProgress % 2;
-        if (phase == 0) {
-            for (int x = 0; x < 5; x++) {
-                for (int z = 0; z < 5; z++) {
-                    npcController.placeBlock(ox + x, oy, oz + z, mat);
-                }
-            }
-        } else {
-            activeBuildTemplate = null;
-            logger.info("[AI] Farm plot build complete");
-        }
-    }
-
-    private void buildHut4x4(int ox, int oy, int oz, Material mat) {
-        int phase = buildProgress % 3;
-        switch (phase) {
-            case 0 -> {
-                for (int x = 0; x < 4; x++)
-                    for (int z = 0; z < 4; z++)
-                        npcController.placeBlock(ox + x, oy, oz + z, mat);
-            }
-            case 1 -> {
-                for (int y = 1; y <= 3; y++) {
-                    for (int x = 0; x < 4; x++) {
-                        npcController.placeBlock(ox + x, oy + y, oz, mat);
-                        npcController.placeBlock(ox + x, oy + y, oz + 3, mat);
-                    }
-                    for (int z = 1; z < 3; z++) {
-                        npcController.placeBlock(ox, oy + y, oz + z, mat);
-                        npcController.placeBlock(ox + 3, oy + y, oz + z, mat);
-                    }
-                }
-                // Door
-                npcController.placeBlock(ox + 1, oy + 1, oz, Material.AIR);
-                npcController.placeBlock(ox + 1, oy + 2, oz, Material.AIR);
-            }
-            case 2 -> {
-                for (int x = 0; x < 4; x++)
-                    for (int z = 0; z < 4; z++)
-                        npcController.placeBlock(ox + x, oy + 4, oz + z, mat);
-                activeBuildTemplate = null;
-                logger.info("[AI] Hut 4x4 build complete");
-            }
-        }
-    }
-
     private Material selectBuildMaterial() {
         NPCInventory inv = npcController.getInventory();
         if (inv.hasItem(Material.OAK_PLANKS)) return Material.OAK_PLANKS;
@@ -1585,6 +1601,8 @@ public class AIActionExecutor {
         diamondSearchRadius = 30;
         lastWoodExploreAt = 0L;
         lastDiamondExploreAt = 0L;
+        prefetchedTargets.clear();
+        descentGoal = null;
         clearApproachStall();
     }
 }
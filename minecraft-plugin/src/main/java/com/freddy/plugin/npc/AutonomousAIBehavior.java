@@ -2,6 +2,10 @@ package com.freddy.plugin.npc;
 
 import com.freddy.plugin.ai.FreddyCraftRequest;
 import com.freddy.plugin.ai.FreddyCraftResult;
+import com.freddy.plugin.FreddyPlugin;
+import com.freddy.plugin.agent.AgentScheduler;
+import com.freddy.plugin.agent.TickProfiler;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -9,7 +13,9 @@ import org.bukkit.entity.Player;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -32,12 +38,34 @@ public class AutonomousAIBehavior {
     private int tickCounter = 0;
     private final int decisionInterval = 40;  // Make decisions every 2 seconds at 20 TPS
     private int manualOverrideTicks = 0;
+    private com.freddy.plugin.ai.FreddyCraftingService craftingService;
+
+    /**
+     * One step handler per {@link StepKind}
+     */
+    @FunctionalInterface
+    private interface StepHandler {
+        void run(Goal goal, GoalStep step, StepSpec spec, NPCInventory inventory, int attempts);
+    }
+
+    private final Map<StepKind, StepHandler> stepHandlers = new EnumMap<>(StepKind.class);
+
+    // Async autopilot planning (main thread only)
+    private Goal autopilotPlanGoal;
+    private GoalStep autopilotTaskStep;
+    private CompletableFuture<String> autopilotProposal;
+
+    // Lookahead for the step after the current one
+    private static final long LOOKAHEAD_REFRESH_MS = 10000L;
+    private String lookaheadStepId;
+    private long lookaheadAt = 0L;
 
     public AutonomousAIBehavior(NPCController controller, AIActionExecutor executor, GoalManager goals, Player npc) {
         this.npcController = controller;
         this.executor = executor;
         this.goalManager = goals;
         this.npcEntity = npc;
+        registerStepHandlers();
     }
 
     /**
@@ -47,6 +75,13 @@ public class AutonomousAIBehavior {
         this.npcEntity = npc;
     }
 
+    /**
+     * Stagger the decision cycle relative to other agents
+     */
+    public void setTickOffset(int offset) {
+        tickCounter = Math.floorMod(offset, decisionInterval);
+    }
+
     /**
      * Main tick - called every game tick (20 TPS)
      */
@@ -54,7 +89,9 @@ public class AutonomousAIBehavior {
         tickCounter++;
 
         // Execute queued actions every tick
+        long profiled = TickProfiler.begin();
         npcController.tick();
+        TickProfiler.end(TickProfiler.Section.CONTROLLER, profiled);
 
         // During manual mode, keep executing queued actions but skip autonomous decisions.
         if (manualOverrideTicks > 0) {
@@ -62,6 +99,11 @@ public class AutonomousAIBehavior {
             return;
         }
 
+        // Keep placing the current build step's blocks between decisions
+        profiled = TickProfiler.begin();
+        executor.tickBuild();
+        TickProfiler.end(TickProfiler.Section.BUILD, profiled);
+
         // Make AI decisions every 2 seconds
         if (tickCounter >= decisionInterval) {
             tickCounter = 0;
@@ -160,6 +202,9 @@ public class AutonomousAIBehavior {
             }
         }
 
+        // Resolve targets for the next step while this one runs
+        prefetchNextStep(currentGoal);
+
         // Execute current step
         executeStep(currentGoal, currentStep, inventory);
 
@@ -168,14 +213,40 @@ public class AutonomousAIBehavior {
             logger.info("[AI] Eating food...");
             npcController.eatFood();
         }
+    }
+
+    /**
+     * Hand the next step's resource search and build plan to the think pool, so the
+     * transition does not start with a rescan. Repeated while the current step runs
+     * because prefetched targets are only trusted near where they were resolved.
+     */
+    private void prefetchNextStep(Goal goal) {
+        int next = goal.getCurrentStepIndex() + 1;
+        List<GoalStep> steps = goal.getSteps();
+        if (next >= steps.size()) {
+            return;
+        }
+        GoalStep step = steps.get(next);
+        long now = System.currentTimeMillis();
+        if (step.getId().equals(lookaheadStepId) && now - lookaheadAt < LOOKAHEAD_REFRESH_MS) {
+            return;
+        }
+        lookaheadStepId = step.getId();
+        lookaheadAt = now;
 
-        // Auto-pickup nearby items
-        npcController.pickupNearbyItems();
+        StepSpec spec = step.getSpec(goal.getType());
+        if (spec.resource() != null) {
+            executor.prefetchResource(spec.resource());
+        }
+        if (spec.kind() == StepKind.BUILD_PLACE) {
+            executor.prefetchBuildPlan(resolveBuildTemplate(goal), step.getLabel());
+        } else if (spec.kind() == StepKind.RUN_BUILD) {
+            executor.prefetchBuildPlan("HOUSE_6X6", step.getLabel());
+        }
     }
 
     private void executeStep(Goal goal, GoalStep step, NPCInventory inventory) {
-        String goalType = goal.getType().name();
-        String stepLabel = step.getLabel().toLowerCase(Locale.ROOT);
+        StepSpec spec = step.getSpec(goal.getType());
         int attempts = incrementStepAttempts(step);
 
         if (!goalManager.canExecuteStep(goal, step)) {
@@ -183,447 +254,490 @@ public class AutonomousAIBehavior {
             return;
         }
 
-        int budget = computeStepAttemptBudget(goal, step, stepLabel);
+        int budget = computeStepAttemptBudget(goal, step, spec);
         if (attempts >= budget) {
-            if (!attemptRecovery(goal, step, stepLabel, inventory, attempts, budget)) {
+            if (!attemptRecovery(goal, step, spec, inventory, attempts, budget)) {
                 failStep(goal, step, "step attempt budget exceeded");
             }
             return;
         }
 
-        switch (goalType) {
-            case "GATHER_WOOD" -> {
-                int target = Math.max(1, resolveGoalQuantity(goal, stepLabel, 24));
-                if (containsAny(stepLabel, "search", "find", "locate", "navigate", "forest", "tree")) {
-                    if (executor.hasNearbyResource("WOOD", 40) || executor.moveToNearestResource("WOOD", 80)) {
-                        completeStep(goal, step, "wood source located");
-                    } else {
-                        executor.explore(45);
-                    }
-                } else if (containsAny(stepLabel, "walk", "approach", "go to", "near")) {
-                    if (executor.moveToNearestResource("WOOD", 80)) {
-                        completeStep(goal, step, "arrived near wood");
-                    } else {
-                        executor.explore(40);
-                    }
-                } else if (getTotalWood(inventory) >= target) {
+        dispatchStep(goal, step, spec, spec.kind(), inventory, attempts);
+    }
+
+    private void dispatchStep(Goal goal, GoalStep step, StepSpec spec, StepKind kind, NPCInventory inventory, int attempts) {
+        stepHandlers.get(kind).run(goal, step, spec, inventory, attempts);
+    }
+
+    // =========================
+    // STEP HANDLERS
+    // =========================
+
+    private void registerStepHandlers() {
+        // GATHER_WOOD
+        stepHandlers.put(StepKind.WOOD_LOCATE, (goal, step, spec, inventory, attempts) -> {
+            if (executor.hasNearbyResource("WOOD", 40) || executor.moveToNearestResource("WOOD", 80)) {
+                completeStep(goal, step, "wood source located");
+            } else {
+                executor.explore(45);
+            }
+        });
+        stepHandlers.put(StepKind.WOOD_APPROACH, (goal, step, spec, inventory, attempts) -> {
+            if (executor.moveToNearestResource("WOOD", 80)) {
+                completeStep(goal, step, "arrived near wood");
+            } else {
+                executor.explore(40);
+            }
+        });
+        stepHandlers.put(StepKind.WOOD_COLLECT, (goal, step, spec, inventory, attempts) -> {
+            int target = Math.max(1, resolveGoalQuantity(goal, spec, 24));
+            if (getTotalWood(inventory) >= target) {
+                completeStep(goal, step, "collected enough wood");
+            } else {
+                executor.gatherResource("WOOD");
+                // Check completion after each gather attempt
+                if (getTotalWood(inventory) >= target) {
                     completeStep(goal, step, "collected enough wood");
-                } else {
-                    executor.gatherResource("WOOD");
-                    // Check completion after each gather attempt
-                    if (getTotalWood(inventory) >= target) {
-                        completeStep(goal, step, "collected enough wood");
-                    }
                 }
             }
-            case "GATHER_STONE" -> {
-                int target = Math.max(1, resolveGoalQuantity(goal, stepLabel, 24));
-                if (containsAny(stepLabel, "find", "locate", "outcrop", "cave", "entrance")) {
-                    if (executor.hasNearbyResource("STONE", 36) || executor.moveToNearestResource("STONE", 64)) {
-                        completeStep(goal, step, "stone source located");
-                    } else {
-                        executor.explore(40);
-                    }
-                } else if (containsAny(stepLabel, "walk", "approach", "near")) {
-                    if (executor.moveToNearestResource("STONE", 64)) {
-                        completeStep(goal, step, "arrived near stone");
-                    } else {
-                        executor.explore(35);
-                    }
-                } else if (getTotalStone(inventory) >= target) {
+        });
+
+        // GATHER_STONE
+        stepHandlers.put(StepKind.STONE_LOCATE, (goal, step, spec, inventory, attempts) -> {
+            if (executor.hasNearbyResource("STONE", 36) || executor.moveToNearestResource("STONE", 64)) {
+                completeStep(goal, step, "stone source located");
+            } else {
+                executor.explore(40);
+            }
+        });
+        stepHandlers.put(StepKind.STONE_APPROACH, (goal, step, spec, inventory, attempts) -> {
+            if (executor.moveToNearestResource("STONE", 64)) {
+                completeStep(goal, step, "arrived near stone");
+            } else {
+                executor.explore(35);
+            }
+        });
+        stepHandlers.put(StepKind.STONE_COLLECT, (goal, step, spec, inventory, attempts) -> {
+            int target = Math.max(1, resolveGoalQuantity(goal, spec, 24));
+            if (getTotalStone(inventory) >= target) {
+                completeStep(goal, step, "collected enough stone");
+            } else {
+                executor.gatherResource("STONE");
+                // Check completion after each gather attempt
+                if (getTotalStone(inventory) >= target) {
                     completeStep(goal, step, "collected enough stone");
-                } else {
-                    executor.gatherResource("STONE");
-                    // Check completion after each gather attempt
-                    if (getTotalStone(inventory) >= target) {
-                        completeStep(goal, step, "collected enough stone");
-                    }
                 }
             }
-            case "MINE_DIAMONDS" -> {
-                int target = Math.max(1, parseRequestedAmount(stepLabel, 3));
-                if (containsAny(stepLabel, "navigate back", "nearest player", "come back", "return to player")) {
-                    // Final step: walk back to the nearest player
-                    Player returnTarget = resolveTargetPlayer("player");
-                    if (returnTarget != null) {
-                        double distance = npcEntity.getLocation().distance(returnTarget.getLocation());
-                        if (distance <= 3.0) {
-                            completeStep(goal, step, "arrived back at player");
-                        } else {
-                            npcController.walkTo(returnTarget.getX(), returnTarget.getY(), returnTarget.getZ());
-                        }
-                    } else {
-                        // No player found, complete anyway
-                        completeStep(goal, step, "no player found to return to");
-                    }
-                } else if (containsAny(stepLabel, "return", "surface", "ascend", "climb", "exit")) {
-                    if (isNearSurface()) {
-                        completeStep(goal, step, "returned to surface");
-                    } else {
-                        executor.returnToSurface();
-                    }
-                } else if (containsAny(stepLabel, "locate", "find", "search")) {
-                    // Locate phase must run first; use locate/move commands before mining steps.
-                    if (executor.hasNearbyResource("DIAMONDS", 24)) {
-                        completeStep(goal, step, "diamond ore located");
-                    } else if (executor.moveToNearestResource("DIAMONDS", 48)) {
-                        // Keep step in progress until ore is actually located nearby.
-                    } else {
-                        executor.gatherResource("DIAMONDS");
-                    }
-                } else if (stepLabel.contains("descend") || stepLabel.contains("diamond level")) {
-                    if (npcEntity.getLocation().getY() <= 16) {
-                        completeStep(goal, step, "reached diamond level");
-                    } else {
-                        executor.descendTowardsDiamondLevel();
-                    }
-                } else if (stepLabel.contains("mine") || stepLabel.contains("diamond")) {
-                    if (getTotalDiamondLoot(inventory) >= target) {
-                        completeStep(goal, step, "diamond mining complete");
-                    } else {
-                        executor.gatherResource("DIAMONDS");
-                        // Check completion after each mining attempt
-                        if (getTotalDiamondLoot(inventory) >= target) {
-                            completeStep(goal, step, "diamond mining complete");
-                        }
-                    }
+        });
+
+        // MINE_DIAMONDS
+        stepHandlers.put(StepKind.DIAMOND_RETURN_TO_PLAYER, (goal, step, spec, inventory, attempts) -> {
+            // Final step: walk back to the nearest player
+            Player returnTarget = resolveTargetPlayer("player");
+            if (returnTarget != null) {
+                double distance = npcEntity.getLocation().distance(returnTarget.getLocation());
+                if (distance <= 3.0) {
+                    completeStep(goal, step, "arrived back at player");
                 } else {
-                    executor.gatherResource("DIAMONDS");
+                    npcController.walkTo(returnTarget.getX(), returnTarget.getY(), returnTarget.getZ());
                 }
+            } else {
+                // No player found, complete anyway
+                completeStep(goal, step, "no player found to return to");
             }
-            case "HUNT_ANIMALS" -> {
-                int target = Math.max(4, parseRequestedAmount(stepLabel, 12));
-                if (containsAny(stepLabel, "locate", "find", "animal", "nearby")) {
-                    if (hasNearbyHuntTarget(28)) {
-                        completeStep(goal, step, "hunt targets located");
-                    } else {
-                        executor.explore(35);
-                    }
-                } else if (getTotalFood(inventory) >= target) {
-                    completeStep(goal, step, "collected enough food");
-                } else {
-                    executor.huntAnimals(30);
-                }
+        });
+        stepHandlers.put(StepKind.DIAMOND_SURFACE, (goal, step, spec, inventory, attempts) -> {
+            if (isNearSurface()) {
+                completeStep(goal, step, "returned to surface");
+            } else {
+                executor.returnToSurface();
             }
-            case "FARM_CROPS" -> {
-                int target = Math.max(4, parseRequestedAmount(stepLabel, 16));
-                if (containsAny(stepLabel, "find", "locate", "farm", "crop area", "field")) {
-                    if (hasNearbyCrops(24)) {
-                        completeStep(goal, step, "crop area located");
-                    } else {
-                        executor.explore(35);
-                        if (attempts >= 12) {
-                            completeStep(goal, step, "completed crop scouting pass");
-                        }
-                    }
-                } else if (getTotalCrops(inventory) >= target) {
-                    completeStep(goal, step, "collected enough crops");
-                } else {
-                    executor.farmCrops(30);
-                }
+        });
+        stepHandlers.put(StepKind.DIAMOND_LOCATE, (goal, step, spec, inventory, attempts) -> {
+            // Locate phase must run first; use locate/move commands before mining steps.
+            if (executor.hasNearbyResource("DIAMONDS", 24)) {
+                completeStep(goal, step, "diamond ore located");
+            } else if (executor.moveToNearestResource("DIAMONDS", 48)) {
+                // Keep step in progress until ore is actually located nearby.
+            } else {
+                executor.gatherResource("DIAMONDS");
             }
-            case "EXPLORE_AREA" -> {
-                executor.explore(50);
-                if (containsAny(stepLabel, "locate", "notable", "resource", "terrain")) {
-                    if (executor.hasNearbyResource("WOOD", 24)
-                        || executor.hasNearbyResource("STONE", 24)
-                        || executor.hasNearbyResource("DIAMONDS", 18)
-                        || attempts >= 10) {
-                        completeStep(goal, step, "exploration sweep identified notable resources");
-                    }
-                } else if (containsAny(stepLabel, "continue", "sweep", "navigation", "path")) {
-                    if (attempts >= 10) {
-                        completeStep(goal, step, "exploration sweep completed");
-                    }
-                } else {
-                    int requiredSeconds = Math.max(20, parseRequestedAmount(stepLabel, 60));
-                    if (goal.getElapsedTime() >= requiredSeconds * 1000L
-                        || attempts >= Math.max(15, requiredSeconds / 2)) {
-                        completeStep(goal, step, "exploration time target reached");
-                    }
+        });
+        stepHandlers.put(StepKind.DIAMOND_DESCEND, (goal, step, spec, inventory, attempts) -> {
+            if (npcEntity.getLocation().getY() <= 16) {
+                completeStep(goal, step, "reached diamond level");
+            } else {
+                executor.descendTowardsDiamondLevel();
+            }
+        });
+        stepHandlers.put(StepKind.DIAMOND_MINE, (goal, step, spec, inventory, attempts) -> {
+            int target = Math.max(1, spec.amount(3));
+            if (getTotalDiamondLoot(inventory) >= target) {
+                completeStep(goal, step, "diamond mining complete");
+            } else {
+                executor.gatherResource("DIAMONDS");
+                // Check completion after each mining attempt
+                if (getTotalDiamondLoot(inventory) >= target) {
+                    completeStep(goal, step, "diamond mining complete");
                 }
             }
-            case "BUILD_STRUCTURE" -> {
-                if (stepLabel.contains("gather") || stepLabel.contains("collect")) {
-                    // Plan steps may request either wood/logs or stone/cobblestone.
-                    int target = Math.max(8, parseRequestedAmount(stepLabel, 32));
+        });
+        stepHandlers.put(StepKind.DIAMOND_GATHER, (goal, step, spec, inventory, attempts) -> executor.gatherResource("DIAMONDS"));
 
-                    if (containsAny(stepLabel, "stone", "cobble")) {
-                        if (getTotalStone(inventory) >= target) {
-                            completeStep(goal, step, "materials ready");
-                        } else if (attempts >= 14 && shouldBypassBuildGather(goal)) {
-                            completeStep(goal, step, "gather timed out; continuing with build plan");
-                        } else {
-                            executor.gatherResource("STONE");
-                        }
-                    } else {
-                        if (getTotalWood(inventory) >= target) {
-                            completeStep(goal, step, "materials ready");
-                        } else if (attempts >= 14 && shouldBypassBuildGather(goal)) {
-                            completeStep(goal, step, "gather timed out; continuing with build plan");
-                        } else {
-                            executor.gatherResource("WOOD");
-                        }
-                    }
-                } else if (stepLabel.contains("craft") || stepLabel.contains("plank")) {
-                    // Craft enough planks so build placement doesn't stall.
-                    String template = resolveBuildTemplate(goal);
-                    int desiredPlanks = 48;
-                    if (template != null) {
-                        String t = template.trim().toUpperCase(Locale.ROOT);
-                        if (t.contains("HOUSE_6X6")) desiredPlanks = 96;
-                        else if (t.contains("HUT_4X4")) desiredPlanks = 64;
-                        else if (t.contains("BRIDGE_8")) desiredPlanks = 48;
-                    }
+        // HUNT_ANIMALS
+        stepHandlers.put(StepKind.HUNT_LOCATE, (goal, step, spec, inventory, attempts) -> {
+            if (hasNearbyHuntTarget(28)) {
+                completeStep(goal, step, "hunt targets located");
+            } else {
+                executor.explore(35);
+            }
+        });
+        stepHandlers.put(StepKind.HUNT_COLLECT, (goal, step, spec, inventory, attempts) -> {
+            if (getTotalFood(inventory) >= Math.max(4, spec.amount(12))) {
+                completeStep(goal, step, "collected enough food");
+            } else {
+                executor.huntAnimals(30);
+            }
+        });
 
-                    if (inventory.getCount(Material.OAK_PLANKS) >= desiredPlanks) {
-                        completeStep(goal, step, "crafted build materials");
-                    } else if (inventory.getCount(Material.OAK_LOG) > 0
-                        || inventory.getCount(Material.BIRCH_LOG) > 0
-                        || inventory.getCount(Material.SPRUCE_LOG) > 0
-                        || inventory.getCount(Material.JUNGLE_LOG) > 0
-                        || inventory.getCount(Material.ACACIA_LOG) > 0
-                        || inventory.getCount(Material.DARK_OAK_LOG) > 0) {
-                        int missing = Math.max(1, desiredPlanks - inventory.getCount(Material.OAK_PLANKS));
-                        if (tryCraftItem("OAK_PLANKS", missing) || inventory.getCount(Material.OAK_PLANKS) >= desiredPlanks) {
-                            completeStep(goal, step, "crafted build materials");
-                        } else {
-                            executor.gatherResource("WOOD");
-                        }
-                    } else if (tryCraftFromStep(stepLabel)) {
-                        completeStep(goal, step, "crafted build materials");
-                    } else {
-                        executor.gatherResource("WOOD");
-                    }
-                } else if ((stepLabel.contains("build") || stepLabel.contains("pillar") || stepLabel.contains("place")
-                           || stepLabel.contains("wall") || stepLabel.contains("roof") || stepLabel.contains("floor"))
-                           && !stepLabel.contains("find")) {
-                    // Guard: exclude "find" steps (e.g. "Find a flat and safe build area")
-                    // which are about location scouting, not block placement.
-                    String template = resolveBuildTemplate(goal);
-                    boolean done = executor.buildTemplateStep(template, step.getLabel());
-                    if (done) {
-                        completeStep(goal, step, "structure step executed");
-                    }
-                } else if (stepLabel.contains("find") || stepLabel.contains("mark")) {
-                    executor.explore(20);
-                    completeStep(goal, step, "selected build area");
-                } else if (stepLabel.contains("door") || stepLabel.contains("opening")) {
-                    // Door openings are already handled by the wall template (blocks are skipped).
-                    completeStep(goal, step, "door opening handled by wall template");
-                } else if (stepLabel.contains("inspect") || stepLabel.contains("patch") || stepLabel.contains("gap")) {
-                    completeStep(goal, step, "structure inspection complete");
-                } else {
-                    executeGenericStep(goal, step, stepLabel, inventory);
+        // FARM_CROPS
+        stepHandlers.put(StepKind.FARM_LOCATE, (goal, step, spec, inventory, attempts) -> {
+            if (hasNearbyCrops(24)) {
+                completeStep(goal, step, "crop area located");
+            } else {
+                executor.explore(35);
+                if (attempts >= 12) {
+                    completeStep(goal, step, "completed crop scouting pass");
                 }
             }
-            case "FOLLOW_PLAYER" -> {
-                Player target = resolveTargetPlayer(stepLabel);
-                if (target == null) {
-                    executor.explore(Math.min(followSearchRadius, 100));
-                    followSearchRadius = Math.min(followSearchRadius + 10, 100);
-                } else if (stepLabel.contains("find") || stepLabel.contains("locate")) {
-                    completeStep(goal, step, "player located: " + target.getName());
+        });
+        stepHandlers.put(StepKind.FARM_COLLECT, (goal, step, spec, inventory, attempts) -> {
+            if (getTotalCrops(inventory) >= Math.max(4, spec.amount(16))) {
+                completeStep(goal, step, "collected enough crops");
+            } else {
+                executor.farmCrops(30);
+            }
+        });
+
+        // EXPLORE_AREA
+        stepHandlers.put(StepKind.EXPLORE_LOCATE, (goal, step, spec, inventory, attempts) -> {
+            executor.explore(50);
+            if (executor.hasNearbyResource("WOOD", 24)
+                || executor.hasNearbyResource("STONE", 24)
+                || executor.hasNearbyResource("DIAMONDS", 18)
+                || attempts >= 10) {
+                completeStep(goal, step, "exploration sweep identified notable resources");
+            }
+        });
+        stepHandlers.put(StepKind.EXPLORE_SWEEP, (goal, step, spec, inventory, attempts) -> {
+            executor.explore(50);
+            if (attempts >= 10) {
+                completeStep(goal, step, "exploration sweep completed");
+            }
+        });
+        stepHandlers.put(StepKind.EXPLORE_TIMED, (goal, step, spec, inventory, attempts) -> {
+            executor.explore(50);
+            int requiredSeconds = Math.max(20, spec.amount(60));
+            if (goal.getElapsedTime() >= requiredSeconds * 1000L
+                || attempts >= Math.max(15, requiredSeconds / 2)) {
+                completeStep(goal, step, "exploration time target reached");
+            }
+        });
+
+        // BUILD_STRUCTURE
+        stepHandlers.put(StepKind.BUILD_GATHER, (goal, step, spec, inventory, attempts) -> {
+            // Plan steps may request either wood/logs or stone/cobblestone.
+            int target = Math.max(8, spec.amount(32));
+            boolean stone = "STONE".equals(spec.resource());
+            int have = stone ? getTotalStone(inventory) : getTotalWood(inventory);
+            if (have >= target) {
+                completeStep(goal, step, "materials ready");
+            } else if (attempts >= 14 && shouldBypassBuildGather(goal)) {
+                completeStep(goal, step, "gather timed out; continuing with build plan");
+            } else {
+                executor.gatherResource(spec.resource());
+            }
+        });
+        stepHandlers.put(StepKind.BUILD_CRAFT, (goal, step, spec, inventory, attempts) -> {
+            // Craft enough planks so build placement doesn't stall.
+            String template = resolveBuildTemplate(goal);
+            int desiredPlanks = 48;
+            if (template != null) {
+                String t = template.trim().toUpperCase(Locale.ROOT);
+                if (t.contains("HOUSE_6X6")) desiredPlanks = 96;
+                else if (t.contains("HUT_4X4")) desiredPlanks = 64;
+                else if (t.contains("BRIDGE_8")) desiredPlanks = 48;
+            }
+
+            if (inventory.getCount(Material.OAK_PLANKS) >= desiredPlanks) {
+                completeStep(goal, step, "crafted build materials");
+            } else if (inventory.getCount(Material.OAK_LOG) > 0
+                || inventory.getCount(Material.BIRCH_LOG) > 0
+                || inventory.getCount(Material.SPRUCE_LOG) > 0
+                || inventory.getCount(Material.JUNGLE_LOG) > 0
+                || inventory.getCount(Material.ACACIA_LOG) > 0
+                || inventory.getCount(Material.DARK_OAK_LOG) > 0) {
+                int missing = Math.max(1, desiredPlanks - inventory.getCount(Material.OAK_PLANKS));
+                if (tryCraftItem("OAK_PLANKS", missing) || inventory.getCount(Material.OAK_PLANKS) >= desiredPlanks) {
+                    completeStep(goal, step, "crafted build materials");
                 } else {
-                    double distance = npcEntity.getLocation().distance(target.getLocation());
-                    npcController.walkTo(target.getX(), target.getY(), target.getZ());
-                    // Treat continuous follow as fulfilled once Freddy can maintain proximity.
-                    if (distance <= 4.0) {
-                        completeStep(goal, step, "maintaining follow distance to " + target.getName());
-                    }
+                    executor.gatherResource("WOOD");
                 }
+            } else if (tryCraftFromStep(spec)) {
+                completeStep(goal, step, "crafted build materials");
+            } else {
+                executor.gatherResource("WOOD");
+            }
+        });
+        stepHandlers.put(StepKind.BUILD_PLACE, (goal, step, spec, inventory, attempts) -> {
+            boolean done = executor.buildTemplateStep(resolveBuildTemplate(goal), step.getLabel());
+            if (done) {
+                completeStep(goal, step, "structure step executed");
+            }
+        });
+        stepHandlers.put(StepKind.BUILD_SITE, (goal, step, spec, inventory, attempts) -> {
+            executor.explore(20);
+            completeStep(goal, step, "selected build area");
+        });
+        // Door openings are already handled by the wall template (blocks are skipped).
+        stepHandlers.put(StepKind.BUILD_DOOR, (goal, step, spec, inventory, attempts) ->
+            completeStep(goal, step, "door opening handled by wall template"));
+        stepHandlers.put(StepKind.BUILD_INSPECT, (goal, step, spec, inventory, attempts) ->
+            completeStep(goal, step, "structure inspection complete"));
+
+        // FOLLOW_PLAYER
+        stepHandlers.put(StepKind.FOLLOW_LOCATE, (goal, step, spec, inventory, attempts) -> {
+            Player target = resolveTargetPlayer(spec.label());
+            if (target == null) {
+                searchForFollowTarget();
+            } else {
+                completeStep(goal, step, "player located: " + target.getName());
+            }
+        });
+        stepHandlers.put(StepKind.FOLLOW, (goal, step, spec, inventory, attempts) -> {
+            Player target = resolveTargetPlayer(spec.label());
+            if (target == null) {
+                searchForFollowTarget();
+                return;
+            }
+            double distance = npcEntity.getLocation().distance(target.getLocation());
+            npcController.walkTo(target.getX(), target.getY(), target.getZ());
+            // Treat continuous follow as fulfilled once Freddy can maintain proximity.
+            if (distance <= 4.0) {
+                completeStep(goal, step, "maintaining follow distance to " + target.getName());
+            }
+        });
+
+        // RETURN_HOME
+        stepHandlers.put(StepKind.HOME_STOP, (goal, step, spec, inventory, attempts) -> {
+            if (npcEntity.getWorld() == null) {
+                failStep(goal, step, "home spawn not available");
+                return;
+            }
+            npcController.clearActionQueue();
+            completeStep(goal, step, "stopped current task queue");
+        });
+        stepHandlers.put(StepKind.HOME_WALK, (goal, step, spec, inventory, attempts) -> {
+            Location home = npcEntity.getWorld() == null ? null : npcEntity.getWorld().getSpawnLocation();
+            if (home == null) {
+                failStep(goal, step, "home spawn not available");
+                return;
+            }
+            double distance = npcEntity.getLocation().distance(home);
+            npcController.walkTo(home.getX(), home.getY(), home.getZ());
+            if (distance <= 3.0) {
+                completeStep(goal, step, "arrived at home spawn");
+            }
+        });
+
+        // RETURN_TO_PLAYER
+        stepHandlers.put(StepKind.PLAYER_SELECT, (goal, step, spec, inventory, attempts) -> {
+            Player target = resolveTargetPlayer(spec.label());
+            if (target == null) {
+                executor.explore(30);
+            } else {
+                completeStep(goal, step, "selected player: " + target.getName());
             }
-            case "RETURN_HOME" -> {
-                Location home = npcEntity.getWorld() == null ? null : npcEntity.getWorld().getSpawnLocation();
-                if (home == null) {
-                    failStep(goal, step, "home spawn not available");
-                } else if (containsAny(stepLabel, "stop", "halt", "current task")) {
-                    npcController.clearActionQueue();
-                    completeStep(goal, step, "stopped current task queue");
+        });
+        stepHandlers.put(StepKind.PLAYER_STAY, (goal, step, spec, inventory, attempts) ->
+            approachPlayer(goal, step, spec, 2.5, "arrived near player"));
+        stepHandlers.put(StepKind.PLAYER_RETURN, (goal, step, spec, inventory, attempts) ->
+            approachPlayer(goal, step, spec, 3.0, "returned to player location"));
+
+        // PROTECT_PLAYER
+        stepHandlers.put(StepKind.PROTECT_LOCATE, (goal, step, spec, inventory, attempts) -> {
+            Player target = guardPlayer(spec);
+            if (target != null) {
+                completeStep(goal, step, "protecting " + target.getName());
+            }
+        });
+        stepHandlers.put(StepKind.PROTECT_ENGAGE, (goal, step, spec, inventory, attempts) -> {
+            Player target = guardPlayer(spec);
+            if (target != null) {
+                completeStep(goal, step, "engaged hostiles near " + target.getName());
+            }
+        });
+        stepHandlers.put(StepKind.PROTECT_GUARD, (goal, step, spec, inventory, attempts) -> guardPlayer(spec));
+
+        // CREATE_ITEM
+        stepHandlers.put(StepKind.CRAFT_CHECK, (goal, step, spec, inventory, attempts) ->
+            completeStep(goal, step, "recipe requirements checked"));
+        stepHandlers.put(StepKind.CRAFT_GATHER, (goal, step, spec, inventory, attempts) -> {
+            int target = Math.max(1, spec.amount(2));
+            if ("WOOD".equals(spec.resource())) {
+                if (getTotalWood(inventory) >= target) {
+                    completeStep(goal, step, "materials collected");
                 } else {
-                    double distance = npcEntity.getLocation().distance(home);
-                    npcController.walkTo(home.getX(), home.getY(), home.getZ());
-                    if (distance <= 3.0) {
-                        completeStep(goal, step, "arrived at home spawn");
-                    }
+                    executor.gatherResource("WOOD");
                 }
-            }
-            case "RETURN_TO_PLAYER" -> {
-                Player target = resolveTargetPlayer(stepLabel);
-                if (target == null) {
-                    executor.explore(30);
+            } else if ("STONE".equals(spec.resource())) {
+                if (getTotalStone(inventory) >= target) {
+                    completeStep(goal, step, "materials collected");
                 } else {
-                    double distance = npcEntity.getLocation().distance(target.getLocation());
-                    if (stepLabel.contains("select") || stepLabel.contains("target") || stepLabel.contains("find")) {
-                        completeStep(goal, step, "selected player: " + target.getName());
-                    } else if (stepLabel.contains("stay") || stepLabel.contains("within") || stepLabel.contains("near")) {
-                        if (distance <= 2.5) {
-                            completeStep(goal, step, "arrived near player");
-                        } else {
-                            npcController.walkTo(target.getX(), target.getY(), target.getZ());
-                        }
-                    } else {
-                        if (distance <= 3.0) {
-                            completeStep(goal, step, "returned to player location");
-                        } else {
-                            npcController.walkTo(target.getX(), target.getY(), target.getZ());
-                        }
-                    }
+                    executor.gatherResource("STONE");
                 }
+            } else {
+                // Fallback for generic "collect materials" steps.
+                gatherForMissingMaterials(List.of("WOOD", "STONE"), inventory);
+            }
+        });
+        stepHandlers.put(StepKind.CRAFT_HELPERS, (goal, step, spec, inventory, attempts) -> {
+            ensurePlanksAndSticks(inventory);
+            if (inventory.getCount(Material.OAK_PLANKS) >= 4 && inventory.getCount(Material.STICK) >= 4) {
+                completeStep(goal, step, "crafted helper items");
+            }
+        });
+        stepHandlers.put(StepKind.CRAFT_ITEM, (goal, step, spec, inventory, attempts) -> {
+            String requestedItem = resolveCraftItem(goal, spec);
+            if (requestedItem == null) {
+                failStep(goal, step, "no target item specified");
+                return;
             }
-            case "PROTECT_PLAYER" -> {
-                Player target = resolveTargetPlayer(stepLabel);
-                if (target != null) {
-                    npcController.walkTo(target.getX(), target.getY(), target.getZ());
-                    executor.attackNearestMob(20);
-                    if (stepLabel.contains("find") || stepLabel.contains("locate") || stepLabel.contains("stay")) {
-                        completeStep(goal, step, "protecting " + target.getName());
-                    } else if (containsAny(stepLabel, "attack", "hostile", "mob")) {
-                        completeStep(goal, step, "engaged hostiles near " + target.getName());
-                    }
-                } else {
-                    executor.explore(25);
+            FreddyCraftResult result = craftItemWithResult(requestedItem, resolveCraftAmount(goal, spec));
+            if (result != null && result.crafted) {
+                completeStep(goal, step, "crafted requested item");
+            } else if (result != null && !result.missingItems.isEmpty()) {
+                gatherForMissingMaterialsFromMap(result.missingItems, inventory);
+            } else {
+                failStep(goal, step, "crafting failed");
+            }
+        });
+        stepHandlers.put(StepKind.CRAFT_VERIFY, (goal, step, spec, inventory, attempts) -> {
+            String requestedItem = resolveCraftItem(goal, spec);
+            int requestedAmount = resolveCraftAmount(goal, spec);
+            Material requestedMaterial = null;
+            if (requestedItem != null) {
+                try {
+                    requestedMaterial = Material.valueOf(requestedItem);
+                } catch (IllegalArgumentException ignore) {
+                    requestedMaterial = null;
                 }
             }
-            case "CREATE_ITEM" -> {
-                String requestedItem = resolveCraftItem(goal, stepLabel);
-                int requestedAmount = resolveCraftAmount(goal, stepLabel);
-                Material requestedMaterial = null;
-                if (requestedItem != null) {
-                    try {
-                        requestedMaterial = Material.valueOf(requestedItem);
-                    } catch (IllegalArgumentException ignore) {
-                        requestedMaterial = null;
-                    }
+
+            if (requestedMaterial != null && inventory.getCount(requestedMaterial) >= requestedAmount) {
+                completeStep(goal, step, "verified crafted item in inventory");
+            } else if (requestedItem != null) {
+                // Verification should not hard-fail immediately; inventory updates can lag behind actions.
+                // Re-attempt crafting if possible, otherwise continue collecting.
+                FreddyCraftResult result = craftItemWithResult(requestedItem, requestedAmount);
+                if (result != null && !result.crafted && result.missingItems != null && !result.missingItems.isEmpty()) {
+                    gatherForMissingMaterialsFromMap(result.missingItems, inventory);
                 }
+            } else {
+                executor.explore(10);
+            }
+        });
 
-                if (containsAny(stepLabel, "check", "recipe", "requirements")) {
-                    completeStep(goal, step, "recipe requirements checked");
-                } else if (containsAny(stepLabel, "gather", "material", "collect", "mine")) {
-                    int target = Math.max(1, parseRequestedAmount(stepLabel, 2));
+        // FIGHT_MOB
+        stepHandlers.put(StepKind.FIGHT_EQUIP, (goal, step, spec, inventory, attempts) -> {
+            org.bukkit.inventory.ItemStack sword = new org.bukkit.inventory.ItemStack(Material.DIAMOND_SWORD, 1);
+            org.bukkit.inventory.ItemStack chest = new org.bukkit.inventory.ItemStack(Material.DIAMOND_CHESTPLATE, 1);
+            org.bukkit.inventory.ItemStack helmet = new org.bukkit.inventory.ItemStack(Material.DIAMOND_HELMET, 1);
+            org.bukkit.inventory.ItemStack leggings = new org.bukkit.inventory.ItemStack(Material.DIAMOND_LEGGINGS, 1);
+            org.bukkit.inventory.ItemStack boots = new org.bukkit.inventory.ItemStack(Material.DIAMOND_BOOTS, 1);
+            org.bukkit.inventory.ItemStack food = new org.bukkit.inventory.ItemStack(Material.COOKED_BEEF, 64);
 
-                    if (containsAny(stepLabel, "log", "wood")) {
-                        if (getTotalWood(inventory) >= target) {
-                            completeStep(goal, step, "materials collected");
-                        } else {
-                            executor.gatherResource("WOOD");
-                        }
-                    } else if (containsAny(stepLabel, "cobble", "stone", "deepslate")) {
-                        if (getTotalStone(inventory) >= target) {
-                            completeStep(goal, step, "materials collected");
-                        } else {
-                            executor.gatherResource("STONE");
-                        }
-                    } else {
-                        // Fallback for generic "collect materials" steps.
-                        gatherForMissingMaterials(List.of("WOOD", "STONE"), inventory);
-                    }
-                } else if (containsAny(stepLabel, "craft", "create", "using", "system")) {
-                    // Helper-crafting steps (e.g., "Craft planks and sticks") must not jump straight
-                    // to the final item craft.
-                    if (containsAny(stepLabel, "plank", "stick", "helper")) {
-                        ensurePlanksAndSticks(inventory);
-                        if (inventory.getCount(Material.OAK_PLANKS) >= 4 && inventory.getCount(Material.STICK) >= 4) {
-                            completeStep(goal, step, "crafted helper items");
-                        }
-                        return;
-                    }
+            inventory.addItem(sword);
+            inventory.addItem(chest);
+            inventory.addItem(helmet);
+            inventory.addItem(leggings);
+            inventory.addItem(boots);
+            inventory.addItem(food);
 
-                    if (requestedItem != null) {
-                        FreddyCraftResult result = craftItemWithResult(requestedItem, requestedAmount);
-                        if (result != null && result.crafted) {
-                            completeStep(goal, step, "crafted requested item");
-                        } else if (result != null && !result.missingItems.isEmpty()) {
-                            gatherForMissingMaterialsFromMap(result.missingItems, inventory);
-                        } else {
-                            failStep(goal, step, "crafting failed");
-                        }
-                    } else {
-                        failStep(goal, step, "no target item specified");
-                    }
-                } else if (containsAny(stepLabel, "verify", "confirm", "inventory")) {
-                    if (requestedMaterial != null && inventory.getCount(requestedMaterial) >= requestedAmount) {
-                        completeStep(goal, step, "verified crafted item in inventory");
-                    } else {
-                        // Verification should not hard-fail immediately; inventory updates can lag behind actions.
-                        // Re-attempt crafting if possible, otherwise continue collecting.
-                        if (requestedItem != null) {
-                            FreddyCraftResult result = craftItemWithResult(requestedItem, requestedAmount);
-                            if (result != null && !result.crafted && result.missingItems != null && !result.missingItems.isEmpty()) {
-                                gatherForMissingMaterialsFromMap(result.missingItems, inventory);
-                            }
-                        } else {
-                            executor.explore(10);
-                        }
-                    }
-                } else {
-                    executeGenericStep(goal, step, stepLabel, inventory);
-                }
+            // Also equip Freddy visually so armor/weapon are visible on body.
+            try {
+                npcEntity.getInventory().setItemInMainHand(sword.clone());
+                npcEntity.getInventory().setHelmet(helmet.clone());
+                npcEntity.getInventory().setChestplate(chest.clone());
+                npcEntity.getInventory().setLeggings(leggings.clone());
+                npcEntity.getInventory().setBoots(boots.clone());
+            } catch (Exception ignored) {
             }
-            case "FIGHT_MOB" -> executeFightMobStep(goal, step, stepLabel, inventory, attempts);
-            case "AUTOPILOT" -> executeAutopilotStep(goal, step, stepLabel, inventory);
-            case "SPEEDRUN" -> executeSpeedrunStep(goal, step, stepLabel, inventory);
-            default -> executeGenericStep(goal, step, stepLabel, inventory);
-        }
-    }
 
-    private void executeAutopilotStep(Goal goal, GoalStep step, String stepLabel, NPCInventory inventory) {
-        if (containsAny(stepLabel, "observe", "scan", "evaluate", "context")) {
+            completeStep(goal, step, "Magically equipped combat gear");
+        });
+        stepHandlers.put(StepKind.FIGHT_SPAWN, (goal, step, spec, inventory, attempts) -> {
+            Location loc = npcEntity.getLocation().clone().add(5, 0, 5);
+            String targetMobStr = resolveFightTargetMob(goal);
+            try {
+                org.bukkit.entity.EntityType type = org.bukkit.entity.EntityType.valueOf(targetMobStr.toUpperCase());
+                loc.getWorld().spawnEntity(loc, type);
+                completeStep(goal, step, type.name() + " spawned magically");
+            } catch (Exception e) {
+                loc.getWorld().spawnEntity(loc, org.bukkit.entity.EntityType.ZOMBIE);
+                completeStep(goal, step, "Zombie spawned (fallback from " + targetMobStr + ")");
+            }
+        });
+        stepHandlers.put(StepKind.FIGHT_ENGAGE, (goal, step, spec, inventory, attempts) -> {
+            executor.attackNearestMob(50);
+            if (attempts >= 15) {
+                completeStep(goal, step, "Mob fought");
+            }
+        });
+
+        // AUTOPILOT
+        stepHandlers.put(StepKind.AUTO_OBSERVE, (goal, step, spec, inventory, attempts) -> {
             executor.explore(12);
             completeStep(goal, step, "autopilot observation complete");
-            return;
-        }
-
-        if (containsAny(stepLabel, "safety", "alert", "threat")) {
+        });
+        stepHandlers.put(StepKind.AUTO_SAFETY, (goal, step, spec, inventory, attempts) -> {
             if (hasNearbyHuntTarget(24)) {
                 executor.attackNearestMob(18);
             } else {
                 executor.explore(12);
             }
             completeStep(goal, step, "autopilot safety check complete");
-            return;
-        }
-
-        if (containsAny(stepLabel, "hunger", "food", "recover")) {
+        });
+        stepHandlers.put(StepKind.AUTO_RECOVER, (goal, step, spec, inventory, attempts) -> {
             if (npcEntity.getFoodLevel() < 10) {
                 npcController.eatFood();
             }
             completeStep(goal, step, "autopilot recovery complete");
-            return;
-        }
-
-        if (containsAny(stepLabel, "mining", "mine", "current mining")) {
+        });
+        stepHandlers.put(StepKind.AUTO_MINE, (goal, step, spec, inventory, attempts) -> {
             executor.gatherResource("STONE");
             completeStep(goal, step, "autopilot mining task complete");
-            return;
-        }
-
-        if (containsAny(stepLabel, "queued action", "execute queued", "action stack")) {
+        });
+        stepHandlers.put(StepKind.AUTO_QUEUE, (goal, step, spec, inventory, attempts) -> {
             npcController.tick();
             completeStep(goal, step, "queued actions processed");
-            return;
-        }
-
-        if (containsAny(stepLabel, "build")) {
+        });
+        stepHandlers.put(StepKind.AUTO_BUILD, (goal, step, spec, inventory, attempts) -> {
             executor.buildPillar(3);
             completeStep(goal, step, "autopilot build task complete");
-            return;
-        }
-
-        if (containsAny(stepLabel, "craft")) {
-            if (tryCraftFromStep(stepLabel)) {
+        });
+        stepHandlers.put(StepKind.AUTO_CRAFT, (goal, step, spec, inventory, attempts) -> {
+            if (tryCraftFromStep(spec)) {
                 completeStep(goal, step, "autopilot craft task complete");
-            } else {
             }
-            return;
-        }
-
-        executor.explore(20);
-        completeStep(goal, step, "autopilot free-will task complete");
-    }
+        });
+        stepHandlers.put(StepKind.AUTO_FREE, (goal, step, spec, inventory, attempts) -> {
+            executor.explore(20);
+            completeStep(goal, step, "autopilot free-will task complete");
+        });
 
-    private void executeSpeedrunStep(Goal goal, GoalStep step, String stepLabel, NPCInventory inventory) {
-        if (containsAny(stepLabel, "leave", "random")) {
+        // SPEEDRUN
+        stepHandlers.put(StepKind.RUN_LEAVE, (goal, step, spec, inventory, attempts) -> {
             if (executor.exitHouseStep()) {
                 completeStep(goal, step, "leaving for random tasks");
                 // Switch to a simpler wandering/exploration goal instead of LLM-based autopilot
@@ -631,264 +745,202 @@ public class AutonomousAIBehavior {
                 wanderGoal.setSteps(StepPlanner.planFor(Goal.GoalType.EXPLORE_AREA));
                 goalManager.setGoal(wanderGoal);
             }
-        } else if (containsAny(stepLabel, "place", "furniture")) {
+        });
+        stepHandlers.put(StepKind.RUN_FURNISH, (goal, step, spec, inventory, attempts) -> {
             // Ensure we have the furniture items before placing
             ensureFurnitureItems(inventory);
-            boolean done = executor.placeFurnitureStep("HOUSE_6X6", stepLabel);
+            boolean done = executor.placeFurnitureStep("HOUSE_6X6", spec.label());
             if (done) {
                 completeStep(goal, step, "furniture placed inside");
             }
-        } else if (containsAny(stepLabel, "wood", "log")) {
-            int target = 10;
-            if (getTotalWood(inventory) >= target) {
+        });
+        stepHandlers.put(StepKind.RUN_WOOD, (goal, step, spec, inventory, attempts) -> {
+            if (getTotalWood(inventory) >= 10) {
                 completeStep(goal, step, "collected enough wood");
             } else {
                 executor.gatherResource("WOOD");
             }
-        } else if (containsAny(stepLabel, "stone", "cobble")) {
-            int target = 10;
-            if (getTotalStone(inventory) >= target) {
+        });
+        stepHandlers.put(StepKind.RUN_STONE, (goal, step, spec, inventory, attempts) -> {
+            if (getTotalStone(inventory) >= 10) {
                 completeStep(goal, step, "collected enough stone");
             } else {
                 executor.gatherResource("STONE");
             }
-        } else if (containsAny(stepLabel, "build", "house", "hut")) {
+        });
+        stepHandlers.put(StepKind.RUN_BUILD, (goal, step, spec, inventory, attempts) -> {
             boolean done = executor.buildTemplateStep("HOUSE_6X6", step.getLabel());
             if (done) {
                 completeStep(goal, step, "house structure built");
             }
-        } else if (containsAny(stepLabel, "craft")) {
-            if (tryCraftFromStep(stepLabel)) {
-                completeStep(goal, step, "crafted " + stepLabel);
-            } else {
+        });
+        stepHandlers.put(StepKind.RUN_CRAFT, (goal, step, spec, inventory, attempts) -> {
+            if (tryCraftFromStep(spec)) {
+                completeStep(goal, step, "crafted " + spec.label());
+            } else if (spec.assistMaterial() != null) {
                 // Creative assist if materials missing after collection
-                Material mat = null;
-                if (stepLabel.contains("chest")) mat = Material.CHEST;
-                else if (stepLabel.contains("bed")) mat = Material.WHITE_BED;
-                else if (stepLabel.contains("furnace")) mat = Material.FURNACE;
-                else if (stepLabel.contains("crafting table")) mat = Material.CRAFTING_TABLE;
-                
-                if (mat != null) {
-                    inventory.addItem(new org.bukkit.inventory.ItemStack(mat, 1));
-                    completeStep(goal, step, "crafted " + stepLabel + " (assist)");
-                }
+                inventory.addItem(new org.bukkit.inventory.ItemStack(spec.assistMaterial(), 1));
+                completeStep(goal, step, "crafted " + spec.label() + " (assist)");
             }
-        } else if (containsAny(stepLabel, "store", "chest")) {
+        });
+        stepHandlers.put(StepKind.RUN_STORE, (goal, step, spec, inventory, attempts) -> {
             // Simulate storing items
             logger.info("[AI] Storing all items in chest...");
             inventory.clear(); // For presentation: clear inventory
             completeStep(goal, step, "all items stored in chest");
-        } else {
-            executeGenericStep(goal, step, stepLabel, inventory);
-        }
-    }
-
-    private void ensureFurnitureItems(NPCInventory inventory) {
-        Material[] furniture = {Material.CRAFTING_TABLE, Material.FURNACE, Material.CHEST, Material.WHITE_BED};
-        for (Material mat : furniture) {
-            if (inventory.getCount(mat) == 0) {
-                logger.info("[AI] Missing " + mat + " for placement; crafting assist triggered.");
-                inventory.addItem(new org.bukkit.inventory.ItemStack(mat, 1));
-            }
-        }
-    }
-
-    private void executeFightMobStep(Goal goal, GoalStep step, String stepLabel, NPCInventory inventory, int attempts) {
-        // Phase 1: Equip
-        if (containsAny(stepLabel, "equip", "creative", "gear", "supplies")) {
-            org.bukkit.inventory.ItemStack sword = new org.bukkit.inventory.ItemStack(Material.DIAMOND_SWORD, 1);
-            org.bukkit.inventory.ItemStack chest = new org.bukkit.inventory.ItemStack(Material.DIAMOND_CHESTPLATE, 1);
-            org.bukkit.inventory.ItemStack helmet = new org.bukkit.inventory.ItemStack(Material.DIAMOND_HELMET, 1);
-            org.bukkit.inventory.ItemStack leggings = new org.bukkit.inventory.ItemStack(Material.DIAMOND_LEGGINGS, 1);
-            org.bukkit.inventory.ItemStack boots = new org.bukkit.inventory.ItemStack(Material.DIAMOND_BOOTS, 1);
-            org.bukkit.inventory.ItemStack food = new org.bukkit.inventory.ItemStack(Material.COOKED_BEEF, 64);
-
-            inventory.addItem(sword);
-            inventory.addItem(chest);
-            inventory.addItem(helmet);
-            inventory.addItem(leggings);
-            inventory.addItem(boots);
-            inventory.addItem(food);
-
-            // Also equip Freddy visually so armor/weapon are visible on body.
-            try {
-                npcEntity.getInventory().setItemInMainHand(sword.clone());
-                npcEntity.getInventory().setHelmet(helmet.clone());
-                npcEntity.getInventory().setChestplate(chest.clone());
-                npcEntity.getInventory().setLeggings(leggings.clone());
-                npcEntity.getInventory().setBoots(boots.clone());
-            } catch (Exception ignored) {
-            }
-
-            completeStep(goal, step, "Magically equipped combat gear");
-            return;
-        }
-        
-        // Phase 2: Spawn mob
-        if (containsAny(stepLabel, "spawn", "magically", "summon")) {
-            Location loc = npcEntity.getLocation().clone().add(5, 0, 5);
-            String targetMobStr = resolveFightTargetMob(goal);
-            try {
-                org.bukkit.entity.EntityType type = org.bukkit.entity.EntityType.valueOf(targetMobStr.toUpperCase());
-                loc.getWorld().spawnEntity(loc, type);
-                completeStep(goal, step, type.name() + " spawned magically");
-            } catch (Exception e) {
-                loc.getWorld().spawnEntity(loc, org.bukkit.entity.EntityType.ZOMBIE);
-                completeStep(goal, step, "Zombie spawned (fallback from " + targetMobStr + ")");
-            }
-            return;
-        }
-
-        // Phase 3: Fight
-        if (containsAny(stepLabel, "fight", "defeat", "kill")) {
-            executor.attackNearestMob(50);
-            if (attempts >= 15) {
-               completeStep(goal, step, "Mob fought");
-            }
-            return;
-        }
-
-        // Fallback
-        executeGenericStep(goal, step, stepLabel, inventory);
-    }
+        });
 
-    private String resolveFightTargetMob(Goal goal) {
-        String targetMobStr = (String) goal.getParameter("mob");
-        if (targetMobStr != null && !targetMobStr.isBlank()) {
-            return targetMobStr.trim();
-        }
-
-        String description = goal.getDescription();
-        if (description != null && description.contains(":")) {
-            String[] parts = description.split(":");
-            // Goal format examples:
-            // "Goal: FIGHT_MOB:SKELETON" or "FIGHT_MOB:SKELETON"
-            String candidate = parts[parts.length - 1].trim();
-            if (!candidate.isBlank() && !candidate.equalsIgnoreCase("FIGHT_MOB")) {
-                return candidate;
-            }
-        }
-
-        return "ZOMBIE";
-    }
-
-    private void executeGenericStep(Goal goal, GoalStep step, String stepLabel, NPCInventory inventory) {
-        if (stepLabel.contains("protect")) {
-            Player target = resolveTargetPlayer(stepLabel);
-            if (target != null) {
-                npcController.walkTo(target.getX(), target.getY(), target.getZ());
-                executor.attackNearestMob(20);
-                completeStep(goal, step, "protection loop active");
+        // Generic keyword fallback
+        stepHandlers.put(StepKind.GENERIC_PROTECT, (goal, step, spec, inventory, attempts) -> {
+            Player target = resolveTargetPlayer(spec.label());
+            if (target == null) {
+                dispatchStep(goal, step, spec, spec.fallback(), inventory, attempts);
                 return;
             }
-        }
-
-        if (stepLabel.contains("follow")) {
-            Player target = resolveTargetPlayer(stepLabel);
+            npcController.walkTo(target.getX(), target.getY(), target.getZ());
+            executor.attackNearestMob(20);
+            completeStep(goal, step, "protection loop active");
+        });
+        stepHandlers.put(StepKind.GENERIC_FOLLOW, (goal, step, spec, inventory, attempts) -> {
+            Player target = resolveTargetPlayer(spec.label());
             if (target != null) {
                 npcController.walkTo(target.getX(), target.getY(), target.getZ());
                 completeStep(goal, step, "following target");
             } else {
                 executor.explore(25);
             }
-            return;
-        }
-
-        if (stepLabel.contains("craft") || stepLabel.contains("create") || stepLabel.contains("make")) {
-            if (tryCraftFromStep(stepLabel)) {
+        });
+        stepHandlers.put(StepKind.GENERIC_CRAFT, (goal, step, spec, inventory, attempts) -> {
+            if (tryCraftFromStep(spec)) {
                 completeStep(goal, step, "crafted item");
             } else {
                 executor.gatherResource("WOOD");
             }
-            return;
-        }
-
-        if (stepLabel.contains("diamond")) {
+        });
+        stepHandlers.put(StepKind.GENERIC_DIAMOND, (goal, step, spec, inventory, attempts) -> {
             executor.gatherResource("DIAMONDS");
-            if (inventory.getCount(Material.DIAMOND) >= Math.max(1, parseRequestedAmount(stepLabel, 1))) {
+            if (inventory.getCount(Material.DIAMOND) >= Math.max(1, spec.amount(1))) {
                 completeStep(goal, step, "diamond objective reached");
             }
-            return;
-        }
-
-        if (stepLabel.contains("stone") || stepLabel.contains("cobble")) {
+        });
+        stepHandlers.put(StepKind.GENERIC_STONE, (goal, step, spec, inventory, attempts) -> {
             executor.gatherResource("STONE");
-            if (getTotalStone(inventory) >= Math.max(1, parseRequestedAmount(stepLabel, 8))) {
+            if (getTotalStone(inventory) >= Math.max(1, spec.amount(8))) {
                 completeStep(goal, step, "stone objective reached");
             }
-            return;
-        }
-
-        if (stepLabel.contains("wood") || stepLabel.contains("log") || stepLabel.contains("tree")) {
+        });
+        stepHandlers.put(StepKind.GENERIC_WOOD, (goal, step, spec, inventory, attempts) -> {
             executor.gatherResource("WOOD");
-            if (getTotalWood(inventory) >= Math.max(1, parseRequestedAmount(stepLabel, 8))) {
+            if (getTotalWood(inventory) >= Math.max(1, spec.amount(8))) {
                 completeStep(goal, step, "wood objective reached");
             }
-            return;
-        }
-
-        if (stepLabel.contains("farm") || stepLabel.contains("harvest") || stepLabel.contains("crop")) {
+        });
+        stepHandlers.put(StepKind.GENERIC_FARM, (goal, step, spec, inventory, attempts) -> {
             executor.farmCrops(30);
-            if (getTotalCrops(inventory) >= Math.max(1, parseRequestedAmount(stepLabel, 8))) {
+            if (getTotalCrops(inventory) >= Math.max(1, spec.amount(8))) {
                 completeStep(goal, step, "crop objective reached");
             }
-            return;
-        }
-
-        if (stepLabel.contains("hunt") || stepLabel.contains("animal") || stepLabel.contains("food")) {
+        });
+        stepHandlers.put(StepKind.GENERIC_HUNT, (goal, step, spec, inventory, attempts) -> {
             executor.huntAnimals(30);
-            if (getTotalFood(inventory) >= Math.max(1, parseRequestedAmount(stepLabel, 8))) {
+            if (getTotalFood(inventory) >= Math.max(1, spec.amount(8))) {
                 completeStep(goal, step, "food objective reached");
             }
-            return;
-        }
-
-        if (stepLabel.contains("build") || stepLabel.contains("place")) {
-            if (stepLabel.contains("house")) executor.buildTemplate("HOUSE_6X6");
-            else if (stepLabel.contains("wall")) executor.buildTemplate("WALL_10");
-            else if (stepLabel.contains("farm") || stepLabel.contains("plot")) executor.buildTemplate("FARM_PLOT_5X5");
-            else if (stepLabel.contains("tower")) executor.buildTemplate("TOWER_7");
-            else if (stepLabel.contains("hut")) executor.buildTemplate("HUT_4X4");
-            else executor.buildTemplate("PILLAR_SMALL");
+        });
+        stepHandlers.put(StepKind.GENERIC_BUILD, (goal, step, spec, inventory, attempts) -> {
+            executor.buildTemplate(spec.template());
             completeStep(goal, step, "build task executed");
-            return;
-        }
-
-        if (stepLabel.contains("mine") || stepLabel.contains("break") || stepLabel.contains("gather")) {
-            if (stepLabel.contains("iron")) executor.gatherResource("IRON_ORE");
-            else if (stepLabel.contains("coal")) executor.gatherResource("COAL_ORE");
-            else if (stepLabel.contains("gold")) executor.gatherResource("GOLD_ORE");
-            else executor.gatherResource("STONE");
+        });
+        stepHandlers.put(StepKind.GENERIC_MINE, (goal, step, spec, inventory, attempts) -> {
+            executor.gatherResource(spec.resource());
             completeStep(goal, step, "mining / gathering executed");
-            return;
-        }
-
-        if (stepLabel.contains("explore") || stepLabel.contains("locate") || stepLabel.contains("find") || stepLabel.contains("pathfind") || stepLabel.contains("navigate") || stepLabel.contains("approach")) {
-            boolean found = false;
-            if (stepLabel.contains("iron")) found = executor.moveToNearestResource("IRON_ORE", 60);
-            else if (stepLabel.contains("coal")) found = executor.moveToNearestResource("COAL_ORE", 60);
-            else if (stepLabel.contains("gold")) found = executor.moveToNearestResource("GOLD_ORE", 60);
-            else if (stepLabel.contains("diamond")) found = executor.moveToNearestResource("DIAMOND", 60);
-            else if (stepLabel.contains("stone") || stepLabel.contains("cobble")) found = executor.moveToNearestResource("STONE", 60);
-            else if (stepLabel.contains("wood") || stepLabel.contains("log") || stepLabel.contains("tree")) found = executor.moveToNearestResource("WOOD", 60);
-            else {
+        });
+        stepHandlers.put(StepKind.GENERIC_SCOUT, (goal, step, spec, inventory, attempts) -> {
+            boolean found;
+            if (spec.resource() != null) {
+                found = executor.moveToNearestResource(spec.resource(), 60);
+            } else {
                 executor.explore(35);
                 found = true;
             }
-            
             if (found || stepAttempts.getOrDefault(step.getId(), 0) > 5) {
                 completeStep(goal, step, "location scouting and pathfinding completed");
             }
+        });
+        stepHandlers.put(StepKind.GENERIC_WAIT, (goal, step, spec, inventory, attempts) -> {
+            // Delay fallback so it doesn't instantly complete
+            executor.explore(30);
+            if (stepAttempts.getOrDefault(step.getId(), 0) > 3) {
+                completeStep(goal, step, "fallback step execution completed after delay");
+            }
+        });
+    }
+
+    private void searchForFollowTarget() {
+        executor.explore(Math.min(followSearchRadius, 100));
+        followSearchRadius = Math.min(followSearchRadius + 10, 100);
+    }
+
+    private void approachPlayer(Goal goal, GoalStep step, StepSpec spec, double arriveDistance, String detail) {
+        Player target = resolveTargetPlayer(spec.label());
+        if (target == null) {
+            executor.explore(30);
             return;
         }
+        double distance = npcEntity.getLocation().distance(target.getLocation());
+        if (distance <= arriveDistance) {
+            completeStep(goal, step, detail);
+        } else {
+            npcController.walkTo(target.getX(), target.getY(), target.getZ());
+        }
+    }
+
+    /**
+     * Stay with the protected player and fight what is near them
+     *
+     * @return The player, or null if none was found (the NPC explores instead)
+     */
+    private Player guardPlayer(StepSpec spec) {
+        Player target = resolveTargetPlayer(spec.label());
+        if (target == null) {
+            executor.explore(25);
+            return null;
+        }
+        npcController.walkTo(target.getX(), target.getY(), target.getZ());
+        executor.attackNearestMob(20);
+        return target;
+    }
 
-        // Delay fallback so it doesn't instantly complete 
-        executor.explore(30);
-        if (stepAttempts.getOrDefault(step.getId(), 0) > 3) {
-            completeStep(goal, step, "fallback step execution completed after delay");
+    private void ensureFurnitureItems(NPCInventory inventory) {
+        Material[] furniture = {Material.CRAFTING_TABLE, Material.FURNACE, Material.CHEST, Material.WHITE_BED};
+        for (Material mat : furniture) {
+            if (inventory.getCount(mat) == 0) {
+                logger.info("[AI] Missing " + mat + " for placement; crafting assist triggered.");
+                inventory.addItem(new org.bukkit.inventory.ItemStack(mat, 1));
+            }
         }
     }
 
+    private String resolveFightTargetMob(Goal goal) {
+        String targetMobStr = (String) goal.getParameter("mob");
+        if (targetMobStr != null && !targetMobStr.isBlank()) {
+            return targetMobStr.trim();
+        }
+
+        String description = goal.getDescription();
+        if (description != null && description.contains(":")) {
+            String[] parts = description.split(":");
+            // Goal format examples:
+            // "Goal: FIGHT_MOB:SKELETON" or "FIGHT_MOB:SKELETON"
+            String candidate = parts[parts.length - 1].trim();
+            if (!candidate.isBlank() && !candidate.equalsIgnoreCase("FIGHT_MOB")) {
+                return candidate;
+            }
+        }
+
+        return "ZOMBIE";
+    }
+
     private void completeStep(Goal goal, GoalStep step, String detail) {
         goal.completeCurrentStep();
         goalManager.recordStepSuccess(goal, step);
@@ -918,11 +970,13 @@ public class AutonomousAIBehavior {
         goal.failCurrentStep(reason);
     }
 
-    private boolean attemptRecovery(Goal goal, GoalStep step, String stepLabel, NPCInventory inventory, int attempts, int budget) {
+    private boolean attemptRecovery(Goal goal, GoalStep step, StepSpec spec, NPCInventory inventory, int attempts, int budget) {
         if (goal == null || step == null) {
             return false;
         }
 
+        String stepLabel = spec.label();
+
         String key = step.getId();
         int recoveries = stepRecoveries.getOrDefault(key, 0) + 1;
         stepRecoveries.put(key, recoveries);
@@ -978,8 +1032,8 @@ public class AutonomousAIBehavior {
                 return true;
             }
             case CREATE_ITEM -> {
-                String item = resolveCraftItem(goal, stepLabel);
-                int amount = resolveCraftAmount(goal, stepLabel);
+                String item = resolveCraftItem(goal, spec);
+                int amount = resolveCraftAmount(goal, spec);
                 if (item != null) {
                     FreddyCraftResult result = craftItemWithResult(item, amount);
                     if (result != null && result.crafted) {
@@ -1053,12 +1107,12 @@ public class AutonomousAIBehavior {
                 return true;
             }
             case AUTOPILOT -> {
-                executeAutopilotStep(goal, step, stepLabel, inventory);
+                dispatchStep(goal, step, spec, spec.kind(), inventory, attempts);
                 stepAttempts.put(key, Math.max(0, budget / 3));
                 return true;
             }
             case FIGHT_MOB -> {
-                executeFightMobStep(goal, step, stepLabel, inventory, attempts);
+                dispatchStep(goal, step, spec, spec.kind(), inventory, attempts);
                 stepAttempts.put(key, Math.max(0, budget / 3));
                 if (recoveries >= 2) {
                     completeStep(goal, step, "fallback recovery progressed mob fight step");
@@ -1085,12 +1139,12 @@ public class AutonomousAIBehavior {
         return value;
     }
 
-    private int computeStepAttemptBudget(Goal goal, GoalStep step, String stepLabel) {
+    private int computeStepAttemptBudget(Goal goal, GoalStep step, StepSpec spec) {
         if (goal == null || step == null) {
             return 15;
         }
 
-        int requestedAmount = Math.max(1, parseRequestedAmount(stepLabel, 1));
+        int requestedAmount = Math.max(1, spec.amount(1));
         int base;
         switch (goal.getType()) {
             case FOLLOW_PLAYER, RETURN_TO_PLAYER, PROTECT_PLAYER -> base = 40;
@@ -1106,14 +1160,14 @@ public class AutonomousAIBehavior {
             default -> base = 15;
         }
 
-        if (containsAny(stepLabel, "follow continuously", "maintain", "repeat", "loop")) {
+        if (spec.isContinuous()) {
             base = Math.max(base, 50);
         }
-        if (containsAny(stepLabel, "mine", "collect", "gather", "descend", "return to surface", "build")) {
+        if (spec.isLaborious()) {
             base += 5;
         }
 
-        int marker = computeStepProgressMarker(goal, stepLabel);
+        int marker = computeStepProgressMarker(goal, spec);
         String key = step.getId();
         int lastMarker = stepProgress.getOrDefault(key, Integer.MIN_VALUE);
         if (marker > lastMarker) {
@@ -1126,44 +1180,24 @@ public class AutonomousAIBehavior {
         return Math.min(maxCap, Math.max(10, base));
     }
 
-    private int computeStepProgressMarker(Goal goal, String stepLabel) {
+    private int computeStepProgressMarker(Goal goal, StepSpec spec) {
         if (npcEntity == null) {
             return 0;
         }
         NPCInventory inventory = npcController.getInventory();
-        if (goal.getType() == Goal.GoalType.GATHER_WOOD || stepLabel.contains("wood") || stepLabel.contains("log")) {
-            return getTotalWood(inventory);
-        }
-        if (goal.getType() == Goal.GoalType.GATHER_STONE || stepLabel.contains("stone") || stepLabel.contains("cobble")) {
-            return getTotalStone(inventory);
-        }
-        if (goal.getType() == Goal.GoalType.MINE_DIAMONDS || stepLabel.contains("diamond")) {
-            return getTotalDiamondLoot(inventory) + Math.max(0, 70 - npcEntity.getLocation().getBlockY());
-        }
-        if (stepLabel.contains("crop") || stepLabel.contains("farm")) {
-            return getTotalCrops(inventory);
-        }
-        if (stepLabel.contains("food") || stepLabel.contains("hunt")) {
-            return getTotalFood(inventory);
-        }
-        return (int) Math.round(goal.getElapsedTime() / 1000.0);
-    }
-
-    private int parseRequestedAmount(String stepLabel, int defaultValue) {
-        Matcher matcher = Pattern.compile("(\\d+)").matcher(stepLabel);
-        if (!matcher.find()) {
-            return defaultValue;
-        }
-        try {
-            return Integer.parseInt(matcher.group(1));
-        } catch (NumberFormatException ignored) {
-            return defaultValue;
-        }
+        return switch (spec.progress()) {
+            case WOOD -> getTotalWood(inventory);
+            case STONE -> getTotalStone(inventory);
+            case DIAMOND -> getTotalDiamondLoot(inventory) + Math.max(0, 70 - npcEntity.getLocation().getBlockY());
+            case CROPS -> getTotalCrops(inventory);
+            case FOOD -> getTotalFood(inventory);
+            case TIME -> (int) Math.round(goal.getElapsedTime() / 1000.0);
+        };
     }
 
-    private int resolveGoalQuantity(Goal goal, String stepLabel, int defaultValue) {
+    private int resolveGoalQuantity(Goal goal, StepSpec spec, int defaultValue) {
         // Prefer explicit digits in the step label.
-        int fromStep = parseRequestedAmount(stepLabel, -1);
+        int fromStep = spec.amount(-1);
         if (fromStep > 0) {
             return fromStep;
         }
@@ -1339,37 +1373,14 @@ public class AutonomousAIBehavior {
         return null;
     }
 
-    private boolean tryCraftFromStep(String stepLabel) {
-        var service = com.freddy.plugin.FreddyPlugin.getCraftingService();
-        if (service == null && com.freddy.plugin.FreddyPlugin.getAIBrainLoop() != null
-            && com.freddy.plugin.FreddyPlugin.getAIBrainLoop().getNpcController() != null) {
-            service = new com.freddy.plugin.ai.FreddyCraftingService(
-                com.freddy.plugin.FreddyPlugin.getAIBrainLoop().getNpcController().getInventory()
-            );
-        }
+    private boolean tryCraftFromStep(StepSpec spec) {
+        var service = resolveCraftingService();
         if (service == null) {
             return false;
         }
 
-        String item = "";
-        String normalized = stepLabel.replace('-', ' ').replace('_', ' ').toUpperCase(Locale.ROOT);
-        if (normalized.contains("CRAFTING TABLE")) item = "CRAFTING_TABLE";
-        else if (normalized.contains("WOODEN SWORD")) item = "WOODEN_SWORD";
-        else if (normalized.contains("WOODEN PICKAXE")) item = "WOODEN_PICKAXE";
-        else if (normalized.contains("WOODEN AXE")) item = "WOODEN_AXE";
-        else if (normalized.contains("WOODEN SHOVEL")) item = "WOODEN_SHOVEL";
-        else if (normalized.contains("STONE SWORD")) item = "STONE_SWORD";
-        else if (normalized.contains("STONE PICKAXE")) item = "STONE_PICKAXE";
-        else if (normalized.contains("STONE AXE")) item = "STONE_AXE";
-        else if (normalized.contains("STONE SHOVEL")) item = "STONE_SHOVEL";
-        else if (normalized.contains("STICK")) item = "STICK";
-        else if (normalized.contains("PLANK")) item = "OAK_PLANKS";
-        else if (normalized.contains("FURNACE")) item = "FURNACE";
-        else if (normalized.contains("TORCH")) item = "TORCH";
-        else if (normalized.contains("CHEST")) item = "CHEST";
-        else if (normalized.contains("BREAD")) item = "BREAD";
-
-        if (item.isBlank()) {
+        String item = spec.craftItem();
+        if (item == null) {
             return false;
         }
 
@@ -1524,14 +1535,11 @@ public class AutonomousAIBehavior {
     }
 
     private com.freddy.plugin.ai.FreddyCraftingService resolveCraftingService() {
-        var service = com.freddy.plugin.FreddyPlugin.getCraftingService();
-        if (service == null && com.freddy.plugin.FreddyPlugin.getAIBrainLoop() != null
-            && com.freddy.plugin.FreddyPlugin.getAIBrainLoop().getNpcController() != null) {
-            service = new com.freddy.plugin.ai.FreddyCraftingService(
-                com.freddy.plugin.FreddyPlugin.getAIBrainLoop().getNpcController().getInventory()
-            );
-        }
-        return service;
+        // Craft against this agent's own inventory, not the primary NPC's
+        if (craftingService == null) {
+            craftingService = new com.freddy.plugin.ai.FreddyCraftingService(npcController.getInventory());
+        }
+        return craftingService;
     }
 
     private boolean tryCraftItem(String itemName, int amount) {
@@ -1564,29 +1572,12 @@ public class AutonomousAIBehavior {
         return template.equals("BRIDGE_8") || template.equals("HUT_4X4") || template.equals("TOWER_7");
     }
 
-    private String resolveCraftItem(Goal goal, String stepLabel) {
+    private String resolveCraftItem(Goal goal, StepSpec spec) {
         String fromGoal = extractCreateItemFromGoal(goal);
-        if (fromGoal != null) {
-            return fromGoal;
-        }
-
-        String normalized = stepLabel == null ? "" : stepLabel.replace('-', ' ').replace('_', ' ').toUpperCase(Locale.ROOT);
-        if (normalized.contains("WOODEN SWORD")) return "WOODEN_SWORD";
-        if (normalized.contains("WOODEN PICKAXE")) return "WOODEN_PICKAXE";
-        if (normalized.contains("WOODEN AXE")) return "WOODEN_AXE";
-        if (normalized.contains("WOODEN SHOVEL")) return "WOODEN_SHOVEL";
-        if (normalized.contains("STONE SWORD")) return "STONE_SWORD";
-        if (normalized.contains("STONE PICKAXE")) return "STONE_PICKAXE";
-        if (normalized.contains("STONE AXE")) return "STONE_AXE";
-        if (normalized.contains("STONE SHOVEL")) return "STONE_SHOVEL";
-        if (normalized.contains("FURNACE")) return "FURNACE";
-        if (normalized.contains("CRAFTING TABLE")) return "CRAFTING_TABLE";
-        if (normalized.contains("CHEST")) return "CHEST";
-        if (normalized.contains("TORCH")) return "TORCH";
-        return null;
+        return fromGoal != null ? fromGoal : spec.requestedItem();
     }
 
-    private int resolveCraftAmount(Goal goal, String stepLabel) {
+    private int resolveCraftAmount(Goal goal, StepSpec spec) {
         String description = goal == null || goal.getDescription() == null ? "" : goal.getDescription();
         String[] parts = description.split(":");
         if (parts.length >= 4 && parts[1].trim().equalsIgnoreCase("CREATE_ITEM")) {
@@ -1596,7 +1587,7 @@ public class AutonomousAIBehavior {
                 return 1;
             }
         }
-        return Math.max(1, parseRequestedAmount(stepLabel, 1));
+        return Math.max(1, spec.amount(1));
     }
 
     private String extractCreateItemFromGoal(Goal goal) {
@@ -1732,7 +1723,7 @@ public class AutonomousAIBehavior {
             case "CREATE_ITEM":
                 logger.info("[AI] Crafting requested item...");
                 String requestedItem = extractCreateItemFromGoal(currentGoal);
-                int requestedAmount = resolveCraftAmount(currentGoal, currentGoal.getDescription() == null ? "" : currentGoal.getDescription().toLowerCase(Locale.ROOT));
+                int requestedAmount = resolveCraftAmount(currentGoal, StepSpec.classify(currentGoal.getType(), currentGoal.getDescription()));
                 
                 if (requestedItem != null) {
                     Material requestedMaterial = null;
@@ -1782,9 +1773,6 @@ public class AutonomousAIBehavior {
             logger.info("[AI] Eating food...");
             npcController.eatFood();
         }
-
-        // Auto-pickup nearby items
-        npcController.pickupNearbyItems();
     }
 
     /**
@@ -1823,6 +1811,7 @@ public class AutonomousAIBehavior {
 
         int queuedActions = npcController.hasPendingMineAction() ? 1 : 0;
         boolean threatNearby = hasNearbyHuntTarget(24);
+        String npcName = npcEntity.getName();
         String context = String.format(Locale.ROOT,
             "goal=%s,queued=%d,food=%d,threat=%s,health=%.1f",
             currentGoal.getType().name(),
@@ -1832,13 +1821,71 @@ public class AutonomousAIBehavior {
             npcEntity.getHealth()
         );
 
-        currentGoal.setSteps(StepPlanner.planAutopilot(
+        int foodLevel = npcEntity.getFoodLevel();
+        boolean hasPendingMineAction = npcController.hasPendingMineAction();
+
+        // Deterministic chain now; the LLM task is swapped in when it arrives
+        List<GoalStep> steps = StepPlanner.planAutopilotFallback(
             context,
             queuedActions,
-            npcEntity.getFoodLevel(),
+            foodLevel,
             threatNearby,
-            npcController.hasPendingMineAction()
-        ));
+            hasPendingMineAction
+        );
+        currentGoal.setSteps(steps);
+
+        if (autopilotPlanGoal != currentGoal) {
+            autopilotPlanGoal = currentGoal;
+            autopilotProposal = null;
+        }
+        autopilotTaskStep = queuedActions == 0 && steps.size() > StepPlanner.AUTOPILOT_TASK_STEP
+            ? steps.get(StepPlanner.AUTOPILOT_TASK_STEP)
+            : null;
+        if (autopilotTaskStep == null || (autopilotProposal != null && !autopilotProposal.isDone())) {
+            return;
+        }
+
+        AgentScheduler scheduler = FreddyPlugin.getAgentScheduler();
+        if (scheduler == null) {
+            return;
+        }
+        CompletableFuture<String> proposal = scheduler.submitThinking(
+            FreddyPlugin.getAgentRegistry() != null ? FreddyPlugin.getAgentRegistry().get(npcName) : null,
+            () -> StepPlanner.proposeAutopilotTask(npcName, context, queuedActions, foodLevel, threatNearby, hasPendingMineAction)
+        );
+        autopilotProposal = proposal;
+        proposal.whenComplete((task, error) -> {
+            if (error != null || task == null) {
+                return;
+            }
+            try {
+                Bukkit.getScheduler().runTask(
+                    org.bukkit.plugin.java.JavaPlugin.getProvidingPlugin(FreddyPlugin.class),
+                    () -> applyAutopilotProposal(currentGoal, proposal, task)
+                );
+            } catch (Exception ignore) {
+                // Plugin disabling
+            }
+        });
+    }
+
+    /**
+     * Relabel the pending task step with the LLM's proposal, unless the goal has moved on
+     */
+    private void applyAutopilotProposal(Goal goal, CompletableFuture<String> proposal, String task) {
+        GoalStep step = autopilotTaskStep;
+        if (proposal != autopilotProposal
+            || goal != autopilotPlanGoal
+            || goalManager.getCurrentGoal() != goal
+            || step == null
+            || step.getStatus() != GoalStep.StepStatus.PENDING
+            || !goal.getSteps().contains(step)) {
+            logger.fine("[AI] Discarding stale autopilot task: " + task);
+            return;
+        }
+        step.setLabel(task);
+        StepPlanner.rememberAutopilotTask(task);
+        logger.info("[AI] Autopilot task: " + task);
     }
 
     /**
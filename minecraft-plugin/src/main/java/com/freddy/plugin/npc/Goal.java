@@ -107,6 +107,10 @@ public class Goal {
     public void setSteps(List<GoalStep> steps) {
         this.steps = steps;
         this.currentStepIndex = 0;
+        // Classify up front so execution never parses labels
+        for (GoalStep step : steps) {
+            step.getSpec(type);
+        }
     }
     
     public List<GoalStep> getSteps() {
@@ -11,6 +11,7 @@ public class GoalStep {
     private String label;
     private StepStatus status;
     private final List<String> dependsOn;
+    private StepSpec spec;
 
     public GoalStep(String label) {
         this.id = UUID.randomUUID().toString();
@@ -21,12 +22,27 @@ public class GoalStep {
 
     public String getId() { return id; }
     public String getLabel() { return label; }
-    public void setLabel(String label) { this.label = label; }
+    public void setLabel(String label) {
+        this.label = label;
+        this.spec = null;
+    }
     public StepStatus getStatus() { return status; }
     public void setStatus(StepStatus status) { this.status = status; }
     public List<String> getDependsOn() { return dependsOn; }
     public void addDependency(String stepId) { this.dependsOn.add(stepId); }
 
+    /**
+     * Classification for the goal type, computed once and reused until the label changes
+     */
+    public StepSpec getSpec(Goal.GoalType goalType) {
+        StepSpec current = spec;
+        if (current == null || current.goalType() != goalType) {
+            current = StepSpec.classify(goalType, label);
+            spec = current;
+        }
+        return current;
+    }
+
     public String toJson() {
         StringBuilder deps = new StringBuilder();
         deps.append("[");
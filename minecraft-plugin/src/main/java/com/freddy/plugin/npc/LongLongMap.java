@@ -0,0 +1,188 @@
+package com.freddy.plugin.npc;
+
+import java.util.Arrays;
+
+/**
+ * LongLongMap - open-addressing long to long map for packed block positions
+ *
+ * Linear probing with backward-shift removal, so lookups never allocate and
+ * removed slots don't leave tombstones behind. {@link #EMPTY} is reserved as
+ * the free-slot marker and can't be used as a key.
+ *
+ * Not thread safe.
+ */
+final class LongLongMap {
+
+    /** Free slot marker; packed positions never produce it inside the world border */
+    static final long EMPTY = Long.MIN_VALUE;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    LongLongMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The value for {@code key}, or {@code missing} when absent
+     */
+    long get(long key, long missing) {
+        int i = slot(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return missing;
+    }
+
+    boolean containsKey(long key) {
+        int i = slot(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    void put(long key, long value) {
+        int i = slot(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > (keys.length >> 1) + (keys.length >> 2)) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Add {@code delta} to the value for {@code key} (absent counts as 0); the entry
+     * is removed when the result is 0
+     *
+     * @return The new value
+     */
+    long add(long key, long delta) {
+        long value = get(key, 0L) + delta;
+        if (value == 0L) {
+            remove(key);
+        } else {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * @return True if the key was present
+     */
+    boolean remove(long key) {
+        int i = slot(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                shiftBack(i);
+                size--;
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    void clear() {
+        if (size == 0) {
+            return;
+        }
+        if (keys.length > MIN_CAPACITY * 4) {
+            allocate(MIN_CAPACITY);
+        } else {
+            Arrays.fill(keys, EMPTY);
+        }
+        size = 0;
+    }
+
+    /**
+     * Remove every entry whose value is at or below {@code threshold}
+     */
+    void removeValuesAtMost(long threshold) {
+        for (int i = 0; i < keys.length; ) {
+            if (keys[i] != EMPTY && values[i] <= threshold) {
+                shiftBack(i);
+                size--;
+                // Slot i now holds a shifted entry (or is empty): look at it again
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Close the gap at {@code hole} by moving later entries of the probe run back
+     */
+    private void shiftBack(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            long key = keys[i];
+            if (key == EMPTY) {
+                break;
+            }
+            int home = slot(key);
+            // Move the entry unless its home slot lies cyclically in (hole, i]
+            boolean stays = hole <= i ? (hole < home && home <= i) : (hole < home || home <= i);
+            if (!stays) {
+                keys[hole] = key;
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = slot(oldKeys[i]);
+                while (keys[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,205 @@
+package com.freddy.plugin.npc;
+
+import java.util.Arrays;
+
+/**
+ * MineCooldowns - mine targets the NPC should leave alone for a while
+ *
+ * Block positions are packed into longs and kept in a primitive map, so the
+ * per-candidate checks inside block scans don't allocate. Expiry runs on a
+ * time wheel of one-second slots that is advanced lazily by the next check,
+ * so expired entries are evicted instead of piling up.
+ *
+ * Entries are also counted per 16x16x16 section. A section with no entries
+ * answers every check without touching the block map, and a whole section can
+ * be put on cooldown (see {@link #coolDownSection}) when targets in it keep
+ * turning out unreachable; scans use {@link #isSectionCoolingDown} to skip it.
+ *
+ * Main thread only.
+ */
+public final class MineCooldowns {
+
+    private static final long SLOT_MS = 1000L;
+    /** Slots in the wheel; longer cooldowns go round again until they are due */
+    private static final int WHEEL_SLOTS = 64;
+    /** Expired section cooldowns are swept when more than this many are stored */
+    private static final int SECTION_SWEEP_THRESHOLD = 64;
+
+    private final LongLongMap untilByBlock = new LongLongMap();
+    private final LongLongMap countBySection = new LongLongMap();
+    private final LongLongMap untilBySection = new LongLongMap();
+    private final long[][] wheel = new long[WHEEL_SLOTS][];
+    private final int[] wheelSizes = new int[WHEEL_SLOTS];
+    private long wheelTick = -1L;
+
+    /**
+     * Put one block on cooldown; a later call replaces the earlier expiry
+     */
+    public void add(int x, int y, int z, long durationMs) {
+        long now = System.currentTimeMillis();
+        advance(now);
+        long key = blockKey(x, y, z);
+        long until = now + durationMs;
+        if (!untilByBlock.containsKey(key)) {
+            countBySection.add(sectionKey(x >> 4, y >> 4, z >> 4), 1L);
+        }
+        untilByBlock.put(key, until);
+        schedule(key, until);
+    }
+
+    /**
+     * Put the whole 16x16x16 section around a block on cooldown
+     */
+    public void coolDownSection(int x, int y, int z, long durationMs) {
+        long now = System.currentTimeMillis();
+        if (untilBySection.size() >= SECTION_SWEEP_THRESHOLD) {
+            untilBySection.removeValuesAtMost(now);
+        }
+        untilBySection.put(sectionKey(x >> 4, y >> 4, z >> 4), now + durationMs);
+    }
+
+    public boolean isCoolingDown(int x, int y, int z) {
+        if (untilByBlock.isEmpty() && untilBySection.isEmpty()) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        advance(now);
+        long section = sectionKey(x >> 4, y >> 4, z >> 4);
+        if (sectionUntil(section, now) > now) {
+            return true;
+        }
+        if (!countBySection.containsKey(section)) {
+            return false;
+        }
+        return untilByBlock.get(blockKey(x, y, z), 0L) > now;
+    }
+
+    /**
+     * @param sx Section coordinates (block coordinates >> 4)
+     * @return True if every block of the section is on cooldown
+     */
+    public boolean isSectionCoolingDown(int sx, int sy, int sz) {
+        if (untilBySection.isEmpty()) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        return sectionUntil(sectionKey(sx, sy, sz), now) > now;
+    }
+
+    /**
+     * Blocks of the section around a block that are on cooldown
+     */
+    public int countInSection(int x, int y, int z) {
+        advance(System.currentTimeMillis());
+        return (int) countBySection.get(sectionKey(x >> 4, y >> 4, z >> 4), 0L);
+    }
+
+    public int size() {
+        advance(System.currentTimeMillis());
+        return untilByBlock.size();
+    }
+
+    public void clear() {
+        untilByBlock.clear();
+        countBySection.clear();
+        untilBySection.clear();
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = null;
+            wheelSizes[i] = 0;
+        }
+    }
+
+    // =========================
+    // TIME WHEEL
+    // =========================
+
+    private void schedule(long key, long until) {
+        int slot = (int) Math.floorMod(until / SLOT_MS, (long) WHEEL_SLOTS);
+        long[] keys = wheel[slot];
+        if (keys == null) {
+            keys = wheel[slot] = new long[8];
+        } else if (wheelSizes[slot] == keys.length) {
+            keys = wheel[slot] = Arrays.copyOf(keys, keys.length << 1);
+        }
+        keys[wheelSizes[slot]++] = key;
+    }
+
+    /**
+     * Evict everything due in the seconds that have fully passed since the last call;
+     * at most one pass over the wheel per call
+     */
+    private void advance(long now) {
+        long tick = now / SLOT_MS;
+        if (wheelTick < 0L) {
+            wheelTick = tick;
+            return;
+        }
+        if (tick <= wheelTick) {
+            return;
+        }
+        long steps = Math.min(tick - wheelTick, WHEEL_SLOTS);
+        for (long t = tick - steps; t < tick; t++) {
+            drain((int) Math.floorMod(t, (long) WHEEL_SLOTS), now);
+        }
+        wheelTick = tick;
+    }
+
+    private void drain(int slot, long now) {
+        long[] keys = wheel[slot];
+        int count = wheelSizes[slot];
+        if (keys == null || count == 0) {
+            return;
+        }
+        wheel[slot] = null;
+        wheelSizes[slot] = 0;
+        for (int i = 0; i < count; i++) {
+            long key = keys[i];
+            long until = untilByBlock.get(key, LongLongMap.EMPTY);
+            if (until == LongLongMap.EMPTY) {
+                continue; // Already evicted through another slot
+            }
+            if (until <= now) {
+                untilByBlock.remove(key);
+                countBySection.add(sectionKey(unpackX(key) >> 4, unpackY(key) >> 4, unpackZ(key) >> 4), -1L);
+            } else if (Math.floorMod(until / SLOT_MS, (long) WHEEL_SLOTS) == slot) {
+                schedule(key, until); // Due on a later lap of the wheel
+            }
+            // Otherwise the expiry was extended and the key is scheduled in its new slot
+        }
+    }
+
+    private long sectionUntil(long section, long now) {
+        long until = untilBySection.get(section, 0L);
+        if (until != 0L && until <= now) {
+            untilBySection.remove(section);
+            return 0L;
+        }
+        return until;
+    }
+
+    // =========================
+    // KEYS
+    // =========================
+
+    // 26 bits x, 12 bits y, 26 bits z
+    static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (y & 0xFFF) << 26) | (z & 0x3FFFFFF);
+    }
+
+    private static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    private static int unpackY(long key) {
+        return (int) (key << 26 >> 52);
+    }
+
+    private static int unpackZ(long key) {
+        return (int) (key << 38 >> 38);
+    }
+
+    // 22 bits x, 20 bits y, 22 bits z (section coordinates)
+    private static long sectionKey(int sx, int sy, int sz) {
+        return ((long) (sx & 0x3FFFFF) << 42) | ((long) (sy & 0xFFFFF) << 22) | (sz & 0x3FFFFF);
+    }
+}
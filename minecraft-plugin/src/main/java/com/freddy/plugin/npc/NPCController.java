@@ -1,6 +1,11 @@
 package com.freddy.plugin.npc;
 
+import com.freddy.plugin.FreddyPlugin;
 import com.freddy.plugin.advanced.ConversionRegistry;
+import com.freddy.plugin.listener.BlockChangeListener;
+import com.freddy.plugin.navigation.PathGoal;
+import com.freddy.plugin.navigation.Pathfinder;
+import com.freddy.plugin.perception.DroppedItemIndex;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -17,12 +22,20 @@ import java.util.logging.Logger;
 /**
  * Controls NPC Freddy - executes Minecraft operations
  */
-public class NPCController {
+public final class NPCController {
     private static final Logger logger = Logger.getLogger("Freddy NPC");
     private static final double BLOCK_REACH_DISTANCE = 5.2;
     private static final long WALK_REISSUE_MS = 5000;
     private static final int MINE_STALL_DROP_TICKS = 80;
     private static final long MINE_TARGET_COOLDOWN_MS = 6000;
+    private static final long UNREACHABLE_COOLDOWN_MS = 30000;
+    /** Abandoned targets in one 16x16x16 section before the whole section cools down */
+    private static final int SECTION_ABANDON_THRESHOLD = 3;
+    private static final long NO_MINE_KEY = LongLongMap.EMPTY;
+    private static final double PICKUP_RADIUS = 5.0;
+    private static final long PICKUP_SWEEP_INTERVAL_MS = 1000;
+    /** Route goal radius for mining: inside both this controller's and AIActionExecutor's reach */
+    private static final double MINE_APPROACH_REACH = 4.2;
     
     private final String npcName;
     private Player npcEntity;
@@ -31,19 +44,21 @@ public class NPCController {
     private Location currentGoal;
     private Queue<NPCAction> actionQueue = new LinkedList<>();
     private boolean creativeMode = true; // Allow creative-like actions by default
-    private String activeMineKey = "";
+    private long activeMineKey = NO_MINE_KEY;
     private double lastMineDistance = Double.MAX_VALUE;
     private int mineStallTicks = 0;
-    private final Map<String, Integer> mineApproachRetries = new HashMap<>();
-    private final Map<String, Long> mineRetryEnqueueAt = new HashMap<>();
-    private static final long MINE_RETRY_COOLDOWN_MS = 500;
-    private final Map<String, Long> mineTargetCooldownUntil = new HashMap<>();
+    private final LongLongMap mineApproachRetries = new LongLongMap();
+    private final MineCooldowns mineCooldowns = new MineCooldowns();
     private Location lastWalkTarget;
     private long lastWalkCommandAt = 0L;
+    private Location lastPickupSweepAt;
+    private long lastPickupSweepMs = 0L;
+    private final PathFollower pathFollower;
     
     public NPCController(String npcName) {
         this.npcName = npcName;
         this.npcInventory = new NPCInventory();
+        this.pathFollower = new PathFollower(this);
     }
     
     /**
@@ -82,8 +97,6 @@ public class NPCController {
         if (distance > BLOCK_REACH_DISTANCE) {
             logger.info("[NPC] Mine target out of reach (" + String.format("%.2f", distance) + "), moving closer first");
             walkToMiningApproach(x, y, z);
-            String key = x + ":" + y + ":" + z;
-            mineRetryEnqueueAt.put(key, System.currentTimeMillis());
             return;
         }
         
@@ -104,12 +117,23 @@ public class NPCController {
             ItemStack drop = new ItemStack(resolveDropMaterial(minedType));
             world.dropItemNaturally(block.getLocation(), drop);
             block.setType(Material.AIR);
+            markBlockChanged(block);
             
             // Add to inventory
             npcInventory.addItem(drop);
         }
     }
 
+    /**
+     * setType() fires no block events, so report the change to the block caches directly
+     */
+    private void markBlockChanged(Block block) {
+        BlockChangeListener changes = FreddyPlugin.getBlockChanges();
+        if (changes != null) {
+            changes.markChanged(block);
+        }
+    }
+
     private Material resolveDropMaterial(Material minedType) {
         if (ConversionRegistry.isOre(minedType)) {
             return ConversionRegistry.dropForOre(minedType);
@@ -161,6 +185,7 @@ public class NPCController {
             }
             
             block.setType(material);
+            markBlockChanged(block);
             if (!creativeMode) {
                 npcInventory.removeItem(material);
             }
@@ -168,43 +193,75 @@ public class NPCController {
     }
     
     /**
-     * Walk to location
+     * Walk to location (cancels any route being followed)
      */
     public void walkTo(double x, double y, double z) {
         if (npcEntity == null) return;
-        
+
+        pathFollower.cancel();
+        if (moveTowards(x, y, z)) {
+            logger.info("[NPC] Walking to: " + x + ", " + y + ", " + z);
+        }
+    }
+
+    /**
+     * Issue the movement command; the route follower uses this for its waypoints
+     *
+     * @return False if the same target was issued moments ago
+     */
+    boolean moveTowards(double x, double y, double z) {
         Location target = new Location(npcEntity.getWorld(), x, y, z);
 
         long now = System.currentTimeMillis();
         if (lastWalkTarget != null) {
             double sameTargetDistance = lastWalkTarget.distance(target);
             if (sameTargetDistance < 0.35 && (now - lastWalkCommandAt) < WALK_REISSUE_MS) {
-                return;
+                return false;
             }
         }
 
         lastWalkTarget = target.clone();
         lastWalkCommandAt = now;
         this.currentGoal = target;
-        logger.info("[NPC] Walking to: " + x + ", " + y + ", " + z);
-        
+
         // Prefer Citizens Navigator if available
         try {
             if (citizensNpc != null) {
                 citizensNpc.getNavigator().setTarget(target);
-                return;
+                return true;
             }
         } catch (Throwable ignore) { }
-        
+
         // Fallback: simple velocity-based movement
         Location current = npcEntity.getLocation();
         Vector direction = target.toVector().subtract(current.toVector()).normalize();
         npcEntity.setVelocity(direction.multiply(0.5));
+        return true;
+    }
+
+    public boolean hasPathfinder() {
+        return FreddyPlugin.getPathfinder() != null;
+    }
+
+    /**
+     * Follow a pathfinder route to the goal (call every tick while approaching)
+     */
+    public PathFollower.Status navigateTo(PathGoal goal) {
+        Pathfinder pathfinder = FreddyPlugin.getPathfinder();
+        if (npcEntity == null || pathfinder == null) {
+            return PathFollower.Status.UNREACHABLE;
+        }
+        return pathFollower.navigate(npcEntity, goal, pathfinder.getDefaults());
     }
 
     public void walkToMiningApproach(int x, int y, int z) {
         if (npcEntity == null) return;
 
+        if (hasPathfinder()) {
+            navigateTo(new PathGoal(x, y, z, MINE_APPROACH_REACH));
+            return;
+        }
+
         World world = npcEntity.getWorld();
         double[][] offsets = new double[][] {
             { 1.5,  0.0},
@@ -301,18 +358,46 @@ public class NPCController {
      */
     public void pickupNearbyItems() {
         if (npcEntity == null) return;
-        
-        npcEntity.getNearbyEntities(5, 5, 5).forEach(entity -> {
-            if (entity instanceof org.bukkit.entity.Item) {
-                org.bukkit.entity.Item item = (org.bukkit.entity.Item) entity;
+
+        // Dropped items come from the event-fed index; without it, fall back to an
+        // entity query only when the NPC has moved or the sweep interval has passed.
+        DroppedItemIndex index = FreddyPlugin.getDroppedItemIndex();
+        Collection<? extends org.bukkit.entity.Entity> nearby;
+        if (index != null) {
+            nearby = index.findNear(npcEntity.getLocation(), PICKUP_RADIUS);
+        } else if (isPickupSweepDue()) {
+            nearby = npcEntity.getNearbyEntities(PICKUP_RADIUS, PICKUP_RADIUS, PICKUP_RADIUS);
+        } else {
+            return;
+        }
+
+        for (org.bukkit.entity.Entity entity : nearby) {
+            if (entity instanceof org.bukkit.entity.Item item) {
                 ItemStack stack = item.getItemStack();
-                
+
                 if (npcInventory.addItem(stack)) {
                     logger.info("[NPC] Picked up: " + stack.getType());
+                    if (index != null) {
+                        index.forget(item);
+                    }
                     item.remove();
                 }
             }
-        });
+        }
+    }
+
+    private boolean isPickupSweepDue() {
+        Location here = npcEntity.getLocation();
+        long now = System.currentTimeMillis();
+        boolean moved = lastPickupSweepAt == null
+            || lastPickupSweepAt.getWorld() != here.getWorld()
+            || lastPickupSweepAt.distanceSquared(here) >= 1.0;
+        if (!moved && now - lastPickupSweepMs < PICKUP_SWEEP_INTERVAL_MS) {
+            return false;
+        }
+        lastPickupSweepAt = here;
+        lastPickupSweepMs = now;
+        return true;
     }
     
     /**
@@ -342,7 +427,7 @@ public class NPCController {
     }
 
     public boolean hasPendingMineAction() {
-        if (!activeMineKey.isBlank()) {
+        if (activeMineKey != NO_MINE_KEY) {
             return true;
         }
         for (NPCAction a : actionQueue) {
@@ -354,26 +439,44 @@ public class NPCController {
     }
 
     public boolean isMineTargetCoolingDown(int x, int y, int z) {
-        String key = x + ":" + y + ":" + z;
-        long until = mineTargetCooldownUntil.getOrDefault(key, 0L);
-        return System.currentTimeMillis() < until;
+        return mineCooldowns.isCoolingDown(x, y, z);
+    }
+
+    /**
+     * True if every block of the 16x16x16 section is on cooldown, so scans can skip it
+     *
+     * @param sx Section coordinates (block coordinates >> 4)
+     */
+    public boolean isMineSectionCoolingDown(int sx, int sy, int sz) {
+        return mineCooldowns.isSectionCoolingDown(sx, sy, sz);
     }
 
     public void addMineCooldown(int x, int y, int z, long durationMs) {
-        String key = x + ":" + y + ":" + z;
-        mineTargetCooldownUntil.put(key, System.currentTimeMillis() + durationMs);
+        mineCooldowns.add(x, y, z, durationMs);
+    }
+
+    /**
+     * Give up on a target that couldn't be reached. Once several targets in the same
+     * section have been abandoned, the whole section cools down.
+     */
+    private void abandonMineTarget(int x, int y, int z) {
+        mineCooldowns.add(x, y, z, UNREACHABLE_COOLDOWN_MS);
+        if (mineCooldowns.countInSection(x, y, z) >= SECTION_ABANDON_THRESHOLD) {
+            logger.info("[NPC] Several targets near " + x + "," + y + "," + z + " unreachable; skipping that area for a while");
+            mineCooldowns.coolDownSection(x, y, z, UNREACHABLE_COOLDOWN_MS);
+        }
     }
 
     public void clearActionQueue() {
         actionQueue.clear();
-        activeMineKey = "";
+        activeMineKey = NO_MINE_KEY;
         lastMineDistance = Double.MAX_VALUE;
         mineStallTicks = 0;
         mineApproachRetries.clear();
-        mineRetryEnqueueAt.clear();
-        mineTargetCooldownUntil.clear();
+        mineCooldowns.clear();
         lastWalkTarget = null;
         lastWalkCommandAt = 0L;
+        pathFollower.cancel();
     }
     
     /**
@@ -407,6 +510,9 @@ public class NPCController {
         
         // Auto-pickup nearby items
         pickupNearbyItems();
+
+        // Advance the active route, if any
+        pathFollower.tick(npcEntity);
         
         // Execute queued actions
         if (!actionQueue.isEmpty()) {
@@ -416,8 +522,8 @@ public class NPCController {
                 Block targetBlock = npcEntity.getWorld().getBlockAt(mine.x, mine.y, mine.z);
                 if (targetBlock.getType() == Material.AIR) {
                     actionQueue.poll();
-                    mineApproachRetries.remove(mine.x + ":" + mine.y + ":" + mine.z);
-                    activeMineKey = "";
+                    mineApproachRetries.remove(MineCooldowns.blockKey(mine.x, mine.y, mine.z));
+                    activeMineKey = NO_MINE_KEY;
                     lastMineDistance = Double.MAX_VALUE;
                     mineStallTicks = 0;
                     return;
@@ -427,8 +533,9 @@ public class NPCController {
                 Location targetLoc = new Location(npcEntity.getWorld(), mine.x + 0.5, mine.y + 0.5, mine.z + 0.5);
                 double distance = npcLoc.distance(targetLoc);
 
-                String key = mine.x + ":" + mine.y + ":" + mine.z;
-                if (!key.equals(activeMineKey)) {
+                long key = MineCooldowns.blockKey(mine.x, mine.y, mine.z);
+                String target = mine.x + "," + mine.y + "," + mine.z;
+                if (key != activeMineKey) {
                     activeMineKey = key;
                     lastMineDistance = distance;
                     mineStallTicks = 0;
@@ -443,41 +550,54 @@ public class NPCController {
 
                 // Wait until close enough for real player-like mining reach.
                 if (distance > BLOCK_REACH_DISTANCE) {
+                    if (hasPathfinder()) {
+                        // The route either gets us in reach or reports that none exists
+                        if (navigateTo(new PathGoal(mine.x, mine.y, mine.z, MINE_APPROACH_REACH))
+                                == PathFollower.Status.UNREACHABLE) {
+                            logger.info("[NPC] No route to mine target; abandoning target (cooldown): " + target);
+                            actionQueue.poll();
+                            abandonMineTarget(mine.x, mine.y, mine.z);
+                            mineApproachRetries.remove(key);
+                            activeMineKey = NO_MINE_KEY;
+                            lastMineDistance = Double.MAX_VALUE;
+                            mineStallTicks = 0;
+                        }
+                        return;
+                    }
                     walkToMiningApproach(mine.x, mine.y, mine.z);
 
                     if (mineStallTicks >= MINE_STALL_DROP_TICKS) {
-                        int retries = mineApproachRetries.getOrDefault(key, 0) + 1;
-                        mineApproachRetries.put(key, retries);
+                        int retries = (int) mineApproachRetries.add(key, 1L);
 
                         if (retries >= 3) {
-                            logger.info("[NPC] Mine approach stalled too long; abandoning target (cooldown): " + key);
+                            logger.info("[NPC] Mine approach stalled too long; abandoning target (cooldown): " + target);
                             actionQueue.poll();
-                            addMineCooldown(mine.x, mine.y, mine.z, 30000L);
+                            abandonMineTarget(mine.x, mine.y, mine.z);
                             mineApproachRetries.remove(key);
                             lastWalkTarget = null;
                             lastWalkCommandAt = 0L;
-                            activeMineKey = "";
+                            activeMineKey = NO_MINE_KEY;
                             lastMineDistance = Double.MAX_VALUE;
                             mineStallTicks = 0;
                             return;
                         }
 
-                        int hash = Math.abs(key.hashCode() + mineStallTicks);
+                        int hash = Math.abs(Long.hashCode(key) + mineStallTicks);
                         double dx = (hash % 2 == 0) ? 2.2 : -2.2;
                         double dz = ((hash / 2) % 2 == 0) ? 2.2 : -2.2;
                         walkTo(mine.x + 0.5 + dx, mine.y + 1.0, mine.z + 0.5 + dz);
-                        logger.info("[NPC] Mine approach stalled; retrying alternate path (" + retries + "/3): " + key);
+                        logger.info("[NPC] Mine approach stalled; retrying alternate path (" + retries + "/3): " + target);
                         // Keep the same mine action queued; just reset stall tracking and retry from a new angle.
                         lastWalkTarget = null;
                         lastWalkCommandAt = 0L;
-                        activeMineKey = "";
+                        activeMineKey = NO_MINE_KEY;
                         lastMineDistance = Double.MAX_VALUE;
                         mineStallTicks = 0;
                     }
                     return;
                 }
 
-                activeMineKey = "";
+                activeMineKey = NO_MINE_KEY;
                 lastMineDistance = Double.MAX_VALUE;
                 mineStallTicks = 0;
                 mineApproachRetries.remove(key);
@@ -490,7 +610,7 @@ public class NPCController {
      * Check if a block material is replaceable (vegetation, snow layers, etc.)
      * These blocks should be cleared automatically when placing build blocks.
      */
-    private boolean isReplaceable(Material mat) {
+    public static boolean isReplaceable(Material mat) {
         if (mat == null || mat == Material.AIR) return true;
         String name = mat.name();
         // Short grass, tall grass, ferns, dead bushes
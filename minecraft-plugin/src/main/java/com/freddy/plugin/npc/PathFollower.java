@@ -0,0 +1,304 @@
+package com.freddy.plugin.npc;
+
+import com.freddy.plugin.FreddyPlugin;
+import com.freddy.plugin.navigation.Path;
+import com.freddy.plugin.navigation.PathGoal;
+import com.freddy.plugin.navigation.PathOptions;
+import com.freddy.plugin.navigation.Pathfinder;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.util.Vector;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+
+/**
+ * PathFollower - walks an NPC along routes from the {@link Pathfinder}
+ *
+ * Each tick the follower mines whatever the next step needs cleared, places
+ * scaffold under pillar and bridge steps, and otherwise walks a few plain steps
+ * ahead. Partial routes are walked and then searched again from the new position;
+ * a route that stops making progress is searched again without the cache, and
+ * after a few tries the goal is reported unreachable.
+ *
+ * Main thread only.
+ */
+public class PathFollower {
+
+    public enum Status {
+        IDLE,
+        PLANNING,
+        FOLLOWING,
+        ARRIVED,
+        UNREACHABLE
+    }
+
+    private static final Logger logger = Logger.getLogger("Freddy NPC");
+    private static final long STALL_MS = 4000L;
+    private static final int MAX_REPLANS = 3;
+    private static final int MAX_PARTIAL_LEGS = 12;
+    private static final int WALK_LOOKAHEAD = 6;
+    private static final int ADVANCE_WINDOW = 4;
+    private static final long PLACE_RETRY_MS = 800L;
+    private static final double OFF_ROUTE_DISTANCE = 4.0;
+    private static final double MINE_REACH = 4.5;
+
+    private final NPCController controller;
+    private PathGoal goal;
+    private PathOptions options;
+    private CompletableFuture<Path> pending;
+    private Path path;
+    private int index;
+    private Status status = Status.IDLE;
+    private int replans;
+    private int partialLegs;
+    private long lastProgressAt;
+    private long lastPlaceAt;
+
+    public PathFollower(NPCController controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Head for the goal. Idempotent: call it every tick with the same goal and read
+     * the status. UNREACHABLE is reported once; the next call searches afresh.
+     */
+    public Status navigate(Player npc, PathGoal target, PathOptions routeOptions) {
+        Pathfinder pathfinder = FreddyPlugin.getPathfinder();
+        if (npc == null || pathfinder == null) {
+            return Status.UNREACHABLE;
+        }
+        if (!target.equals(goal) || !routeOptions.equals(options)) {
+            cancel();
+            goal = target;
+            options = routeOptions;
+            if (target.isReachedFrom(npc.getLocation())) {
+                status = Status.ARRIVED;
+                return status;
+            }
+            request(npc, pathfinder, true);
+            return status;
+        }
+
+        if (status == Status.UNREACHABLE) {
+            cancel();
+            return Status.UNREACHABLE;
+        }
+        if (target.isReachedFrom(npc.getLocation())) {
+            path = null;
+            status = Status.ARRIVED;
+        } else if (status == Status.ARRIVED) {
+            // Walked the whole route but ended out of reach: search again from here
+            replan(npc, pathfinder, "route ended out of reach");
+        }
+        return status;
+    }
+
+    public void cancel() {
+        goal = null;
+        options = null;
+        pending = null;
+        path = null;
+        index = 0;
+        replans = 0;
+        partialLegs = 0;
+        status = Status.IDLE;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    // =========================
+    // TICK
+    // =========================
+
+    public void tick(Player npc) {
+        if (goal == null || npc == null) {
+            return;
+        }
+        Pathfinder pathfinder = FreddyPlugin.getPathfinder();
+        if (pathfinder == null) {
+            cancel();
+            return;
+        }
+
+        if (pending != null) {
+            if (!pending.isDone()) {
+                return;
+            }
+            Path route = pending.getNow(null);
+            pending = null;
+            accept(route);
+        }
+        if (status != Status.FOLLOWING || path == null) {
+            return;
+        }
+
+        Location loc = npc.getLocation();
+        long now = System.currentTimeMillis();
+        if (goal.isReachedFrom(loc)) {
+            path = null;
+            status = Status.ARRIVED;
+            return;
+        }
+
+        advance(loc, now);
+        if (index >= path.size()) {
+            if (path.isComplete()) {
+                path = null;
+                status = Status.ARRIVED;
+            } else if (++partialLegs > MAX_PARTIAL_LEGS) {
+                giveUp("too many partial legs");
+            } else {
+                request(npc, pathfinder, false);
+            }
+            return;
+        }
+
+        Path.Step step = path.step(index);
+        double dx = step.x() + 0.5 - loc.getX();
+        double dz = step.z() + 0.5 - loc.getZ();
+        boolean offRoute = dx * dx + dz * dz > OFF_ROUTE_DISTANCE * OFF_ROUTE_DISTANCE
+            || Math.abs(step.y() - loc.getY()) > OFF_ROUTE_DISTANCE;
+        if (offRoute || now - lastProgressAt > STALL_MS) {
+            replan(npc, pathfinder, offRoute ? "knocked off route" : "no progress");
+            return;
+        }
+
+        World world = npc.getWorld();
+        if (clearStep(npc, world, step) || supportStep(npc, world, step, now)) {
+            return;
+        }
+
+        int target = index;
+        while (target + 1 < path.size() && target + 1 - index <= WALK_LOOKAHEAD && path.step(target + 1).isPlainWalk()) {
+            target++;
+        }
+        Path.Step dest = path.step(target);
+        controller.moveTowards(dest.x() + 0.5, dest.y(), dest.z() + 0.5);
+    }
+
+    /**
+     * Skip past any of the next few steps the NPC is already standing on
+     */
+    private void advance(Location loc, long now) {
+        int bx = loc.getBlockX();
+        int bz = loc.getBlockZ();
+        int limit = Math.min(path.size(), index + ADVANCE_WINDOW);
+        for (int i = limit - 1; i >= index; i--) {
+            Path.Step step = path.step(i);
+            if (step.x() == bx && step.z() == bz && Math.abs(loc.getY() - step.y()) < 0.9) {
+                index = i + 1;
+                lastProgressAt = now;
+                replans = 0;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Mine one block that is still in the way of the step
+     *
+     * @return True if a block was mined (or is being walked into reach) this tick
+     */
+    private boolean clearStep(Player npc, World world, Path.Step step) {
+        int[] breaks = step.breaks();
+        for (int i = 0; i < breaks.length; i += 3) {
+            Block block = world.getBlockAt(breaks[i], breaks[i + 1], breaks[i + 2]);
+            if (block.getType().isSolid()) {
+                if (npc.getLocation().distance(block.getLocation().add(0.5, 0.5, 0.5)) > MINE_REACH) {
+                    // Lagging behind the route: close in first (mineBlock would start a new approach)
+                    controller.moveTowards(step.x() + 0.5, step.y(), step.z() + 0.5);
+                    return true;
+                }
+                controller.mineBlock(block.getX(), block.getY(), block.getZ());
+                lastProgressAt = System.currentTimeMillis();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Put a scaffold block under a pillar or bridge step
+     *
+     * @return True while placement is in progress
+     */
+    private boolean supportStep(Player npc, World world, Path.Step step, long now) {
+        if (!step.placeBelow()) {
+            return false;
+        }
+        Block support = world.getBlockAt(step.x(), step.y() - 1, step.z());
+        if (support.getType().isSolid()) {
+            return false;
+        }
+        if (now - lastPlaceAt < PLACE_RETRY_MS) {
+            return true;
+        }
+        lastPlaceAt = now;
+        lastProgressAt = now;
+
+        // Dirt-only scaffolding, supplied directly when missing (same policy as the mining approach)
+        NPCInventory inventory = controller.getInventory();
+        if (inventory != null && !inventory.hasItem(Material.DIRT)) {
+            inventory.addItem(new ItemStack(Material.DIRT, 64));
+        }
+
+        if (step.move() == Path.Move.PILLAR) {
+            // Jump first, then fill the cell the feet just left
+            npc.setVelocity(new Vector(0, 0.65, 0));
+            org.bukkit.plugin.Plugin plugin = org.bukkit.plugin.java.JavaPlugin.getProvidingPlugin(FreddyPlugin.class);
+            Bukkit.getScheduler().runTaskLater(plugin,
+                () -> controller.placeBlock(support.getX(), support.getY(), support.getZ(), Material.DIRT), 6L);
+        } else {
+            controller.placeBlock(support.getX(), support.getY(), support.getZ(), Material.DIRT);
+        }
+        return true;
+    }
+
+    // =========================
+    // SEARCHES
+    // =========================
+
+    private void request(Player npc, Pathfinder pathfinder, boolean useCache) {
+        path = null;
+        index = 0;
+        status = Status.PLANNING;
+        lastProgressAt = System.currentTimeMillis();
+        pending = pathfinder.find(npc.getLocation(), goal, options, useCache);
+    }
+
+    private void accept(Path route) {
+        if (route == null || route.size() == 0) {
+            giveUp("no route within search region");
+            return;
+        }
+        path = route;
+        index = 0;
+        status = Status.FOLLOWING;
+        lastProgressAt = System.currentTimeMillis();
+    }
+
+    private void replan(Player npc, Pathfinder pathfinder, String reason) {
+        if (++replans > MAX_REPLANS) {
+            giveUp(reason);
+            return;
+        }
+        logger.info("[NPC] Route to " + goal.x() + "," + goal.y() + "," + goal.z() + ": " + reason
+            + "; searching again (" + replans + "/" + MAX_REPLANS + ")");
+        request(npc, pathfinder, false);
+    }
+
+    private void giveUp(String reason) {
+        logger.info("[NPC] No route to " + goal.x() + "," + goal.y() + "," + goal.z() + " (" + reason + ")");
+        pending = null;
+        path = null;
+        status = Status.UNREACHABLE;
+    }
+}
@@ -0,0 +1,109 @@
+package com.freddy.plugin.npc;
+
+/**
+ * What a goal step does, decided once from its goal type and label (see {@link StepSpec}).
+ * Each kind has one handler in AutonomousAIBehavior.
+ */
+public enum StepKind {
+    // GATHER_WOOD
+    WOOD_LOCATE,
+    WOOD_APPROACH,
+    WOOD_COLLECT,
+
+    // GATHER_STONE
+    STONE_LOCATE,
+    STONE_APPROACH,
+    STONE_COLLECT,
+
+    // MINE_DIAMONDS
+    DIAMOND_RETURN_TO_PLAYER,
+    DIAMOND_SURFACE,
+    DIAMOND_LOCATE,
+    DIAMOND_DESCEND,
+    DIAMOND_MINE,
+    DIAMOND_GATHER,
+
+    // HUNT_ANIMALS
+    HUNT_LOCATE,
+    HUNT_COLLECT,
+
+    // FARM_CROPS
+    FARM_LOCATE,
+    FARM_COLLECT,
+
+    // EXPLORE_AREA
+    EXPLORE_LOCATE,
+    EXPLORE_SWEEP,
+    EXPLORE_TIMED,
+
+    // BUILD_STRUCTURE
+    BUILD_GATHER,
+    BUILD_CRAFT,
+    BUILD_PLACE,
+    BUILD_SITE,
+    BUILD_DOOR,
+    BUILD_INSPECT,
+
+    // FOLLOW_PLAYER
+    FOLLOW_LOCATE,
+    FOLLOW,
+
+    // RETURN_HOME
+    HOME_STOP,
+    HOME_WALK,
+
+    // RETURN_TO_PLAYER
+    PLAYER_SELECT,
+    PLAYER_STAY,
+    PLAYER_RETURN,
+
+    // PROTECT_PLAYER
+    PROTECT_LOCATE,
+    PROTECT_ENGAGE,
+    PROTECT_GUARD,
+
+    // CREATE_ITEM
+    CRAFT_CHECK,
+    CRAFT_GATHER,
+    CRAFT_HELPERS,
+    CRAFT_ITEM,
+    CRAFT_VERIFY,
+
+    // FIGHT_MOB
+    FIGHT_EQUIP,
+    FIGHT_SPAWN,
+    FIGHT_ENGAGE,
+
+    // AUTOPILOT
+    AUTO_OBSERVE,
+    AUTO_SAFETY,
+    AUTO_RECOVER,
+    AUTO_MINE,
+    AUTO_QUEUE,
+    AUTO_BUILD,
+    AUTO_CRAFT,
+    AUTO_FREE,
+
+    // SPEEDRUN
+    RUN_LEAVE,
+    RUN_FURNISH,
+    RUN_WOOD,
+    RUN_STONE,
+    RUN_BUILD,
+    RUN_CRAFT,
+    RUN_STORE,
+
+    // Any goal type: keyword fallback
+    GENERIC_PROTECT,
+    GENERIC_FOLLOW,
+    GENERIC_CRAFT,
+    GENERIC_DIAMOND,
+    GENERIC_STONE,
+    GENERIC_WOOD,
+    GENERIC_FARM,
+    GENERIC_HUNT,
+    GENERIC_BUILD,
+    GENERIC_MINE,
+    GENERIC_SCOUT,
+    GENERIC_WAIT
+}
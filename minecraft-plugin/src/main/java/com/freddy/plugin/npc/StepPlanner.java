@@ -1,6 +1,7 @@
 package com.freddy.plugin.npc;
 
 import com.freddy.llm.LLMClient;
+import com.freddy.llm.LLMPriority;
 import com.freddy.plugin.advanced.DeterministicPlanner;
 import org.bukkit.Material;
 
@@ -10,13 +11,15 @@ public class StepPlanner {
     private static final Random AUTOPILOT_RANDOM = new Random();
     private static final Deque<String> AUTOPILOT_RECENT_TASKS = new ArrayDeque<>();
     private static final int AUTOPILOT_RECENT_LIMIT = 12;
+    /** Index of the task step in an autopilot chain */
+    public static final int AUTOPILOT_TASK_STEP = 4;
     /**
      * Fast step generation: use predefined steps for common goals.
      * Only call LLM for complex goals where extra refinement is helpful.
      */
     public static List<GoalStep> planFor(Goal.GoalType goalType, int amount) {
         if (goalType == Goal.GoalType.AUTOPILOT) {
-            return planAutopilot("Autonomous free-will mode", 0, 20, false, false);
+            return planAutopilotFallback("Autonomous free-will mode", 0, 20, false, false);
         }
         return fallbackPlan(goalType, amount);
     }
@@ -25,9 +28,31 @@ public class StepPlanner {
         return planFor(goalType, 1);
     }
 
-    public static List<GoalStep> planAutopilot(String context, int queuedActions, int foodLevel, boolean threatNearby, boolean hasPendingMineAction) {
-        String safeContext = context == null || context.isBlank() ? "Autonomous free-will mode" : context.trim();
-        String dynamicTask = nextAutopilotTaskIdea(safeContext, queuedActions, foodLevel, threatNearby, hasPendingMineAction);
+    /**
+     * Deterministic autopilot chain (no LLM). The task step is at {@link #AUTOPILOT_TASK_STEP}
+     * and can be relabelled once {@link #proposeAutopilotTask} returns.
+     */
+    public static List<GoalStep> planAutopilotFallback(String context, int queuedActions, int foodLevel, boolean threatNearby, boolean hasPendingMineAction) {
+        String safeContext = safeAutopilotContext(context);
+        return autopilotChain(safeContext, queuedActions, foodLevel, threatNearby, hasPendingMineAction, fallbackAutopilotTask());
+    }
+
+    /**
+     * Ask the LLM for one concrete autopilot task. Blocking; safe from any thread.
+     *
+     * @param npcName Agent asking; a newer proposal only replaces that agent's queued one
+     * @return The task sentence, or null if the LLM had nothing new to offer
+     */
+    public static String proposeAutopilotTask(String npcName, String context, int queuedActions, int foodLevel, boolean threatNearby, boolean hasPendingMineAction) {
+        String llmIdea = proposeAutopilotTaskWithLLM(npcName, safeAutopilotContext(context), queuedActions, foodLevel, threatNearby, hasPendingMineAction);
+        return llmIdea != null && !llmIdea.isBlank() && !isRecentAutopilotTask(llmIdea) ? llmIdea : null;
+    }
+
+    private static String safeAutopilotContext(String context) {
+        return context == null || context.isBlank() ? "Autonomous free-will mode" : context.trim();
+    }
+
+    private static List<GoalStep> autopilotChain(String safeContext, int queuedActions, int foodLevel, boolean threatNearby, boolean hasPendingMineAction, String dynamicTask) {
         return chainSteps(List.of(
             "Observe world and evaluate free-will context: " + safeContext,
             threatNearby ? "Prioritize safety and stay alert" : "Scan for useful work or resources",
@@ -38,13 +63,7 @@ public class StepPlanner {
         ));
     }
 
-    private static String nextAutopilotTaskIdea(String context, int queuedActions, int foodLevel, boolean threatNearby, boolean hasPendingMineAction) {
-        String llmIdea = proposeAutopilotTaskWithLLM(context, queuedActions, foodLevel, threatNearby, hasPendingMineAction);
-        if (llmIdea != null && !llmIdea.isBlank() && !isRecentAutopilotTask(llmIdea)) {
-            rememberAutopilotTask(llmIdea);
-            return llmIdea;
-        }
-
+    private static String fallbackAutopilotTask() {
         List<String> fallback = new ArrayList<>(List.of(
             "Scout terrain and map a safer route forward",
             "Gather nearby logs and prepare building stock",
@@ -68,7 +87,7 @@ public class StepPlanner {
         return forced;
     }
 
-    private static String proposeAutopilotTaskWithLLM(String context, int queuedActions, int foodLevel, boolean threatNearby, boolean hasPendingMineAction) {
+    private static String proposeAutopilotTaskWithLLM(String npcName, String context, int queuedActions, int foodLevel, boolean threatNearby, boolean hasPendingMineAction) {
         try {
             String prompt = "You are generating ONE Minecraft NPC AUTOPILOT task sentence. " +
                 "Return exactly one plain sentence, <= 12 words, no numbering, no quotes. " +
@@ -76,7 +95,8 @@ public class StepPlanner {
                 "Avoid repeating generic 'explore'. Prefer concrete work. " +
                 "Context: " + context + ", queuedActions=" + queuedActions + ", foodLevel=" + foodLevel
                 + ", threatNearby=" + threatNearby + ", hasPendingMineAction=" + hasPendingMineAction + ".";
-            String response = LLMClient.ask(prompt);
+            // Autonomous work: yields to chat and planning, and a newer proposal replaces this agent's queued one
+            String response = LLMClient.ask(prompt, LLMPriority.THINKING, "autopilot:" + npcName);
             if (response == null || response.isBlank() || response.contains("thinking too hard")) {
                 return null;
             }
@@ -95,19 +115,23 @@ public class StepPlanner {
 
     private static boolean isRecentAutopilotTask(String task) {
         String normalized = normalizeAutopilotTask(task);
-        for (String prior : AUTOPILOT_RECENT_TASKS) {
-            if (prior.equals(normalized)) {
-                return true;
+        synchronized (AUTOPILOT_RECENT_TASKS) {
+            for (String prior : AUTOPILOT_RECENT_TASKS) {
+                if (prior.equals(normalized)) {
+                    return true;
+                }
             }
         }
         return false;
     }
 
-    private static void rememberAutopilotTask(String task) {
+    static void rememberAutopilotTask(String task) {
         String normalized = normalizeAutopilotTask(task);
-        AUTOPILOT_RECENT_TASKS.addLast(normalized);
-        while (AUTOPILOT_RECENT_TASKS.size() > AUTOPILOT_RECENT_LIMIT) {
-            AUTOPILOT_RECENT_TASKS.removeFirst();
+        synchronized (AUTOPILOT_RECENT_TASKS) {
+            AUTOPILOT_RECENT_TASKS.addLast(normalized);
+            while (AUTOPILOT_RECENT_TASKS.size() > AUTOPILOT_RECENT_LIMIT) {
+                AUTOPILOT_RECENT_TASKS.removeFirst();
+            }
         }
     }
 
@@ -477,7 +501,7 @@ public class StepPlanner {
                 "Force exact sequence: locate -> pathfind shortest path -> mine/collect -> craft -> verify. " +
                 "Use as many steps as needed (typically 6-14). " +
                 "Return only plain lines, one step per line, no numbering, no extra commentary. Goal: " + userGoalPrompt;
-            String llmResponse = LLMClient.ask(llmPrompt);
+            String llmResponse = LLMClient.ask(llmPrompt, LLMPriority.PLANNING);
             if (llmResponse == null || llmResponse.isBlank()) {
                 return List.of();
             }
@@ -648,7 +672,7 @@ public class StepPlanner {
                 ));
             }
             case AUTOPILOT: {
-                return planAutopilot("Autonomous free-will mode", 0, 20, false, false);
+                return planAutopilotFallback("Autonomous free-will mode", 0, 20, false, false);
             }
             case PROTECT_PLAYER: {
                 return chainSteps(List.of(
@@ -0,0 +1,378 @@
+package com.freddy.plugin.npc;
+
+import org.bukkit.Material;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * StepSpec - a goal step classified once from its goal type and label
+ *
+ * Holds the {@link StepKind} the behavior dispatches on plus everything the handlers
+ * used to re-parse from the label on every decision: the quantity, the resource to
+ * gather or scout for, the build template, the item to craft, and the flags used by
+ * the attempt budget. Keyword order matches the old per-tick routing exactly.
+ */
+public final class StepSpec {
+
+    private static final Pattern AMOUNT = Pattern.compile("(\\d+)");
+
+    /**
+     * What the attempt budget counts as progress for this step
+     */
+    public enum ProgressMarker {
+        WOOD,
+        STONE,
+        DIAMOND,
+        CROPS,
+        FOOD,
+        TIME
+    }
+
+    private final Goal.GoalType goalType;
+    private final StepKind kind;
+    private final StepKind fallback;
+    private final String label;
+    private final int amount;
+    private final String resource;
+    private final String template;
+    private final String craftItem;
+    private final String requestedItem;
+    private final Material assistMaterial;
+    private final boolean continuous;
+    private final boolean laborious;
+    private final ProgressMarker progress;
+
+    private StepSpec(Goal.GoalType goalType, StepKind kind, StepKind fallback, String label) {
+        this.goalType = goalType;
+        this.kind = kind;
+        this.fallback = fallback;
+        this.label = label;
+        this.amount = parseAmount(label);
+        this.resource = resourceFor(kind, label);
+        this.template = kind == StepKind.GENERIC_BUILD ? genericTemplate(label) : null;
+        String normalized = label.replace('-', ' ').replace('_', ' ').toUpperCase(Locale.ROOT);
+        this.craftItem = stepCraftItem(normalized);
+        this.requestedItem = requestedCraftItem(normalized);
+        this.assistMaterial = kind == StepKind.RUN_CRAFT ? assistMaterial(label) : null;
+        this.continuous = containsAny(label, "follow continuously", "maintain", "repeat", "loop");
+        this.laborious = containsAny(label, "mine", "collect", "gather", "descend", "return to surface", "build");
+        this.progress = progressMarker(goalType, label);
+    }
+
+    /**
+     * Classify a step label for a goal type
+     */
+    public static StepSpec classify(Goal.GoalType goalType, String stepLabel) {
+        String label = stepLabel == null ? "" : stepLabel.toLowerCase(Locale.ROOT);
+        StepKind kind = kindFor(goalType, label);
+        StepKind fallback = kind == StepKind.GENERIC_PROTECT ? genericKind(label, false) : null;
+        return new StepSpec(goalType, kind, fallback, label);
+    }
+
+    public Goal.GoalType goalType() {
+        return goalType;
+    }
+
+    public StepKind kind() {
+        return kind;
+    }
+
+    /**
+     * Kind to run when a {@link StepKind#GENERIC_PROTECT} step has nobody to protect
+     */
+    public StepKind fallback() {
+        return fallback;
+    }
+
+    /**
+     * Lower-cased label
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * First number in the label, or defaultValue if there is none
+     */
+    public int amount(int defaultValue) {
+        return amount >= 0 ? amount : defaultValue;
+    }
+
+    /**
+     * Resource key for AIActionExecutor (WOOD, STONE, DIAMONDS, IRON_ORE, ...) that the
+     * step searches or gathers for, or null
+     */
+    public String resource() {
+        return resource;
+    }
+
+    /**
+     * Build template named by a generic build step, or null
+     */
+    public String template() {
+        return template;
+    }
+
+    /**
+     * Item a "craft X" step names, or null
+     */
+    public String craftItem() {
+        return craftItem;
+    }
+
+    /**
+     * Tool/block a CREATE_ITEM step names when the goal itself does not, or null
+     */
+    public String requestedItem() {
+        return requestedItem;
+    }
+
+    /**
+     * Item handed over by the speedrun crafting assist, or null
+     */
+    public Material assistMaterial() {
+        return assistMaterial;
+    }
+
+    public boolean isContinuous() {
+        return continuous;
+    }
+
+    public boolean isLaborious() {
+        return laborious;
+    }
+
+    public ProgressMarker progress() {
+        return progress;
+    }
+
+    // =========================
+    // ROUTING
+    // =========================
+
+    private static StepKind kindFor(Goal.GoalType goalType, String label) {
+        if (goalType == null) {
+            return genericKind(label, true);
+        }
+        switch (goalType) {
+            case GATHER_WOOD:
+                if (containsAny(label, "search", "find", "locate", "navigate", "forest", "tree")) return StepKind.WOOD_LOCATE;
+                if (containsAny(label, "walk", "approach", "go to", "near")) return StepKind.WOOD_APPROACH;
+                return StepKind.WOOD_COLLECT;
+            case GATHER_STONE:
+                if (containsAny(label, "find", "locate", "outcrop", "cave", "entrance")) return StepKind.STONE_LOCATE;
+                if (containsAny(label, "walk", "approach", "near")) return StepKind.STONE_APPROACH;
+                return StepKind.STONE_COLLECT;
+            case MINE_DIAMONDS:
+                if (containsAny(label, "navigate back", "nearest player", "come back", "return to player")) return StepKind.DIAMOND_RETURN_TO_PLAYER;
+                if (containsAny(label, "return", "surface", "ascend", "climb", "exit")) return StepKind.DIAMOND_SURFACE;
+                if (containsAny(label, "locate", "find", "search")) return StepKind.DIAMOND_LOCATE;
+                if (containsAny(label, "descend", "diamond level")) return StepKind.DIAMOND_DESCEND;
+                if (containsAny(label, "mine", "diamond")) return StepKind.DIAMOND_MINE;
+                return StepKind.DIAMOND_GATHER;
+            case HUNT_ANIMALS:
+                return containsAny(label, "locate", "find", "animal", "nearby") ? StepKind.HUNT_LOCATE : StepKind.HUNT_COLLECT;
+            case FARM_CROPS:
+                return containsAny(label, "find", "locate", "farm", "crop area", "field") ? StepKind.FARM_LOCATE : StepKind.FARM_COLLECT;
+            case EXPLORE_AREA:
+                if (containsAny(label, "locate", "notable", "resource", "terrain")) return StepKind.EXPLORE_LOCATE;
+                if (containsAny(label, "continue", "sweep", "navigation", "path")) return StepKind.EXPLORE_SWEEP;
+                return StepKind.EXPLORE_TIMED;
+            case BUILD_STRUCTURE:
+                if (containsAny(label, "gather", "collect")) return StepKind.BUILD_GATHER;
+                if (containsAny(label, "craft", "plank")) return StepKind.BUILD_CRAFT;
+                // "find" steps (e.g. "Find a flat and safe build area") are scouting, not placement
+                if (containsAny(label, "build", "pillar", "place", "wall", "roof", "floor") && !label.contains("find")) return StepKind.BUILD_PLACE;
+                if (containsAny(label, "find", "mark")) return StepKind.BUILD_SITE;
+                if (containsAny(label, "door", "opening")) return StepKind.BUILD_DOOR;
+                if (containsAny(label, "inspect", "patch", "gap")) return StepKind.BUILD_INSPECT;
+                return genericKind(label, true);
+            case FOLLOW_PLAYER:
+                return containsAny(label, "find", "locate") ? StepKind.FOLLOW_LOCATE : StepKind.FOLLOW;
+            case RETURN_HOME:
+                return containsAny(label, "stop", "halt", "current task") ? StepKind.HOME_STOP : StepKind.HOME_WALK;
+            case RETURN_TO_PLAYER:
+                if (containsAny(label, "select", "target", "find")) return StepKind.PLAYER_SELECT;
+                if (containsAny(label, "stay", "within", "near")) return StepKind.PLAYER_STAY;
+                return StepKind.PLAYER_RETURN;
+            case PROTECT_PLAYER:
+                if (containsAny(label, "find", "locate", "stay")) return StepKind.PROTECT_LOCATE;
+                if (containsAny(label, "attack", "hostile", "mob")) return StepKind.PROTECT_ENGAGE;
+                return StepKind.PROTECT_GUARD;
+            case CREATE_ITEM:
+                if (containsAny(label, "check", "recipe", "requirements")) return StepKind.CRAFT_CHECK;
+                if (containsAny(label, "gather", "material", "collect", "mine")) return StepKind.CRAFT_GATHER;
+                if (containsAny(label, "craft", "create", "using", "system")) {
+                    // Helper-crafting steps (e.g. "Craft planks and sticks") must not jump to the final craft
+                    return containsAny(label, "plank", "stick", "helper") ? StepKind.CRAFT_HELPERS : StepKind.CRAFT_ITEM;
+                }
+                if (containsAny(label, "verify", "confirm", "inventory")) return StepKind.CRAFT_VERIFY;
+                return genericKind(label, true);
+            case FIGHT_MOB:
+                if (containsAny(label, "equip", "creative", "gear", "supplies")) return StepKind.FIGHT_EQUIP;
+                if (containsAny(label, "spawn", "magically", "summon")) return StepKind.FIGHT_SPAWN;
+                if (containsAny(label, "fight", "defeat", "kill")) return StepKind.FIGHT_ENGAGE;
+                return genericKind(label, true);
+            case AUTOPILOT:
+                if (containsAny(label, "observe", "scan", "evaluate", "context")) return StepKind.AUTO_OBSERVE;
+                if (containsAny(label, "safety", "alert", "threat")) return StepKind.AUTO_SAFETY;
+                if (containsAny(label, "hunger", "food", "recover")) return StepKind.AUTO_RECOVER;
+                if (containsAny(label, "mining", "mine", "current mining")) return StepKind.AUTO_MINE;
+                if (containsAny(label, "queued action", "execute queued", "action stack")) return StepKind.AUTO_QUEUE;
+                if (label.contains("build")) return StepKind.AUTO_BUILD;
+                if (label.contains("craft")) return StepKind.AUTO_CRAFT;
+                return StepKind.AUTO_FREE;
+            case SPEEDRUN:
+                if (containsAny(label, "leave", "random")) return StepKind.RUN_LEAVE;
+                if (containsAny(label, "place", "furniture")) return StepKind.RUN_FURNISH;
+                if (containsAny(label, "wood", "log")) return StepKind.RUN_WOOD;
+                if (containsAny(label, "stone", "cobble")) return StepKind.RUN_STONE;
+                if (containsAny(label, "build", "house", "hut")) return StepKind.RUN_BUILD;
+                if (label.contains("craft")) return StepKind.RUN_CRAFT;
+                if (containsAny(label, "store", "chest")) return StepKind.RUN_STORE;
+                return genericKind(label, true);
+            default:
+                return genericKind(label, true);
+        }
+    }
+
+    private static StepKind genericKind(String label, boolean allowProtect) {
+        if (allowProtect && label.contains("protect")) return StepKind.GENERIC_PROTECT;
+        if (label.contains("follow")) return StepKind.GENERIC_FOLLOW;
+        if (containsAny(label, "craft", "create", "make")) return StepKind.GENERIC_CRAFT;
+        if (label.contains("diamond")) return StepKind.GENERIC_DIAMOND;
+        if (containsAny(label, "stone", "cobble")) return StepKind.GENERIC_STONE;
+        if (containsAny(label, "wood", "log", "tree")) return StepKind.GENERIC_WOOD;
+        if (containsAny(label, "farm", "harvest", "crop")) return StepKind.GENERIC_FARM;
+        if (containsAny(label, "hunt", "animal", "food")) return StepKind.GENERIC_HUNT;
+        if (containsAny(label, "build", "place")) return StepKind.GENERIC_BUILD;
+        if (containsAny(label, "mine", "break", "gather")) return StepKind.GENERIC_MINE;
+        if (containsAny(label, "explore", "locate", "find", "pathfind", "navigate", "approach")) return StepKind.GENERIC_SCOUT;
+        return StepKind.GENERIC_WAIT;
+    }
+
+    // =========================
+    // PARAMETERS
+    // =========================
+
+    private static String resourceFor(StepKind kind, String label) {
+        switch (kind) {
+            case WOOD_LOCATE, WOOD_APPROACH, WOOD_COLLECT, RUN_WOOD, GENERIC_WOOD:
+                return "WOOD";
+            case STONE_LOCATE, STONE_APPROACH, STONE_COLLECT, RUN_STONE, GENERIC_STONE:
+                return "STONE";
+            case DIAMOND_LOCATE, DIAMOND_DESCEND, DIAMOND_MINE, DIAMOND_GATHER, GENERIC_DIAMOND:
+                return "DIAMONDS";
+            case BUILD_GATHER:
+                return containsAny(label, "stone", "cobble") ? "STONE" : "WOOD";
+            case CRAFT_GATHER:
+                if (containsAny(label, "log", "wood")) return "WOOD";
+                if (containsAny(label, "cobble", "stone", "deepslate")) return "STONE";
+                return null;
+            case GENERIC_MINE:
+                if (label.contains("iron")) return "IRON_ORE";
+                if (label.contains("coal")) return "COAL_ORE";
+                if (label.contains("gold")) return "GOLD_ORE";
+                return "STONE";
+            case GENERIC_SCOUT:
+                if (label.contains("iron")) return "IRON_ORE";
+                if (label.contains("coal")) return "COAL_ORE";
+                if (label.contains("gold")) return "GOLD_ORE";
+                if (label.contains("diamond")) return "DIAMOND";
+                if (containsAny(label, "stone", "cobble")) return "STONE";
+                if (containsAny(label, "wood", "log", "tree")) return "WOOD";
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private static String genericTemplate(String label) {
+        if (label.contains("house")) return "HOUSE_6X6";
+        if (label.contains("wall")) return "WALL_10";
+        if (containsAny(label, "farm", "plot")) return "FARM_PLOT_5X5";
+        if (label.contains("tower")) return "TOWER_7";
+        if (label.contains("hut")) return "HUT_4X4";
+        return "PILLAR_SMALL";
+    }
+
+    private static String stepCraftItem(String normalized) {
+        if (normalized.contains("CRAFTING TABLE")) return "CRAFTING_TABLE";
+        if (normalized.contains("WOODEN SWORD")) return "WOODEN_SWORD";
+        if (normalized.contains("WOODEN PICKAXE")) return "WOODEN_PICKAXE";
+        if (normalized.contains("WOODEN AXE")) return "WOODEN_AXE";
+        if (normalized.contains("WOODEN SHOVEL")) return "WOODEN_SHOVEL";
+        if (normalized.contains("STONE SWORD")) return "STONE_SWORD";
+        if (normalized.contains("STONE PICKAXE")) return "STONE_PICKAXE";
+        if (normalized.contains("STONE AXE")) return "STONE_AXE";
+        if (normalized.contains("STONE SHOVEL")) return "STONE_SHOVEL";
+        if (normalized.contains("STICK")) return "STICK";
+        if (normalized.contains("PLANK")) return "OAK_PLANKS";
+        if (normalized.contains("FURNACE")) return "FURNACE";
+        if (normalized.contains("TORCH")) return "TORCH";
+        if (normalized.contains("CHEST")) return "CHEST";
+        if (normalized.contains("BREAD")) return "BREAD";
+        return null;
+    }
+
+    private static String requestedCraftItem(String normalized) {
+        if (normalized.contains("WOODEN SWORD")) return "WOODEN_SWORD";
+        if (normalized.contains("WOODEN PICKAXE")) return "WOODEN_PICKAXE";
+        if (normalized.contains("WOODEN AXE")) return "WOODEN_AXE";
+        if (normalized.contains("WOODEN SHOVEL")) return "WOODEN_SHOVEL";
+        if (normalized.contains("STONE SWORD")) return "STONE_SWORD";
+        if (normalized.contains("STONE PICKAXE")) return "STONE_PICKAXE";
+        if (normalized.contains("STONE AXE")) return "STONE_AXE";
+        if (normalized.contains("STONE SHOVEL")) return "STONE_SHOVEL";
+        if (normalized.contains("FURNACE")) return "FURNACE";
+        if (normalized.contains("CRAFTING TABLE")) return "CRAFTING_TABLE";
+        if (normalized.contains("CHEST")) return "CHEST";
+        if (normalized.contains("TORCH")) return "TORCH";
+        return null;
+    }
+
+    private static Material assistMaterial(String label) {
+        if (label.contains("chest")) return Material.CHEST;
+        if (label.contains("bed")) return Material.WHITE_BED;
+        if (label.contains("furnace")) return Material.FURNACE;
+        if (label.contains("crafting table")) return Material.CRAFTING_TABLE;
+        return null;
+    }
+
+    private static ProgressMarker progressMarker(Goal.GoalType goalType, String label) {
+        if (goalType == Goal.GoalType.GATHER_WOOD || containsAny(label, "wood", "log")) return ProgressMarker.WOOD;
+        if (goalType == Goal.GoalType.GATHER_STONE || containsAny(label, "stone", "cobble")) return ProgressMarker.STONE;
+        if (goalType == Goal.GoalType.MINE_DIAMONDS || label.contains("diamond")) return ProgressMarker.DIAMOND;
+        if (containsAny(label, "crop", "farm")) return ProgressMarker.CROPS;
+        if (containsAny(label, "food", "hunt")) return ProgressMarker.FOOD;
+        return ProgressMarker.TIME;
+    }
+
+    private static int parseAmount(String label) {
+        Matcher matcher = AMOUNT.matcher(label);
+        if (!matcher.find()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(matcher.group(1));
+        } catch (NumberFormatException ignored) {
+            return -1;
+        }
+    }
+
+    private static boolean containsAny(String text, String... keywords) {
+        for (String keyword : keywords) {
+            if (text.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return kind + (resource != null ? "(" + resource + ")" : "") + (amount >= 0 ? " x" + amount : "");
+    }
+}
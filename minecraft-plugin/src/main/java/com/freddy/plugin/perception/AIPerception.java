@@ -1,6 +1,7 @@
 package com.freddy.plugin.perception;
 
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
@@ -9,11 +10,17 @@ import java.util.*;
 
 /**
  * AI First-Person Perception System
- * Simulates what Freddy sees from their perspective
+ * Simulates what Freddy sees from their perspective.
+ * Built either from the live world (main thread) or from a
+ * {@link PerceptionSnapshot} (any thread).
  */
 public class AIPerception {
     
     private final Location npcLocation;
+    private final PerceptionSnapshot snapshot;
+    private final double originX;
+    private final double originY;
+    private final double originZ;
     private final double perceptionRadius;
     private final float yaw;
     
@@ -23,12 +30,29 @@ public class AIPerception {
     
     public AIPerception(Location npcLocation, double perceptionRadius, float yaw) {
         this.npcLocation = npcLocation;
+        this.snapshot = null;
+        this.originX = npcLocation.getX();
+        this.originY = npcLocation.getY();
+        this.originZ = npcLocation.getZ();
         this.perceptionRadius = perceptionRadius;
         this.yaw = yaw;
         this.seenPlayers = new ArrayList<>();
         this.seenBlocks = new ArrayList<>();
         this.environment = buildEnvironmentData(npcLocation);
     }
+
+    public AIPerception(PerceptionSnapshot snapshot, double perceptionRadius) {
+        this.npcLocation = null;
+        this.snapshot = snapshot;
+        this.originX = snapshot.x;
+        this.originY = snapshot.y;
+        this.originZ = snapshot.z;
+        this.perceptionRadius = perceptionRadius;
+        this.yaw = snapshot.yaw;
+        this.seenPlayers = new ArrayList<>();
+        this.seenBlocks = new ArrayList<>();
+        this.environment = buildEnvironmentData(snapshot);
+    }
     
     /**
      * Build what Freddy sees from POV
@@ -41,25 +65,17 @@ public class AIPerception {
         for (Entity entity : nearbyEntities) {
             if (entity instanceof Player) {
                 Player player = (Player) entity;
-                if (isVisible(player.getLocation())) {
-                    double distance = npcLocation.distance(player.getLocation());
-                    double angle = getRelativeAngle(player.getLocation());
-                    double verticalAngle = getVerticalAngle(player.getLocation());
-                    
-                    seenPlayers.add(new PlayerPerception(
-                        player.getName(),
-                        distance,
-                        angle,
-                        verticalAngle,
-                        player.getHealth(),
-                        player.getFoodLevel()
-                    ));
-                }
+                Location target = player.getLocation();
+                addPlayerIfVisible(player.getName(), target.getX(), target.getY(), target.getZ(),
+                    player.getHealth(), player.getFoodLevel());
             }
         }
         
         // Scan blocks ahead
-        scanBlocksAhead();
+        World world = npcLocation != null ? npcLocation.getWorld() : null;
+        if (world != null) {
+            scanBlocksAhead(BlockTypeLookup.of(world));
+        }
         
         // Update environment from real world
         environment = buildEnvironmentData(npcLocation);
@@ -67,6 +83,42 @@ public class AIPerception {
         return new POVData(seenPlayers, seenBlocks, environment);
     }
 
+    /**
+     * Build what Freddy sees from the snapshot this perception was created with
+     */
+    public POVData buildPOV() {
+        seenPlayers.clear();
+        seenBlocks.clear();
+        if (snapshot == null) {
+            return new POVData(seenPlayers, seenBlocks, environment);
+        }
+
+        for (PerceptionSnapshot.EntityInfo entity : snapshot.entities) {
+            if (entity.player()) {
+                addPlayerIfVisible(entity.name(), entity.x(), entity.y(), entity.z(),
+                    entity.health(), entity.foodLevel());
+            }
+        }
+
+        scanBlocksAhead(snapshot);
+
+        return new POVData(seenPlayers, seenBlocks, environment);
+    }
+
+    private void addPlayerIfVisible(String name, double tx, double ty, double tz, double health, int food) {
+        double distance = distanceTo(tx, ty, tz);
+        if (distance <= perceptionRadius) {
+            seenPlayers.add(new PlayerPerception(
+                name,
+                distance,
+                getRelativeAngle(tx, tz),
+                getVerticalAngle(tx, ty, tz),
+                health,
+                food
+            ));
+        }
+    }
+
     /**
      * Build environment data from the REAL world state (no more hardcoding)
      */
@@ -102,58 +154,65 @@ public class AIPerception {
 
         return env;
     }
+
+    private EnvironmentData buildEnvironmentData(PerceptionSnapshot snap) {
+        EnvironmentData env = new EnvironmentData();
+        env.blockLight = snap.blockLight;
+        env.skyLight = snap.skyLight;
+        env.brightness = snap.lightLevel;
+        env.weather = snap.weather;
+        env.biome = snap.biome;
+        return env;
+    }
     
-    private void scanBlocksAhead() {
-        Location center = npcLocation.clone().add(
-            getDirectionVector().multiply(5)
-        );
+    private void scanBlocksAhead(BlockTypeLookup blocks) {
+        double radians = Math.toRadians(yaw + 90);
+        double centerX = originX + Math.cos(radians) * 5;
+        double centerZ = originZ + Math.sin(radians) * 5;
         
         for (int x = -2; x <= 2; x++) {
             for (int y = -1; y <= 2; y++) {
                 for (int z = -2; z <= 2; z++) {
-                    Location blockLoc = center.clone().add(x, y, z);
-                    Block block = blockLoc.getBlock();
+                    double bx = centerX + x;
+                    double by = originY + y;
+                    double bz = centerZ + z;
+                    Material type = blocks.getType(
+                        (int) Math.floor(bx), (int) Math.floor(by), (int) Math.floor(bz));
                     
-                    if (block.getType().isAir()) continue;
+                    if (BlockTypeLookup.isAir(type)) continue;
                     
-                    double distance = npcLocation.distance(blockLoc);
                     seenBlocks.add(new BlockPerception(
-                        block.getType().toString(),
-                        distance,
+                        type.toString(),
+                        distanceTo(bx, by, bz),
                         new int[]{x, y, z}
                     ));
                 }
             }
         }
     }
-    
-    private boolean isVisible(Location target) {
-        double distance = npcLocation.distance(target);
-        return distance <= perceptionRadius;
+
+    private double distanceTo(double tx, double ty, double tz) {
+        double dx = tx - originX;
+        double dy = ty - originY;
+        double dz = tz - originZ;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
     }
     
-    private double getRelativeAngle(Location target) {
-        double dx = target.getX() - npcLocation.getX();
-        double dz = target.getZ() - npcLocation.getZ();
+    private double getRelativeAngle(double tx, double tz) {
+        double dx = tx - originX;
+        double dz = tz - originZ;
         double angle = Math.atan2(dx, dz) * 180 / Math.PI;
         return normalizeAngle(angle - yaw);
     }
     
-    private double getVerticalAngle(Location target) {
-        double dy = target.getY() - npcLocation.getY();
-        double dx = target.getX() - npcLocation.getX();
-        double dz = target.getZ() - npcLocation.getZ();
+    private double getVerticalAngle(double tx, double ty, double tz) {
+        double dy = ty - originY;
+        double dx = tx - originX;
+        double dz = tz - originZ;
         double horizontal = Math.sqrt(dx * dx + dz * dz);
         return Math.atan2(dy, horizontal) * 180 / Math.PI;
     }
     
-    private org.bukkit.util.Vector getDirectionVector() {
-        double radians = Math.toRadians(yaw + 90);
-        double x = Math.cos(radians);
-        double z = Math.sin(radians);
-        return new org.bukkit.util.Vector(x, 0, z).normalize();
-    }
-    
     private double normalizeAngle(double angle) {
         while (angle > 180) angle -= 360;
         while (angle < -180) angle += 360;
@@ -0,0 +1,506 @@
+package com.freddy.plugin.perception;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * BlockIndex - per-world spatial index of "interesting" blocks
+ *
+ * Tracks ores, logs, crops, furnaces/crafting tables, lava and water as one bitset
+ * per material per 16x16x16 chunk section. Chunks are indexed from a
+ * {@link ChunkSnapshot} scanned off the main thread when they load; block events
+ * mark positions dirty and they are re-read once per tick. Nearest-of-type queries
+ * visit sections closest-first instead of reading every block in a cube.
+ *
+ * Reads are safe from any thread; mutation happens on the main thread.
+ */
+public class BlockIndex {
+
+    private static final Logger logger = Logger.getLogger("FreddyAI");
+
+    private static final Material[] INDEXED;
+    private static final int[] DENSE_ID;
+
+    static {
+        List<Material> indexed = new ArrayList<>();
+        DENSE_ID = new int[Material.values().length];
+        Arrays.fill(DENSE_ID, -1);
+        for (Material m : Material.values()) {
+            if (m.name().startsWith("LEGACY_") || !isInteresting(m)) {
+                continue;
+            }
+            DENSE_ID[m.ordinal()] = indexed.size();
+            indexed.add(m);
+        }
+        INDEXED = indexed.toArray(new Material[0]);
+    }
+
+    private final Plugin plugin;
+    private final int snapshotsPerTick;
+    private final Map<UUID, WorldIndex> worlds = new ConcurrentHashMap<>();
+    // Main-thread only: chunks waiting for a snapshot, and positions waiting for a re-read
+    private final LinkedHashMap<ChunkKey, Boolean> pending = new LinkedHashMap<>();
+    private final Set<ChunkKey> scanning = new HashSet<>();
+    private final Map<UUID, Set<Long>> dirty = new HashMap<>();
+    private BukkitTask task;
+
+    private record ChunkKey(UUID world, long chunk) { }
+
+    /** Section-level filter for {@link #findNearest}; coordinates are block coordinates >> 4 */
+    @FunctionalInterface
+    public interface SectionFilter {
+        boolean skip(int sx, int sy, int sz);
+    }
+
+    private static final class WorldIndex {
+        final Map<Long, ChunkIndex> chunks = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * One chunk column: bitsets[section][denseId], each bit is a block in that section.
+     */
+    private static final class ChunkIndex {
+        final int minSection;
+        final BitSet[][] sections;
+
+        ChunkIndex(int minY, int maxY) {
+            this.minSection = minY >> 4;
+            this.sections = new BitSet[Math.max(1, (maxY - minY + 15) >> 4)][];
+        }
+
+        synchronized void set(int x, int y, int z, Material type) {
+            int s = (y >> 4) - minSection;
+            if (s < 0 || s >= sections.length) return;
+            int bit = bitIndex(x, y, z);
+            BitSet[] bySection = sections[s];
+            if (bySection != null) {
+                for (BitSet bits : bySection) {
+                    if (bits != null) bits.clear(bit);
+                }
+            }
+            int id = denseId(type);
+            if (id < 0) return;
+            if (bySection == null) {
+                bySection = sections[s] = new BitSet[INDEXED.length];
+            }
+            if (bySection[id] == null) {
+                bySection[id] = new BitSet(4096);
+            }
+            bySection[id].set(bit);
+        }
+
+        synchronized BitSet copy(int section, int id) {
+            int s = section - minSection;
+            if (s < 0 || s >= sections.length || sections[s] == null || sections[s][id] == null) {
+                return null;
+            }
+            BitSet bits = sections[s][id];
+            return bits.isEmpty() ? null : (BitSet) bits.clone();
+        }
+    }
+
+    public BlockIndex(Plugin plugin, int snapshotsPerTick) {
+        this.plugin = plugin;
+        this.snapshotsPerTick = Math.max(1, snapshotsPerTick);
+    }
+
+    // =========================
+    // LIFECYCLE (main thread)
+    // =========================
+
+    public void start() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                requestChunk(chunk);
+            }
+        }
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+        logger.info("[BlockIndex] Tracking " + INDEXED.length + " materials, " + pending.size() + " chunks queued");
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        pending.clear();
+        dirty.clear();
+        worlds.clear();
+    }
+
+    public void requestChunk(Chunk chunk) {
+        pending.put(new ChunkKey(chunk.getWorld().getUID(), chunkKey(chunk.getX(), chunk.getZ())), Boolean.TRUE);
+    }
+
+    public void forgetChunk(Chunk chunk) {
+        ChunkKey key = new ChunkKey(chunk.getWorld().getUID(), chunkKey(chunk.getX(), chunk.getZ()));
+        pending.remove(key);
+        WorldIndex index = worlds.get(key.world());
+        if (index != null) {
+            index.chunks.remove(key.chunk());
+        }
+    }
+
+    public void forgetWorld(World world) {
+        worlds.remove(world.getUID());
+        dirty.remove(world.getUID());
+        pending.keySet().removeIf(key -> key.world().equals(world.getUID()));
+    }
+
+    /**
+     * Re-read this block on the next tick (called before or after it changes).
+     */
+    public void markDirty(Block block) {
+        dirty.computeIfAbsent(block.getWorld().getUID(), id -> new HashSet<>())
+            .add(blockKey(block.getX(), block.getY(), block.getZ()));
+    }
+
+    private void tick() {
+        for (int i = 0; i < snapshotsPerTick && !pending.isEmpty(); i++) {
+            Iterator<ChunkKey> it = pending.keySet().iterator();
+            ChunkKey key = it.next();
+            it.remove();
+            snapshotChunk(key);
+        }
+        if (!dirty.isEmpty()) {
+            applyDirty();
+        }
+    }
+
+    private void snapshotChunk(ChunkKey key) {
+        World world = Bukkit.getWorld(key.world());
+        int cx = chunkX(key.chunk());
+        int cz = chunkZ(key.chunk());
+        if (world == null || !world.isChunkLoaded(cx, cz) || !scanning.add(key)) {
+            return;
+        }
+        ChunkSnapshot snapshot = world.getChunkAt(cx, cz).getChunkSnapshot(false, false, false);
+        int minY = world.getMinHeight();
+        int maxY = world.getMaxHeight();
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            ChunkIndex built = scan(snapshot, minY, maxY);
+            if (!plugin.isEnabled()) {
+                return;
+            }
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                scanning.remove(key);
+                World current = Bukkit.getWorld(key.world());
+                if (current == null || !current.isChunkLoaded(cx, cz) || pending.containsKey(key)) {
+                    return; // Unloaded, or reloaded and queued again
+                }
+                worlds.computeIfAbsent(key.world(), id -> new WorldIndex()).chunks.put(key.chunk(), built);
+            });
+        });
+    }
+
+    private static ChunkIndex scan(ChunkSnapshot snapshot, int minY, int maxY) {
+        ChunkIndex index = new ChunkIndex(minY, maxY);
+        int baseX = snapshot.getX() << 4;
+        int baseZ = snapshot.getZ() << 4;
+        for (int y = minY; y < maxY; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    Material type = snapshot.getBlockType(x, y, z);
+                    if (denseId(type) >= 0) {
+                        index.set(baseX + x, y, baseZ + z, type);
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    private void applyDirty() {
+        for (Map.Entry<UUID, Set<Long>> entry : dirty.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            WorldIndex index = worlds.get(entry.getKey());
+            if (world == null || index == null) {
+                entry.getValue().clear();
+                continue;
+            }
+            Iterator<Long> it = entry.getValue().iterator();
+            while (it.hasNext()) {
+                long packed = it.next();
+                int x = unpackX(packed);
+                int y = unpackY(packed);
+                int z = unpackZ(packed);
+                ChunkIndex chunk = index.chunks.get(chunkKey(x >> 4, z >> 4));
+                if (chunk == null) {
+                    // Still being scanned: keep it for after the snapshot lands
+                    if (scanning.contains(new ChunkKey(entry.getKey(), chunkKey(x >> 4, z >> 4)))) {
+                        continue;
+                    }
+                } else if (world.isChunkLoaded(x >> 4, z >> 4)) {
+                    chunk.set(x, y, z, world.getBlockAt(x, y, z).getType());
+                }
+                it.remove();
+            }
+        }
+        dirty.values().removeIf(Set::isEmpty);
+    }
+
+    // =========================
+    // QUERIES
+    // =========================
+
+    public static boolean isIndexed(Material type) {
+        return denseId(type) >= 0;
+    }
+
+    /**
+     * True when every type is tracked and every loaded chunk in range has been indexed,
+     * i.e. {@link #findNearest} gives the same answer as a full block scan.
+     */
+    public boolean canAnswer(Location origin, Material[] types, int horizontalRange) {
+        if (origin == null || origin.getWorld() == null || types == null || types.length == 0) {
+            return false;
+        }
+        for (Material type : types) {
+            if (!isIndexed(type)) return false;
+        }
+        World world = origin.getWorld();
+        WorldIndex index = worlds.get(world.getUID());
+        int bx = origin.getBlockX();
+        int bz = origin.getBlockZ();
+        for (int cx = (bx - horizontalRange) >> 4; cx <= (bx + horizontalRange) >> 4; cx++) {
+            for (int cz = (bz - horizontalRange) >> 4; cz <= (bz + horizontalRange) >> 4; cz++) {
+                if (world.isChunkLoaded(cx, cz) && (index == null || !index.chunks.containsKey(chunkKey(cx, cz)))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Nearest block (by distance to its centre) of any of {@code types} within the box
+     * origin ± (horizontalRange, verticalRange, horizontalRange) that passes {@code filter}.
+     * On the main thread each candidate is checked against the live world first.
+     */
+    public Block findNearest(Location origin, Material[] types, int horizontalRange, int verticalRange,
+                             Predicate<Block> filter) {
+        return findNearest(origin, types, horizontalRange, verticalRange, null, filter);
+    }
+
+    /**
+     * {@link #findNearest(Location, Material[], int, int, Predicate)} that leaves out
+     * whole sections for which {@code skipSection} answers true, without reading their blocks.
+     */
+    public Block findNearest(Location origin, Material[] types, int horizontalRange, int verticalRange,
+                             SectionFilter skipSection, Predicate<Block> filter) {
+        World world = origin.getWorld();
+        WorldIndex index = world == null ? null : worlds.get(world.getUID());
+        if (index == null) {
+            return null;
+        }
+        boolean verify = Bukkit.isPrimaryThread();
+        double ox = origin.getX();
+        double oy = origin.getY();
+        double oz = origin.getZ();
+        int bx = origin.getBlockX();
+        int by = origin.getBlockY();
+        int bz = origin.getBlockZ();
+
+        List<int[]> sections = sectionsInBox(index, bx, by, bz, horizontalRange, verticalRange);
+        sections.sort((a, b) -> Double.compare(
+            sectionDistanceSq(a, ox, oy, oz), sectionDistanceSq(b, ox, oy, oz)));
+
+        Block best = null;
+        double bestSq = Double.MAX_VALUE;
+        for (int[] section : sections) {
+            if (sectionDistanceSq(section, ox, oy, oz) >= bestSq) {
+                break; // Sorted: nothing closer remains
+            }
+            if (skipSection != null && skipSection.skip(section[0], section[1], section[2])) {
+                continue;
+            }
+            ChunkIndex chunk = index.chunks.get(chunkKey(section[0], section[2]));
+            if (chunk == null) continue;
+            for (Material type : types) {
+                int id = denseId(type);
+                if (id < 0) continue;
+                BitSet bits = chunk.copy(section[1], id);
+                if (bits == null) continue;
+                for (int bit = bits.nextSetBit(0); bit >= 0; bit = bits.nextSetBit(bit + 1)) {
+                    int x = (section[0] << 4) | (bit & 15);
+                    int y = (section[1] << 4) | (bit >> 8);
+                    int z = (section[2] << 4) | ((bit >> 4) & 15);
+                    if (Math.abs(x - bx) > horizontalRange || Math.abs(y - by) > verticalRange
+                        || Math.abs(z - bz) > horizontalRange) {
+                        continue;
+                    }
+                    double dx = x + 0.5 - ox;
+                    double dy = y + 0.5 - oy;
+                    double dz = z + 0.5 - oz;
+                    double sq = dx * dx + dy * dy + dz * dz;
+                    if (sq >= bestSq) continue;
+
+                    Block block = world.getBlockAt(x, y, z);
+                    if (verify && block.getType() != type) {
+                        chunk.set(x, y, z, block.getType()); // Changed without an event
+                        continue;
+                    }
+                    if (filter != null && !filter.test(block)) continue;
+                    best = block;
+                    bestSq = sq;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Count indexed blocks by type within origin ± radius (any thread).
+     */
+    public Map<Material, Integer> countNearby(World world, int x, int y, int z, int radius) {
+        Map<Material, Integer> counts = new EnumMap<>(Material.class);
+        WorldIndex index = world == null ? null : worlds.get(world.getUID());
+        if (index == null) {
+            return counts;
+        }
+        for (int[] section : sectionsInBox(index, x, y, z, radius, radius)) {
+            ChunkIndex chunk = index.chunks.get(chunkKey(section[0], section[2]));
+            if (chunk == null) continue;
+            for (int id = 0; id < INDEXED.length; id++) {
+                BitSet bits = chunk.copy(section[1], id);
+                if (bits == null) continue;
+                int count = 0;
+                for (int bit = bits.nextSetBit(0); bit >= 0; bit = bits.nextSetBit(bit + 1)) {
+                    int bx = (section[0] << 4) | (bit & 15);
+                    int by = (section[1] << 4) | (bit >> 8);
+                    int bz = (section[2] << 4) | ((bit >> 4) & 15);
+                    if (Math.abs(bx - x) <= radius && Math.abs(by - y) <= radius && Math.abs(bz - z) <= radius) {
+                        count++;
+                    }
+                }
+                if (count > 0) {
+                    counts.merge(INDEXED[id], count, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    public int getIndexedChunkCount() {
+        int total = 0;
+        for (WorldIndex index : worlds.values()) {
+            total += index.chunks.size();
+        }
+        return total;
+    }
+
+    public int getPendingChunkCount() {
+        return pending.size() + scanning.size();
+    }
+
+    // =========================
+    // HELPERS
+    // =========================
+
+    private static boolean isInteresting(Material m) {
+        String name = m.name();
+        if (name.endsWith("_ORE") || name.endsWith("_LOG") || name.endsWith("_STEM")) {
+            return true;
+        }
+        return switch (m) {
+            case ANCIENT_DEBRIS, DIAMOND_BLOCK,
+                 WHEAT, CARROTS, POTATOES, BEETROOTS, MELON, PUMPKIN, SUGAR_CANE,
+                 FURNACE, BLAST_FURNACE, SMOKER, CRAFTING_TABLE,
+                 LAVA, WATER -> true;
+            default -> false;
+        };
+    }
+
+    private static int denseId(Material type) {
+        return type == null ? -1 : DENSE_ID[type.ordinal()];
+    }
+
+    /** Sections {cx, sy, cz} overlapping the box that exist in the index. */
+    private static List<int[]> sectionsInBox(WorldIndex index, int x, int y, int z, int h, int v) {
+        List<int[]> sections = new ArrayList<>();
+        for (int cx = (x - h) >> 4; cx <= (x + h) >> 4; cx++) {
+            for (int cz = (z - h) >> 4; cz <= (z + h) >> 4; cz++) {
+                ChunkIndex chunk = index.chunks.get(chunkKey(cx, cz));
+                if (chunk == null) continue;
+                int lo = Math.max((y - v) >> 4, chunk.minSection);
+                int hi = Math.min((y + v) >> 4, chunk.minSection + chunk.sections.length - 1);
+                for (int sy = lo; sy <= hi; sy++) {
+                    if (chunk.sections[sy - chunk.minSection] != null) {
+                        sections.add(new int[] {cx, sy, cz});
+                    }
+                }
+            }
+        }
+        return sections;
+    }
+
+    private static double sectionDistanceSq(int[] s, double x, double y, double z) {
+        double dx = axisGap(x, s[0] << 4);
+        double dy = axisGap(y, s[1] << 4);
+        double dz = axisGap(z, s[2] << 4);
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static double axisGap(double value, int min) {
+        if (value < min) return min - value;
+        if (value > min + 16) return value - (min + 16);
+        return 0.0;
+    }
+
+    private static int bitIndex(int x, int y, int z) {
+        return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+    }
+
+    private static long chunkKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    private static int chunkX(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int chunkZ(long key) {
+        return (int) key;
+    }
+
+    // 26 bits x, 12 bits y, 26 bits z
+    private static long blockKey(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (y & 0xFFF) << 26) | (z & 0x3FFFFFF);
+    }
+
+    private static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    private static int unpackY(long key) {
+        return (int) (key << 26 >> 52);
+    }
+
+    private static int unpackZ(long key) {
+        return (int) (key << 38 >> 38);
+    }
+}
@@ -0,0 +1,26 @@
+package com.freddy.plugin.perception;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+
+/**
+ * Read-only block type source, backed either by the live world (main thread only)
+ * or by a {@link PerceptionSnapshot} (any thread).
+ */
+@FunctionalInterface
+public interface BlockTypeLookup {
+
+    Material getType(int x, int y, int z);
+
+    static BlockTypeLookup of(World world) {
+        return (x, y, z) -> world.getBlockAt(x, y, z).getType();
+    }
+
+    /**
+     * Air test that doesn't go through the server's block registry like
+     * {@link Material#isAir()}, so scans also run against synthetic worlds
+     */
+    static boolean isAir(Material type) {
+        return type == Material.AIR || type == Material.CAVE_AIR || type == Material.VOID_AIR;
+    }
+}
@@ -0,0 +1,194 @@
+package com.freddy.plugin.perception;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Item;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * DroppedItemIndex - dropped item entities bucketed by chunk
+ *
+ * Filled from spawn/drop events (see DroppedItemListener) instead of asking the
+ * entity tracker every tick. Items can roll or float out of the chunk they were
+ * bucketed in, so queries look a few blocks past the requested box and re-bucket
+ * whatever they find; items that were picked up, merged or unloaded without an
+ * event are dropped lazily when a query sees them invalid.
+ *
+ * Main thread only.
+ */
+public class DroppedItemIndex {
+
+    private static final Logger logger = Logger.getLogger("FreddyAI");
+
+    /** Extra blocks searched around a query box to catch items that drifted between chunks */
+    private static final int DRIFT_MARGIN = 8;
+
+    private final Map<UUID, WorldItems> worlds = new HashMap<>();
+
+    private static final class WorldItems {
+        final Map<Long, Set<Item>> byChunk = new HashMap<>();
+        final Map<UUID, Long> chunkOf = new HashMap<>();
+    }
+
+    public void start(Iterable<World> loadedWorlds) {
+        int count = 0;
+        for (World world : loadedWorlds) {
+            for (Item item : world.getEntitiesByClass(Item.class)) {
+                track(item);
+                count++;
+            }
+        }
+        logger.info("[ItemIndex] Tracking " + count + " dropped items");
+    }
+
+    public void stop() {
+        worlds.clear();
+    }
+
+    // =========================
+    // UPDATES
+    // =========================
+
+    public void track(Item item) {
+        if (item == null || item.getWorld() == null) {
+            return;
+        }
+        Location loc = item.getLocation();
+        WorldItems items = worlds.computeIfAbsent(item.getWorld().getUID(), id -> new WorldItems());
+        move(items, item, chunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4));
+    }
+
+    public void forget(Item item) {
+        if (item == null || item.getWorld() == null) {
+            return;
+        }
+        WorldItems items = worlds.get(item.getWorld().getUID());
+        if (items == null) {
+            return;
+        }
+        Long key = items.chunkOf.remove(item.getUniqueId());
+        if (key != null) {
+            removeFromBucket(items, key, item);
+        }
+    }
+
+    public void forgetWorld(World world) {
+        worlds.remove(world.getUID());
+    }
+
+    // =========================
+    // QUERIES
+    // =========================
+
+    /**
+     * Valid dropped items within origin ± radius on every axis (the same box as
+     * {@code getNearbyEntities(radius, radius, radius)})
+     */
+    public List<Item> findNear(Location origin, double radius) {
+        World world = origin.getWorld();
+        WorldItems items = world == null ? null : worlds.get(world.getUID());
+        List<Item> result = new ArrayList<>();
+        if (items == null || items.chunkOf.isEmpty()) {
+            return result;
+        }
+
+        double ox = origin.getX();
+        double oy = origin.getY();
+        double oz = origin.getZ();
+        int reach = (int) Math.ceil(radius) + DRIFT_MARGIN;
+        int minCx = (origin.getBlockX() - reach) >> 4;
+        int maxCx = (origin.getBlockX() + reach) >> 4;
+        int minCz = (origin.getBlockZ() - reach) >> 4;
+        int maxCz = (origin.getBlockZ() + reach) >> 4;
+
+        List<Item> stale = null;
+        List<Item> drifted = null;
+        for (int cx = minCx; cx <= maxCx; cx++) {
+            for (int cz = minCz; cz <= maxCz; cz++) {
+                long key = chunkKey(cx, cz);
+                Set<Item> bucket = items.byChunk.get(key);
+                if (bucket == null) {
+                    continue;
+                }
+                for (Item item : bucket) {
+                    if (!item.isValid()) {
+                        if (stale == null) stale = new ArrayList<>();
+                        stale.add(item);
+                        continue;
+                    }
+                    Location loc = item.getLocation();
+                    if (chunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4) != key) {
+                        if (drifted == null) drifted = new ArrayList<>();
+                        drifted.add(item);
+                    }
+                    if (Math.abs(loc.getX() - ox) <= radius && Math.abs(loc.getY() - oy) <= radius
+                        && Math.abs(loc.getZ() - oz) <= radius) {
+                        result.add(item);
+                    }
+                }
+            }
+        }
+
+        if (stale != null) {
+            for (Item item : stale) {
+                Long key = items.chunkOf.remove(item.getUniqueId());
+                if (key != null) {
+                    removeFromBucket(items, key, item);
+                }
+            }
+        }
+        if (drifted != null) {
+            for (Item item : drifted) {
+                Location loc = item.getLocation();
+                move(items, item, chunkKey(loc.getBlockX() >> 4, loc.getBlockZ() >> 4));
+            }
+        }
+        return result;
+    }
+
+    public int getTrackedCount() {
+        int count = 0;
+        for (WorldItems items : worlds.values()) {
+            count += items.chunkOf.size();
+        }
+        return count;
+    }
+
+    // =========================
+    // INTERNALS
+    // =========================
+
+    private static void move(WorldItems items, Item item, long key) {
+        Long previous = items.chunkOf.put(item.getUniqueId(), key);
+        if (previous != null) {
+            if (previous == key) {
+                return;
+            }
+            removeFromBucket(items, previous, item);
+        }
+        items.byChunk.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(item);
+    }
+
+    private static void removeFromBucket(WorldItems items, long key, Item item) {
+        Set<Item> bucket = items.byChunk.get(key);
+        if (bucket == null) {
+            return;
+        }
+        bucket.remove(item);
+        if (bucket.isEmpty()) {
+            items.byChunk.remove(key);
+        }
+    }
+
+    private static long chunkKey(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,233 @@
+package com.freddy.plugin.perception;
+
+import com.freddy.common.telemetry.PovFrame;
+import com.freddy.plugin.advanced.AdvancedPerception;
+import com.freddy.plugin.advanced.AdvancedWorldState;
+import com.freddy.plugin.ai.FreddyPerception;
+import com.freddy.plugin.ai.FreddyWorldState;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * PerceptionPipeline - moves perception work off the server thread
+ *
+ * Each cycle takes one {@link PerceptionSnapshot} on the main thread (chunk snapshots
+ * plus plain entity data), then builds the world states, the POV, the vision rays and
+ * the dashboard's occupancy grid in parallel on a small daemon worker pool. The finished {@link Frame} is published
+ * as a single volatile reference; consumers read {@link #getLatest(UUID)} and never block.
+ *
+ * State is kept per NPC: at most one cycle is in flight for each, and requests that
+ * arrive while it is running are skipped. Frames carry a per-NPC version so consumers
+ * can tell a new frame from one they have already handled, and consumers state how
+ * stale a frame they accept ({@link #require}), so a cycle only runs when someone
+ * actually needs a newer one.
+ *
+ * Each NPC keeps a {@link VisionCone} whose rays are reused across cycles until a block
+ * change is reported in a section they crossed ({@link #getSectionChanges()}).
+ */
+public class PerceptionPipeline {
+
+    private static final Logger logger = Logger.getLogger("FreddyAI");
+    private static final double POV_RADIUS = 50.0;
+
+    /**
+     * Everything built from one snapshot. Treat the contained states as read-only.
+     * {@code version} counts up by one per published frame of the same NPC.
+     */
+    public record Frame(long version,
+                        PerceptionSnapshot snapshot,
+                        FreddyWorldState worldState,
+                        AdvancedWorldState advancedState,
+                        AIPerception.POVData pov,
+                        VisionCone.Result vision,
+                        PovFrame.Grid occupancy,
+                        long buildMillis) { }
+
+    private final Plugin plugin;
+    private final ExecutorService workers;
+    private final int blockRadius;
+    private final double entityRadius;
+    private final Map<UUID, NpcState> states = new ConcurrentHashMap<>();
+    private final AtomicLong cycles = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final SectionChangeLog sectionChanges = new SectionChangeLog();
+
+    private static final class NpcState {
+        final AtomicBoolean inFlight = new AtomicBoolean();
+        final AtomicLong versions = new AtomicLong();
+        final VisionCone visionCone;
+        volatile Frame latest;
+
+        NpcState(SectionChangeLog changes) {
+            this.visionCone = new VisionCone(changes);
+        }
+    }
+
+    /**
+     * @param workerThreads Builder threads
+     * @param blockRadius Block radius whose chunks are snapshotted (covers the 15-block vision cone by default)
+     * @param entityRadius Box radius for the entity snapshot
+     */
+    public PerceptionPipeline(Plugin plugin, int workerThreads, int blockRadius, double entityRadius) {
+        this.plugin = plugin;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerThreads), daemonFactory("Freddy-perception"));
+        this.blockRadius = blockRadius;
+        this.entityRadius = entityRadius;
+    }
+
+    /**
+     * Start a perception cycle for the NPC. Safe from any thread: off the main thread
+     * the capture is scheduled for the next tick and this returns immediately.
+     */
+    public void requestCycle(Player npc) {
+        if (npc == null || workers.isShutdown()) {
+            return;
+        }
+        NpcState state = states.computeIfAbsent(npc.getUniqueId(), id -> new NpcState(sectionChanges));
+        if (!state.inFlight.compareAndSet(false, true)) {
+            skipped.incrementAndGet();
+            return;
+        }
+        if (Bukkit.isPrimaryThread()) {
+            captureAndBuild(npc, state);
+            return;
+        }
+        try {
+            Bukkit.getScheduler().runTask(plugin, () -> captureAndBuild(npc, state));
+        } catch (Exception e) {
+            // Plugin disabling; nothing will run the capture
+            state.inFlight.set(false);
+        }
+    }
+
+    private void captureAndBuild(Player npc, NpcState state) {
+        PerceptionSnapshot snapshot = null;
+        long changeVersion = 0L;
+        try {
+            if (npc.isValid()) {
+                snapshot = PerceptionSnapshot.capture(npc, blockRadius, entityRadius);
+                changeVersion = sectionChanges.getVersion();
+            }
+        } catch (Exception e) {
+            logger.warning("[PERCEPTION] Snapshot capture failed: " + e.getMessage());
+        }
+        if (snapshot == null) {
+            state.inFlight.set(false);
+            return;
+        }
+
+        final PerceptionSnapshot snap = snapshot;
+        final long snapVersion = changeVersion;
+        long start = System.nanoTime();
+        try {
+            CompletableFuture<FreddyWorldState> worldState =
+                CompletableFuture.supplyAsync(() -> FreddyPerception.fromSnapshot(snap), workers);
+            CompletableFuture<AdvancedWorldState> advancedState =
+                CompletableFuture.supplyAsync(() -> AdvancedPerception.fromSnapshot(snap), workers);
+            CompletableFuture<AIPerception.POVData> pov =
+                CompletableFuture.supplyAsync(() -> new AIPerception(snap, POV_RADIUS).buildPOV(), workers);
+            CompletableFuture<VisionCone.Result> vision =
+                CompletableFuture.supplyAsync(() -> state.visionCone.cast(snap, snap.worldId, snapVersion), workers);
+            CompletableFuture<PovFrame.Grid> occupancy =
+                CompletableFuture.supplyAsync(() -> PovFrames.occupancy(snap, PovFrames.GRID_RADIUS), workers);
+
+            CompletableFuture.allOf(worldState, advancedState, pov, vision, occupancy).whenComplete((ignored, error) -> {
+                try {
+                    if (error != null) {
+                        logger.warning("[PERCEPTION] Frame build failed: " + error.getMessage());
+                        return;
+                    }
+                    state.latest = new Frame(state.versions.incrementAndGet(), snap, worldState.join(), advancedState.join(), pov.join(),
+                        vision.join(), occupancy.join(), (System.nanoTime() - start) / 1_000_000L);
+                    cycles.incrementAndGet();
+                } finally {
+                    state.inFlight.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            state.inFlight.set(false);
+        }
+    }
+
+    /**
+     * Block changes to report so cached vision rays are recast (main thread)
+     */
+    public SectionChangeLog getSectionChanges() {
+        return sectionChanges;
+    }
+
+    /**
+     * @return The NPC's most recent frame, or null before its first cycle completes
+     */
+    public Frame getLatest(UUID npcId) {
+        NpcState state = states.get(npcId);
+        return state != null ? state.latest : null;
+    }
+
+    /**
+     * @return The NPC's most recent frame if captured within maxAgeMs, otherwise null
+     */
+    public Frame getLatest(UUID npcId, long maxAgeMs) {
+        Frame frame = getLatest(npcId);
+        return frame != null && frame.snapshot().ageMillis() <= maxAgeMs ? frame : null;
+    }
+
+    /**
+     * The NPC's most recent frame, starting a new cycle when it is older than
+     * {@code maxAgeMs} (or missing). Never blocks: the caller gets the current frame,
+     * possibly stale or null, and a later call sees the refreshed one.
+     */
+    public Frame require(Player npc, long maxAgeMs) {
+        if (npc == null) {
+            return null;
+        }
+        Frame frame = getLatest(npc.getUniqueId());
+        if (frame == null || frame.snapshot().ageMillis() > maxAgeMs) {
+            requestCycle(npc);
+        }
+        return frame;
+    }
+
+    /**
+     * Drop state for an NPC that is no longer driven by an agent
+     */
+    public void forget(UUID npcId) {
+        states.remove(npcId);
+    }
+
+    public long getCycleCount() {
+        return cycles.get();
+    }
+
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+        states.clear();
+    }
+
+    private static ThreadFactory daemonFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,237 @@
+package com.freddy.plugin.perception;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.LivingEntity;
+import org.bukkit.entity.Monster;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * PerceptionSnapshot - immutable copy of everything perception needs around the NPC
+ *
+ * Captured on the main thread in one short pass: {@link ChunkSnapshot}s of the loaded
+ * chunks within the block radius, plain-data copies of nearby entities and world
+ * players, the NPC's vitals and inventory, and light/weather/biome at its feet.
+ * After capture the snapshot touches no Bukkit state, so block scans, ray casts and
+ * world-state building can run on any thread.
+ */
+public final class PerceptionSnapshot implements BlockTypeLookup {
+
+    /**
+     * Plain-data copy of an entity at capture time
+     */
+    public record EntityInfo(UUID id, String type, String name, boolean player, boolean monster,
+                             double x, double y, double z, double health, int foodLevel) {
+
+        public static EntityInfo of(Entity entity) {
+            Location loc = entity.getLocation();
+            double health = entity instanceof LivingEntity living ? living.getHealth() : 0;
+            int food = entity instanceof Player p ? p.getFoodLevel() : 0;
+            return new EntityInfo(entity.getUniqueId(), entity.getType().name(), entity.getName(),
+                entity instanceof Player, entity instanceof Monster,
+                loc.getX(), loc.getY(), loc.getZ(), health, food);
+        }
+    }
+
+    public final UUID npcId;
+    public final UUID worldId;
+    public final String worldName;
+    public final double x;
+    public final double y;
+    public final double z;
+    public final float yaw;
+    public final float pitch;
+    public final double npcHealth;
+    public final int npcFoodLevel;
+
+    public final String biome;
+    public final String weather;
+    public final int skyLight;
+    public final int blockLight;
+    public final int lightLevel;
+    public final long worldTime;
+
+    /** Entities within the entity radius, NPC excluded */
+    public final List<EntityInfo> entities;
+    /** Every player in the NPC's world regardless of distance, NPC excluded */
+    public final List<EntityInfo> worldPlayers;
+    public final Map<Material, Integer> inventory;
+    public final long capturedAt;
+
+    private final int minY;
+    private final int maxY;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final ChunkSnapshot[][] chunks;
+
+    private PerceptionSnapshot(Player npc, Location loc, World world, int blockRadius, double entityRadius) {
+        this.npcId = npc.getUniqueId();
+        this.worldId = world.getUID();
+        this.worldName = world.getName();
+        this.x = loc.getX();
+        this.y = loc.getY();
+        this.z = loc.getZ();
+        this.yaw = loc.getYaw();
+        this.pitch = loc.getPitch();
+        this.npcHealth = npc.getHealth();
+        this.npcFoodLevel = npc.getFoodLevel();
+
+        String biomeName;
+        try {
+            biomeName = world.getBiome(loc).toString();
+        } catch (Exception e) {
+            biomeName = "UNKNOWN";
+        }
+        this.biome = biomeName;
+        this.weather = world.isThundering() ? "THUNDER" : world.hasStorm() ? "RAIN" : "CLEAR";
+        Block feet = loc.getBlock();
+        this.skyLight = feet.getLightFromSky();
+        this.blockLight = feet.getLightFromBlocks();
+        this.lightLevel = feet.getLightLevel();
+        this.worldTime = world.getTime();
+
+        List<EntityInfo> nearby = new ArrayList<>();
+        for (Entity e : world.getNearbyEntities(loc, entityRadius, entityRadius, entityRadius)) {
+            if (!e.getUniqueId().equals(npcId)) {
+                nearby.add(EntityInfo.of(e));
+            }
+        }
+        this.entities = Collections.unmodifiableList(nearby);
+
+        List<EntityInfo> players = new ArrayList<>();
+        for (Player p : world.getPlayers()) {
+            if (!p.getUniqueId().equals(npcId)) {
+                players.add(EntityInfo.of(p));
+            }
+        }
+        this.worldPlayers = Collections.unmodifiableList(players);
+
+        Map<Material, Integer> items = new EnumMap<>(Material.class);
+        for (ItemStack item : npc.getInventory().getContents()) {
+            if (item != null && item.getType() != Material.AIR) {
+                items.merge(item.getType(), item.getAmount(), Integer::sum);
+            }
+        }
+        this.inventory = Collections.unmodifiableMap(items);
+
+        // Only already-loaded chunks are copied (with their heightmaps); capture never triggers a chunk load
+        this.minY = world.getMinHeight();
+        this.maxY = world.getMaxHeight();
+        this.minChunkX = (loc.getBlockX() - blockRadius) >> 4;
+        this.minChunkZ = (loc.getBlockZ() - blockRadius) >> 4;
+        int spanX = ((loc.getBlockX() + blockRadius) >> 4) - minChunkX + 1;
+        int spanZ = ((loc.getBlockZ() + blockRadius) >> 4) - minChunkZ + 1;
+        this.chunks = new ChunkSnapshot[spanX][spanZ];
+        for (int cx = 0; cx < spanX; cx++) {
+            for (int cz = 0; cz < spanZ; cz++) {
+                if (world.isChunkLoaded(minChunkX + cx, minChunkZ + cz)) {
+                    chunks[cx][cz] = world.getChunkAt(minChunkX + cx, minChunkZ + cz)
+                        .getChunkSnapshot(true, false, false);
+                }
+            }
+        }
+
+        this.capturedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Capture a snapshot around the NPC. Must be called on the main thread.
+     *
+     * @param blockRadius Horizontal block radius whose chunks are copied
+     * @param entityRadius Box radius for the nearby entity list
+     * @return The snapshot, or null if the NPC is not in a world
+     */
+    public static PerceptionSnapshot capture(Player npc, int blockRadius, double entityRadius) {
+        if (npc == null) {
+            return null;
+        }
+        Location loc = npc.getLocation();
+        World world = loc.getWorld();
+        if (world == null) {
+            return null;
+        }
+        return new PerceptionSnapshot(npc, loc, world, blockRadius, entityRadius);
+    }
+
+    /**
+     * Block type at a world position; AIR outside the captured area
+     */
+    @Override
+    public Material getType(int bx, int by, int bz) {
+        if (by < minY || by >= maxY) {
+            return Material.AIR;
+        }
+        int cx = (bx >> 4) - minChunkX;
+        int cz = (bz >> 4) - minChunkZ;
+        if (cx < 0 || cz < 0 || cx >= chunks.length || cz >= chunks[cx].length) {
+            return Material.AIR;
+        }
+        ChunkSnapshot chunk = chunks[cx][cz];
+        return chunk == null ? Material.AIR : chunk.getBlockType(bx & 15, by, bz & 15);
+    }
+
+    /**
+     * Y of the highest non-air block in the column, from the chunk heightmap, or
+     * Integer.MIN_VALUE outside the captured area
+     */
+    public int getHighestBlockY(int bx, int bz) {
+        int cx = (bx >> 4) - minChunkX;
+        int cz = (bz >> 4) - minChunkZ;
+        if (cx < 0 || cz < 0 || cx >= chunks.length || cz >= chunks[cx].length || chunks[cx][cz] == null) {
+            return Integer.MIN_VALUE;
+        }
+        return chunks[cx][cz].getHighestBlockYAt(bx & 15, bz & 15);
+    }
+
+    public int getBlockX() {
+        return (int) Math.floor(x);
+    }
+
+    public int getBlockY() {
+        return (int) Math.floor(y);
+    }
+
+    public int getBlockZ() {
+        return (int) Math.floor(z);
+    }
+
+    public double distanceTo(EntityInfo entity) {
+        return distanceTo(entity.x(), entity.y(), entity.z());
+    }
+
+    public double distanceTo(double tx, double ty, double tz) {
+        double dx = tx - x;
+        double dy = ty - y;
+        double dz = tz - z;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    /**
+     * True if the entity lies inside the axis-aligned box of the given radius
+     */
+    public boolean withinBox(EntityInfo entity, double radius) {
+        return Math.abs(entity.x() - x) <= radius
+            && Math.abs(entity.y() - y) <= radius
+            && Math.abs(entity.z() - z) <= radius;
+    }
+
+    public int countItem(Material material) {
+        return inventory.getOrDefault(material, 0);
+    }
+
+    public long ageMillis() {
+        return System.currentTimeMillis() - capturedAt;
+    }
+}
@@ -0,0 +1,123 @@
+package com.freddy.plugin.perception;
+
+import com.freddy.common.telemetry.PovFrame;
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the {@link PovFrame}s sent to the dashboard from perception results.
+ *
+ * Only data is assembled here; all formatting happens in the dashboard.
+ */
+public final class PovFrames {
+
+    /** Grid radius of the occupancy map (25 × 25 cells) */
+    public static final int GRID_RADIUS = 12;
+    private static final int MAX_BLOCKS = 6;
+
+    private PovFrames() { }
+
+    /**
+     * Players and blocks from an {@link AIPerception} scan; block offsets are those of
+     * the scan (around the area ahead of the NPC)
+     *
+     * @param grid Occupancy map, or null to leave it out
+     */
+    public static PovFrame senses(double x, double y, double z, float yaw,
+                                  AIPerception.POVData pov, PovFrame.Grid grid) {
+        List<PovFrame.Player> players = new ArrayList<>(pov.players.size());
+        for (AIPerception.PlayerPerception p : pov.players) {
+            players.add(new PovFrame.Player(p.name, p.distance, p.angle, p.verticalAngle));
+        }
+        int limit = Math.min(MAX_BLOCKS, pov.blocks.size());
+        List<PovFrame.BlockHit> blocks = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            AIPerception.BlockPerception b = pov.blocks.get(i);
+            blocks.add(new PovFrame.BlockHit(b.blockType,
+                b.relativePosition[0], b.relativePosition[1], b.relativePosition[2], b.distance));
+        }
+        return new PovFrame(PovFrame.Source.SENSES, x, y, z, yaw, pov.environment.biome,
+            pov.environment.skyLight, pov.environment.blockLight, players, blocks, grid);
+    }
+
+    /**
+     * Distinct blocks hit by the vision rays, relative to the NPC's block, and the
+     * players among the sightings
+     */
+    public static PovFrame vision(PerceptionSnapshot snap, VisionCone.Result cone) {
+        int bx = snap.getBlockX();
+        int by = snap.getBlockY();
+        int bz = snap.getBlockZ();
+        List<PovFrame.BlockHit> blocks = new ArrayList<>(cone.hitCount());
+        Set<VisionCone.Hit> seen = new HashSet<>();
+        for (VisionCone.Hit hit : cone.rays()) {
+            // Neighbouring rays often stop on the same block; the records differ only by distance
+            if (hit != null && seen.add(new VisionCone.Hit(hit.type(), hit.x(), hit.y(), hit.z(), 0.0))) {
+                blocks.add(new PovFrame.BlockHit(hit.type().name(),
+                    hit.x() - bx, hit.y() - by, hit.z() - bz, hit.distance()));
+            }
+        }
+        List<PovFrame.Player> players = new ArrayList<>();
+        for (VisionCone.Sighting sighting : cone.sightings()) {
+            PerceptionSnapshot.EntityInfo e = sighting.entity();
+            if (e.player()) {
+                players.add(new PovFrame.Player(e.name(), sighting.distance(),
+                    relativeYaw(snap, e), verticalAngle(snap, e)));
+            }
+        }
+        return new PovFrame(PovFrame.Source.VISION, snap.x, snap.y, snap.z, snap.yaw, snap.biome,
+            snap.skyLight, snap.blockLight, players, blocks, null);
+    }
+
+    /**
+     * Top-down occupancy from the snapshot's heightmaps; safe off the main thread
+     */
+    public static PovFrame.Grid occupancy(PerceptionSnapshot snap, int radius) {
+        int cx = snap.getBlockX();
+        int cz = snap.getBlockZ();
+        int side = 2 * radius + 1;
+        char[] cells = new char[side * side];
+        int i = 0;
+        for (int z = cz - radius; z <= cz + radius; z++) {
+            for (int x = cx - radius; x <= cx + radius; x++) {
+                int top = snap.getHighestBlockY(x, z);
+                cells[i++] = top == Integer.MIN_VALUE ? PovFrame.Grid.UNKNOWN : cellCode(snap.getType(x, top, z));
+            }
+        }
+        for (PerceptionSnapshot.EntityInfo e : snap.entities) {
+            int dx = (int) Math.floor(e.x()) - cx;
+            int dz = (int) Math.floor(e.z()) - cz;
+            if (Math.abs(dx) <= radius && Math.abs(dz) <= radius) {
+                cells[(dz + radius) * side + dx + radius] = PovFrame.Grid.ENTITY;
+            }
+        }
+        cells[radius * side + radius] = PovFrame.Grid.SELF;
+        return new PovFrame.Grid(radius, new String(cells));
+    }
+
+    private static char cellCode(Material type) {
+        if (BlockTypeLookup.isAir(type)) return PovFrame.Grid.EMPTY;
+        if (type == Material.WATER) return PovFrame.Grid.WATER;
+        if (type == Material.LAVA) return PovFrame.Grid.LAVA;
+        String name = type.name();
+        if (name.endsWith("_LEAVES") || name.endsWith("_LOG")) return PovFrame.Grid.FOLIAGE;
+        return PovFrame.Grid.SOLID;
+    }
+
+    private static double relativeYaw(PerceptionSnapshot snap, PerceptionSnapshot.EntityInfo e) {
+        double angle = Math.toDegrees(Math.atan2(e.x() - snap.x, e.z() - snap.z)) - snap.yaw;
+        while (angle > 180) angle -= 360;
+        while (angle < -180) angle += 360;
+        return angle;
+    }
+
+    private static double verticalAngle(PerceptionSnapshot snap, PerceptionSnapshot.EntityInfo e) {
+        double dx = e.x() - snap.x;
+        double dz = e.z() - snap.z;
+        return Math.toDegrees(Math.atan2(e.y() - snap.y, Math.sqrt(dx * dx + dz * dz)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.freddy.plugin.perception;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+
+/**
+ * SectionChangeLog - which 16³ chunk sections had blocks change, and when
+ *
+ * Every reported change bumps a version counter and stamps the section with it, so a
+ * cache built at version {@code v} can ask whether any section it read from changed
+ * since. Only the most recently changed sections are remembered; asking about a version
+ * older than the oldest forgotten stamp answers "changed" to stay safe.
+ *
+ * Changes are reported on the main thread; queries come from perception workers.
+ */
+public final class SectionChangeLog {
+
+    private static final int MAX_TRACKED_SECTIONS = 4096;
+
+    private record SectionRef(UUID world, long section) { }
+
+    private final LinkedHashMap<SectionRef, Long> changedAt = new LinkedHashMap<>();
+    private long version;
+    private long forgottenVersion;
+
+    public synchronized void markChanged(World world, int x, int y, int z) {
+        SectionRef ref = new SectionRef(world.getUID(), sectionKey(x, y, z));
+        version++;
+        changedAt.remove(ref);
+        changedAt.put(ref, version);
+        if (changedAt.size() > MAX_TRACKED_SECTIONS) {
+            Iterator<Long> eldest = changedAt.values().iterator();
+            forgottenVersion = eldest.next();
+            eldest.remove();
+        }
+    }
+
+    public void markChanged(Block block) {
+        markChanged(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    public synchronized void forgetWorld(World world) {
+        UUID worldId = world.getUID();
+        changedAt.keySet().removeIf(ref -> ref.world().equals(worldId));
+    }
+
+    /**
+     * Current version; read on the main thread right after a snapshot is captured to
+     * date what the snapshot contains
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * True if the section (see {@link #sectionKey}) may have changed after {@code since}
+     */
+    public synchronized boolean changedSince(UUID world, long section, long since) {
+        if (forgottenVersion > since) {
+            return true;
+        }
+        if (version == since) {
+            return false;
+        }
+        Long at = changedAt.get(new SectionRef(world, section));
+        return at != null && at > since;
+    }
+
+    public static long sectionKey(int x, int y, int z) {
+        return ((long) (x >> 4) & 0x3FFFFFL) << 42 | ((long) (z >> 4) & 0x3FFFFFL) << 20 | ((long) (y >> 4) & 0xFFFFFL);
+    }
+}
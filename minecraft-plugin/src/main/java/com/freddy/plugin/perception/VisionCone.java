@@ -0,0 +1,290 @@
+package com.freddy.plugin.perception;
+
+import org.bukkit.Material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * VisionCone - the rays behind the dashboard's line-of-sight view
+ *
+ * A fixed grid of rays fans out around the view direction from the NPC's eyes. Each ray
+ * walks the voxel grid with a DDA (Amanatides-Woo) traversal: it visits every block it
+ * passes through, in order, with a few additions per step and no trigonometry, and
+ * stops at the first non-air block.
+ *
+ * An instance is a per-NPC cache. When the eye position and view angles are unchanged
+ * (after rounding to 1/16 block and 0.5°), a ray is reused as long as none of the
+ * chunk sections it crossed changed since it was cast, per the {@link SectionChangeLog}.
+ * Everything is recast after {@link #MAX_REUSE_MS} in case a change was never reported.
+ * One thread at a time per instance (the pipeline runs one cycle per NPC at a time).
+ */
+public final class VisionCone {
+
+    public static final int RAY_COLUMNS = 3;
+    public static final int RAY_ROWS = 5;
+    public static final int RAY_COUNT = RAY_COLUMNS * RAY_ROWS;
+    public static final double RAY_DISTANCE = 15.0;
+    private static final double EYE_HEIGHT = 1.62;
+    private static final double HORIZONTAL_SPREAD = 0.15;
+    private static final double VERTICAL_SPREAD = 0.10;
+    private static final int MAX_SIGHTINGS = 5;
+    private static final long MAX_REUSE_MS = 10000L;
+
+    /**
+     * First block a ray hit, in world coordinates; {@code distance} from the eye in blocks
+     */
+    public record Hit(Material type, int x, int y, int z, double distance) { }
+
+    /**
+     * An entity in front of the NPC (within 90° of the view direction)
+     */
+    public record Sighting(PerceptionSnapshot.EntityInfo entity, double distance, double angleDegrees) { }
+
+    /**
+     * @param rays Row-major, top row first, left to right; null where nothing was hit
+     * @param recast Rays traced this time (the rest came from the cache)
+     */
+    public record Result(Hit[] rays, int hitCount, List<Sighting> sightings, int recast) { }
+
+    private final SectionChangeLog changes;
+
+    // Cache of the previous cast
+    private UUID cachedWorld;
+    private double[] cachedView;
+    private long cachedVersion;
+    private long cachedAt;
+    private Hit[] cachedRays;
+    private long[][] cachedSections;
+
+    /**
+     * @param changes Change log the cache is validated against; null disables caching
+     */
+    public VisionCone(SectionChangeLog changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * Cast from a snapshot, reusing unaffected rays of the previous cast
+     *
+     * @param version {@link SectionChangeLog#getVersion()} read when the snapshot was captured
+     */
+    public Result cast(PerceptionSnapshot snap, UUID worldId, long version) {
+        double ox = quantize(snap.x, 16.0);
+        double oy = quantize(snap.y + EYE_HEIGHT, 16.0);
+        double oz = quantize(snap.z, 16.0);
+        float yaw = (float) quantize(snap.yaw, 2.0);
+        float pitch = (float) quantize(snap.pitch, 2.0);
+        double[] view = {ox, oy, oz, yaw, pitch};
+
+        boolean reusable = changes != null && cachedRays != null
+            && worldId.equals(cachedWorld) && Arrays.equals(view, cachedView)
+            && version >= cachedVersion
+            && System.currentTimeMillis() - cachedAt <= MAX_REUSE_MS;
+
+        Hit[] rays = new Hit[RAY_COUNT];
+        long[][] sections = new long[RAY_COUNT][];
+        double[] dirs = directions(yaw, pitch);
+        int recast = 0;
+        for (int i = 0; i < RAY_COUNT; i++) {
+            if (reusable && unchanged(worldId, cachedSections[i])) {
+                rays[i] = cachedRays[i];
+                sections[i] = cachedSections[i];
+                continue;
+            }
+            SectionTrail trail = new SectionTrail();
+            rays[i] = trace(snap, ox, oy, oz, dirs[i * 3], dirs[i * 3 + 1], dirs[i * 3 + 2], RAY_DISTANCE, trail);
+            sections[i] = trail.toArray();
+            recast++;
+        }
+
+        if (changes != null) {
+            if (!reusable) {
+                cachedAt = System.currentTimeMillis();
+            }
+            cachedWorld = worldId;
+            cachedView = view;
+            cachedVersion = version;
+            cachedRays = rays;
+            cachedSections = sections;
+        }
+        return new Result(rays, countHits(rays), sightings(ox, oy, oz, dirs, snap.entities), recast);
+    }
+
+    /**
+     * Uncached cast from a position at foot level
+     */
+    public static Result castOnce(double x, double y, double z, float yaw, float pitch, BlockTypeLookup blocks,
+                                  List<PerceptionSnapshot.EntityInfo> entities) {
+        double oy = y + EYE_HEIGHT;
+        double[] dirs = directions(yaw, pitch);
+        Hit[] rays = new Hit[RAY_COUNT];
+        for (int i = 0; i < RAY_COUNT; i++) {
+            rays[i] = trace(blocks, x, oy, z, dirs[i * 3], dirs[i * 3 + 1], dirs[i * 3 + 2], RAY_DISTANCE, null);
+        }
+        return new Result(rays, countHits(rays), sightings(x, oy, z, dirs, entities), RAY_COUNT);
+    }
+
+    private boolean unchanged(UUID worldId, long[] sections) {
+        for (long section : sections) {
+            if (changes.changedSince(worldId, section, cachedVersion)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Unit direction of every ray (x, y, z triples). The centre ray follows yaw/pitch;
+     * the others are offset along the view's right and up axes.
+     */
+    private static double[] directions(float yaw, float pitch) {
+        double yawRad = Math.toRadians(yaw);
+        double pitchRad = Math.toRadians(pitch);
+        double cosPitch = Math.cos(pitchRad);
+        double fx = -Math.sin(yawRad) * cosPitch;
+        double fy = -Math.sin(pitchRad);
+        double fz = Math.cos(yawRad) * cosPitch;
+        // Right is horizontal; up completes the frame
+        double rx = -Math.cos(yawRad);
+        double rz = -Math.sin(yawRad);
+        double ux = -rz * fy;
+        double uy = rz * fx - rx * fz;
+        double uz = rx * fy;
+
+        double[] dirs = new double[RAY_COUNT * 3];
+        int i = 0;
+        for (int row = 0; row < RAY_ROWS; row++) {
+            double v = (RAY_ROWS / 2 - row) * VERTICAL_SPREAD;
+            for (int col = 0; col < RAY_COLUMNS; col++) {
+                double h = (col - RAY_COLUMNS / 2) * HORIZONTAL_SPREAD;
+                double dx = fx + h * rx + v * ux;
+                double dy = fy + v * uy;
+                double dz = fz + h * rz + v * uz;
+                double len = Math.sqrt(dx * dx + dy * dy + dz * dz);
+                dirs[i++] = dx / len;
+                dirs[i++] = dy / len;
+                dirs[i++] = dz / len;
+            }
+        }
+        return dirs;
+    }
+
+    /**
+     * Walk the blocks a ray passes through, starting with the one after the origin's
+     *
+     * @param trail Receives every section the ray entered, or null
+     * @return First non-air block within maxDistance, or null
+     */
+    static Hit trace(BlockTypeLookup blocks, double ox, double oy, double oz,
+                     double dx, double dy, double dz, double maxDistance, SectionTrail trail) {
+        int x = (int) Math.floor(ox);
+        int y = (int) Math.floor(oy);
+        int z = (int) Math.floor(oz);
+        int stepX = dx > 0 ? 1 : dx < 0 ? -1 : 0;
+        int stepY = dy > 0 ? 1 : dy < 0 ? -1 : 0;
+        int stepZ = dz > 0 ? 1 : dz < 0 ? -1 : 0;
+        // Distance along the ray to cross one whole block on each axis
+        double deltaX = stepX != 0 ? Math.abs(1.0 / dx) : Double.POSITIVE_INFINITY;
+        double deltaY = stepY != 0 ? Math.abs(1.0 / dy) : Double.POSITIVE_INFINITY;
+        double deltaZ = stepZ != 0 ? Math.abs(1.0 / dz) : Double.POSITIVE_INFINITY;
+        // Distance along the ray to the next block boundary on each axis
+        double nextX = stepX > 0 ? (x + 1 - ox) * deltaX : stepX < 0 ? (ox - x) * deltaX : Double.POSITIVE_INFINITY;
+        double nextY = stepY > 0 ? (y + 1 - oy) * deltaY : stepY < 0 ? (oy - y) * deltaY : Double.POSITIVE_INFINITY;
+        double nextZ = stepZ > 0 ? (z + 1 - oz) * deltaZ : stepZ < 0 ? (oz - z) * deltaZ : Double.POSITIVE_INFINITY;
+
+        if (trail != null) {
+            trail.add(SectionChangeLog.sectionKey(x, y, z));
+        }
+        while (true) {
+            double t;
+            if (nextX < nextY && nextX < nextZ) {
+                x += stepX;
+                t = nextX;
+                nextX += deltaX;
+            } else if (nextY < nextZ) {
+                y += stepY;
+                t = nextY;
+                nextY += deltaY;
+            } else {
+                z += stepZ;
+                t = nextZ;
+                nextZ += deltaZ;
+            }
+            if (t > maxDistance) {
+                return null;
+            }
+            if (trail != null) {
+                trail.add(SectionChangeLog.sectionKey(x, y, z));
+            }
+            Material type = blocks.getType(x, y, z);
+            if (!BlockTypeLookup.isAir(type)) {
+                return new Hit(type, x, y, z, t);
+            }
+        }
+    }
+
+    private static List<Sighting> sightings(double ox, double oy, double oz, double[] dirs,
+                                            List<PerceptionSnapshot.EntityInfo> entities) {
+        if (entities == null || entities.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // The centre ray is the view direction
+        int centre = (RAY_ROWS / 2 * RAY_COLUMNS + RAY_COLUMNS / 2) * 3;
+        double fx = dirs[centre];
+        double fy = dirs[centre + 1];
+        double fz = dirs[centre + 2];
+        List<Sighting> seen = new ArrayList<>(MAX_SIGHTINGS);
+        for (PerceptionSnapshot.EntityInfo entity : entities) {
+            if (seen.size() >= MAX_SIGHTINGS) {
+                break;
+            }
+            double ex = entity.x() - ox;
+            double ey = entity.y() - oy;
+            double ez = entity.z() - oz;
+            double dot = ex * fx + ey * fy + ez * fz;
+            if (dot > 0) {
+                double distance = Math.sqrt(ex * ex + ey * ey + ez * ez);
+                seen.add(new Sighting(entity, distance, Math.toDegrees(Math.acos(Math.min(1.0, dot / distance)))));
+            }
+        }
+        return seen;
+    }
+
+    private static int countHits(Hit[] rays) {
+        int n = 0;
+        for (Hit hit : rays) {
+            if (hit != null) n++;
+        }
+        return n;
+    }
+
+    private static double quantize(double value, double steps) {
+        return Math.round(value * steps) / steps;
+    }
+
+    /**
+     * Distinct sections along one ray, in order (a ray crosses only a handful)
+     */
+    static final class SectionTrail {
+        private long[] keys = new long[4];
+        private int size;
+
+        void add(long key) {
+            if (size > 0 && keys[size - 1] == key) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            keys[size++] = key;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(keys, size);
+        }
+    }
+}